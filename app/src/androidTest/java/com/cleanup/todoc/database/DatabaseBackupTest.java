@@ -0,0 +1,201 @@
+package com.cleanup.todoc.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import com.cleanup.todoc.model.database.DatabaseBackup;
+import com.cleanup.todoc.model.database.TodocDatabase;
+import com.cleanup.todoc.model.database.TodocDatabaseConfig;
+import com.cleanup.todoc.model.pojos.BackupReport;
+import com.cleanup.todoc.model.pojos.Project;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Instrumented tests of {@link DatabaseBackup}, on the database file of a test workspace
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseBackupTest {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final String WORKSPACE = "test_backup";
+
+    private Context mContext;
+    private TodocDatabase mDatabase;
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    @Before
+    public void setUp() {
+        this.mContext = InstrumentationRegistry.getTargetContext();
+        this.clean();
+
+        this.mDatabase = TodocDatabase.getInstance(this.mContext, TodocDatabaseConfig.DEFAULT, WORKSPACE);
+    }
+
+    @After
+    public void tearDown() {
+        this.clean();
+    }
+
+    /**
+     * Deletes the database file and the backups of the test workspace
+     */
+    private void clean() {
+        TodocDatabase.deleteWorkspace(this.mContext, WORKSPACE);
+
+        final File versionsDirectory = new File(new File(this.mContext.getFilesDir(), "backups"), WORKSPACE);
+        final File[] versions = versionsDirectory.listFiles();
+        if (versions != null) {
+            for (File version : versions) {
+                final File[] files = version.listFiles();
+                if (files != null) {
+                    for (File file : files) {
+                        file.delete();
+                    }
+                }
+                version.delete();
+            }
+        }
+        versionsDirectory.delete();
+    }
+
+    /**
+     * Returns the number of projects of a database (opens its file on the first call)
+     * @param database a {@link TodocDatabase}
+     * @return an integer
+     */
+    private int getProjectCount(final TodocDatabase database) {
+        return database.mProjectDao().getProjectsWithCountList().size();
+    }
+
+    @Test
+    public void backup_shouldCopyOnlyAChangedFile() throws IOException {
+        final DatabaseBackup backup = new DatabaseBackup(this.mContext, this.mDatabase, WORKSPACE, 7);
+        this.getProjectCount(this.mDatabase);
+
+        // TEST: A first version, then nothing to copy
+        assertEquals(BackupReport.Status.COPIED, backup.backup().getStatus());
+        assertEquals(BackupReport.Status.UNCHANGED, backup.backup().getStatus());
+
+        // THEN: Changes the database
+        this.mDatabase.mProjectDao().insertProject(new Project("Client", 0xFFEADAD1));
+
+        // TEST: A second version
+        final BackupReport report = backup.backup();
+        assertEquals(BackupReport.Status.COPIED, report.getStatus());
+        assertEquals(2, backup.getVersions().size());
+        assertEquals(report.getVersion(), backup.getVersions().get(0));
+    }
+
+    @Test
+    public void backup_beyondTheMaximum_shouldDeleteTheOldestVersion() throws IOException {
+        final DatabaseBackup backup = new DatabaseBackup(this.mContext, this.mDatabase, WORKSPACE, 1);
+
+        backup.backup();
+        this.mDatabase.mProjectDao().insertProject(new Project("Client", 0xFFEADAD1));
+        final BackupReport report = backup.backup();
+
+        // TEST: Only the last version is kept
+        assertEquals(1, backup.getVersions().size());
+        assertEquals(report.getVersion(), backup.getVersions().get(0));
+    }
+
+    @Test
+    public void backup_whileWriting_shouldCopyASoundFile() throws IOException, InterruptedException {
+        final DatabaseBackup backup = new DatabaseBackup(this.mContext, this.mDatabase, WORKSPACE, 7);
+        for (int i = 0; i < 500; i++) {
+            this.mDatabase.mProjectDao().insertProject(new Project("Project " + i, 0xFFEADAD1));
+        }
+
+        // BEFORE: Writes go on into the log during the backup
+        final Thread writer = new Thread(() -> {
+            for (int i = 0; i < 500; i++) {
+                this.mDatabase.mProjectDao().insertProject(new Project("Client " + i, 0xFFEADAD1));
+            }
+        });
+        writer.start();
+        final BackupReport report = backup.backup();
+        writer.join();
+
+        // THEN: Restores the version
+        assertEquals(BackupReport.Status.COPIED, report.getStatus());
+        backup.restore(report.getVersion());
+
+        // TEST: The copy is a sound file, with every project of the first transactions
+        final TodocDatabase restoredDatabase = TodocDatabase.getInstance(this.mContext, TodocDatabaseConfig.DEFAULT, WORKSPACE);
+        try (Cursor cursor = restoredDatabase.getOpenHelper().getReadableDatabase().query("PRAGMA quick_check")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals("ok", cursor.getString(0));
+        }
+        assertTrue(this.getProjectCount(restoredDatabase) >= 500);
+    }
+
+    @Test
+    public void restore_shouldReopenTheDatabaseOfTheVersion() throws IOException {
+        final DatabaseBackup backup = new DatabaseBackup(this.mContext, this.mDatabase, WORKSPACE, 7);
+        final int projectCount = this.getProjectCount(this.mDatabase);
+        final String version = backup.backup().getVersion();
+        assertNotNull(version);
+
+        // BEFORE: Changes the database after the backup
+        this.mDatabase.mProjectDao().insertProject(new Project("Client", 0xFFEADAD1));
+
+        // THEN: Restores the version
+        backup.restore(version);
+
+        // TEST: A new instance, on the file of the version
+        final TodocDatabase restoredDatabase = TodocDatabase.getInstance(this.mContext, TodocDatabaseConfig.DEFAULT, WORKSPACE);
+        assertNotSame(this.mDatabase, restoredDatabase);
+        assertEquals(projectCount, this.getProjectCount(restoredDatabase));
+    }
+
+    @Test
+    public void restore_withCorruptedVersion_shouldKeepTheDatabase() throws IOException {
+        final DatabaseBackup backup = new DatabaseBackup(this.mContext, this.mDatabase, WORKSPACE, 7);
+        this.getProjectCount(this.mDatabase);
+        final String version = backup.backup().getVersion();
+        assertNotNull(version);
+
+        this.mDatabase.mProjectDao().insertProject(new Project("Client", 0xFFEADAD1));
+        final int projectCount = this.getProjectCount(this.mDatabase);
+
+        // BEFORE: Changes a byte of the copy
+        final File versionDirectory = new File(new File(new File(this.mContext.getFilesDir(), "backups"), WORKSPACE), version);
+        try (RandomAccessFile file = new RandomAccessFile(new File(versionDirectory, TodocDatabase.getDatabaseName(WORKSPACE)), "rw")) {
+            file.seek(file.length() - 1);
+            final int lastByte = file.read();
+            file.seek(file.length() - 1);
+            file.write(lastByte ^ 0xFF);
+        }
+
+        // THEN: Restores the version
+        try {
+            backup.restore(version);
+            fail("A corrupted version must not be restored");
+        }
+        catch (IOException e) {
+            // TEST: The database is still open, unchanged
+            final List<String> versions = backup.getVersions();
+            assertEquals(1, versions.size());
+            assertEquals(projectCount, this.getProjectCount(this.mDatabase));
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.cleanup.todoc.database;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.room.Room;
+import android.content.Context;
+import android.database.Cursor;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import com.cleanup.todoc.model.database.ConfiguredOpenHelperFactory;
+import com.cleanup.todoc.model.database.DatabaseMaintenance;
+import com.cleanup.todoc.model.database.TodocDatabase;
+import com.cleanup.todoc.model.database.TodocDatabaseConfig;
+import com.cleanup.todoc.model.pojos.MaintenanceReport;
+import com.cleanup.todoc.model.pojos.Project;
+import com.cleanup.todoc.model.pojos.Task;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Instrumented tests of {@link DatabaseMaintenance}, on a database file
+ * (the vacuum has nothing to give back in memory)
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseMaintenanceTest {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final String DATABASE_NAME = "DatabaseMaintenanceTest.db";
+    private static final int TASK_COUNT = 2000;
+
+    private TodocDatabase mDatabase;
+    private DatabaseMaintenance mMaintenance;
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    @Before
+    public void setUp() {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        context.deleteDatabase(DATABASE_NAME);
+
+        this.mDatabase = Room.databaseBuilder(context, TodocDatabase.class, DATABASE_NAME)
+                             .setJournalMode(TodocDatabaseConfig.DEFAULT.getJournalMode())
+                             .openHelperFactory(new ConfiguredOpenHelperFactory(TodocDatabaseConfig.DEFAULT))
+                             .addCallback(TodocDatabase.auxiliaryStructures())
+                             .allowMainThreadQueries()
+                             .build();
+
+        this.mMaintenance = new DatabaseMaintenance(this.mDatabase,
+                                                    TodocDatabaseConfig.DEFAULT.getMaintenanceWriteBudgetMillis());
+    }
+
+    @After
+    public void tearDown() {
+        this.mDatabase.close();
+        InstrumentationRegistry.getTargetContext().deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void deleteTasks_Then_run_shouldReclaimTheFreePages() {
+        // BEFORE: Adds then removes for good a lot of tasks
+        final long projectId = this.mDatabase.mProjectDao().insertProject(new Project("Project", 0xFFEADAD1));
+        final long[] taskIds = new long[TASK_COUNT];
+
+        this.mDatabase.runInTransaction(() -> {
+            for (int i = 0; i < TASK_COUNT; i++) {
+                taskIds[i] = this.mDatabase.mTaskDao().insertTask(new Task(projectId,
+                                                                           "A task with a rather long name " + i,
+                                                                           i));
+            }
+        });
+        this.mDatabase.runInTransaction(() -> {
+            for (long taskId : taskIds) {
+                this.mDatabase.mTaskDao().deleteTaskById(taskId);
+            }
+        });
+
+        final MaintenanceReport report = this.mMaintenance.run(new AtomicBoolean(false));
+
+        // TEST: Every step has run on a sound file
+        assertTrue(report.isCompleted());
+        assertTrue(report.isIntegrityOk());
+        assertEquals(3, report.getSteps().size());
+        assertEquals(DatabaseMaintenance.STEP_ANALYZE, report.getSteps().get(0).getName());
+        assertEquals(DatabaseMaintenance.STEP_VACUUM, report.getSteps().get(1).getName());
+        assertEquals(DatabaseMaintenance.STEP_QUICK_CHECK, report.getSteps().get(2).getName());
+
+        // TEST: The vacuum has given pages back
+        assertTrue(report.getSteps().get(1).getReclaimedBytes() > 0L);
+    }
+
+    @Test
+    public void run_fileNotInIncrementalMode_shouldConvertItWhateverTheBudget() {
+        // BEFORE: A file of the versions before the incremental auto-vacuum, with some tasks
+        final long projectId = this.mDatabase.mProjectDao().insertProject(new Project("Project", 0xFFEADAD1));
+        this.mDatabase.runInTransaction(() -> {
+            for (int i = 0; i < TASK_COUNT; i++) {
+                this.mDatabase.mTaskDao().insertTask(new Task(projectId, "A task with a rather long name " + i, i));
+            }
+        });
+
+        final SupportSQLiteDatabase db = this.mDatabase.getOpenHelper().getWritableDatabase();
+        db.execSQL("PRAGMA auto_vacuum = NONE");
+        db.execSQL("VACUUM");
+        assertEquals(0L, longForQuery(db, "PRAGMA auto_vacuum"));
+
+        // THEN: Runs the maintenance with the smallest budget
+        final MaintenanceReport report = new DatabaseMaintenance(this.mDatabase, 1L).run(new AtomicBoolean(false));
+
+        // TEST: The conversion has run once, and its time is reported against the budget
+        assertEquals(2L, longForQuery(db, "PRAGMA auto_vacuum"));
+
+        final MaintenanceReport.Step vacuum = report.getSteps().get(1);
+        assertEquals(DatabaseMaintenance.STEP_VACUUM, vacuum.getName());
+        assertEquals(vacuum.getLongestWriteLockMillis() > 1L, vacuum.isOverBudget());
+
+        // TEST: The ANALYZE reports its time against the budget too
+        final MaintenanceReport.Step analyze = report.getSteps().get(0);
+        assertEquals(analyze.getLongestWriteLockMillis() > 1L, analyze.isOverBudget());
+        assertTrue(report.isIntegrityOk());
+    }
+
+    @Test
+    public void run_cancelled_shouldNotRunAnyStep() {
+        final MaintenanceReport report = this.mMaintenance.run(new AtomicBoolean(true));
+
+        // TEST: Nothing has run
+        assertFalse(report.isCompleted());
+        assertTrue(report.getSteps().isEmpty());
+        assertNull(report.getIntegrity());
+    }
+
+    /**
+     * Returns the integer of the first column of the first row of a query
+     * @param db  a {@link SupportSQLiteDatabase}
+     * @param sql a {@link String} that contains the query
+     * @return an integer
+     */
+    private static long longForQuery(final SupportSQLiteDatabase db, final String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getLong(0);
+        }
+    }
+}
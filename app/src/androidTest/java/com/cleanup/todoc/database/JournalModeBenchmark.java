@@ -0,0 +1,111 @@
+package com.cleanup.todoc.database;
+
+import android.arch.persistence.room.Room;
+import android.arch.persistence.room.RoomDatabase;
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.cleanup.todoc.model.database.ConfiguredOpenHelperFactory;
+import com.cleanup.todoc.model.database.TodocDatabase;
+import com.cleanup.todoc.model.database.TodocDatabaseConfig;
+import com.cleanup.todoc.model.pojos.Project;
+import com.cleanup.todoc.model.pojos.Task;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Benchmark of the mixed read/write throughput of {@link TodocDatabase}
+ * with the rollback journal (before) and with write-ahead logging (after).
+ * The results are in the logcat (tag "JournalModeBenchmark").
+ */
+@RunWith(AndroidJUnit4.class)
+public class JournalModeBenchmark {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final String TAG = "JournalModeBenchmark";
+    private static final String DATABASE_NAME = "JournalModeBenchmark.db";
+
+    private static final long DURATION_MILLIS = 3000L;
+    private static final int READ_PAGE_SIZE = 50;
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    @Test
+    public void mixedReadWrite_truncate_Then_writeAheadLogging() throws InterruptedException {
+        final long[] truncate = this.run(RoomDatabase.JournalMode.TRUNCATE);
+        final long[] wal = this.run(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING);
+
+        Log.i(TAG, "TRUNCATE: " + truncate[0] + " writes, " + truncate[1] + " reads in " + DURATION_MILLIS + " ms");
+        Log.i(TAG, "WAL:      " + wal[0] + " writes, " + wal[1] + " reads in " + DURATION_MILLIS + " ms");
+
+        // TEST: Both modes have run
+        assertTrue(truncate[0] > 0 && truncate[1] > 0);
+        assertTrue(wal[0] > 0 && wal[1] > 0);
+    }
+
+    /**
+     * Runs one writer thread and one reader thread during {@link #DURATION_MILLIS}
+     * and returns the number of writes and of reads
+     * @param journalMode a {@link RoomDatabase.JournalMode}
+     * @return an array of 2 integers: the number of writes then the number of reads
+     * @throws InterruptedException if the threads are interrupted
+     */
+    private long[] run(final RoomDatabase.JournalMode journalMode) throws InterruptedException {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        context.deleteDatabase(DATABASE_NAME);
+
+        final TodocDatabaseConfig config = new TodocDatabaseConfig(journalMode,
+                                                                   TodocDatabaseConfig.DEFAULT.getCacheSizeKib(),
+                                                                   TodocDatabaseConfig.DEFAULT.getPageSize(),
+                                                                   TodocDatabaseConfig.Synchronous.NORMAL,
+                                                                   1,
+                                                                   0L,
+                                                                   TodocDatabaseConfig.DEFAULT.getMaintenanceWriteBudgetMillis(),
+                                                                   TodocDatabaseConfig.DEFAULT.getMaxOpenWorkspaces());
+        final TodocDatabase database = Room.databaseBuilder(context, TodocDatabase.class, DATABASE_NAME)
+                                           .setJournalMode(journalMode)
+                                           .openHelperFactory(new ConfiguredOpenHelperFactory(config))
+                                           .addCallback(TodocDatabase.auxiliaryStructures())
+                                           .build();
+
+        final long projectId = database.mProjectDao().insertProject(new Project("Project", 0xFFEADAD1));
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong writes = new AtomicLong();
+        final AtomicLong reads = new AtomicLong();
+
+        final Thread writer = new Thread(() -> {
+            while (running.get()) {
+                database.mTaskDao().insertTask(new Task(projectId, "Task " + writes.get(), System.nanoTime()));
+                writes.incrementAndGet();
+            }
+        });
+        final Thread reader = new Thread(() -> {
+            while (running.get()) {
+                database.mTaskDao().getTasksCreatedBefore(Long.MAX_VALUE, Long.MAX_VALUE, READ_PAGE_SIZE);
+                reads.incrementAndGet();
+            }
+        });
+
+        writer.start();
+        reader.start();
+        Thread.sleep(DURATION_MILLIS);
+        running.set(false);
+        writer.join();
+        reader.join();
+
+        database.close();
+        context.deleteDatabase(DATABASE_NAME);
+
+        return new long[] {writes.get(), reads.get()};
+    }
+}
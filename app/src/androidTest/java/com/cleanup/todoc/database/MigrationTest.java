@@ -0,0 +1,108 @@
+package com.cleanup.todoc.database;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.db.framework.FrameworkSQLiteOpenHelperFactory;
+import android.arch.persistence.room.Room;
+import android.arch.persistence.room.testing.MigrationTestHelper;
+import android.database.Cursor;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import com.cleanup.todoc.model.database.TodocDatabase;
+import com.cleanup.todoc.model.pojos.TaskWithProject;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Instrumented tests of the migrations of {@link TodocDatabase}, from the schemas exported by Room
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final String DATABASE_NAME = "MigrationTest.db";
+    private static final int LAST_VERSION = 13;
+
+    @Rule
+    public MigrationTestHelper mHelper = new MigrationTestHelper(InstrumentationRegistry.getInstrumentation(),
+                                                                 TodocDatabase.class.getCanonicalName(),
+                                                                 new FrameworkSQLiteOpenHelperFactory());
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    @Test
+    public void migrate_fromVersion1_shouldValidateEverySchemaAndKeepTheTasks() throws IOException {
+        // BEFORE: A database of the first version, with a task
+        final SupportSQLiteDatabase db = this.mHelper.createDatabase(DATABASE_NAME, 1);
+        db.execSQL("INSERT INTO `project` (`id`, `name`, `color`) VALUES (1, 'Project', -1385775)");
+        db.execSQL("INSERT INTO `task` (`id`, `project_id`, `name`, `creation_timestamp`) " +
+                   "VALUES (1, 1, 'Task', 1546300800000)");
+        db.close();
+
+        // Room checks the tables of the last version against its exported schema
+        final SupportSQLiteDatabase migrated = this.mHelper.runMigrationsAndValidate(DATABASE_NAME,
+                                                                                     LAST_VERSION,
+                                                                                     true,
+                                                                                     TodocDatabase.MIGRATIONS);
+
+        // TEST: The partial indexes of every version are there
+        assertTrue(isPartialIndex(migrated, "index_task_name"));
+        assertTrue(isPartialIndex(migrated, "index_task_completed_at"));
+        assertTrue(isPartialIndex(migrated, "index_task_creation_day"));
+
+        // TEST: The backfills of the new columns wait for the opening
+        try (Cursor cursor = migrated.query("SELECT COUNT(*) FROM `backfill_progress` WHERE `completed` = 0")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(2, cursor.getInt(0));
+        }
+    }
+
+    @Test
+    public void migrate_fromVersion8_Then_open_shouldReadTheTasks() throws IOException {
+        // BEFORE: A database of version 8, the last one before completed_at and creation_day
+        final SupportSQLiteDatabase db = this.mHelper.createDatabase(DATABASE_NAME, 8);
+        db.execSQL("INSERT INTO `project` (`id`, `name`, `color`) VALUES (1, 'Project', -1385775)");
+        db.execSQL("INSERT INTO `task` (`id`, `project_id`, `name`, `creation_timestamp`) " +
+                   "VALUES (1, 1, 'Task', 1546300800000)");
+        db.close();
+
+        this.mHelper.runMigrationsAndValidate(DATABASE_NAME, LAST_VERSION, true, TodocDatabase.MIGRATIONS);
+
+        // Room opens the migrated file, with the structures it does not manage
+        final TodocDatabase database = Room.databaseBuilder(InstrumentationRegistry.getTargetContext(),
+                                                            TodocDatabase.class,
+                                                            DATABASE_NAME)
+                                           .addCallback(TodocDatabase.auxiliaryStructures())
+                                           .addMigrations(TodocDatabase.MIGRATIONS)
+                                           .allowMainThreadQueries()
+                                           .build();
+        this.mHelper.closeWhenFinished(database);
+
+        // TEST: The task has been kept
+        final List<TaskWithProject> tasks = database.mTaskDao().getTasksCreatedBefore(Long.MAX_VALUE, Long.MAX_VALUE, 10);
+        assertEquals(1, tasks.size());
+        assertEquals("Task", tasks.get(0).getTask().getName());
+    }
+
+    /**
+     * Returns true if the index exists and is partial
+     * @param db        a {@link SupportSQLiteDatabase}
+     * @param indexName a {@link String} that contains the name of the index
+     * @return a boolean
+     */
+    private static boolean isPartialIndex(final SupportSQLiteDatabase db, final String indexName) {
+        try (Cursor cursor = db.query("SELECT `sql` FROM `sqlite_master` WHERE `type` = 'index' AND `name` = ?",
+                                      new Object[] {indexName})) {
+            return cursor.moveToFirst() && cursor.getString(0).contains(" WHERE ");
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.cleanup.todoc.database;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import com.cleanup.todoc.model.database.TodocDatabase;
+import com.cleanup.todoc.model.database.TodocDatabaseConfig;
+import com.cleanup.todoc.model.pojos.Project;
+import com.cleanup.todoc.repositories.TaskWriteEngine;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Instrumented tests of the workspaces of {@link TodocDatabase}: one database file by workspace
+ * and a pool of the open instances bounded by {@link TodocDatabaseConfig#getMaxOpenWorkspaces()}
+ */
+@RunWith(AndroidJUnit4.class)
+public class WorkspaceTest {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final String[] WORKSPACES = {"test_a", "test_b", "test_c"};
+
+    private Context mContext;
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    @Before
+    public void setUp() {
+        this.mContext = InstrumentationRegistry.getTargetContext();
+
+        for (String workspace : WORKSPACES) {
+            TodocDatabase.deleteWorkspace(this.mContext, workspace);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        for (String workspace : WORKSPACES) {
+            TodocDatabase.deleteWorkspace(this.mContext, workspace);
+        }
+    }
+
+    /**
+     * Returns the instance of a workspace with the default config
+     * @param workspace a {@link String} that contains the name of the workspace
+     * @return the {@link TodocDatabase}
+     */
+    private TodocDatabase getInstance(final String workspace) {
+        return TodocDatabase.getInstance(this.mContext, TodocDatabaseConfig.DEFAULT, workspace);
+    }
+
+    @Test
+    public void getInstance_shouldOpenAFileByWorkspace() {
+        final TodocDatabase databaseA = this.getInstance(WORKSPACES[0]);
+        final TodocDatabase databaseB = this.getInstance(WORKSPACES[1]);
+
+        // TEST: Same workspace, same instance
+        assertSame(databaseA, this.getInstance(WORKSPACES[0]));
+        assertNotSame(databaseA, databaseB);
+
+        // BEFORE: Adds a project in the first workspace only
+        final int projectCountB = databaseB.mProjectDao().getProjectsWithCountList().size();
+        databaseA.mProjectDao().insertProject(new Project("Client A", 0xFFEADAD1));
+
+        // TEST: The workspaces do not share their rows
+        assertEquals(projectCountB + 1, databaseA.mProjectDao().getProjectsWithCountList().size());
+        assertEquals(projectCountB, databaseB.mProjectDao().getProjectsWithCountList().size());
+        assertTrue(this.mContext.getDatabasePath(TodocDatabase.getDatabaseName(WORKSPACES[0])).exists());
+    }
+
+    @Test
+    public void getInstance_beyondTheMaximum_shouldCloseTheLeastRecentlyUsedWorkspace() {
+        // BEFORE: Fills the pool (3 workspaces), the default workspace of the application last
+        this.getInstance(TodocDatabase.DEFAULT_WORKSPACE);
+        final TodocDatabase databaseA = this.getInstance(WORKSPACES[0]);
+        final TodocDatabase databaseB = this.getInstance(WORKSPACES[1]);
+        this.getInstance(TodocDatabase.DEFAULT_WORKSPACE);
+        databaseA.mProjectDao().getProjectsWithCountList();
+        assertTrue(databaseA.isOpen());
+
+        // THEN: Opens a fourth workspace
+        this.getInstance(WORKSPACES[2]);
+
+        // TEST: The least recently used one has been closed, the other ones are kept
+        assertFalse(databaseA.isOpen());
+        assertSame(databaseB, this.getInstance(WORKSPACES[1]));
+    }
+
+    @Test
+    public void getInstance_beyondTheMaximum_shouldReleaseTheStatementsOfTheEvictedWorkspace() {
+        // BEFORE: Writes through the engine of a workspace, then evicts it from the pool
+        final TodocDatabase databaseA = this.getInstance(WORKSPACES[0]);
+        final TaskWriteEngine writeEngine = new TaskWriteEngine(databaseA);
+        final long projectId = databaseA.mProjectDao().insertProject(new Project("Client A", 0xFFEADAD1));
+        writeEngine.insertTask(projectId, "Before the eviction", 1L);
+
+        this.getInstance(TodocDatabase.DEFAULT_WORKSPACE);
+        this.getInstance(WORKSPACES[1]);
+        this.getInstance(WORKSPACES[2]);
+        assertFalse(databaseA.isOpen());
+
+        // TEST: The engine compiles its statements again on the new connection
+        final long taskId = writeEngine.insertTask(projectId, "After the eviction", 2L);
+        assertEquals(1, writeEngine.updateTaskName(taskId, "Renamed"));
+
+        // The instance out of the pool is not closed by deleteWorkspace
+        databaseA.close();
+    }
+
+    @Test
+    public void deleteWorkspace_shouldDeleteItsFile() {
+        // BEFORE: Creates the file of a workspace
+        this.getInstance(WORKSPACES[0]).mProjectDao().getProjectsWithCountList();
+
+        // TEST: The file is deleted
+        assertTrue(TodocDatabase.deleteWorkspace(this.mContext, WORKSPACES[0]));
+        assertFalse(this.mContext.getDatabasePath(TodocDatabase.getDatabaseName(WORKSPACES[0])).exists());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getDatabaseName_withInvalidName_shouldThrowException() {
+        TodocDatabase.getDatabaseName("../TodocDatabase");
+    }
+}
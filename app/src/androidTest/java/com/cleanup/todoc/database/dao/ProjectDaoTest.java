@@ -9,6 +9,8 @@ import android.support.test.runner.AndroidJUnit4;
 import com.cleanup.todoc.database.utils.LiveDataTestUtil;
 import com.cleanup.todoc.model.database.TodocDatabase;
 import com.cleanup.todoc.model.pojos.Project;
+import com.cleanup.todoc.model.pojos.ProjectWithCount;
+import com.cleanup.todoc.model.pojos.Task;
 
 import org.junit.After;
 import org.junit.Before;
@@ -134,6 +136,30 @@ public class ProjectDaoTest {
         assertEquals(expectedProject, projects.get(1));
     }
 
+    @Test
+    public void insertProjectsAndTasks_Then_getProjectsWithCount_shouldCountTasks() throws InterruptedException {
+        // BEFORE: Adds 2 projects and 2 tasks to the first one
+        this.mDatabase.mProjectDao()
+                .insertProject(FIRST_PROJECT);
+        this.mDatabase.mProjectDao()
+                .insertProject(SECOND_PROJECT);
+        this.mDatabase.mTaskDao()
+                .insertTask(new Task(FIRST_PROJECT_ID, "Task 1", 0));
+        this.mDatabase.mTaskDao()
+                .insertTask(new Task(FIRST_PROJECT_ID, "Task 2", 1));
+
+        // THEN: Retrieves all the projects with their count of tasks
+        final List<ProjectWithCount> projects = LiveDataTestUtil.getValue(this.mDatabase.mProjectDao()
+                .getProjectsWithCount());
+
+        // TEST: The project without task is kept with 0
+        assertEquals(2, projects.size());
+        assertEquals(FIRST_PROJECT_ID, projects.get(0).getProject().getId());
+        assertEquals(2, projects.get(0).getTaskCount());
+        assertEquals(SECOND_PROJECT_ID, projects.get(1).getProject().getId());
+        assertEquals(0, projects.get(1).getTaskCount());
+    }
+
     // -- UPDATE --
 
     @Test
@@ -10,6 +10,9 @@ import com.cleanup.todoc.database.utils.LiveDataTestUtil;
 import com.cleanup.todoc.model.database.TodocDatabase;
 import com.cleanup.todoc.model.pojos.Project;
 import com.cleanup.todoc.model.pojos.Task;
+import com.cleanup.todoc.model.pojos.TaskDayCount;
+import com.cleanup.todoc.model.pojos.TaskSummary;
+import com.cleanup.todoc.model.pojos.TaskWithProject;
 
 import org.junit.After;
 import org.junit.Before;
@@ -17,10 +20,14 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 
 @RunWith(AndroidJUnit4.class)
@@ -47,6 +54,7 @@ public class TaskDaoTest {
     public void setUp() {
         this.mDatabase = Room.inMemoryDatabaseBuilder(InstrumentationRegistry.getContext(),
                 TodocDatabase.class)
+                .addCallback(TodocDatabase.auxiliaryStructures())
                 .allowMainThreadQueries()
                 .build();
 
@@ -74,6 +82,19 @@ public class TaskDaoTest {
         assertEquals(FIRST_TASK_ID, insertResult);
     }
 
+    @Test
+    public void insertTasks_shouldBeSuccess() throws InterruptedException {
+        final long[] insertResult = this.mDatabase.mTaskDao()
+                .insertTasks(Arrays.asList(FIRST_TASK, SECOND_TASK));
+
+        // TEST: Good Ids
+        assertArrayEquals(new long[] {FIRST_TASK_ID, SECOND_TASK_ID}, insertResult);
+
+        // TEST: Size
+        final List<TaskSummary> tasks = LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getTasks());
+        assertEquals(2, tasks.size());
+    }
+
     @Test(expected = SQLiteConstraintException.class)
     public void insertTask_shouldThrowSQLiteConstraintException() throws SQLiteConstraintException {
         // BEFORE: Create task with a project id that is not present in project table
@@ -96,7 +117,7 @@ public class TaskDaoTest {
 
     @Test
     public void getTasks_shouldBeEmpty() throws InterruptedException {
-        final List<Task> tasks = LiveDataTestUtil.getValue(this.mDatabase.mTaskDao()
+        final List<TaskSummary> tasks = LiveDataTestUtil.getValue(this.mDatabase.mTaskDao()
                 .getTasks());
 
         // TEST: Size
@@ -130,27 +151,109 @@ public class TaskDaoTest {
                 .insertTask(SECOND_TASK);
 
         // THEN: Retrieves all the tasks
-        final List<Task> tasks = LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getTasks());
+        final List<TaskSummary> tasks = LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getTasks());
 
         // TEST: Size
         assertEquals(2, tasks.size());
 
         // TEST: First task
-        Task expectedTask;
-        expectedTask = new Task(FIRST_TASK_ID,
+        TaskSummary expectedTask;
+        expectedTask = new TaskSummary(FIRST_TASK_ID,
                 FIRST_TASK.getProjectId(),
                 FIRST_TASK.getName(),
                 FIRST_TASK.getCreationTimestamp());
         assertEquals(expectedTask, tasks.get(0));
 
         // TEST: Second task
-        expectedTask = new Task(SECOND_TASK_ID,
+        expectedTask = new TaskSummary(SECOND_TASK_ID,
                 SECOND_TASK.getProjectId(),
                 SECOND_TASK.getName(),
                 SECOND_TASK.getCreationTimestamp());
         assertEquals(expectedTask, tasks.get(1));
     }
 
+    @Test
+    public void insertTasks_Then_getTasksAlphabetical_shouldBeSortedIgnoringCase() throws InterruptedException {
+        // BEFORE: Adds 3 tasks
+        this.mDatabase.mTaskDao().insertTask(new Task(1, "zzz", 0));
+        this.mDatabase.mTaskDao().insertTask(new Task(1, "AAA", 1));
+        this.mDatabase.mTaskDao().insertTask(new Task(1, "hhh", 2));
+
+        // THEN: Retrieves the tasks from A to Z then from Z to A
+        final List<TaskSummary> tasksAZ = LiveDataTestUtil.getValue(this.mDatabase.mTaskDao()
+                .getTasksAlphabetical());
+        final List<TaskSummary> tasksZA = LiveDataTestUtil.getValue(this.mDatabase.mTaskDao()
+                .getTasksAlphabeticalInverted());
+
+        // TEST: Orders
+        assertEquals("AAA", tasksAZ.get(0).getName());
+        assertEquals("hhh", tasksAZ.get(1).getName());
+        assertEquals("zzz", tasksAZ.get(2).getName());
+
+        assertEquals("zzz", tasksZA.get(0).getName());
+        assertEquals("hhh", tasksZA.get(1).getName());
+        assertEquals("AAA", tasksZA.get(2).getName());
+    }
+
+    @Test
+    public void insertTask_2Times_Then_getTasksByCreation_shouldBeSorted() throws InterruptedException {
+        // BEFORE: Adds 2 tasks
+        this.mDatabase.mTaskDao()
+                .insertTask(FIRST_TASK);
+        this.mDatabase.mTaskDao()
+                .insertTask(SECOND_TASK);
+
+        // THEN: Retrieves the tasks from the most recent then from the oldest
+        final List<TaskSummary> recentTasks = LiveDataTestUtil.getValue(this.mDatabase.mTaskDao()
+                .getTasksRecentFirst());
+        final List<TaskSummary> oldTasks = LiveDataTestUtil.getValue(this.mDatabase.mTaskDao()
+                .getTasksOldFirst());
+
+        // TEST: Orders
+        assertEquals(SECOND_TASK_ID, recentTasks.get(0).getId());
+        assertEquals(FIRST_TASK_ID, recentTasks.get(1).getId());
+
+        assertEquals(FIRST_TASK_ID, oldTasks.get(0).getId());
+        assertEquals(SECOND_TASK_ID, oldTasks.get(1).getId());
+    }
+
+    @Test
+    public void insertTasks_Then_getTasksCreatedBeforeAndAfter_shouldBePagedOnKeys() {
+        // BEFORE: Adds 3 tasks, 2 of them with the same timestamp
+        this.mDatabase.mTaskDao().insertTask(new Task(1, "Task 1", 10));
+        this.mDatabase.mTaskDao().insertTask(new Task(1, "Task 2", 10));
+        this.mDatabase.mTaskDao().insertTask(new Task(1, "Task 3", 20));
+
+        // THEN: Retrieves the pages after the key of the second task, in both orders
+        final List<TaskWithProject> recentTasks = this.mDatabase.mTaskDao()
+                .getTasksCreatedBefore(10, 2, 10);
+        final List<TaskWithProject> oldTasks = this.mDatabase.mTaskDao()
+                .getTasksCreatedAfter(10, 2, 10);
+
+        // TEST: The key is excluded and the ties are broken by id
+        assertEquals(1, recentTasks.size());
+        assertEquals(1, recentTasks.get(0).getTask().getId());
+
+        assertEquals(1, oldTasks.size());
+        assertEquals(3, oldTasks.get(0).getTask().getId());
+    }
+
+    @Test
+    public void insertTask_Then_getTasksCreatedBefore_shouldJoinTheProject() {
+        // BEFORE: Adds a task
+        this.mDatabase.mTaskDao().insertTask(FIRST_TASK);
+
+        // THEN: Retrieves the task with its project
+        final List<TaskWithProject> tasks = this.mDatabase.mTaskDao()
+                .getTasksCreatedBefore(Long.MAX_VALUE, Long.MAX_VALUE, 10);
+
+        // TEST: The name and the color of the project are in the row
+        assertEquals(1, tasks.size());
+        assertEquals(FIRST_TASK_ID, tasks.get(0).getTask().getId());
+        assertEquals("Project 1", tasks.get(0).getProjectName());
+        assertEquals(0xFFEADAD1, tasks.get(0).getProjectColor());
+    }
+
     // -- UPDATE --
 
     @Test
@@ -214,4 +317,172 @@ public class TaskDaoTest {
         // TEST: No delete
         assertEquals(0, deleteResult);
     }
+
+    @Test
+    public void insertTask_2Times_Then_deleteTasksByIds_shouldBeSuccess() {
+        // BEFORE: Adds 2 tasks
+        this.mDatabase.mTaskDao()
+                .insertTask(FIRST_TASK);
+        this.mDatabase.mTaskDao()
+                .insertTask(SECOND_TASK);
+
+        // Then: Deletes the 2 tasks and an unknown one
+        final int deleteResult = this.mDatabase.mTaskDao()
+                .deleteTasksByIds(new long[] {FIRST_TASK_ID, SECOND_TASK_ID, 100});
+
+        // TEST: The 2 tasks are deleted
+        assertEquals(2, deleteResult);
+    }
+
+    // -- TRASH --
+
+    @Test
+    public void insertTask_2Times_Then_softDeleteTaskById_shouldMoveItToTheTrash() throws InterruptedException {
+        // BEFORE: Adds 2 tasks
+        this.mDatabase.mTaskDao()
+                .insertTask(FIRST_TASK);
+        this.mDatabase.mTaskDao()
+                .insertTask(SECOND_TASK);
+
+        // THEN: Moves the first task to the trash, twice
+        final int deleteResult = this.mDatabase.mTaskDao()
+                .softDeleteTaskById(FIRST_TASK_ID, 100);
+        final int secondDeleteResult = this.mDatabase.mTaskDao()
+                .softDeleteTaskById(FIRST_TASK_ID, 200);
+
+        // TEST: The tombstone is written once and the task leaves the lists
+        assertEquals(1, deleteResult);
+        assertEquals(0, secondDeleteResult);
+
+        final List<TaskSummary> tasks = LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getTasks());
+        assertEquals(1, tasks.size());
+        assertEquals(SECOND_TASK_ID, tasks.get(0).getId());
+
+        final Task deletedTask = LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getTaskById(FIRST_TASK_ID));
+        assertEquals(Long.valueOf(100), deletedTask.getDeletedAt());
+    }
+
+    @Test
+    public void softDeleteTaskById_Then_restoreTaskById_shouldBringItBackInTheLists() throws InterruptedException {
+        // BEFORE: Adds a task and moves it to the trash
+        this.mDatabase.mTaskDao()
+                .insertTask(FIRST_TASK);
+        this.mDatabase.mTaskDao()
+                .softDeleteTaskById(FIRST_TASK_ID, 100);
+
+        // THEN: Restores it
+        final int restoreResult = this.mDatabase.mTaskDao()
+                .restoreTaskById(FIRST_TASK_ID);
+
+        // TEST: The task is back
+        assertEquals(1, restoreResult);
+        assertEquals(1, LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getTasks()).size());
+    }
+
+    @Test
+    public void softDeleteTasks_Then_purgeDeletedTasks_shouldOnlyRemoveExpiredTasksByBatch() throws InterruptedException {
+        // BEFORE: Adds 3 tasks, 2 of them moved to the trash at different times
+        this.mDatabase.mTaskDao()
+                .insertTask(FIRST_TASK);
+        this.mDatabase.mTaskDao()
+                .insertTask(SECOND_TASK);
+        this.mDatabase.mTaskDao()
+                .insertTask(new Task(1, "Task 3", 2));
+        this.mDatabase.mTaskDao()
+                .softDeleteTaskById(FIRST_TASK_ID, 100);
+        this.mDatabase.mTaskDao()
+                .softDeleteTaskById(SECOND_TASK_ID, 300);
+
+        // THEN: Purges the tasks deleted before 200, by batches of 1 task
+        final int purgeResult = this.mDatabase.mTaskDao()
+                .purgeDeletedTasks(200, 1);
+        final int nextPurgeResult = this.mDatabase.mTaskDao()
+                .purgeDeletedTasks(200, 1);
+
+        // TEST: Only the expired task is removed
+        assertEquals(1, purgeResult);
+        assertEquals(0, nextPurgeResult);
+        assertNull(LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getTaskById(FIRST_TASK_ID)));
+        assertEquals(Long.valueOf(300),
+                     LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getTaskById(SECOND_TASK_ID)).getDeletedAt());
+        assertEquals(1, LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getTasks()).size());
+    }
+
+    @Test
+    public void setTaskCompletedAt_shouldMoveTheTaskFromTheOpenListToTheCompletedList() throws InterruptedException {
+        // BEFORE: Adds 2 tasks
+        this.mDatabase.mTaskDao()
+                .insertTask(FIRST_TASK);
+        this.mDatabase.mTaskDao()
+                .insertTask(SECOND_TASK);
+
+        // THEN: Marks the first task as done
+        final int completeResult = this.mDatabase.mTaskDao()
+                .setTaskCompletedAt(FIRST_TASK_ID, 100L);
+
+        // TEST: Only the second task is still open
+        assertEquals(1, completeResult);
+
+        final List<TaskSummary> openTasks = LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getTasks());
+        assertEquals(1, openTasks.size());
+        assertEquals(SECOND_TASK_ID, openTasks.get(0).getId());
+
+        final List<TaskSummary> completedTasks = LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getCompletedTasks());
+        assertEquals(1, completedTasks.size());
+        assertEquals(FIRST_TASK_ID, completedTasks.get(0).getId());
+        assertEquals(Long.valueOf(100), completedTasks.get(0).getCompletedAt());
+        assertTrue(completedTasks.get(0).isCompleted());
+    }
+
+    @Test
+    public void setTaskCompletedAt_null_shouldOpenTheTaskAgain() throws InterruptedException {
+        // BEFORE: Adds a task marked as done
+        this.mDatabase.mTaskDao()
+                .insertTask(FIRST_TASK);
+        this.mDatabase.mTaskDao()
+                .setTaskCompletedAt(FIRST_TASK_ID, 100L);
+
+        // THEN: Opens it again
+        final int openResult = this.mDatabase.mTaskDao()
+                .setTaskCompletedAt(FIRST_TASK_ID, null);
+
+        // TEST: The task is back in the open list
+        assertEquals(1, openResult);
+        assertEquals(1, LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getTasks()).size());
+        assertTrue(LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getCompletedTasks()).isEmpty());
+    }
+
+    @Test
+    public void softDeleteTaskById_Then_setTaskCompletedAt_shouldNotUpdate() {
+        // BEFORE: Adds a task and moves it to the trash
+        this.mDatabase.mTaskDao()
+                .insertTask(FIRST_TASK);
+        this.mDatabase.mTaskDao()
+                .softDeleteTaskById(FIRST_TASK_ID, 100);
+
+        // TEST: A task in the trash can not be marked as done
+        assertEquals(0, this.mDatabase.mTaskDao().setTaskCompletedAt(FIRST_TASK_ID, 200L));
+    }
+
+    @Test
+    public void insertTasks_Then_getOpenTaskCountsByDay_shouldGroupTheOpenTasksByDay() throws InterruptedException {
+        // BEFORE: Adds 2 tasks created on a day, then 2 tasks created the next day, one of them done
+        final long day = TimeUnit.DAYS.toMillis(1);
+        final long firstDay = 10 * day + TimeUnit.HOURS.toMillis(12);
+
+        this.mDatabase.mTaskDao()
+                .insertTasks(Arrays.asList(new Task(1, "Task 1", firstDay),
+                                           new Task(1, "Task 2", firstDay + 1),
+                                           new Task(1, "Task 3", firstDay + day),
+                                           new Task(1, "Task 4", firstDay + day + 1)));
+        this.mDatabase.mTaskDao()
+                .setTaskCompletedAt(4, 100L);
+
+        final List<TaskDayCount> dayCounts = LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getOpenTaskCountsByDay());
+
+        // TEST: Last day first, without the done task
+        assertEquals(2, dayCounts.size());
+        assertEquals(new TaskDayCount(Task.getDayOf(firstDay + day), 1), dayCounts.get(0));
+        assertEquals(new TaskDayCount(Task.getDayOf(firstDay), 2), dayCounts.get(1));
+    }
 }
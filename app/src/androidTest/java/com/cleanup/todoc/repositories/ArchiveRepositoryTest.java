@@ -0,0 +1,180 @@
+package com.cleanup.todoc.repositories;
+
+import android.arch.core.executor.testing.InstantTaskExecutorRule;
+import android.arch.paging.LivePagedListBuilder;
+import android.arch.paging.PagedList;
+import android.arch.persistence.room.Room;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import com.cleanup.todoc.database.utils.LiveDataTestUtil;
+import com.cleanup.todoc.model.database.TodocDatabase;
+import com.cleanup.todoc.model.pojos.ArchivedTask;
+import com.cleanup.todoc.model.pojos.Project;
+import com.cleanup.todoc.model.pojos.Task;
+import com.cleanup.todoc.model.pojos.TaskDetails;
+import com.cleanup.todoc.model.pojos.TaskSummary;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Android test on {@link Repository.ArchiveRepository}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ArchiveRepositoryTest {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private TodocDatabase mDatabase;
+    private Repository.ArchiveRepository mRepository;
+
+    // RULES (Synchronized Tests) ------------------------------------------------------------------
+
+    @Rule
+    public InstantTaskExecutorRule mInstantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    @Before
+    public void setUp() {
+        this.mDatabase = Room.inMemoryDatabaseBuilder(InstrumentationRegistry.getContext(),
+                TodocDatabase.class)
+                .addCallback(TodocDatabase.auxiliaryStructures())
+                .allowMainThreadQueries()
+                .build();
+
+        this.mRepository = new ArchiveRepositoryImpl(this.mDatabase);
+
+        // BEFORE: Create a project
+        final long insertResult = this.mDatabase.mProjectDao()
+                .insertProject(new Project ("Project 1", 0xFFEADAD1));
+
+        // TEST: Good Id
+        assertEquals(1, insertResult);
+    }
+
+    @After
+    public void tearDown() {
+        this.mDatabase.close();
+    }
+
+    // -- ARCHIVE --
+
+    @Test
+    public void insertTasks_Then_archiveTasksCompletedBefore_shouldMoveOnlyOldDoneTasksByChunk() throws InterruptedException {
+        // BEFORE: Adds 5 tasks done long ago, 1 task done recently and 1 old open task
+        final List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final Task task = new Task(1, "Old done task " + i, i);
+            task.setCompletedAt((long) i);
+            tasks.add(task);
+        }
+        final Task recentTask = new Task(1, "Recent done task", 5);
+        recentTask.setCompletedAt(100L);
+        tasks.add(recentTask);
+        tasks.add(new Task(1, "Old open task", 6));
+        this.mDatabase.mTaskDao().insertTasks(tasks);
+
+        // THEN: Archives the tasks done before 100, by chunks of 2 tasks
+        assertEquals(2, this.mRepository.archiveTasksCompletedBefore(100, 2));
+        assertEquals(2, this.mRepository.archiveTasksCompletedBefore(100, 2));
+        assertEquals(1, this.mRepository.archiveTasksCompletedBefore(100, 2));
+
+        // TEST: The 5 old done tasks are archived, the recent one and the open one stay in the task table
+        assertEquals(5, (int) LiveDataTestUtil.getValue(this.mRepository.getArchivedTaskCount()));
+
+        final List<TaskSummary> openTasks = LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getTasks());
+        assertEquals(1, openTasks.size());
+        assertEquals("Old open task", openTasks.get(0).getName());
+
+        final List<TaskSummary> completedTasks = LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getCompletedTasks());
+        assertEquals(1, completedTasks.size());
+        assertEquals("Recent done task", completedTasks.get(0).getName());
+
+        // TEST: The archived tasks keep their id and are sorted from last created to first created
+        final PagedList<ArchivedTask> archivedTasks = LiveDataTestUtil.getValue(
+                new LivePagedListBuilder<>(this.mRepository.getArchivedTasksByProjectId(1), 10).build());
+        assertEquals(5, archivedTasks.size());
+        assertEquals(5, archivedTasks.get(0).getId());
+        assertEquals("Old done task 4", archivedTasks.get(0).getName());
+    }
+
+    @Test
+    public void archiveOldTasks_shouldArchiveEveryChunk() throws InterruptedException {
+        // BEFORE: Adds 5 tasks done long ago and an old open task
+        for (int i = 0; i < 5; i++) {
+            final Task task = new Task(1, "Old done task " + i, i);
+            task.setCompletedAt((long) i);
+            this.mDatabase.mTaskDao().insertTask(task);
+        }
+        this.mDatabase.mTaskDao().insertTask(new Task(1, "Old open task", 5));
+
+        // THEN: Archives the done tasks by chunks of 2 tasks, each chunk queued on the calling thread
+        new TaskArchiver(this.mRepository, Runnable::run, 0L, 2).archiveOldTasks();
+
+        // TEST: Every chunk has run
+        assertEquals(5, (int) LiveDataTestUtil.getValue(this.mRepository.getArchivedTaskCount()));
+        assertEquals(1, LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getTasks()).size());
+    }
+
+    @Test
+    public void archiveOldTasks_failingChunk_shouldKeepTheTasks() throws InterruptedException {
+        // BEFORE: Adds a task done long ago
+        final Task task = new Task(1, "Old done task", 0);
+        task.setCompletedAt(0L);
+        this.mDatabase.mTaskDao().insertTask(task);
+
+        // BEFORE: The archiving of a task fails, as on a full disk
+        this.mDatabase.getOpenHelper().getWritableDatabase().execSQL(
+                "CREATE TEMP TRIGGER `fail_archive_insert` BEFORE INSERT ON `task_archive` " +
+                "BEGIN SELECT RAISE(ABORT, 'failed'); END");
+
+        // THEN: Archives the done tasks, on the calling thread
+        new TaskArchiver(this.mRepository, Runnable::run, 0L, 10).archiveOldTasks();
+
+        // TEST: The job has not thrown, the chunk is rolled back
+        assertEquals(0, (int) LiveDataTestUtil.getValue(this.mRepository.getArchivedTaskCount()));
+        assertEquals(1, LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getCompletedTasks()).size());
+    }
+
+    @Test
+    public void archiveTasksCompletedBefore_shouldArchiveNothing() {
+        // BEFORE: Adds an old open task
+        this.mDatabase.mTaskDao().insertTask(new Task(1, "Old open task", 0));
+
+        // TEST: An open task is never archived
+        assertEquals(0, this.mRepository.archiveTasksCompletedBefore(Long.MAX_VALUE, 10));
+    }
+
+    @Test
+    public void archiveTasksCompletedBefore_shouldKeepTheNotesUntilTheArchivedTaskIsDeleted() throws InterruptedException {
+        // BEFORE: Adds an old done task with notes
+        final Task task = new Task(1, "Old task", 0);
+        task.setCompletedAt(0L);
+        this.mDatabase.mTaskDao().insertTask(task);
+        this.mDatabase.mTaskDetailsDao().insertTaskDetails(new TaskDetails(1, "Notes"));
+
+        // THEN: Archives it
+        this.mRepository.archiveTasksCompletedBefore(100, 10);
+
+        // TEST: The notes follow the task into the archive
+        assertEquals(new TaskDetails(1, "Notes"),
+                     LiveDataTestUtil.getValue(this.mDatabase.mTaskDetailsDao().getTaskDetailsByTaskId(1)));
+
+        // THEN: Deletes the archived task
+        this.mRepository.deleteArchivedTaskById(1);
+
+        // TEST: The notes are removed with it
+        assertNull(LiveDataTestUtil.getValue(this.mDatabase.mTaskDetailsDao().getTaskDetailsByTaskId(1)));
+    }
+}
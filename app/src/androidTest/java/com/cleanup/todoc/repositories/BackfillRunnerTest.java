@@ -0,0 +1,158 @@
+package com.cleanup.todoc.repositories;
+
+import android.arch.core.executor.testing.InstantTaskExecutorRule;
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.room.Room;
+import android.database.Cursor;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import com.cleanup.todoc.database.utils.LiveDataTestUtil;
+import com.cleanup.todoc.model.database.TodocDatabase;
+import com.cleanup.todoc.model.database.TodocDatabaseConfig;
+import com.cleanup.todoc.model.pojos.BackfillProgress;
+import com.cleanup.todoc.model.pojos.Project;
+import com.cleanup.todoc.model.pojos.Task;
+import com.cleanup.todoc.model.pojos.TaskDayCount;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Android test on {@link BackfillRunner}: the day of creation of the tasks of a database
+ * migrated from version 9 is filled by chunks, without change of the timeline.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BackfillRunnerTest {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final int TASK_COUNT = 25;
+    private static final int CHUNK_SIZE = 10;
+
+    private TodocDatabase mDatabase;
+    private Repository.TaskRepository mRepository;
+
+    // RULES (Synchronized Tests) ------------------------------------------------------------------
+
+    @Rule
+    public InstantTaskExecutorRule mInstantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    @Before
+    public void setUp() {
+        this.mDatabase = Room.inMemoryDatabaseBuilder(InstrumentationRegistry.getContext(),
+                TodocDatabase.class)
+                .addCallback(TodocDatabase.auxiliaryStructures())
+                .allowMainThreadQueries()
+                .build();
+
+        this.mRepository = new TaskRepositoryImpl(this.mDatabase);
+
+        // BEFORE: Adds tasks on 5 days
+        this.mDatabase.mProjectDao().insertProject(new Project("Project 1", 0xFFEADAD1));
+
+        final long now = System.currentTimeMillis();
+        final List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            tasks.add(new Task(1, "Task " + i, now - TimeUnit.DAYS.toMillis(i % 5)));
+        }
+        this.mDatabase.mTaskDao().insertTasks(tasks);
+
+        // BEFORE: As after MIGRATION_9_10, the day of creation is not filled yet
+        final SupportSQLiteDatabase db = this.mDatabase.getOpenHelper().getWritableDatabase();
+        db.execSQL("UPDATE `task` SET `creation_day` = 0");
+        db.execSQL("INSERT INTO `backfill_progress` (`name`, `last_id`, `completed`) " +
+                   "VALUES ('" + TodocDatabase.BACKFILL_CREATION_DAY + "', 0, 0)");
+    }
+
+    @After
+    public void tearDown() {
+        this.mDatabase.close();
+    }
+
+    /**
+     * Returns a new {@link BackfillRunner} which runs its chunks on the calling thread
+     * @return a {@link BackfillRunner}
+     */
+    private BackfillRunner newRunner() {
+        return new BackfillRunner(this.mDatabase,
+                                  TodocDatabase.BACKFILLS,
+                                  Runnable::run,
+                                  new BusyRetry(TodocDatabaseConfig.DEFAULT.getBusyMaxAttempts(),
+                                                TodocDatabaseConfig.DEFAULT.getBusyInitialDelayMillis()),
+                                  CHUNK_SIZE);
+    }
+
+    /**
+     * Returns the number of tasks whose day of creation is not filled
+     * @return an integer
+     */
+    private int countUnfilledTasks() {
+        try (Cursor cursor = this.mDatabase.query("SELECT COUNT(*) FROM `task` WHERE `creation_day` = 0", null)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+
+    @Test
+    public void start_shouldFillEveryTaskAndCompleteTheProgress() throws InterruptedException {
+        final List<TaskDayCount> countsBefore = LiveDataTestUtil.getValue(this.mRepository.getOpenTaskCountsByDay());
+        final long lastSeqBefore = this.mDatabase.mTaskChangeDao().getLastTaskChangeSeq();
+
+        this.newRunner().start();
+
+        // TEST: Every task is filled and the progress is completed
+        assertEquals(0, this.countUnfilledTasks());
+        assertEquals(new BackfillProgress(TodocDatabase.BACKFILL_CREATION_DAY, TASK_COUNT, true),
+                     this.mDatabase.mBackfillDao().getBackfillProgress(TodocDatabase.BACKFILL_CREATION_DAY));
+
+        // TEST: No change is logged and the timeline is the same with the new column
+        assertEquals(lastSeqBefore, this.mDatabase.mTaskChangeDao().getLastTaskChangeSeq());
+        assertEquals(countsBefore, LiveDataTestUtil.getValue(this.mRepository.getOpenTaskCountsByDay()));
+    }
+
+    @Test
+    public void runChunk_shouldResumeAfterTheLastFilledId() {
+        final BackfillRunner runner = this.newRunner();
+
+        // TEST: A chunk fills the first ids only
+        assertTrue(runner.runChunk(TodocDatabase.BACKFILLS.get(0)));
+        assertEquals(TASK_COUNT - CHUNK_SIZE, this.countUnfilledTasks());
+
+        // THEN: A new runner, as after a restart of the app
+        final BackfillRunner restartedRunner = this.newRunner();
+
+        // TEST: It goes on after the last filled id, then completes the progress
+        assertTrue(restartedRunner.runChunk(TodocDatabase.BACKFILLS.get(0)));
+        assertTrue(restartedRunner.runChunk(TodocDatabase.BACKFILLS.get(0)));
+        assertEquals(0, this.countUnfilledTasks());
+        assertFalse(restartedRunner.runChunk(TodocDatabase.BACKFILLS.get(0)));
+        assertTrue(this.mDatabase.mBackfillDao().getBackfillProgress(TodocDatabase.BACKFILL_CREATION_DAY).isCompleted());
+    }
+
+    @Test
+    public void stop_Then_start_shouldFillNoTask() {
+        final BackfillRunner runner = this.newRunner();
+
+        // THEN: Stopped, as the runner of a workspace whose database is about to be closed
+        runner.stop();
+        runner.start();
+
+        // TEST: No chunk has run, the progress is kept for the next runner
+        assertEquals(TASK_COUNT, this.countUnfilledTasks());
+        assertFalse(this.mDatabase.mBackfillDao().getBackfillProgress(TodocDatabase.BACKFILL_CREATION_DAY).isCompleted());
+    }
+}
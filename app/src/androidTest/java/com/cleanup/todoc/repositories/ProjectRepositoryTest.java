@@ -8,7 +8,10 @@ import android.support.test.runner.AndroidJUnit4;
 
 import com.cleanup.todoc.database.utils.LiveDataTestUtil;
 import com.cleanup.todoc.model.database.TodocDatabase;
+import com.cleanup.todoc.model.pojos.ArchivedTask;
 import com.cleanup.todoc.model.pojos.Project;
+import com.cleanup.todoc.model.pojos.ProjectDeletionProgress;
+import com.cleanup.todoc.model.pojos.Task;
 
 import org.junit.After;
 import org.junit.Before;
@@ -16,9 +19,12 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -57,7 +63,7 @@ public class ProjectRepositoryTest {
                 .allowMainThreadQueries()
                 .build();
 
-        this.mRepository = new ProjectRepositoryImpl(this.mDatabase.mProjectDao());
+        this.mRepository = new ProjectRepositoryImpl(this.mDatabase);
     }
 
     @After
@@ -132,4 +138,72 @@ public class ProjectRepositoryTest {
         assertNull(project);
     }
 
+    // -- DELETE --
+
+    @Test
+    public void deleteProject_shouldDeleteTheTasksByChunksThenTheProject() throws InterruptedException {
+        // BEFORE: Adds 2 projects, 25 tasks and an archived task in the first one, a task in the second one
+        this.mRepository.insertProject(FIRST_PROJECT);
+        this.mRepository.insertProject(SECOND_PROJECT);
+
+        final List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            tasks.add(new Task(FIRST_PROJECT_ID, "Task " + i, i));
+        }
+        tasks.add(new Task(SECOND_PROJECT_ID, "Task of project 2", 0));
+        this.mDatabase.mTaskDao().insertTasks(tasks);
+        this.mDatabase.mArchivedTaskDao().insertArchivedTasks(
+                Collections.singletonList(new ArchivedTask(1000, FIRST_PROJECT_ID, "Archived task", 0, 1)));
+
+        assertEquals(26, this.mRepository.getProjectTaskCount(FIRST_PROJECT_ID));
+
+        // THEN: Deletes the first project by chunks of 10 tasks, on the calling thread
+        final ProjectDeletionProgress progress = LiveDataTestUtil.getValue(
+                new ProjectDeleter(this.mRepository, Runnable::run, 10).deleteProject(FIRST_PROJECT_ID));
+
+        // TEST: The project and all its tasks are deleted, the second project is untouched
+        assertEquals(new ProjectDeletionProgress(FIRST_PROJECT_ID, 26, 26, true), progress);
+        assertEquals(0, this.mRepository.getProjectTaskCount(FIRST_PROJECT_ID));
+        assertNull(LiveDataTestUtil.getValue(this.mRepository.getProjectById(FIRST_PROJECT_ID)));
+        assertEquals(1, this.mRepository.getProjectTaskCount(SECOND_PROJECT_ID));
+    }
+
+    @Test
+    public void deleteProject_failingChunk_shouldPostAFailedProgress() throws InterruptedException {
+        // BEFORE: Adds a project with 5 tasks
+        this.mRepository.insertProject(FIRST_PROJECT);
+
+        final List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tasks.add(new Task(FIRST_PROJECT_ID, "Task " + i, i));
+        }
+        this.mDatabase.mTaskDao().insertTasks(tasks);
+
+        // BEFORE: The deletion of a task fails, as on a full disk
+        this.mDatabase.getOpenHelper().getWritableDatabase().execSQL(
+                "CREATE TEMP TRIGGER `fail_task_delete` BEFORE DELETE ON `task` BEGIN SELECT RAISE(ABORT, 'failed'); END");
+
+        // THEN: Deletes the project by chunks of 10 tasks, on the calling thread
+        final ProjectDeletionProgress progress = LiveDataTestUtil.getValue(
+                new ProjectDeleter(this.mRepository, Runnable::run, 10).deleteProject(FIRST_PROJECT_ID));
+
+        // TEST: The progress ends as failed, the chunk is rolled back and the project is kept
+        assertEquals(new ProjectDeletionProgress(FIRST_PROJECT_ID, 0, 5, false, true), progress);
+        assertEquals(5, this.mRepository.getProjectTaskCount(FIRST_PROJECT_ID));
+        assertNotNull(LiveDataTestUtil.getValue(this.mRepository.getProjectById(FIRST_PROJECT_ID)));
+    }
+
+    @Test
+    public void deleteProjectTasks_shouldStopAtTheChunkSize() {
+        // BEFORE: Adds a project with 3 tasks
+        this.mRepository.insertProject(FIRST_PROJECT);
+        for (int i = 0; i < 3; i++) {
+            this.mDatabase.mTaskDao().insertTask(new Task(FIRST_PROJECT_ID, "Task " + i, i));
+        }
+
+        // TEST: A full chunk, then the rest, then nothing
+        assertEquals(2, this.mRepository.deleteProjectTasks(FIRST_PROJECT_ID, 2));
+        assertEquals(1, this.mRepository.deleteProjectTasks(FIRST_PROJECT_ID, 2));
+        assertEquals(0, this.mRepository.deleteProjectTasks(FIRST_PROJECT_ID, 2));
+    }
 }
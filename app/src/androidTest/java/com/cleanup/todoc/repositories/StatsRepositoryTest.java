@@ -0,0 +1,170 @@
+package com.cleanup.todoc.repositories;
+
+import android.arch.core.executor.testing.InstantTaskExecutorRule;
+import android.arch.persistence.room.Room;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import com.cleanup.todoc.database.utils.LiveDataTestUtil;
+import com.cleanup.todoc.model.database.TodocDatabase;
+import com.cleanup.todoc.model.pojos.BacklogPoint;
+import com.cleanup.todoc.model.pojos.Project;
+import com.cleanup.todoc.model.pojos.Task;
+import com.cleanup.todoc.model.pojos.TaskDailyStats;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Android test on {@link Repository.StatsRepository}: the rollup tables are written
+ * by the triggers of the task table only.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StatsRepositoryTest {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private TodocDatabase mDatabase;
+    private Repository.StatsRepository mRepository;
+
+    private int mToday;
+
+    // RULES (Synchronized Tests) ------------------------------------------------------------------
+
+    @Rule
+    public InstantTaskExecutorRule mInstantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    @Before
+    public void setUp() {
+        this.mDatabase = Room.inMemoryDatabaseBuilder(InstrumentationRegistry.getContext(),
+                TodocDatabase.class)
+                .addCallback(TodocDatabase.auxiliaryStructures())
+                .allowMainThreadQueries()
+                .build();
+
+        this.mRepository = new StatsRepositoryImpl(this.mDatabase);
+
+        // BEFORE: Create 2 projects
+        this.mDatabase.mProjectDao().insertProject(new Project("Project 1", 0xFFEADAD1));
+        this.mDatabase.mProjectDao().insertProject(new Project("Project 2", 0xFFB4CDBA));
+
+        this.mToday = Task.getDayOf(System.currentTimeMillis());
+    }
+
+    @After
+    public void tearDown() {
+        this.mDatabase.close();
+    }
+
+    /**
+     * Returns the timestamp of the noon of a day in the current time zone
+     * @param day an integer that contains the number of days since the epoch
+     * @return a long
+     */
+    private static long noonOf(final int day) {
+        final long utcNoon = day * DAY_MILLIS + DAY_MILLIS / 2;
+        return utcNoon - TimeZone.getDefault().getOffset(utcNoon);
+    }
+
+    // -- CREATED TASKS --
+
+    @Test
+    public void insertTasks_Then_getCreatedTasksByDay_shouldCountByDayAndProject() throws InterruptedException {
+        // BEFORE: Adds 2 tasks yesterday in project 1, 1 task today in each project
+        this.mDatabase.mTaskDao().insertTasks(Arrays.asList(new Task(1, "Task 1", noonOf(this.mToday - 1)),
+                                                            new Task(1, "Task 2", noonOf(this.mToday - 1)),
+                                                            new Task(1, "Task 3", noonOf(this.mToday)),
+                                                            new Task(2, "Task 4", noonOf(this.mToday))));
+
+        // THEN: Moves the first task to the trash, a creation stays counted
+        this.mDatabase.mTaskDao().softDeleteTaskById(1, System.currentTimeMillis());
+
+        final List<TaskDailyStats> stats = LiveDataTestUtil.getValue(this.mRepository.getCreatedTasksByDay(this.mToday - 1));
+
+        // TEST: One row by day and project
+        assertEquals(Arrays.asList(new TaskDailyStats(this.mToday - 1, 1, 2),
+                                   new TaskDailyStats(this.mToday, 1, 1),
+                                   new TaskDailyStats(this.mToday, 2, 1)),
+                     stats);
+    }
+
+    @Test
+    public void insertTasks_Then_getCreatedTasksByWeek_shouldSumTheDaysOfTheWeek() throws InterruptedException {
+        // BEFORE: Adds tasks on 2 days of a week (the day 4 of the epoch is a Monday) and on the next Monday
+        this.mDatabase.mTaskDao().insertTasks(Arrays.asList(new Task(1, "Task 1", noonOf(4)),
+                                                            new Task(1, "Task 2", noonOf(6)),
+                                                            new Task(1, "Task 3", noonOf(11))));
+
+        final List<TaskDailyStats> stats = LiveDataTestUtil.getValue(this.mRepository.getCreatedTasksByWeek(0));
+
+        // TEST: Each week is dated by its Monday
+        assertEquals(Arrays.asList(new TaskDailyStats(4, 1, 2),
+                                   new TaskDailyStats(11, 1, 1)),
+                     stats);
+    }
+
+    @Test
+    public void deleteProject_shouldRemoveItsStats() throws InterruptedException {
+        // BEFORE: Adds a task in each project
+        this.mDatabase.mTaskDao().insertTasks(Arrays.asList(new Task(1, "Task 1", noonOf(this.mToday)),
+                                                            new Task(2, "Task 2", noonOf(this.mToday))));
+
+        // THEN: Deletes the first project
+        this.mDatabase.mProjectDao().deleteProjectById(1);
+
+        // TEST: Only the stats of the second project are left
+        assertEquals(Arrays.asList(new TaskDailyStats(this.mToday, 2, 1)),
+                     LiveDataTestUtil.getValue(this.mRepository.getCreatedTasksByDay(0)));
+    }
+
+    // -- BACKLOG --
+
+    @Test
+    public void openAndCloseTasks_Then_getBacklog_shouldSumTheChangesDayAfterDay() throws InterruptedException {
+        // BEFORE: Adds 2 tasks 2 days ago and 2 tasks today
+        this.mDatabase.mTaskDao().insertTasks(Arrays.asList(new Task(1, "Task 1", noonOf(this.mToday - 2)),
+                                                            new Task(1, "Task 2", noonOf(this.mToday - 2)),
+                                                            new Task(1, "Task 3", noonOf(this.mToday)),
+                                                            new Task(1, "Task 4", noonOf(this.mToday))));
+
+        // THEN: Today, marks a task as done, moves another one to the trash and deletes a third one
+        this.mDatabase.mTaskDao().setTaskCompletedAt(1, System.currentTimeMillis());
+        this.mDatabase.mTaskDao().softDeleteTaskById(2, System.currentTimeMillis());
+        this.mDatabase.mTaskDao().deleteTaskById(3);
+
+        // TEST: From yesterday, the backlog starts at 2 (the day before) and ends at 1
+        final List<BacklogPoint> backlog = LiveDataTestUtil.getValue(this.mRepository.getBacklog(this.mToday - 1));
+        assertEquals(Arrays.asList(new BacklogPoint(this.mToday - 2, 2),
+                                   new BacklogPoint(this.mToday, 1)),
+                     backlog);
+
+        // THEN: Restores the task of the trash
+        this.mDatabase.mTaskDao().restoreTaskById(2);
+
+        // TEST: It is open again
+        final List<BacklogPoint> restoredBacklog = LiveDataTestUtil.getValue(this.mRepository.getBacklog(this.mToday));
+        assertEquals(2, restoredBacklog.get(restoredBacklog.size() - 1).getOpenTaskCount());
+    }
+
+    @Test
+    public void getBacklog_withoutTask_shouldStartAtZero() throws InterruptedException {
+        final List<BacklogPoint> backlog = LiveDataTestUtil.getValue(this.mRepository.getBacklog(this.mToday));
+
+        // TEST: Only the point of the day before, without task
+        assertEquals(Arrays.asList(new BacklogPoint(this.mToday - 1, 0)), backlog);
+    }
+}
@@ -1,6 +1,8 @@
 package com.cleanup.todoc.repositories;
 
 import android.arch.core.executor.testing.InstantTaskExecutorRule;
+import android.arch.paging.LivePagedListBuilder;
+import android.arch.paging.PagedList;
 import android.arch.persistence.room.Room;
 import android.database.sqlite.SQLiteConstraintException;
 import android.support.test.InstrumentationRegistry;
@@ -9,7 +11,12 @@ import android.support.test.runner.AndroidJUnit4;
 import com.cleanup.todoc.database.utils.LiveDataTestUtil;
 import com.cleanup.todoc.model.database.TodocDatabase;
 import com.cleanup.todoc.model.pojos.Project;
+import com.cleanup.todoc.model.pojos.ProjectCounts;
 import com.cleanup.todoc.model.pojos.Task;
+import com.cleanup.todoc.model.pojos.TaskSummary;
+import com.cleanup.todoc.model.pojos.TaskDelta;
+import com.cleanup.todoc.model.pojos.TaskDetails;
+import com.cleanup.todoc.model.pojos.TaskWithProject;
 
 import org.junit.After;
 import org.junit.Before;
@@ -17,9 +24,16 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -54,10 +68,11 @@ public class TaskRepositoryTest {
     public void setUp() {
         this.mDatabase = Room.inMemoryDatabaseBuilder(InstrumentationRegistry.getContext(),
                 TodocDatabase.class)
+                .addCallback(TodocDatabase.auxiliaryStructures())
                 .allowMainThreadQueries()
                 .build();
 
-        this.mRepository = new TaskRepositoryImpl(this.mDatabase.mTaskDao());
+        this.mRepository = new TaskRepositoryImpl(this.mDatabase);
 
         // BEFORE: Create a project
         final long insertResult = this.mDatabase.mProjectDao()
@@ -90,11 +105,35 @@ public class TaskRepositoryTest {
         this.mRepository.insertTask(task);
     }
 
+    @Test
+    public void importTasks_shouldInsertTasksAndCreateMissingProjects() throws IOException, InterruptedException {
+        final String json = "{\"data\": [" +
+                "{\"backgroundTint\": \"#EADAD1\", \"taskName\": \"Task 1\", \"projectName\": \"Project 1\"}," +
+                "{\"backgroundTint\": \"#B4CDBA\", \"taskName\": \"Task 2\", \"projectName\": \"Project 2\"}," +
+                "{\"backgroundTint\": \"#B4CDBA\", \"taskName\": \"Task 3\", \"projectName\": \"Project 2\"}" +
+                "]}";
+        final Repository.ProjectRepository projectRepository = new ProjectRepositoryImpl(this.mDatabase);
+
+        // Chunks of 2 tasks to commit twice
+        final int count = new TaskJsonImporter(projectRepository, this.mRepository, 2)
+                .importTasks(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        // TEST: Number of tasks
+        assertEquals(3, count);
+        assertEquals(3, LiveDataTestUtil.getValue(this.mRepository.getTasks()).size());
+
+        // TEST: Project 1 is reused and Project 2 is created once
+        final List<Project> projects = LiveDataTestUtil.getValue(this.mDatabase.mProjectDao().getProjects());
+        assertEquals(2, projects.size());
+        assertEquals("Project 2", projects.get(1).getName());
+        assertEquals(0xFFB4CDBA, projects.get(1).getColor());
+    }
+
     // -- READ --
 
     @Test
     public void getTasks_shouldBeEmpty() throws InterruptedException {
-        final List<Task> tasks = LiveDataTestUtil.getValue(this.mRepository.getTasks());
+        final List<TaskSummary> tasks = LiveDataTestUtil.getValue(this.mRepository.getTasks());
 
         // TEST: Empty List
         assertTrue(tasks.isEmpty());
@@ -106,21 +145,21 @@ public class TaskRepositoryTest {
         this.mRepository.insertTask(FIRST_TASK);
         this.mRepository.insertTask(SECOND_TASK);
 
-        final List<Task> tasks = LiveDataTestUtil.getValue(this.mRepository.getTasks());
+        final List<TaskSummary> tasks = LiveDataTestUtil.getValue(this.mRepository.getTasks());
 
         // TEST: Size
         assertEquals(2, tasks.size());
 
         // TEST: First task
-        Task expectedTask;
-        expectedTask = new Task(FIRST_TASK_ID,
+        TaskSummary expectedTask;
+        expectedTask = new TaskSummary(FIRST_TASK_ID,
                 FIRST_TASK.getProjectId(),
                 FIRST_TASK.getName(),
                 FIRST_TASK.getCreationTimestamp());
         assertEquals(expectedTask, tasks.get(0));
 
         // TEST: Second task
-        expectedTask = new Task(SECOND_TASK_ID,
+        expectedTask = new TaskSummary(SECOND_TASK_ID,
                 SECOND_TASK.getProjectId(),
                 SECOND_TASK.getName(),
                 SECOND_TASK.getCreationTimestamp());
@@ -152,4 +191,277 @@ public class TaskRepositoryTest {
         // TEST: No delete
         assertEquals(0, deleteResult);
     }
+
+    @Test
+    public void insertTasks_Then_deleteTasksByIds_shouldDeleteAllChunks() throws InterruptedException {
+        // BEFORE: Adds 2 tasks
+        this.mRepository.insertTask(FIRST_TASK);
+        this.mRepository.insertTask(SECOND_TASK);
+
+        // THEN: Deletes them with more ids than a chunk (the second task is in the last chunk)
+        final long[] taskIds = new long[TaskRepositoryImpl.MAX_IDS_BY_STATEMENT + 10];
+        for (int i = 0; i < taskIds.length; i++) {
+            taskIds[i] = 1000 + i;
+        }
+        taskIds[0] = FIRST_TASK_ID;
+        taskIds[taskIds.length - 1] = SECOND_TASK_ID;
+
+        final int deleteResult = this.mRepository.deleteTasksByIds(taskIds);
+
+        // TEST: The 2 tasks are deleted
+        assertEquals(2, deleteResult);
+        assertTrue(LiveDataTestUtil.getValue(this.mRepository.getTasks()).isEmpty());
+    }
+
+    // -- MOVE --
+
+    @Test
+    public void insertTasks_Then_reassignTasks_shouldMoveThemInAllChunks() throws InterruptedException {
+        // BEFORE: Adds a second project and 2 tasks in the first one
+        final long targetProjectId = this.mDatabase.mProjectDao().insertProject(new Project("Project 2", 0xFFB4CDBA));
+        this.mRepository.insertTask(FIRST_TASK);
+        this.mRepository.insertTask(SECOND_TASK);
+
+        // THEN: Moves them with more ids than a chunk (the second task is in the last chunk)
+        final long[] taskIds = new long[TaskRepositoryImpl.MAX_IDS_BY_STATEMENT + 10];
+        for (int i = 0; i < taskIds.length; i++) {
+            taskIds[i] = 1000 + i;
+        }
+        taskIds[0] = FIRST_TASK_ID;
+        taskIds[taskIds.length - 1] = SECOND_TASK_ID;
+
+        // TEST: The 2 tasks are moved, then a second move changes nothing
+        assertEquals(2, this.mRepository.reassignTasks(taskIds, targetProjectId));
+        assertEquals(0, this.mRepository.reassignTasks(taskIds, targetProjectId));
+
+        for (TaskSummary task : LiveDataTestUtil.getValue(this.mRepository.getTasks())) {
+            assertEquals(targetProjectId, task.getProjectId());
+        }
+    }
+
+    // -- MANUAL ORDER --
+
+    @Test
+    public void insertTasks_Then_moveTask_shouldChangeTheManualOrder() {
+        // BEFORE: Adds 3 tasks, in the order of their insertion
+        this.mRepository.insertTask(new Task(1, "Task 1", 0));
+        this.mRepository.insertTask(new Task(1, "Task 2", 1));
+        this.mRepository.insertTask(new Task(1, "Task 3", 2));
+        assertEquals(Arrays.asList(1L, 2L, 3L), this.mDatabase.mTaskDao().getTaskIdsByPosition());
+
+        // TEST: The third task moves to the start, then the first one to the end
+        assertEquals(1, this.mRepository.moveTask(3, 0, 1));
+        assertEquals(Arrays.asList(3L, 1L, 2L), this.mDatabase.mTaskDao().getTaskIdsByPosition());
+
+        assertEquals(1, this.mRepository.moveTask(1, 2, 0));
+        assertEquals(Arrays.asList(3L, 2L, 1L), this.mDatabase.mTaskDao().getTaskIdsByPosition());
+
+        // TEST: A task inserted later goes to the end
+        this.mRepository.insertTask(new Task(1, "Task 4", 3));
+        assertEquals(Arrays.asList(3L, 2L, 1L, 4L), this.mDatabase.mTaskDao().getTaskIdsByPosition());
+    }
+
+    @Test
+    public void moveTask_intoTheSameGap_shouldRebalanceTheLongKeys() {
+        // BEFORE: Adds 4 tasks, the last one done
+        this.mRepository.insertTask(new Task(1, "Task 1", 0));
+        this.mRepository.insertTask(new Task(1, "Task 2", 1));
+        this.mRepository.insertTask(new Task(1, "Task 3", 2));
+        this.mRepository.insertTask(new Task(1, "Task 4", 3));
+        this.mRepository.setTaskCompleted(4, true);
+        final String donePosition = this.mDatabase.mTaskDao().getTaskPosition(4);
+
+        // THEN: The 2 open tasks move in turn just after the first one, the gap halves at each move,
+        //       each move being followed by the rebalancing job of the ViewModel
+        for (int i = 0; i < 200; i++) {
+            final long taskId = (i % 2 == 0) ? 3 : 2;
+
+            assertEquals(1, this.mRepository.moveTask(taskId, 1, (taskId == 3) ? 2 : 3));
+            this.mRepository.rebalancePositions(taskId);
+        }
+
+        // TEST: Same order of the open tasks as after the last move, with keys kept short by the rebalancing
+        final List<Long> taskIds = this.mDatabase.mTaskDao().getTaskIdsByPosition();
+        taskIds.remove(4L);
+        assertEquals(Arrays.asList(1L, 2L, 3L), taskIds);
+        for (long taskId = 1; taskId <= 3; taskId++) {
+            assertTrue(this.mDatabase.mTaskDao().getTaskPosition(taskId).length() <= TaskPosition.MAX_LENGTH);
+        }
+
+        // TEST: The done task keeps its key, and a rebalancing of short keys changes nothing
+        assertEquals(donePosition, this.mDatabase.mTaskDao().getTaskPosition(4));
+        assertEquals(0, this.mRepository.rebalancePositions(2));
+        assertEquals(0, this.mRepository.rebalancePositions(3));
+    }
+
+    @Test
+    public void moveTask_betweenTasksOnTheSameKey_shouldRespaceThem() {
+        // BEFORE: Adds 3 tasks, the 2 first ones on the same key
+        this.mRepository.insertTask(new Task(1, "Task 1", 0));
+        this.mRepository.insertTask(new Task(1, "Task 2", 1));
+        this.mRepository.insertTask(new Task(1, "Task 3", 2));
+        this.mDatabase.mTaskDao().setTaskPosition(2, this.mDatabase.mTaskDao().getTaskPosition(1));
+
+        // TEST: The third task moves between them
+        assertEquals(1, this.mRepository.moveTask(3, 1, 2));
+        assertEquals(Arrays.asList(1L, 3L, 2L), this.mDatabase.mTaskDao().getTaskIdsByPosition());
+    }
+
+    // -- SEARCH --
+
+    @Test
+    public void insertTasks_Then_searchTasks_shouldIgnoreAccentsAndMatchPrefixes() throws InterruptedException {
+        // BEFORE: Adds 3 tasks
+        this.mRepository.insertTask(new Task(1, "Appeler l'élève", 0));
+        this.mRepository.insertTask(new Task(1, "Élever le niveau des élèves", 1));
+        this.mRepository.insertTask(new Task(1, "Appeler le client", 2));
+
+        // THEN: Searches without accents and with the start of the word
+        final PagedList<TaskWithProject> tasks = LiveDataTestUtil.getValue(
+                new LivePagedListBuilder<>(this.mRepository.searchTasks("ELEV"), 10).build());
+
+        // TEST: The task with 2 hits is first, the task without hit is excluded
+        assertEquals(2, tasks.size());
+        assertEquals("Élever le niveau des élèves", tasks.get(0).getTask().getName());
+        assertEquals("Appeler l'élève", tasks.get(1).getTask().getName());
+    }
+
+    @Test
+    public void searchTasks_shouldBeNullWithoutWord() {
+        assertNull(this.mRepository.searchTasks(" -- "));
+    }
+
+    // -- DETAILS --
+
+    @Test
+    public void insertTask_Then_setTaskNotes_shouldReplaceThenRemoveTheNotes() throws InterruptedException {
+        // BEFORE: Adds a task with notes
+        this.mRepository.insertTask(FIRST_TASK);
+        this.mRepository.setTaskNotes(FIRST_TASK_ID, "First notes");
+
+        // THEN: Replaces the notes
+        this.mRepository.setTaskNotes(FIRST_TASK_ID, "Second notes");
+
+        // TEST: Only the last notes
+        assertEquals(new TaskDetails(FIRST_TASK_ID, "Second notes"),
+                     LiveDataTestUtil.getValue(this.mRepository.getTaskDetails(FIRST_TASK_ID)));
+
+        // THEN: Removes the notes
+        final int removeResult = this.mRepository.setTaskNotes(FIRST_TASK_ID, "");
+
+        // TEST: No notes
+        assertEquals(1, removeResult);
+        assertNull(LiveDataTestUtil.getValue(this.mRepository.getTaskDetails(FIRST_TASK_ID)));
+    }
+
+    @Test
+    public void setTaskNotes_Then_purgeDeletedTasks_shouldRemoveTheNotes() throws InterruptedException {
+        // BEFORE: Adds a task with notes and moves it to the trash
+        this.mRepository.insertTask(FIRST_TASK);
+        this.mRepository.setTaskNotes(FIRST_TASK_ID, "Notes");
+        this.mRepository.deleteTaskById(FIRST_TASK_ID);
+
+        // TEST: The notes stay while the task is in the trash
+        assertNotNull(LiveDataTestUtil.getValue(this.mRepository.getTaskDetails(FIRST_TASK_ID)));
+
+        // THEN: Purges the trash
+        this.mRepository.purgeDeletedTasks(Long.MAX_VALUE, 10);
+
+        // TEST: The notes are removed with the task
+        assertNull(LiveDataTestUtil.getValue(this.mRepository.getTaskDetails(FIRST_TASK_ID)));
+    }
+
+    @Test
+    public void purgeExpiredTasks_shouldPurgeEveryBatch() throws InterruptedException {
+        // BEFORE: Adds 3 tasks and moves them to the trash long ago
+        this.mRepository.insertTask(FIRST_TASK);
+        this.mRepository.insertTask(SECOND_TASK);
+        this.mRepository.insertTask(new Task(1, "Task 3", 2));
+        this.mDatabase.mTaskDao().softDeleteTasksByIds(new long[] {FIRST_TASK_ID, SECOND_TASK_ID, 3}, 100);
+
+        // THEN: Purges the trash by batches of 2 tasks, on the calling thread
+        new TaskPurger(this.mRepository, Runnable::run, 0L, 2).purgeExpiredTasks();
+
+        // TEST: The second batch is queued after the first one
+        assertNull(LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getTaskById(FIRST_TASK_ID)));
+        assertNull(LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getTaskById(SECOND_TASK_ID)));
+        assertNull(LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getTaskById(3)));
+    }
+
+    @Test
+    public void purgeExpiredTasks_failingBatch_shouldKeepTheTasks() throws InterruptedException {
+        // BEFORE: Adds a task and moves it to the trash long ago
+        this.mRepository.insertTask(FIRST_TASK);
+        this.mDatabase.mTaskDao().softDeleteTaskById(FIRST_TASK_ID, 100);
+
+        // BEFORE: The deletion of a task fails, as on a full disk
+        this.mDatabase.getOpenHelper().getWritableDatabase().execSQL(
+                "CREATE TEMP TRIGGER `fail_task_delete` BEFORE DELETE ON `task` " +
+                "BEGIN SELECT RAISE(ABORT, 'failed'); END");
+
+        // THEN: Purges the trash, on the calling thread
+        new TaskPurger(this.mRepository, Runnable::run, 0L, 10).purgeExpiredTasks();
+
+        // TEST: The job has not thrown, the task stays in the trash
+        assertNotNull(LiveDataTestUtil.getValue(this.mDatabase.mTaskDao().getTaskById(FIRST_TASK_ID)));
+    }
+
+    // -- CHANGES --
+
+    @Test
+    public void insertTasks_Then_getTaskDeltaSince_shouldCollapseTheChangesByTask() {
+        // BEFORE: Adds 2 tasks, moves the first one to the trash and renames the second one
+        final long sinceSeq = this.mRepository.getProjectCounts().getSeq();
+        this.mRepository.insertTask(FIRST_TASK);
+        this.mRepository.insertTask(SECOND_TASK);
+        this.mRepository.deleteTaskById(FIRST_TASK_ID);
+        this.mDatabase.mTaskDao().updateTask(new Task(SECOND_TASK_ID, 1, "Task 2 renamed", 1));
+
+        // THEN: Reads the changes
+        final TaskDelta delta = this.mRepository.getTaskDeltaSince(sinceSeq);
+
+        // TEST: The first task, inserted then deleted, does not appear
+        assertArrayEquals(new long[] {SECOND_TASK_ID}, delta.getInsertedTaskIds());
+        assertEquals(0, delta.getUpdatedTaskIds().length);
+        assertEquals(0, delta.getDeletedTaskIds().length);
+        assertEquals(Integer.valueOf(1), delta.getTaskCountChanges().get(1L));
+
+        // TEST: Nothing after the last change
+        assertTrue(this.mRepository.getTaskDeltaSince(delta.getLastSeq()).isEmpty());
+    }
+
+    @Test
+    public void getProjectCounts_Then_applyTaskDelta_shouldMatchACountFromScratch() {
+        // BEFORE: Adds 2 tasks then takes the counts
+        this.mRepository.insertTask(FIRST_TASK);
+        this.mRepository.insertTask(SECOND_TASK);
+        final ProjectCounts projectCounts = this.mRepository.getProjectCounts();
+
+        // THEN: Moves a task to the trash and patches the counts with the delta
+        this.mRepository.deleteTaskById(FIRST_TASK_ID);
+        final ProjectCounts patchedCounts = projectCounts.apply(
+                this.mRepository.getTaskDeltaSince(projectCounts.getSeq()));
+
+        // TEST: Same counts as the GROUP BY
+        assertEquals(2, projectCounts.getProjects().get(0).getTaskCount());
+        assertEquals(this.mRepository.getProjectCounts().getProjects(), patchedCounts.getProjects());
+    }
+
+    @Test
+    public void deleteTaskChangesUpTo_shouldKeepOnlyTheNextChanges() {
+        // BEFORE: Adds a task, reads its delta, then adds another task
+        final long sinceSeq = this.mRepository.getProjectCounts().getSeq();
+        this.mRepository.insertTask(FIRST_TASK);
+        final TaskDelta delta = this.mRepository.getTaskDeltaSince(sinceSeq);
+        this.mRepository.insertTask(SECOND_TASK);
+
+        // THEN: Removes the changes of the applied delta
+        assertEquals(1, this.mRepository.deleteTaskChangesUpTo(delta.getLastSeq()));
+
+        // TEST: The next change is still read, with a greater sequence number
+        final TaskDelta nextDelta = this.mRepository.getTaskDeltaSince(delta.getLastSeq());
+        assertArrayEquals(new long[] {SECOND_TASK_ID}, nextDelta.getInsertedTaskIds());
+        assertTrue(nextDelta.getLastSeq() > delta.getLastSeq());
+        assertEquals(nextDelta.getLastSeq(), this.mRepository.getProjectCounts().getSeq());
+    }
 }
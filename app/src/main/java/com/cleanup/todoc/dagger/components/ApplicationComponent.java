@@ -2,11 +2,9 @@ package com.cleanup.todoc.dagger.components;
 
 import android.content.Context;
 
-import com.cleanup.todoc.dagger.modules.DatabaseModule;
 import com.cleanup.todoc.dagger.modules.ExecutorModule;
-import com.cleanup.todoc.dagger.modules.ProjectRepositoryModule;
-import com.cleanup.todoc.dagger.modules.TaskRepositoryModule;
-import com.cleanup.todoc.viewModels.ViewModelFactory;
+
+import java.util.concurrent.Executor;
 
 import javax.inject.Singleton;
 
@@ -15,10 +13,7 @@ import dagger.Component;
 
 
 @Singleton
-@Component(modules = {DatabaseModule.class,
-        ProjectRepositoryModule.class,
-        TaskRepositoryModule.class,
-        ExecutorModule.class})
+@Component(modules = {ExecutorModule.class})
 public interface ApplicationComponent {
 
     /*
@@ -31,10 +26,17 @@ public interface ApplicationComponent {
     // METHODS -------------------------------------------------------------------------------------
 
     /**
-     * Gets the {@link ViewModelFactory}
-     * @return the {@link ViewModelFactory}
+     * Gets the {@link WorkspaceComponent.Builder}, the database, the DAOs and the repositories
+     * are bound to a workspace
+     * @return the {@link WorkspaceComponent.Builder}
+     */
+    WorkspaceComponent.Builder getWorkspaceComponentBuilder();
+
+    /**
+     * Gets the {@link Executor} of the writes, shared by the workspaces
+     * @return the {@link Executor}
      */
-    ViewModelFactory getViewModelFactory();
+    Executor getExecutor();
 
     // INTERFACES ----------------------------------------------------------------------------------
 
@@ -0,0 +1,108 @@
+package com.cleanup.todoc.dagger.components;
+
+import com.cleanup.todoc.dagger.modules.ArchiveRepositoryModule;
+import com.cleanup.todoc.dagger.modules.DatabaseModule;
+import com.cleanup.todoc.dagger.modules.MaintenanceModule;
+import com.cleanup.todoc.dagger.modules.ProjectRepositoryModule;
+import com.cleanup.todoc.dagger.modules.StatsRepositoryModule;
+import com.cleanup.todoc.dagger.modules.TaskRepositoryModule;
+import com.cleanup.todoc.dagger.scopes.WorkspaceScope;
+import com.cleanup.todoc.model.database.DatabaseBackup;
+import com.cleanup.todoc.repositories.BackfillRunner;
+import com.cleanup.todoc.repositories.DatabaseBackupScheduler;
+import com.cleanup.todoc.repositories.DatabaseMaintenanceScheduler;
+import com.cleanup.todoc.repositories.TaskArchiver;
+import com.cleanup.todoc.repositories.TaskPurger;
+import com.cleanup.todoc.viewModels.ViewModelFactory;
+
+import javax.inject.Named;
+
+import dagger.BindsInstance;
+import dagger.Subcomponent;
+
+
+@WorkspaceScope
+@Subcomponent(modules = {DatabaseModule.class,
+        ProjectRepositoryModule.class,
+        TaskRepositoryModule.class,
+        ArchiveRepositoryModule.class,
+        StatsRepositoryModule.class,
+        MaintenanceModule.class})
+public interface WorkspaceComponent {
+
+    /*
+        Information:    One WorkspaceComponent by active workspace: switching of workspace, or
+                        the restore of a backup, builds a new one, and the DAOs and repositories
+                        of the previous one are released with it, the activities being started
+                        again in a new task (see TodocApplication).
+     */
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    /**
+     * The name of the binding of the workspace
+     */
+    String WORKSPACE = "workspace";
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    /**
+     * Gets the name of the workspace
+     * @return a {@link String} that contains the name of the workspace
+     */
+    @Named(WORKSPACE)
+    String getWorkspace();
+
+    /**
+     * Gets the {@link ViewModelFactory}
+     * @return the {@link ViewModelFactory}
+     */
+    ViewModelFactory getViewModelFactory();
+
+    /**
+     * Gets the {@link TaskArchiver}
+     * @return the {@link TaskArchiver}
+     */
+    TaskArchiver getTaskArchiver();
+
+    /**
+     * Gets the {@link TaskPurger}
+     * @return the {@link TaskPurger}
+     */
+    TaskPurger getTaskPurger();
+
+    /**
+     * Gets the {@link DatabaseMaintenanceScheduler}
+     * @return the {@link DatabaseMaintenanceScheduler}
+     */
+    DatabaseMaintenanceScheduler getDatabaseMaintenanceScheduler();
+
+    /**
+     * Gets the {@link DatabaseBackup}
+     * @return the {@link DatabaseBackup}
+     */
+    DatabaseBackup getDatabaseBackup();
+
+    /**
+     * Gets the {@link DatabaseBackupScheduler}
+     * @return the {@link DatabaseBackupScheduler}
+     */
+    DatabaseBackupScheduler getDatabaseBackupScheduler();
+
+    /**
+     * Gets the {@link BackfillRunner}
+     * @return the {@link BackfillRunner}
+     */
+    BackfillRunner getBackfillRunner();
+
+    // INTERFACES ----------------------------------------------------------------------------------
+
+    @Subcomponent.Builder
+    interface Builder {
+
+        @BindsInstance
+        Builder workspace(@Named(WORKSPACE) final String workspace);
+
+        WorkspaceComponent build();
+    }
+}
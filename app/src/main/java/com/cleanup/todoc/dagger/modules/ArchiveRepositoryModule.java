@@ -0,0 +1,49 @@
+package com.cleanup.todoc.dagger.modules;
+
+import com.cleanup.todoc.dagger.scopes.WorkspaceScope;
+import com.cleanup.todoc.repositories.ArchiveRepositoryImpl;
+import com.cleanup.todoc.repositories.Repository;
+import com.cleanup.todoc.repositories.TaskArchiver;
+
+import java.util.concurrent.Executor;
+
+import dagger.Binds;
+import dagger.Module;
+import dagger.Provides;
+
+@Module
+public abstract class ArchiveRepositoryModule {
+
+     /*
+        Information:    WorkspaceScope, a single instance by WorkspaceComponent,
+                        so by active workspace (see TodocApplication).
+     */
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    /**
+     * Creates a bind between the {@link Repository.ArchiveRepository} interface
+     * and the {@link ArchiveRepositoryImpl} class
+     * @param repository the {@link ArchiveRepositoryImpl} class to instance
+     * @return a {@link Repository.ArchiveRepository} interface
+     */
+    @WorkspaceScope
+    @Binds
+    abstract Repository.ArchiveRepository bindArchiveRepository(ArchiveRepositoryImpl repository);
+
+    /**
+     * Provides the {@link TaskArchiver}
+     * @param archiveRepository the {@link Repository.ArchiveRepository}
+     * @param executor the {@link Executor}
+     * @return the {@link TaskArchiver}
+     */
+    @WorkspaceScope
+    @Provides
+    static TaskArchiver provideTaskArchiver(final Repository.ArchiveRepository archiveRepository,
+                                            final Executor executor) {
+        return new TaskArchiver(archiveRepository,
+                                executor,
+                                TaskArchiver.DEFAULT_MAX_AGE_MILLIS,
+                                TaskArchiver.DEFAULT_CHUNK_SIZE);
+    }
+}
@@ -2,11 +2,20 @@ package com.cleanup.todoc.dagger.modules;
 
 import android.content.Context;
 
+import com.cleanup.todoc.dagger.components.WorkspaceComponent;
+import com.cleanup.todoc.dagger.scopes.WorkspaceScope;
+import com.cleanup.todoc.model.dao.ArchivedTaskDao;
+import com.cleanup.todoc.model.dao.BackfillDao;
 import com.cleanup.todoc.model.dao.ProjectDao;
+import com.cleanup.todoc.model.dao.StatsDao;
+import com.cleanup.todoc.model.dao.TaskChangeDao;
 import com.cleanup.todoc.model.dao.TaskDao;
+import com.cleanup.todoc.model.dao.TaskDetailsDao;
 import com.cleanup.todoc.model.database.TodocDatabase;
+import com.cleanup.todoc.model.database.TodocDatabaseConfig;
+import com.cleanup.todoc.repositories.BusyRetry;
 
-import javax.inject.Singleton;
+import javax.inject.Named;
 
 import dagger.Module;
 import dagger.Provides;
@@ -14,23 +23,46 @@ import dagger.Provides;
 @Module
 public abstract class DatabaseModule {
      /*
-        Information:    Singleton annotation is not necessary because "IN THIS ONLY CASE",
-                        the Application instance, "TodocApplication", is unique.
-
-        see: https://github.com/google/dagger/issues/832#issuecomment-320508239
+        Information:    WorkspaceScope, a single instance by WorkspaceComponent,
+                        so by active workspace (see TodocApplication).
      */
 
     // METHODS -------------------------------------------------------------------------------------
 
     /**
-     * Provides the {@link TodocDatabase}
+     * Provides the {@link TodocDatabaseConfig}
+     * @return the {@link TodocDatabaseConfig}
+     */
+    @WorkspaceScope
+    @Provides
+    static TodocDatabaseConfig provideTodocDatabaseConfig() {
+        return TodocDatabaseConfig.DEFAULT;
+    }
+
+    /**
+     * Provides the {@link TodocDatabase} of the workspace
      * @param context the {@link Context}
+     * @param config the {@link TodocDatabaseConfig}
+     * @param workspace a {@link String} that contains the name of the workspace
      * @return the {@link TodocDatabase}
      */
-    @Singleton
+    @WorkspaceScope
+    @Provides
+    static TodocDatabase provideTodocDatabase(final Context context,
+                                              final TodocDatabaseConfig config,
+                                              @Named(WorkspaceComponent.WORKSPACE) final String workspace) {
+        return TodocDatabase.getInstance(context, config, workspace);
+    }
+
+    /**
+     * Provides the {@link BusyRetry} of the repositories
+     * @param config the {@link TodocDatabaseConfig}
+     * @return the {@link BusyRetry}
+     */
+    @WorkspaceScope
     @Provides
-    static TodocDatabase provideTodocDatabase(final Context context) {
-        return TodocDatabase.getInstance(context);
+    static BusyRetry provideBusyRetry(final TodocDatabaseConfig config) {
+        return new BusyRetry(config.getBusyMaxAttempts(), config.getBusyInitialDelayMillis());
     }
 
     /**
@@ -38,7 +70,7 @@ public abstract class DatabaseModule {
      * @param database the {@link TodocDatabase}
      * @return the {@link ProjectDao}
      */
-    @Singleton
+    @WorkspaceScope
     @Provides
     static ProjectDao provideProjectDao(final TodocDatabase database) {
         return database.mProjectDao();
@@ -49,9 +81,64 @@ public abstract class DatabaseModule {
      * @param database the {@link TodocDatabase}
      * @return the {@link TaskDao}
      */
-    @Singleton
+    @WorkspaceScope
     @Provides
     static TaskDao provideTaskDao(final TodocDatabase database) {
         return database.mTaskDao();
     }
+
+    /**
+     * Provides the {@link ArchivedTaskDao}
+     * @param database the {@link TodocDatabase}
+     * @return the {@link ArchivedTaskDao}
+     */
+    @WorkspaceScope
+    @Provides
+    static ArchivedTaskDao provideArchivedTaskDao(final TodocDatabase database) {
+        return database.mArchivedTaskDao();
+    }
+
+    /**
+     * Provides the {@link TaskChangeDao}
+     * @param database the {@link TodocDatabase}
+     * @return the {@link TaskChangeDao}
+     */
+    @WorkspaceScope
+    @Provides
+    static TaskChangeDao provideTaskChangeDao(final TodocDatabase database) {
+        return database.mTaskChangeDao();
+    }
+
+    /**
+     * Provides the {@link TaskDetailsDao}
+     * @param database the {@link TodocDatabase}
+     * @return the {@link TaskDetailsDao}
+     */
+    @WorkspaceScope
+    @Provides
+    static TaskDetailsDao provideTaskDetailsDao(final TodocDatabase database) {
+        return database.mTaskDetailsDao();
+    }
+
+    /**
+     * Provides the {@link StatsDao}
+     * @param database the {@link TodocDatabase}
+     * @return the {@link StatsDao}
+     */
+    @WorkspaceScope
+    @Provides
+    static StatsDao provideStatsDao(final TodocDatabase database) {
+        return database.mStatsDao();
+    }
+
+    /**
+     * Provides the {@link BackfillDao}
+     * @param database the {@link TodocDatabase}
+     * @return the {@link BackfillDao}
+     */
+    @WorkspaceScope
+    @Provides
+    static BackfillDao provideBackfillDao(final TodocDatabase database) {
+        return database.mBackfillDao();
+    }
 }
@@ -0,0 +1,109 @@
+package com.cleanup.todoc.dagger.modules;
+
+import android.content.Context;
+
+import com.cleanup.todoc.dagger.components.WorkspaceComponent;
+import com.cleanup.todoc.dagger.scopes.WorkspaceScope;
+import com.cleanup.todoc.model.database.DatabaseBackup;
+import com.cleanup.todoc.model.database.DatabaseMaintenance;
+import com.cleanup.todoc.model.database.TodocDatabase;
+import com.cleanup.todoc.model.database.TodocDatabaseConfig;
+import com.cleanup.todoc.repositories.BackfillRunner;
+import com.cleanup.todoc.repositories.BusyRetry;
+import com.cleanup.todoc.repositories.DatabaseBackupScheduler;
+import com.cleanup.todoc.repositories.DatabaseMaintenanceScheduler;
+
+import java.util.concurrent.Executor;
+
+import javax.inject.Named;
+
+import dagger.Module;
+import dagger.Provides;
+
+@Module
+public abstract class MaintenanceModule {
+
+     /*
+        Information:    WorkspaceScope, a single instance by WorkspaceComponent,
+                        so by active workspace (see TodocApplication).
+     */
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    /**
+     * Provides the {@link DatabaseMaintenance}
+     * @param database the {@link TodocDatabase}
+     * @param config the {@link TodocDatabaseConfig}
+     * @return the {@link DatabaseMaintenance}
+     */
+    @WorkspaceScope
+    @Provides
+    static DatabaseMaintenance provideDatabaseMaintenance(final TodocDatabase database,
+                                                          final TodocDatabaseConfig config) {
+        return new DatabaseMaintenance(database, config.getMaintenanceWriteBudgetMillis());
+    }
+
+    /**
+     * Provides the {@link DatabaseMaintenanceScheduler}
+     * @param context the {@link Context}
+     * @param maintenance the {@link DatabaseMaintenance}
+     * @return the {@link DatabaseMaintenanceScheduler}
+     */
+    @WorkspaceScope
+    @Provides
+    static DatabaseMaintenanceScheduler provideDatabaseMaintenanceScheduler(final Context context,
+                                                                            final DatabaseMaintenance maintenance) {
+        return new DatabaseMaintenanceScheduler(context,
+                                                maintenance,
+                                                DatabaseMaintenanceScheduler.DEFAULT_PERIOD_MILLIS);
+    }
+
+    /**
+     * Provides the {@link DatabaseBackup} of the workspace
+     * @param context the {@link Context}
+     * @param database the {@link TodocDatabase}
+     * @param workspace a {@link String} that contains the name of the workspace
+     * @return the {@link DatabaseBackup}
+     */
+    @WorkspaceScope
+    @Provides
+    static DatabaseBackup provideDatabaseBackup(final Context context,
+                                                final TodocDatabase database,
+                                                @Named(WorkspaceComponent.WORKSPACE) final String workspace) {
+        return new DatabaseBackup(context, database, workspace, DatabaseBackupScheduler.DEFAULT_MAX_VERSIONS);
+    }
+
+    /**
+     * Provides the {@link DatabaseBackupScheduler}
+     * @param context the {@link Context}
+     * @param backup the {@link DatabaseBackup}
+     * @return the {@link DatabaseBackupScheduler}
+     */
+    @WorkspaceScope
+    @Provides
+    static DatabaseBackupScheduler provideDatabaseBackupScheduler(final Context context,
+                                                                  final DatabaseBackup backup) {
+        return new DatabaseBackupScheduler(context,
+                                           backup,
+                                           DatabaseBackupScheduler.DEFAULT_PERIOD_MILLIS);
+    }
+
+    /**
+     * Provides the {@link BackfillRunner} of the backfills of the database
+     * @param database the {@link TodocDatabase}
+     * @param executor the {@link Executor}
+     * @param busyRetry the {@link BusyRetry}
+     * @return the {@link BackfillRunner}
+     */
+    @WorkspaceScope
+    @Provides
+    static BackfillRunner provideBackfillRunner(final TodocDatabase database,
+                                                final Executor executor,
+                                                final BusyRetry busyRetry) {
+        return new BackfillRunner(database,
+                                  TodocDatabase.BACKFILLS,
+                                  executor,
+                                  busyRetry,
+                                  BackfillRunner.DEFAULT_CHUNK_SIZE);
+    }
+}
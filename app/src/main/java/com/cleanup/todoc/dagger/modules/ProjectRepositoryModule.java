@@ -1,10 +1,9 @@
 package com.cleanup.todoc.dagger.modules;
 
+import com.cleanup.todoc.dagger.scopes.WorkspaceScope;
 import com.cleanup.todoc.repositories.ProjectRepositoryImpl;
 import com.cleanup.todoc.repositories.Repository;
 
-import javax.inject.Singleton;
-
 import dagger.Binds;
 import dagger.Module;
 
@@ -12,10 +11,8 @@ import dagger.Module;
 public abstract class ProjectRepositoryModule {
 
      /*
-        Information:    Singleton annotation is not necessary because "IN THIS ONLY CASE",
-                        the Application instance, "TodocApplication", is unique.
-
-        see: https://github.com/google/dagger/issues/832#issuecomment-320508239
+        Information:    WorkspaceScope, a single instance by WorkspaceComponent,
+                        so by active workspace (see TodocApplication).
      */
 
     // METHODS -------------------------------------------------------------------------------------
@@ -26,7 +23,7 @@ public abstract class ProjectRepositoryModule {
      * @param repository the {@link ProjectRepositoryImpl} class to instance
      * @return a {@link Repository.ProjectRepository} interface
      */
-    @Singleton
+    @WorkspaceScope
     @Binds
     abstract Repository.ProjectRepository bindProjectRepository(ProjectRepositoryImpl repository);
 }
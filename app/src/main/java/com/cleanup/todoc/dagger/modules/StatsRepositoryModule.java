@@ -0,0 +1,29 @@
+package com.cleanup.todoc.dagger.modules;
+
+import com.cleanup.todoc.dagger.scopes.WorkspaceScope;
+import com.cleanup.todoc.repositories.Repository;
+import com.cleanup.todoc.repositories.StatsRepositoryImpl;
+
+import dagger.Binds;
+import dagger.Module;
+
+@Module
+public abstract class StatsRepositoryModule {
+
+     /*
+        Information:    WorkspaceScope, a single instance by WorkspaceComponent,
+                        so by active workspace (see TodocApplication).
+     */
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    /**
+     * Creates a bind between the {@link Repository.StatsRepository} interface
+     * and the {@link StatsRepositoryImpl} class
+     * @param repository the {@link StatsRepositoryImpl} class to instance
+     * @return a {@link Repository.StatsRepository} interface
+     */
+    @WorkspaceScope
+    @Binds
+    abstract Repository.StatsRepository bindStatsRepository(StatsRepositoryImpl repository);
+}
@@ -1,22 +1,25 @@
 package com.cleanup.todoc.dagger.modules;
 
+import com.cleanup.todoc.dagger.scopes.WorkspaceScope;
+import com.cleanup.todoc.model.database.TodocDatabase;
 import com.cleanup.todoc.repositories.Repository;
+import com.cleanup.todoc.repositories.TaskPurger;
 import com.cleanup.todoc.repositories.TaskRepositoryImpl;
+import com.cleanup.todoc.repositories.TaskWriteEngine;
 
-import javax.inject.Singleton;
+import java.util.concurrent.Executor;
 
 import dagger.Binds;
 import dagger.Module;
+import dagger.Provides;
 
 
 @Module
 public abstract class TaskRepositoryModule {
 
      /*
-        Information:    Singleton annotation is not necessary because "IN THIS ONLY CASE",
-                        the Application instance, "TodocApplication", is unique.
-
-        see: https://github.com/google/dagger/issues/832#issuecomment-320508239
+        Information:    WorkspaceScope, a single instance by WorkspaceComponent,
+                        so by active workspace (see TodocApplication).
      */
 
     // METHODS -------------------------------------------------------------------------------------
@@ -27,7 +30,34 @@ public abstract class TaskRepositoryModule {
      * @param repository the {@link TaskRepositoryImpl} class to instance
      * @return a {@link Repository.TaskRepository} interface
      */
-    @Singleton
+    @WorkspaceScope
     @Binds
     abstract Repository.TaskRepository bindTaskRepository(TaskRepositoryImpl repository);
+
+    /**
+     * Provides the {@link TaskPurger}
+     * @param taskRepository the {@link Repository.TaskRepository}
+     * @param executor the {@link Executor}
+     * @return the {@link TaskPurger}
+     */
+    @WorkspaceScope
+    @Provides
+    static TaskPurger provideTaskPurger(final Repository.TaskRepository taskRepository,
+                                        final Executor executor) {
+        return new TaskPurger(taskRepository,
+                              executor,
+                              TaskPurger.DEFAULT_TTL_MILLIS,
+                              TaskPurger.DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Provides the {@link TaskWriteEngine}, whose statements live as long as the workspace
+     * @param database the {@link TodocDatabase}
+     * @return the {@link TaskWriteEngine}
+     */
+    @WorkspaceScope
+    @Provides
+    static TaskWriteEngine provideTaskWriteEngine(final TodocDatabase database) {
+        return new TaskWriteEngine(database);
+    }
 }
@@ -0,0 +1,17 @@
+package com.cleanup.todoc.dagger.scopes;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import javax.inject.Scope;
+
+/**
+ * <p>Scope of the {@link com.cleanup.todoc.dagger.components.WorkspaceComponent}: one instance
+ * of the database, of its DAOs and of the repositories by active workspace.</p>
+ */
+@Scope
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+public @interface WorkspaceScope {
+}
@@ -0,0 +1,44 @@
+package com.cleanup.todoc.model.dao;
+
+import android.arch.lifecycle.LiveData;
+import android.arch.paging.DataSource;
+import android.arch.persistence.room.Dao;
+import android.arch.persistence.room.Insert;
+import android.arch.persistence.room.OnConflictStrategy;
+import android.arch.persistence.room.Query;
+
+import com.cleanup.todoc.model.pojos.ArchivedTask;
+
+import java.util.List;
+
+@Dao
+public interface ArchivedTaskDao {
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- CREATE --
+
+    // The ids come from the task table (AUTOINCREMENT): a conflict can only be a copy of the same task
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    long[] insertArchivedTasks(final List<ArchivedTask> archivedTasks);
+
+    // -- READ --
+
+    @Query("SELECT * FROM task_archive ORDER BY creation_timestamp DESC")
+    DataSource.Factory<Integer, ArchivedTask> getArchivedTasksPaged();
+
+    @Query("SELECT * FROM task_archive WHERE project_id = :projectId ORDER BY creation_timestamp DESC")
+    DataSource.Factory<Integer, ArchivedTask> getArchivedTasksByProjectIdPaged(final long projectId);
+
+    @Query("SELECT COUNT(*) FROM task_archive")
+    LiveData<Integer> getArchivedTaskCount();
+
+    // -- DELETE --
+
+    @Query("DELETE FROM task_archive WHERE id = :archivedTaskId")
+    int deleteArchivedTaskById(final long archivedTaskId);
+
+    // One chunk of the deletion of a project
+    @Query("DELETE FROM task_archive WHERE id IN (SELECT id FROM task_archive WHERE project_id = :projectId LIMIT :limit)")
+    int deleteArchivedTasksOfProject(final long projectId, final int limit);
+}
@@ -0,0 +1,29 @@
+package com.cleanup.todoc.model.dao;
+
+import android.arch.lifecycle.LiveData;
+import android.arch.persistence.room.Dao;
+import android.arch.persistence.room.Query;
+import android.arch.persistence.room.Update;
+
+import com.cleanup.todoc.model.pojos.BackfillProgress;
+
+// The rows of backfill_progress are inserted by the migrations which add a column to fill
+@Dao
+public interface BackfillDao {
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- READ --
+
+    @Query("SELECT * FROM backfill_progress WHERE name = :name")
+    BackfillProgress getBackfillProgress(final String name);
+
+    // Emits again at each chunk of the backfills, true without row (nothing to fill)
+    @Query("SELECT NOT EXISTS (SELECT 1 FROM backfill_progress WHERE name = :name AND completed = 0)")
+    LiveData<Boolean> isBackfillCompleted(final String name);
+
+    // -- UPDATE --
+
+    @Update
+    int updateBackfillProgress(final BackfillProgress progress);
+}
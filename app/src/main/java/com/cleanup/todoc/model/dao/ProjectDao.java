@@ -7,12 +7,21 @@ import android.arch.persistence.room.Query;
 import android.arch.persistence.room.Update;
 
 import com.cleanup.todoc.model.pojos.Project;
+import com.cleanup.todoc.model.pojos.ProjectWithCount;
 
 import java.util.List;
 
 @Dao
 public interface ProjectDao {
 
+    // FIELDS --------------------------------------------------------------------------------------
+
+    // The counts are grouped in a subquery which only reads the index on task(project_id, deleted_at)
+    String PROJECTS_WITH_COUNT_QUERY = "SELECT project.*, IFNULL(counts.task_count, 0) AS task_count FROM project " +
+                                       "LEFT JOIN (SELECT project_id, COUNT(*) AS task_count FROM task " +
+                                       "WHERE deleted_at IS NULL GROUP BY project_id) AS counts " +
+                                       "ON counts.project_id = project.id";
+
     // METHODS -------------------------------------------------------------------------------------
 
     // -- CREATE --
@@ -28,6 +37,20 @@ public interface ProjectDao {
     @Query("SELECT * FROM project WHERE id = :projectId")
     LiveData<Project> getProjectById(final long projectId);
 
+    @Query(PROJECTS_WITH_COUNT_QUERY)
+    LiveData<List<ProjectWithCount>> getProjectsWithCount();
+
+    @Query(PROJECTS_WITH_COUNT_QUERY)
+    List<ProjectWithCount> getProjectsWithCountList();
+
+    @Query("SELECT * FROM project WHERE name = :name LIMIT 1")
+    Project getProjectByName(final String name);
+
+    // All the rows which reference the project, trash and archive included (counted in the indexes on project_id)
+    @Query("SELECT (SELECT COUNT(*) FROM task WHERE project_id = :projectId) + " +
+           "(SELECT COUNT(*) FROM task_archive WHERE project_id = :projectId)")
+    int getProjectTaskCount(final long projectId);
+
     // -- UPDATE --
 
     @Update
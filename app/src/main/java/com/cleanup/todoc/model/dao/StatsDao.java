@@ -0,0 +1,40 @@
+package com.cleanup.todoc.model.dao;
+
+import android.arch.lifecycle.LiveData;
+import android.arch.persistence.room.Dao;
+import android.arch.persistence.room.Query;
+
+import com.cleanup.todoc.model.pojos.BacklogDay;
+import com.cleanup.todoc.model.pojos.TaskDailyStats;
+
+import java.util.List;
+
+// The rollup tables are only written by the triggers of the task table (see TodocDatabase),
+// so the series cost the number of days shown, whatever the number of tasks
+@Dao
+public interface StatsDao {
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- CREATED TASKS --
+
+    // Range scan of the primary key (day, project_id)
+    @Query("SELECT * FROM task_stats_daily WHERE day >= :fromDay ORDER BY day, project_id")
+    LiveData<List<TaskDailyStats>> getCreatedTasksByDay(final int fromDay);
+
+    // Weeks from Monday: the day 0 of the epoch is a Thursday
+    @Query("SELECT ((day + 3) / 7) * 7 - 3 AS day, project_id, SUM(created_count) AS created_count " +
+           "FROM task_stats_daily WHERE day >= :fromDay " +
+           "GROUP BY (day + 3) / 7, project_id ORDER BY 1, 2")
+    LiveData<List<TaskDailyStats>> getCreatedTasksByWeek(final int fromDay);
+
+    // -- BACKLOG --
+
+    // The first row sums the changes before the first day, so the backlog of each day is a running sum
+    @Query("SELECT :fromDay - 1 AS day, IFNULL(SUM(opened), 0) AS opened, IFNULL(SUM(closed), 0) AS closed " +
+           "FROM task_backlog_daily WHERE day < :fromDay " +
+           "UNION ALL " +
+           "SELECT day, opened, closed FROM task_backlog_daily WHERE day >= :fromDay " +
+           "ORDER BY 1")
+    LiveData<List<BacklogDay>> getBacklogDays(final int fromDay);
+}
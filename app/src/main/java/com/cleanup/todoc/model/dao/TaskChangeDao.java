@@ -0,0 +1,36 @@
+package com.cleanup.todoc.model.dao;
+
+import android.arch.lifecycle.LiveData;
+import android.arch.persistence.room.Dao;
+import android.arch.persistence.room.Query;
+
+import com.cleanup.todoc.model.pojos.TaskChange;
+
+import java.util.List;
+
+// The rows of task_changes are only written by the triggers of the task table, removed once
+// the deltas which hold them have been applied, and cleared by TodocDatabase when it is opened
+@Dao
+public interface TaskChangeDao {
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- READ --
+
+    // Range scan of the primary key
+    @Query("SELECT * FROM task_changes WHERE seq > :sinceSeq ORDER BY seq")
+    List<TaskChange> getTaskChangesSince(final long sinceSeq);
+
+    @Query("SELECT IFNULL(MAX(seq), 0) FROM task_changes")
+    long getLastTaskChangeSeq();
+
+    // Emits again at each write of the triggers
+    @Query("SELECT IFNULL(MAX(seq), 0) FROM task_changes")
+    LiveData<Long> getLastTaskChangeSeqLive();
+
+    // -- DELETE --
+
+    // Range of the primary key, the next changes keep growing seq (AUTOINCREMENT)
+    @Query("DELETE FROM task_changes WHERE seq <= :seq")
+    int deleteTaskChangesUpTo(final long seq);
+}
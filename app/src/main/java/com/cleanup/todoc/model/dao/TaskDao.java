@@ -1,18 +1,46 @@
 package com.cleanup.todoc.model.dao;
 
 import android.arch.lifecycle.LiveData;
+import android.arch.paging.DataSource;
+import android.arch.persistence.db.SupportSQLiteQuery;
 import android.arch.persistence.room.Dao;
 import android.arch.persistence.room.Insert;
 import android.arch.persistence.room.Query;
+import android.arch.persistence.room.RawQuery;
 import android.arch.persistence.room.Update;
 
+import com.cleanup.todoc.model.pojos.Project;
 import com.cleanup.todoc.model.pojos.Task;
+import com.cleanup.todoc.model.pojos.TaskDayCount;
+import com.cleanup.todoc.model.pojos.TaskSummary;
+import com.cleanup.todoc.model.pojos.TaskWithProject;
 
 import java.util.List;
 
 @Dao
 public interface TaskDao {
 
+    // FIELDS --------------------------------------------------------------------------------------
+
+    // The columns of TaskSummary, named so that the lists never read the other columns of the task table
+    String TASK_SUMMARY_COLUMNS = "task.id, task.project_id, task.name, task.creation_timestamp, task.completed_at";
+    String TASK_WITH_PROJECT_COLUMNS = TASK_SUMMARY_COLUMNS + ", project.name AS project_name, project.color AS project_color";
+    String TASK_WITH_PROJECT_TABLES = "task INNER JOIN project ON project.id = task.project_id";
+
+    // The conditions of the partial indexes: the lists of open tasks never read the done ones
+    String OPEN_TASKS = "task.deleted_at IS NULL AND task.completed_at IS NULL";
+    String COMPLETED_TASKS = "task.deleted_at IS NULL AND task.completed_at IS NOT NULL";
+
+    // Same day as Task.getDayOf, in the time zone of the device (2440587.5 is the Julian day of the epoch)
+    String CREATION_DAY_OF_TIMESTAMP = "CAST(julianday(task.creation_timestamp / 1000, 'unixepoch', 'localtime') - 2440587.5 AS INTEGER)";
+
+    // Same key as TaskPosition.ofRank, for the tasks whose key in the manual order comes from their id
+    String POSITION_OF_ID = "'0' || printf('%012X', id) || 'V'";
+
+    // The greatest key, read at the end of the index on position, or the key of the greatest id
+    // while the keys of the tasks older than the column wait for their backfill
+    String LAST_POSITION = "SELECT MAX(IFNULL((SELECT MAX(position) FROM task), ''), " +
+            "(SELECT '0' || printf('%012X', IFNULL(MAX(id), 0)) || 'V' FROM task))";
 
     // METHODS -------------------------------------------------------------------------------------
 
@@ -21,21 +49,185 @@ public interface TaskDao {
     @Insert
     long insertTask(final Task task);
 
+    // One transaction and one prepared statement for the whole list
+    @Insert
+    long[] insertTasks(final List<Task> tasks);
+
     // -- READ --
 
-    @Query("SELECT * FROM task")
-    LiveData<List<Task>> getTasks();
+    // The tasks of the trash and the done ones are filtered out, so the partial indexes apply
+    @Query("SELECT " + TASK_SUMMARY_COLUMNS + " FROM task WHERE " + OPEN_TASKS)
+    LiveData<List<TaskSummary>> getTasks();
+
+    @Query("SELECT " + TASK_SUMMARY_COLUMNS + " FROM task WHERE " + OPEN_TASKS + " ORDER BY name ASC")
+    LiveData<List<TaskSummary>> getTasksAlphabetical();
+
+    @Query("SELECT " + TASK_SUMMARY_COLUMNS + " FROM task WHERE " + OPEN_TASKS + " ORDER BY name DESC")
+    LiveData<List<TaskSummary>> getTasksAlphabeticalInverted();
+
+    @Query("SELECT " + TASK_SUMMARY_COLUMNS + " FROM task WHERE " + OPEN_TASKS + " ORDER BY creation_timestamp DESC")
+    LiveData<List<TaskSummary>> getTasksRecentFirst();
+
+    @Query("SELECT " + TASK_SUMMARY_COLUMNS + " FROM task WHERE " + OPEN_TASKS + " ORDER BY creation_timestamp ASC")
+    LiveData<List<TaskSummary>> getTasksOldFirst();
+
+    // Paged rows of the list: the task and the name and color of its project, in one row
+    @Query("SELECT " + TASK_WITH_PROJECT_COLUMNS + " FROM " + TASK_WITH_PROJECT_TABLES +
+            " WHERE " + OPEN_TASKS)
+    DataSource.Factory<Integer, TaskWithProject> getTasksWithProjectPaged();
+
+    @Query("SELECT " + TASK_WITH_PROJECT_COLUMNS + " FROM " + TASK_WITH_PROJECT_TABLES +
+            " WHERE " + OPEN_TASKS + " ORDER BY task.name ASC")
+    DataSource.Factory<Integer, TaskWithProject> getTasksWithProjectAlphabeticalPaged();
+
+    @Query("SELECT " + TASK_WITH_PROJECT_COLUMNS + " FROM " + TASK_WITH_PROJECT_TABLES +
+            " WHERE " + OPEN_TASKS + " ORDER BY task.name DESC")
+    DataSource.Factory<Integer, TaskWithProject> getTasksWithProjectAlphabeticalInvertedPaged();
+
+    @Query("SELECT " + TASK_WITH_PROJECT_COLUMNS + " FROM " + TASK_WITH_PROJECT_TABLES +
+            " WHERE " + OPEN_TASKS + " ORDER BY task.creation_timestamp DESC")
+    DataSource.Factory<Integer, TaskWithProject> getTasksWithProjectRecentFirstPaged();
+
+    @Query("SELECT " + TASK_WITH_PROJECT_COLUMNS + " FROM " + TASK_WITH_PROJECT_TABLES +
+            " WHERE " + OPEN_TASKS + " ORDER BY task.creation_timestamp ASC")
+    DataSource.Factory<Integer, TaskWithProject> getTasksWithProjectOldFirstPaged();
+
+    // The manual order, read in the order of the index on position (a tie on a key follows the ids)
+    @Query("SELECT " + TASK_WITH_PROJECT_COLUMNS + " FROM " + TASK_WITH_PROJECT_TABLES +
+            " WHERE " + OPEN_TASKS + " ORDER BY task.position ASC, task.id ASC")
+    DataSource.Factory<Integer, TaskWithProject> getTasksWithProjectManualPaged();
+
+    // Keyset pages on (creation_timestamp, id): the first condition is the range the index seeks on
+    @Query("SELECT " + TASK_WITH_PROJECT_COLUMNS + " FROM " + TASK_WITH_PROJECT_TABLES +
+            " WHERE " + OPEN_TASKS +
+            " AND task.creation_timestamp <= :creationTimestamp" +
+            " AND (task.creation_timestamp < :creationTimestamp OR task.id < :taskId)" +
+            " ORDER BY task.creation_timestamp DESC, task.id DESC LIMIT :limit")
+    List<TaskWithProject> getTasksCreatedBefore(final long creationTimestamp, final long taskId, final int limit);
+
+    @Query("SELECT " + TASK_WITH_PROJECT_COLUMNS + " FROM " + TASK_WITH_PROJECT_TABLES +
+            " WHERE " + OPEN_TASKS +
+            " AND task.creation_timestamp >= :creationTimestamp" +
+            " AND (task.creation_timestamp > :creationTimestamp OR task.id > :taskId)" +
+            " ORDER BY task.creation_timestamp ASC, task.id ASC LIMIT :limit")
+    List<TaskWithProject> getTasksCreatedAfter(final long creationTimestamp, final long taskId, final int limit);
+
+    // First done first, so that the chunks of the archiver seek into the partial index of completed_at
+    // (done tasks only: an open task stays in the list, however old)
+    @Query("SELECT * FROM task WHERE " + COMPLETED_TASKS + " AND task.completed_at < :completedTimestamp " +
+           "ORDER BY task.completed_at ASC, task.id ASC LIMIT :limit")
+    List<Task> getFirstTasksCompletedBefore(final long completedTimestamp, final int limit);
+
+    // -- TIMELINE --
+
+    // Grouped on the stored day, in the order of the partial index of the open tasks (no sort, no table read)
+    @Query("SELECT creation_day, COUNT(*) AS task_count FROM task WHERE " + OPEN_TASKS +
+           " GROUP BY creation_day ORDER BY creation_day DESC")
+    LiveData<List<TaskDayCount>> getOpenTaskCountsByDay();
+
+    // Old shape, while creation_day waits for its backfill: the day is computed from the timestamp
+    // of each open task (read through a partial index), then grouped in a temporary B-tree
+    @Query("SELECT " + CREATION_DAY_OF_TIMESTAMP + " AS creation_day, COUNT(*) AS task_count FROM task WHERE " + OPEN_TASKS +
+           " GROUP BY 1 ORDER BY 1 DESC")
+    LiveData<List<TaskDayCount>> getOpenTaskCountsByTimestampDay();
+
+    // -- MANUAL ORDER --
+
+    @Query("SELECT position FROM task WHERE id = :taskId")
+    String getTaskPosition(final long taskId);
+
+    @Query(LAST_POSITION)
+    String getLastTaskPosition();
+
+    // The whole manual order, the trash and the done tasks included, read in the order of the index on position
+    @Query("SELECT id FROM task ORDER BY position ASC, id ASC")
+    List<Long> getTaskIdsByPosition();
+
+    // The number of ranks of the respacing of the keys (counted on a partial index of the open tasks)
+    @Query("SELECT COUNT(*) FROM task WHERE " + OPEN_TASKS)
+    int getOpenTaskCount();
+
+    // The open tasks before a task in the manual order, the nearest first (range of the index on position)
+    @Query("SELECT * FROM task WHERE " + OPEN_TASKS +
+           " AND task.position <= :position AND (task.position < :position OR task.id < :taskId)" +
+           " ORDER BY task.position DESC, task.id DESC LIMIT :limit")
+    List<Task> getOpenTasksBefore(final String position, final long taskId, final int limit);
+
+    // The open tasks after a task in the manual order, the nearest first (range of the index on position)
+    @Query("SELECT * FROM task WHERE " + OPEN_TASKS +
+           " AND task.position >= :position AND (task.position > :position OR task.id > :taskId)" +
+           " ORDER BY task.position ASC, task.id ASC LIMIT :limit")
+    List<Task> getOpenTasksAfter(final String position, final long taskId, final int limit);
+
+    // A move only writes the key of the moved task, and a key that does not change is not written
+    @Query("UPDATE task SET position = :position WHERE id = :taskId AND position <> :position")
+    int setTaskPosition(final long taskId, final String position);
+
+    // -- COMPLETED --
+
+    // Served by the partial index of the done tasks (WHERE completed_at IS NOT NULL AND deleted_at IS NULL)
+    @Query("SELECT " + TASK_SUMMARY_COLUMNS + " FROM task WHERE " + COMPLETED_TASKS + " ORDER BY completed_at DESC")
+    LiveData<List<TaskSummary>> getCompletedTasks();
+
+    @Query("SELECT " + TASK_WITH_PROJECT_COLUMNS + " FROM " + TASK_WITH_PROJECT_TABLES +
+            " WHERE " + COMPLETED_TASKS + " ORDER BY task.completed_at DESC")
+    DataSource.Factory<Integer, TaskWithProject> getCompletedTasksPaged();
+
+    // -- TRASH --
+
+    // Served by the partial index of the tombstones (WHERE deleted_at IS NOT NULL)
+    @Query("SELECT " + TASK_WITH_PROJECT_COLUMNS + " FROM " + TASK_WITH_PROJECT_TABLES +
+            " WHERE task.deleted_at IS NOT NULL ORDER BY task.deleted_at DESC")
+    DataSource.Factory<Integer, TaskWithProject> getDeletedTasksPaged();
 
     @Query("SELECT * FROM task WHERE id = :taskId")
     LiveData<Task> getTaskById(final long taskId);
 
+    // The FTS table is not an entity, so the search query is built by TaskSearchQuery
+    @RawQuery(observedEntities = {Task.class, Project.class})
+    DataSource.Factory<Integer, TaskWithProject> searchTasks(final SupportSQLiteQuery query);
+
     // -- UPDATE --
 
     @Update
     int updateTask(final Task task);
 
+    // Only the name column is written, the other columns and their indexes are not touched
+    @Query("UPDATE task SET name = :name WHERE id = :taskId")
+    int updateTaskName(final long taskId, final String name);
+
+    // A soft delete only writes the tombstone, the task stays in the B-tree until it is purged
+    @Query("UPDATE task SET deleted_at = :deletedAt WHERE id = :taskId AND deleted_at IS NULL")
+    int softDeleteTaskById(final long taskId, final long deletedAt);
+
+    @Query("UPDATE task SET deleted_at = :deletedAt WHERE id IN (:taskIds) AND deleted_at IS NULL")
+    int softDeleteTasksByIds(final long[] taskIds, final long deletedAt);
+
+    @Query("UPDATE task SET deleted_at = NULL WHERE id = :taskId AND deleted_at IS NOT NULL")
+    int restoreTaskById(final long taskId);
+
+    // Only the project_id column is written, the tasks already in the project are not touched
+    @Query("UPDATE task SET project_id = :projectId WHERE id IN (:taskIds) AND project_id <> :projectId")
+    int reassignTasks(final long[] taskIds, final long projectId);
+
+    // NULL opens the task again
+    @Query("UPDATE task SET completed_at = :completedAt WHERE id = :taskId AND deleted_at IS NULL")
+    int setTaskCompletedAt(final long taskId, final Long completedAt);
+
     // -- DELETE --
 
     @Query("DELETE FROM task WHERE id = :taskId")
     int deleteTaskById(final long taskId);
+
+    @Query("DELETE FROM task WHERE id IN (:taskIds)")
+    int deleteTasksByIds(final long[] taskIds);
+
+    // One chunk of the deletion of a project, the subquery seeks into the index on task(project_id, deleted_at)
+    @Query("DELETE FROM task WHERE id IN (SELECT id FROM task WHERE project_id = :projectId LIMIT :limit)")
+    int deleteTasksOfProject(final long projectId, final int limit);
+
+    // One batch of the purge of the trash, the subquery seeks into the partial index of the tombstones
+    @Query("DELETE FROM task WHERE id IN (SELECT id FROM task " +
+           "WHERE deleted_at IS NOT NULL AND deleted_at < :deletedBefore LIMIT :limit)")
+    int purgeDeletedTasks(final long deletedBefore, final int limit);
 }
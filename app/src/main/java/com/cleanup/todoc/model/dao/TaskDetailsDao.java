@@ -0,0 +1,31 @@
+package com.cleanup.todoc.model.dao;
+
+import android.arch.lifecycle.LiveData;
+import android.arch.persistence.room.Dao;
+import android.arch.persistence.room.Insert;
+import android.arch.persistence.room.OnConflictStrategy;
+import android.arch.persistence.room.Query;
+
+import com.cleanup.todoc.model.pojos.TaskDetails;
+
+@Dao
+public interface TaskDetailsDao {
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- CREATE --
+
+    // One row by task: the new notes replace the old ones
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    long insertTaskDetails(final TaskDetails taskDetails);
+
+    // -- READ --
+
+    @Query("SELECT * FROM task_details WHERE task_id = :taskId")
+    LiveData<TaskDetails> getTaskDetailsByTaskId(final long taskId);
+
+    // -- DELETE --
+
+    @Query("DELETE FROM task_details WHERE task_id = :taskId")
+    int deleteTaskDetailsByTaskId(final long taskId);
+}
@@ -0,0 +1,59 @@
+package com.cleanup.todoc.model.database;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.support.annotation.NonNull;
+
+/**
+ * <p>Fill of a column added by a migration, run after the opening by ranges of ids
+ * (see BackfillRunner) instead of a single UPDATE of the whole table inside the migration,
+ * which Room runs in the first DAO call.</p>
+ *
+ * The migration only adds the column (cheap DDL) and inserts the row of the backfill in
+ * backfill_progress. Until the backfill is completed, the repositories read the old shape
+ * of the data.
+ */
+public abstract class Backfill {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    @NonNull
+    private final String mName;
+    @NonNull
+    private final String mTable;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     * @param name  a {@link String} that contains the name of the backfill, the key of its progress
+     * @param table a {@link String} that contains the name of the table to fill, with an integer id
+     */
+    public Backfill(@NonNull final String name, @NonNull final String table) {
+        this.mName = name;
+        this.mTable = table;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- GETTER --
+
+    @NonNull
+    public String getName() {
+        return this.mName;
+    }
+
+    @NonNull
+    public String getTable() {
+        return this.mTable;
+    }
+
+    // -- FILL --
+
+    /**
+     * Fills the rows of a range of ids, inside the transaction which records the progress
+     * @param db     a {@link SupportSQLiteDatabase}
+     * @param fromId an integer that contains the excluded lower bound of the ids
+     * @param toId   an integer that contains the included upper bound of the ids
+     */
+    public abstract void fill(@NonNull SupportSQLiteDatabase db, long fromId, long toId);
+}
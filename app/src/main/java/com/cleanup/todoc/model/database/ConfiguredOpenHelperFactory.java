@@ -0,0 +1,101 @@
+package com.cleanup.todoc.model.database;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.db.SupportSQLiteOpenHelper;
+import android.arch.persistence.db.framework.FrameworkSQLiteOpenHelperFactory;
+import android.support.annotation.NonNull;
+
+/**
+ * <p>{@link SupportSQLiteOpenHelper.Factory} which applies the PRAGMAs of a
+ * {@link TodocDatabaseConfig} when the connection is configured, before Room creates,
+ * migrates or opens the database.</p>
+ */
+public class ConfiguredOpenHelperFactory implements SupportSQLiteOpenHelper.Factory {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    @NonNull
+    private final SupportSQLiteOpenHelper.Factory mDelegate;
+    @NonNull
+    private final TodocDatabaseConfig mConfig;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     * @param config a {@link TodocDatabaseConfig}
+     */
+    public ConfiguredOpenHelperFactory(@NonNull final TodocDatabaseConfig config) {
+        this.mDelegate = new FrameworkSQLiteOpenHelperFactory();
+        this.mConfig = config;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    @Override
+    public SupportSQLiteOpenHelper create(SupportSQLiteOpenHelper.Configuration configuration) {
+        return this.mDelegate.create(SupportSQLiteOpenHelper.Configuration.builder(configuration.context)
+                                                                           .name(configuration.name)
+                                                                           .callback(new ConfiguredCallback(configuration.callback,
+                                                                                                            this.mConfig))
+                                                                           .build());
+    }
+
+    // INNER CLASSES -------------------------------------------------------------------------------
+
+    /**
+     * <p>{@link SupportSQLiteOpenHelper.Callback} which applies the PRAGMAs then delegates to Room.</p>
+     */
+    private static class ConfiguredCallback extends SupportSQLiteOpenHelper.Callback {
+
+        @NonNull
+        private final SupportSQLiteOpenHelper.Callback mDelegate;
+        @NonNull
+        private final TodocDatabaseConfig mConfig;
+
+        ConfiguredCallback(@NonNull final SupportSQLiteOpenHelper.Callback delegate,
+                           @NonNull final TodocDatabaseConfig config) {
+            super(delegate.version);
+            this.mDelegate = delegate;
+            this.mConfig = config;
+        }
+
+        @Override
+        public void onConfigure(SupportSQLiteDatabase db) {
+            // page_size only has an effect before the first table is created
+            db.execSQL("PRAGMA page_size = " + this.mConfig.getPageSize());
+            // auto_vacuum too (see TodocDatabase.MIGRATION_7_8 for the existing files)
+            db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+            // A negative cache_size is in KiB instead of pages
+            db.execSQL("PRAGMA cache_size = -" + this.mConfig.getCacheSizeKib());
+            db.execSQL("PRAGMA synchronous = " + this.mConfig.getSynchronous().name());
+
+            this.mDelegate.onConfigure(db);
+        }
+
+        @Override
+        public void onCreate(SupportSQLiteDatabase db) {
+            this.mDelegate.onCreate(db);
+        }
+
+        @Override
+        public void onUpgrade(SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+            this.mDelegate.onUpgrade(db, oldVersion, newVersion);
+        }
+
+        @Override
+        public void onDowngrade(SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+            this.mDelegate.onDowngrade(db, oldVersion, newVersion);
+        }
+
+        @Override
+        public void onOpen(SupportSQLiteDatabase db) {
+            this.mDelegate.onOpen(db);
+        }
+
+        @Override
+        public void onCorruption(SupportSQLiteDatabase db) {
+            this.mDelegate.onCorruption(db);
+        }
+    }
+}
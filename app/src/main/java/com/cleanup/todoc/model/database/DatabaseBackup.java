@@ -0,0 +1,423 @@
+package com.cleanup.todoc.model.database;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.content.Context;
+import android.database.Cursor;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import com.cleanup.todoc.model.pojos.BackupReport;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+/**
+ * <p>Online backup of the database file of a workspace into versioned directories
+ * (files/backups/workspace/timestamp), and restore of a version.</p>
+ *
+ * A backup checkpoints the write-ahead log into the database file, then copies the file with
+ * channel transfers while the app goes on writing into the log. In WAL mode, only a checkpoint
+ * writes into the database file: the automatic checkpoints of the connection which commits are
+ * turned off until the end of the copy, and the other checkpoints of the app (the maintenance,
+ * the restore) never run at the same time as a backup (see TodocApplication.getDatabaseFileLock).
+ * A read transaction would hold off the checkpoints as well, but the framework only opens
+ * the transactions of writers (and on the connection of the writers) before API 35.
+ * Each version holds the copy and a manifest with its CRC32 checksum, written last, so that a
+ * version without manifest is an interrupted backup; the checksum of the file, read before the
+ * copy, also tells whether it has changed since the last version.
+ */
+public class DatabaseBackup {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final String TAG = DatabaseBackup.class.getSimpleName();
+
+    private static final String BACKUP_DIRECTORY = "backups";
+    private static final String MANIFEST = "backup.properties";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private static final String KEY_DATABASE = "database";
+    private static final String PREFIX_CRC32 = "crc32.";
+    private static final String PREFIX_SIZE = "size.";
+
+    private static final long TRANSFER_CHUNK_SIZE = 1024 * 1024;
+    private static final int CHECKSUM_BUFFER_SIZE = 64 * 1024;
+
+    @NonNull
+    private final Context mContext;
+    @NonNull
+    private final TodocDatabase mDatabase;
+    @NonNull
+    private final String mWorkspace;
+
+    private final int mMaxVersions;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     * @param context     a {@link Context}
+     * @param database    the {@link TodocDatabase} of the workspace
+     * @param workspace   a {@link String} that contains the name of the workspace
+     * @param maxVersions an integer that contains the number of versions kept, the oldest ones
+     *                    are deleted beyond
+     */
+    public DatabaseBackup(@NonNull final Context context,
+                          @NonNull final TodocDatabase database,
+                          @NonNull final String workspace,
+                          final int maxVersions) {
+        if (maxVersions < 1) {
+            throw new IllegalArgumentException("At least one version must be kept");
+        }
+
+        this.mContext = context.getApplicationContext();
+        this.mDatabase = database;
+        this.mWorkspace = workspace;
+        this.mMaxVersions = maxVersions;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- BACKUP --
+
+    /**
+     * Copies the database file into a new version, unless it has not changed since the last one
+     * @return a {@link BackupReport}
+     * @throws IOException if the file can not be copied
+     */
+    @WorkerThread
+    @NonNull
+    public BackupReport backup() throws IOException {
+        final long timestamp = System.currentTimeMillis();
+        final long start = SystemClock.elapsedRealtime();
+        final File databaseFile = this.getDatabaseFile();
+        final SupportSQLiteDatabase db = this.mDatabase.getOpenHelper().getWritableDatabase();
+
+        // No checkpoint until the end of the copy: the file does not change under it
+        final long autoCheckpointPages = setAutoCheckpoint(db, 0L);
+
+        try {
+            // The frames of the log are copied back into the file, then the log is emptied
+            try (Cursor cursor = db.query("PRAGMA wal_checkpoint(TRUNCATE)")) {
+                if (cursor.moveToFirst() && cursor.getInt(0) != 0) {
+                    Log.w(TAG, "backup: the checkpoint has been blocked by a reader or a writer");
+                    return new BackupReport(timestamp, BackupReport.Status.BUSY, null, 0L, 0L,
+                                            SystemClock.elapsedRealtime() - start);
+                }
+            }
+
+            // The content itself tells whether the file has changed since the last version
+            final long crc32 = checksum(databaseFile);
+            final long size = databaseFile.length();
+
+            final Properties lastManifest = this.readLastManifest();
+            if (lastManifest != null
+                && Long.toHexString(crc32).equals(lastManifest.getProperty(PREFIX_CRC32 + databaseFile.getName()))
+                && String.valueOf(size).equals(lastManifest.getProperty(PREFIX_SIZE + databaseFile.getName()))) {
+                return new BackupReport(timestamp, BackupReport.Status.UNCHANGED, null, 0L, 0L,
+                                        SystemClock.elapsedRealtime() - start);
+            }
+
+            return this.copyVersion(databaseFile, crc32, timestamp, start);
+        }
+        finally {
+            setAutoCheckpoint(db, autoCheckpointPages);
+        }
+    }
+
+    /**
+     * Copies the database file into a new version, checked against the checksum of the file
+     * @param databaseFile the {@link File} of the database, which no checkpoint changes meanwhile
+     * @param crc32        an integer that contains the CRC32 checksum of the database file
+     * @param timestamp    an integer that contains the timestamp of the start of the backup
+     * @param start        an integer that contains the elapsed realtime of the start of the backup
+     * @return a {@link BackupReport}
+     * @throws IOException if the file can not be copied, or if the copy differs from the file
+     */
+    @NonNull
+    private BackupReport copyVersion(@NonNull final File databaseFile,
+                                     final long crc32,
+                                     final long timestamp,
+                                     final long start) throws IOException {
+        final File versionsDirectory = this.getVersionsDirectory();
+        final String version = String.valueOf(timestamp);
+        final File temporaryDirectory = new File(versionsDirectory, version + TEMPORARY_SUFFIX);
+        final File backupFile = new File(temporaryDirectory, databaseFile.getName());
+
+        if (!temporaryDirectory.exists() && !temporaryDirectory.mkdirs()) {
+            throw new IOException("The backup directory can not be created");
+        }
+
+        try {
+            copy(databaseFile, backupFile);
+
+            if (checksum(backupFile) != crc32) {
+                throw new IOException("The copy of the database file differs from the file");
+            }
+
+            final long backupSize = backupFile.length();
+
+            final Properties manifest = new Properties();
+            manifest.setProperty(KEY_DATABASE, backupFile.getName());
+            manifest.setProperty(PREFIX_CRC32 + backupFile.getName(), Long.toHexString(crc32));
+            manifest.setProperty(PREFIX_SIZE + backupFile.getName(), String.valueOf(backupSize));
+            writeManifest(new File(temporaryDirectory, MANIFEST), manifest);
+
+            final File versionDirectory = new File(versionsDirectory, version);
+            if (!temporaryDirectory.renameTo(versionDirectory)) {
+                throw new IOException("The backup directory can not be renamed");
+            }
+
+            this.deleteOldVersions();
+
+            return new BackupReport(timestamp, BackupReport.Status.COPIED, version, backupSize,
+                                    crc32, SystemClock.elapsedRealtime() - start);
+        }
+        finally {
+            // Left only by a failed backup
+            deleteDirectory(temporaryDirectory);
+        }
+    }
+
+    // -- VERSIONS --
+
+    /**
+     * Returns the names of the complete versions, the most recent first
+     * @return a {@link List} of {@link String}
+     */
+    @NonNull
+    public List<String> getVersions() {
+        final List<String> versions = new ArrayList<>();
+        final File[] directories = this.getVersionsDirectory().listFiles();
+
+        if (directories != null) {
+            for (File directory : directories) {
+                if (!directory.getName().endsWith(TEMPORARY_SUFFIX) && new File(directory, MANIFEST).isFile()) {
+                    versions.add(directory.getName());
+                }
+            }
+        }
+
+        // Timestamps of the same number of digits
+        Collections.sort(versions, Collections.reverseOrder());
+        return versions;
+    }
+
+    /**
+     * Deletes the oldest versions beyond the number of versions kept
+     */
+    private void deleteOldVersions() {
+        final List<String> versions = this.getVersions();
+
+        for (String version : versions.subList(Math.min(this.mMaxVersions, versions.size()), versions.size())) {
+            deleteDirectory(new File(this.getVersionsDirectory(), version));
+        }
+    }
+
+    // -- RESTORE --
+
+    /**
+     * Replaces the database file of the workspace by a version, once its checksum verified.
+     * The instance of {@link TodocDatabase} of the workspace is closed, so the components which
+     * hold it (its DAOs, its repositories and this backup) must be built again.
+     * @param version a {@link String} that contains the name of the version
+     * @throws IOException if the version is missing or corrupted, or if it can not be copied
+     */
+    @WorkerThread
+    public void restore(@NonNull final String version) throws IOException {
+        final File versionDirectory = new File(this.getVersionsDirectory(), version);
+        final Properties manifest = readManifest(new File(versionDirectory, MANIFEST));
+        final String fileName = manifest.getProperty(KEY_DATABASE);
+        final String expectedCrc32 = manifest.getProperty(PREFIX_CRC32 + fileName);
+
+        if (fileName == null || expectedCrc32 == null) {
+            throw new IOException("The manifest of the version " + version + " is incomplete");
+        }
+
+        // Copied next to the database file, so that the swap is a rename on the same file system
+        final File databaseFile = this.getDatabaseFile();
+        final File restoredFile = new File(databaseFile.getPath() + TEMPORARY_SUFFIX);
+
+        try {
+            copy(new File(versionDirectory, fileName), restoredFile);
+
+            if (!Long.toHexString(checksum(restoredFile)).equals(expectedCrc32)) {
+                throw new IOException("The checksum of the version " + version + " does not match");
+            }
+
+            TodocDatabase.replaceDatabaseFile(this.mContext, this.mWorkspace, restoredFile);
+        }
+        finally {
+            if (restoredFile.exists() && !restoredFile.delete()) {
+                Log.w(TAG, "restore: the temporary file can not be deleted");
+            }
+        }
+    }
+
+    // -- FILES --
+
+    /**
+     * Returns the database file of the workspace
+     * @return a {@link File}
+     */
+    @NonNull
+    private File getDatabaseFile() {
+        return this.mContext.getDatabasePath(TodocDatabase.getDatabaseName(this.mWorkspace));
+    }
+
+    /**
+     * Returns the directory of the versions of the workspace
+     * @return a {@link File}
+     */
+    @NonNull
+    private File getVersionsDirectory() {
+        return new File(new File(this.mContext.getFilesDir(), BACKUP_DIRECTORY), this.mWorkspace);
+    }
+
+    /**
+     * Returns the manifest of the most recent version, null without version
+     * @return a {@link Properties}
+     * @throws IOException if the manifest can not be read
+     */
+    @Nullable
+    private Properties readLastManifest() throws IOException {
+        final List<String> versions = this.getVersions();
+
+        return versions.isEmpty() ? null
+                                  : readManifest(new File(new File(this.getVersionsDirectory(), versions.get(0)), MANIFEST));
+    }
+
+    // -- TOOLS --
+
+    /**
+     * Copies a file with channel transfers (no copy through the Java heap), then syncs the copy
+     * @param source the {@link File} to copy
+     * @param target the {@link File} of the copy, replaced if it exists
+     * @throws IOException if the file can not be copied
+     */
+    private static void copy(@NonNull final File source, @NonNull final File target) throws IOException {
+        try (FileInputStream inputStream = new FileInputStream(source);
+             FileChannel sourceChannel = inputStream.getChannel();
+             FileOutputStream outputStream = new FileOutputStream(target);
+             FileChannel targetChannel = outputStream.getChannel()) {
+            final long length = sourceChannel.size();
+
+            for (long position = 0; position < length; ) {
+                position += sourceChannel.transferTo(position,
+                                                     Math.min(TRANSFER_CHUNK_SIZE, length - position),
+                                                     targetChannel);
+            }
+
+            targetChannel.force(true);
+        }
+    }
+
+    /**
+     * Returns the CRC32 checksum of a file
+     * @param file a {@link File}
+     * @return an integer
+     * @throws IOException if the file can not be read
+     */
+    private static long checksum(@NonNull final File file) throws IOException {
+        final CRC32 crc32 = new CRC32();
+        final byte[] buffer = new byte[CHECKSUM_BUFFER_SIZE];
+
+        try (InputStream inputStream = new FileInputStream(file)) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                crc32.update(buffer, 0, read);
+            }
+        }
+
+        return crc32.getValue();
+    }
+
+    /**
+     * Sets the number of pages of the log from which the connection of the writers checkpoints
+     * after a commit (0 turns the automatic checkpoints off), and returns the previous one.
+     * The PRAGMA is a setting of the connection: the transaction runs it on the one of the writers.
+     * @param db    a {@link SupportSQLiteDatabase}
+     * @param pages an integer that contains the number of pages
+     * @return an integer that contains the previous number of pages
+     */
+    private static long setAutoCheckpoint(@NonNull final SupportSQLiteDatabase db, final long pages) {
+        db.beginTransaction();
+        try {
+            final long previousPages;
+            try (Cursor cursor = db.query("PRAGMA wal_autocheckpoint")) {
+                previousPages = cursor.moveToFirst() ? cursor.getLong(0) : 0L;
+            }
+            try (Cursor cursor = db.query("PRAGMA wal_autocheckpoint = " + pages)) {
+                cursor.moveToFirst();
+            }
+
+            db.setTransactionSuccessful();
+            return previousPages;
+        }
+        finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Reads the manifest of a version
+     * @param file the {@link File} of the manifest
+     * @return a {@link Properties}
+     * @throws IOException if the manifest can not be read
+     */
+    @NonNull
+    private static Properties readManifest(@NonNull final File file) throws IOException {
+        final Properties manifest = new Properties();
+
+        try (InputStream inputStream = new FileInputStream(file)) {
+            manifest.load(inputStream);
+        }
+
+        return manifest;
+    }
+
+    /**
+     * Writes the manifest of a version and syncs it
+     * @param file     the {@link File} of the manifest
+     * @param manifest a {@link Properties}
+     * @throws IOException if the manifest can not be written
+     */
+    private static void writeManifest(@NonNull final File file, @NonNull final Properties manifest) throws IOException {
+        try (FileOutputStream outputStream = new FileOutputStream(file)) {
+            manifest.store(outputStream, null);
+            outputStream.getFD().sync();
+        }
+    }
+
+    /**
+     * Deletes a directory of version and its files (a version has no subdirectory)
+     * @param directory a {@link File}
+     */
+    private static void deleteDirectory(@NonNull final File directory) {
+        final File[] files = directory.listFiles();
+
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) {
+                    Log.w(TAG, "deleteDirectory: " + file.getName() + " can not be deleted");
+                }
+            }
+        }
+
+        if (directory.exists() && !directory.delete()) {
+            Log.w(TAG, "deleteDirectory: " + directory.getName() + " can not be deleted");
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.cleanup.todoc.model.database;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteException;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import com.cleanup.todoc.model.pojos.MaintenanceReport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>Maintenance of {@link TodocDatabase}: ANALYZE refreshes the statistics of the query planner,
+ * PRAGMA incremental_vacuum gives the free pages back to the file system and
+ * PRAGMA quick_check verifies the file.</p>
+ *
+ * Each write runs as its own statement, outside of any transaction, so the write lock is released
+ * between two of them, and none is started when it would not fit in the write budget of
+ * {@link TodocDatabaseConfig}: the steps of the vacuum are sized to the budget, the ANALYZE of a
+ * table whose estimate goes beyond it is deferred (its previous statistics stay). The only exception
+ * is the full VACUUM which converts an old file to the incremental auto-vacuum, once for all.
+ * A statement which still goes beyond the budget is reported in its {@link MaintenanceReport.Step}.
+ * The quick check only reads (in WAL mode, the writers are not blocked).
+ */
+public class DatabaseMaintenance {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final String TAG = DatabaseMaintenance.class.getSimpleName();
+
+    public static final String STEP_ANALYZE = "analyze";
+    public static final String STEP_VACUUM = "vacuum";
+    public static final String STEP_QUICK_CHECK = "quick_check";
+
+    /**
+     * Value of PRAGMA auto_vacuum once the file is in incremental mode
+     */
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    /**
+     * Rows sampled by index by ANALYZE (PRAGMA analysis_limit, ignored before SQLite 3.32)
+     */
+    private static final int ANALYSIS_LIMIT = 1000;
+
+    /**
+     * Pages freed by the first step of the vacuum, then doubled or halved to fit the budget
+     */
+    private static final int INITIAL_VACUUM_PAGES = 64;
+
+    @NonNull
+    private final TodocDatabase mDatabase;
+
+    private final long mWriteBudgetMillis;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     * @param database          a {@link TodocDatabase}
+     * @param writeBudgetMillis an integer that contains the longest time a statement
+     *                          of the maintenance may hold the write lock
+     */
+    public DatabaseMaintenance(@NonNull final TodocDatabase database, final long writeBudgetMillis) {
+        if (writeBudgetMillis < 1L) {
+            throw new IllegalArgumentException("The write budget must be positive");
+        }
+
+        this.mDatabase = database;
+        this.mWriteBudgetMillis = writeBudgetMillis;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    /**
+     * Runs the steps of the maintenance, until their end or until the run is cancelled
+     * (checked between two statements)
+     * @param cancelled an {@link AtomicBoolean} set to true to stop the run
+     * @return a {@link MaintenanceReport}
+     */
+    @WorkerThread
+    @NonNull
+    public MaintenanceReport run(@NonNull final AtomicBoolean cancelled) {
+        final SupportSQLiteDatabase db = this.mDatabase.getOpenHelper().getWritableDatabase();
+        final long timestamp = System.currentTimeMillis();
+        final List<MaintenanceReport.Step> steps = new ArrayList<>();
+        String integrity = null;
+
+        if (!cancelled.get()) {
+            steps.add(this.analyze(db, cancelled));
+        }
+        if (!cancelled.get()) {
+            steps.add(this.vacuum(db, cancelled));
+        }
+        if (!cancelled.get()) {
+            final long start = SystemClock.elapsedRealtime();
+            integrity = quickCheck(db);
+            steps.add(new MaintenanceReport.Step(STEP_QUICK_CHECK, SystemClock.elapsedRealtime() - start, 0L, 0L));
+        }
+
+        final MaintenanceReport report = new MaintenanceReport(timestamp, steps, integrity, !cancelled.get());
+
+        if (integrity != null && !report.isIntegrityOk()) {
+            Log.e(TAG, "run: quick_check failed: " + integrity);
+        }
+        for (MaintenanceReport.Step step : steps) {
+            if (step.isOverBudget()) {
+                Log.w(TAG, "run: " + step.getName() + " has held the write lock " + step.getLongestWriteLockMillis() +
+                           " ms, beyond the budget of " + this.mWriteBudgetMillis + " ms");
+            }
+        }
+
+        return report;
+    }
+
+    // -- ANALYZE --
+
+    /**
+     * Analyzes the tables one by one (a lock by table). ANALYZE reads every index of the table
+     * (all its rows before SQLite 3.32, a sample since), so its time is estimated from the time
+     * of a COUNT(*) on this device, which reads one of them without holding the write lock;
+     * the tables whose estimate goes beyond the budget are deferred.
+     * @param db        a {@link SupportSQLiteDatabase}
+     * @param cancelled an {@link AtomicBoolean}
+     * @return a {@link MaintenanceReport.Step}
+     */
+    @NonNull
+    private MaintenanceReport.Step analyze(@NonNull final SupportSQLiteDatabase db,
+                                           @NonNull final AtomicBoolean cancelled) {
+        final long start = SystemClock.elapsedRealtime();
+        long longestWriteLockMillis = 0L;
+        int deferredCount = 0;
+
+        // The PRAGMA returns the new limit, no row where SQLite does not know it
+        final boolean sampled = longForQuery(db, "PRAGMA analysis_limit = " + ANALYSIS_LIMIT) == ANALYSIS_LIMIT;
+
+        for (String table : getAnalyzableTables(db)) {
+            if (cancelled.get()) {
+                break;
+            }
+
+            final long countStart = SystemClock.elapsedRealtime();
+            final long rowCount = longForQuery(db, "SELECT COUNT(*) FROM `" + table + "`");
+            final long countMillis = SystemClock.elapsedRealtime() - countStart;
+
+            // The table and each of its indexes
+            long estimatedMillis = countMillis * (getIndexCount(db, table) + 1);
+            if (sampled && rowCount > ANALYSIS_LIMIT) {
+                estimatedMillis = estimatedMillis * ANALYSIS_LIMIT / rowCount;
+            }
+
+            if (estimatedMillis > this.mWriteBudgetMillis) {
+                Log.w(TAG, "analyze: " + table + " deferred, about " + estimatedMillis + " ms for " + rowCount + " rows");
+                deferredCount++;
+                continue;
+            }
+
+            final long statementStart = SystemClock.elapsedRealtime();
+            db.execSQL("ANALYZE `" + table + "`");
+            longestWriteLockMillis = Math.max(longestWriteLockMillis, SystemClock.elapsedRealtime() - statementStart);
+        }
+
+        return new MaintenanceReport.Step(STEP_ANALYZE, SystemClock.elapsedRealtime() - start, longestWriteLockMillis, 0L,
+                                          longestWriteLockMillis > this.mWriteBudgetMillis, deferredCount);
+    }
+
+    /**
+     * Returns the names of the tables of the app (neither those of SQLite or Room, nor the virtual tables)
+     * @param db a {@link SupportSQLiteDatabase}
+     * @return a {@link List} of {@link String}
+     */
+    @NonNull
+    private static List<String> getAnalyzableTables(@NonNull final SupportSQLiteDatabase db) {
+        final List<String> tables = new ArrayList<>();
+
+        try (Cursor cursor = db.query("SELECT `name` FROM `sqlite_master` WHERE `type` = 'table' " +
+                                      "AND `name` NOT LIKE 'sqlite_%' AND `name` NOT LIKE 'room_%' " +
+                                      "AND `sql` NOT LIKE 'CREATE VIRTUAL TABLE%'")) {
+            while (cursor.moveToNext()) {
+                tables.add(cursor.getString(0));
+            }
+        }
+
+        return tables;
+    }
+
+    /**
+     * Returns the number of indexes of a table
+     * @param db    a {@link SupportSQLiteDatabase}
+     * @param table a {@link String} that contains the name of the table
+     * @return an integer
+     */
+    private static int getIndexCount(@NonNull final SupportSQLiteDatabase db, @NonNull final String table) {
+        try (Cursor cursor = db.query("PRAGMA index_list(`" + table + "`)")) {
+            return cursor.getCount();
+        }
+    }
+
+    // -- VACUUM --
+
+    /**
+     * Gives the free pages back to the file system by steps sized to the write budget,
+     * or converts the file to the incremental auto-vacuum (see TodocDatabase.MIGRATION_7_8).
+     * The conversion is a full VACUUM, which copies the whole file under the write lock whatever
+     * the budget: it runs once by file, while the device is idle, and is reported like any
+     * statement beyond the budget.
+     * @param db        a {@link SupportSQLiteDatabase}
+     * @param cancelled an {@link AtomicBoolean}
+     * @return a {@link MaintenanceReport.Step}
+     */
+    @NonNull
+    private MaintenanceReport.Step vacuum(@NonNull final SupportSQLiteDatabase db,
+                                          @NonNull final AtomicBoolean cancelled) {
+        final long start = SystemClock.elapsedRealtime();
+        final long pageSize = longForQuery(db, "PRAGMA page_size");
+        final long pageCountBefore = longForQuery(db, "PRAGMA page_count");
+        long longestWriteLockMillis = 0L;
+
+        if (longForQuery(db, "PRAGMA auto_vacuum") != AUTO_VACUUM_INCREMENTAL) {
+            Log.i(TAG, "vacuum: conversion of " + pageCountBefore + " pages to the incremental auto-vacuum");
+
+            final long statementStart = SystemClock.elapsedRealtime();
+            db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+            db.execSQL("VACUUM");
+            longestWriteLockMillis = SystemClock.elapsedRealtime() - statementStart;
+        }
+        else {
+            int pages = INITIAL_VACUUM_PAGES;
+
+            while (!cancelled.get() && longForQuery(db, "PRAGMA freelist_count") > 0L) {
+                final long statementStart = SystemClock.elapsedRealtime();
+                // One page is freed by row of the result: the rows must all be read
+                drain(db, "PRAGMA incremental_vacuum(" + pages + ")");
+                final long statementMillis = SystemClock.elapsedRealtime() - statementStart;
+
+                longestWriteLockMillis = Math.max(longestWriteLockMillis, statementMillis);
+
+                // Aims at half of the budget
+                if (statementMillis * 4L < this.mWriteBudgetMillis) {
+                    pages *= 2;
+                }
+                else if (statementMillis * 2L > this.mWriteBudgetMillis) {
+                    pages = Math.max(1, pages / 2);
+                }
+            }
+        }
+
+        // In WAL mode, the file only shrinks once the frames are copied back into it
+        drain(db, "PRAGMA wal_checkpoint(PASSIVE)");
+
+        final long reclaimedBytes = (pageCountBefore - longForQuery(db, "PRAGMA page_count")) * pageSize;
+
+        return new MaintenanceReport.Step(STEP_VACUUM, SystemClock.elapsedRealtime() - start,
+                                          longestWriteLockMillis, Math.max(0L, reclaimedBytes),
+                                          longestWriteLockMillis > this.mWriteBudgetMillis, 0);
+    }
+
+    // -- QUICK CHECK --
+
+    /**
+     * Returns the first line of PRAGMA quick_check, "ok" for a sound file.
+     * As a SELECT, the check runs on a read connection of the pool and leaves the primary
+     * connection to the writers; the table-valued PRAGMAs need SQLite 3.16 (API 26).
+     * @param db a {@link SupportSQLiteDatabase}
+     * @return a {@link String}
+     */
+    @Nullable
+    private static String quickCheck(@NonNull final SupportSQLiteDatabase db) {
+        try (Cursor cursor = db.query("SELECT * FROM pragma_quick_check(1)")) {
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        }
+        catch (SQLiteException e) {
+            try (Cursor cursor = db.query("PRAGMA quick_check(1)")) {
+                return cursor.moveToFirst() ? cursor.getString(0) : null;
+            }
+        }
+    }
+
+    // -- TOOLS --
+
+    /**
+     * Runs a PRAGMA which returns rows (execSQL only steps once) and reads all of them
+     * @param db  a {@link SupportSQLiteDatabase}
+     * @param sql a {@link String} that contains the PRAGMA
+     */
+    private static void drain(@NonNull final SupportSQLiteDatabase db, @NonNull final String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            //noinspection StatementWithEmptyBody
+            while (cursor.moveToNext()) {
+            }
+        }
+    }
+
+    /**
+     * Returns the integer of the first column of the first row of a query, 0 without row
+     * @param db  a {@link SupportSQLiteDatabase}
+     * @param sql a {@link String} that contains the query
+     * @return an integer
+     */
+    private static long longForQuery(@NonNull final SupportSQLiteDatabase db, @NonNull final String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0L;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.cleanup.todoc.model.database;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.db.SupportSQLiteOpenHelper;
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * <p>{@link SupportSQLiteOpenHelper.Factory} which copies a prebuilt database from the assets
+ * before the first open, instead of letting Room create then prepopulate it row by row.</p>
+ *
+ * The copy is done by the first call to getWritableDatabase or getReadableDatabase,
+ * so on the background thread which first accesses a DAO. If the asset is missing,
+ * Room creates the database as usual.
+ */
+public class PrepackagedOpenHelperFactory implements SupportSQLiteOpenHelper.Factory {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final String TAG = PrepackagedOpenHelperFactory.class.getSimpleName();
+
+    private static final long TRANSFER_CHUNK_SIZE = 1024 * 1024;
+
+    @NonNull
+    private final String mAssetPath;
+    @NonNull
+    private final SupportSQLiteOpenHelper.Factory mDelegate;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     * @param assetPath a {@link String} that contains the path of the database in the assets
+     * @param delegate  the {@link SupportSQLiteOpenHelper.Factory} which opens the copied database
+     */
+    public PrepackagedOpenHelperFactory(@NonNull final String assetPath,
+                                        @NonNull final SupportSQLiteOpenHelper.Factory delegate) {
+        this.mAssetPath = assetPath;
+        this.mDelegate = delegate;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    @Override
+    public SupportSQLiteOpenHelper create(SupportSQLiteOpenHelper.Configuration configuration) {
+        final SupportSQLiteOpenHelper helper = this.mDelegate.create(configuration);
+
+        // In-memory database
+        if (configuration.name == null) {
+            return helper;
+        }
+
+        return new PrepackagedOpenHelper(helper,
+                                         configuration.context.getAssets(),
+                                         this.mAssetPath,
+                                         configuration.context.getDatabasePath(configuration.name));
+    }
+
+    // INNER CLASSES -------------------------------------------------------------------------------
+
+    /**
+     * <p>{@link SupportSQLiteOpenHelper} which copies the asset if the database file does not exist,
+     * then delegates.</p>
+     */
+    private static class PrepackagedOpenHelper implements SupportSQLiteOpenHelper {
+
+        @NonNull
+        private final SupportSQLiteOpenHelper mDelegate;
+        @NonNull
+        private final AssetManager mAssets;
+        @NonNull
+        private final String mAssetPath;
+        @NonNull
+        private final File mDatabaseFile;
+
+        private boolean mVerified = false;
+
+        PrepackagedOpenHelper(@NonNull final SupportSQLiteOpenHelper delegate,
+                              @NonNull final AssetManager assets,
+                              @NonNull final String assetPath,
+                              @NonNull final File databaseFile) {
+            this.mDelegate = delegate;
+            this.mAssets = assets;
+            this.mAssetPath = assetPath;
+            this.mDatabaseFile = databaseFile;
+        }
+
+        @Override
+        public String getDatabaseName() {
+            return this.mDelegate.getDatabaseName();
+        }
+
+        @Override
+        public void setWriteAheadLoggingEnabled(boolean enabled) {
+            this.mDelegate.setWriteAheadLoggingEnabled(enabled);
+        }
+
+        @Override
+        public SupportSQLiteDatabase getWritableDatabase() {
+            this.copyIfNeeded();
+            return this.mDelegate.getWritableDatabase();
+        }
+
+        @Override
+        public SupportSQLiteDatabase getReadableDatabase() {
+            this.copyIfNeeded();
+            return this.mDelegate.getReadableDatabase();
+        }
+
+        @Override
+        public void close() {
+            this.mDelegate.close();
+        }
+
+        /**
+         * Copies the asset into the database file if it does not exist yet
+         */
+        private synchronized void copyIfNeeded() {
+            if (this.mVerified) {
+                return;
+            }
+
+            if (!this.mDatabaseFile.exists()) {
+                try {
+                    copy(this.mAssets, this.mAssetPath, this.mDatabaseFile);
+                }
+                catch (FileNotFoundException e) {
+                    Log.w(TAG, "copyIfNeeded: no prepackaged database, Room creates it", e);
+                }
+                catch (IOException e) {
+                    Log.e(TAG, "copyIfNeeded: the prepackaged database can not be copied", e);
+                }
+            }
+
+            this.mVerified = true;
+        }
+    }
+
+    // -- COPY --
+
+    /**
+     * Copies the asset into a temporary file with channel transfers, gives the relative creation
+     * timestamps of the template tasks their absolute value, then renames the file, so that the
+     * database file never exists half copied
+     * @param assets       an {@link AssetManager}
+     * @param assetPath    a {@link String} that contains the path of the database in the assets
+     * @param databaseFile the {@link File} of the database
+     * @throws IOException if the asset is missing or can not be copied
+     */
+    private static void copy(@NonNull final AssetManager assets,
+                             @NonNull final String assetPath,
+                             @NonNull final File databaseFile) throws IOException {
+        final File parent = databaseFile.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("The directory of the database can not be created");
+        }
+
+        final File temporaryFile = new File(databaseFile.getPath() + ".tmp");
+
+        try {
+            try (FileOutputStream outputStream = new FileOutputStream(temporaryFile);
+                 FileChannel target = outputStream.getChannel()) {
+                final AssetFileDescriptor assetFileDescriptor = openFd(assets, assetPath);
+
+                if (assetFileDescriptor != null) {
+                    // Uncompressed asset: transfer straight from the region of the APK file
+                    try (AssetFileDescriptor descriptor = assetFileDescriptor;
+                         FileInputStream inputStream = descriptor.createInputStream();
+                         FileChannel source = inputStream.getChannel()) {
+                        final long start = descriptor.getStartOffset();
+                        final long length = descriptor.getLength();
+
+                        for (long position = 0; position < length; ) {
+                            position += source.transferTo(start + position,
+                                                          Math.min(TRANSFER_CHUNK_SIZE, length - position),
+                                                          target);
+                        }
+                    }
+                }
+                else {
+                    // Compressed asset: the stream inflates it
+                    try (InputStream inputStream = assets.open(assetPath);
+                         ReadableByteChannel source = Channels.newChannel(inputStream)) {
+                        long transferred;
+                        for (long position = 0;
+                             (transferred = target.transferFrom(source, position, TRANSFER_CHUNK_SIZE)) > 0; ) {
+                            position += transferred;
+                        }
+                    }
+                }
+
+                target.force(true);
+            }
+
+            stampTemplateTasks(temporaryFile);
+
+            if (!temporaryFile.renameTo(databaseFile)) {
+                throw new IOException("The prepackaged database can not be renamed");
+            }
+        }
+        finally {
+            if (temporaryFile.exists() && !temporaryFile.delete()) {
+                Log.w(TAG, "copy: the temporary file can not be deleted");
+            }
+        }
+    }
+
+    /**
+     * Returns the {@link AssetFileDescriptor} of the asset, or null if it is compressed
+     * @param assets    an {@link AssetManager}
+     * @param assetPath a {@link String} that contains the path of the asset
+     * @return an {@link AssetFileDescriptor} or null
+     * @throws IOException if the asset is missing
+     */
+    @Nullable
+    private static AssetFileDescriptor openFd(@NonNull final AssetManager assets,
+                                              @NonNull final String assetPath) throws IOException {
+        try {
+            return assets.openFd(assetPath);
+        }
+        catch (FileNotFoundException e) {
+            // Thrown for a compressed asset as well as for a missing one: open() tells them apart
+            assets.open(assetPath).close();
+            return null;
+        }
+    }
+
+    /**
+     * The template tasks are generated with their order as creation timestamp,
+     * they take the time of the first launch as origin (and its day)
+     * @param file the {@link File} of the copied database
+     */
+    private static void stampTemplateTasks(@NonNull final File file) {
+        final SQLiteDatabase db = SQLiteDatabase.openDatabase(file.getPath(), null, SQLiteDatabase.OPEN_READWRITE);
+
+        try {
+            db.execSQL("UPDATE `task` SET `creation_timestamp` = `creation_timestamp` + ?",
+                       new Object[] {System.currentTimeMillis()});
+
+            // An asset older than the column gets it from TodocDatabase.MIGRATION_9_10
+            if (hasCreationDay(db)) {
+                db.execSQL("UPDATE `task` SET `creation_day` = " + TodocDatabase.CREATION_DAY_SQL);
+            }
+        }
+        finally {
+            db.close();
+        }
+    }
+
+    /**
+     * Returns true if the task table of the copy already has the creation_day column
+     * @param db a {@link SQLiteDatabase}
+     * @return a boolean
+     */
+    private static boolean hasCreationDay(@NonNull final SQLiteDatabase db) {
+        try (Cursor cursor = db.rawQuery("PRAGMA table_info(`task`)", null)) {
+            while (cursor.moveToNext()) {
+                if ("creation_day".equals(cursor.getString(cursor.getColumnIndexOrThrow("name")))) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+}
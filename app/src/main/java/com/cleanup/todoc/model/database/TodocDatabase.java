@@ -5,71 +5,892 @@ import android.arch.persistence.room.Database;
 import android.arch.persistence.room.OnConflictStrategy;
 import android.arch.persistence.room.Room;
 import android.arch.persistence.room.RoomDatabase;
+import android.arch.persistence.room.migration.Migration;
 import android.content.ContentValues;
 import android.content.Context;
+import android.database.Cursor;
 import android.support.annotation.NonNull;
+import android.support.annotation.VisibleForTesting;
+import android.util.Log;
 
+import com.cleanup.todoc.model.pojos.ArchivedTask;
+import com.cleanup.todoc.model.pojos.BackfillProgress;
+import com.cleanup.todoc.model.pojos.BacklogDay;
 import com.cleanup.todoc.model.pojos.Project;
 import com.cleanup.todoc.model.pojos.Task;
+import com.cleanup.todoc.model.pojos.TaskChange;
+import com.cleanup.todoc.model.pojos.TaskDailyStats;
+import com.cleanup.todoc.model.pojos.TaskDetails;
+import com.cleanup.todoc.model.dao.ArchivedTaskDao;
+import com.cleanup.todoc.model.dao.BackfillDao;
 import com.cleanup.todoc.model.dao.ProjectDao;
+import com.cleanup.todoc.model.dao.StatsDao;
+import com.cleanup.todoc.model.dao.TaskChangeDao;
 import com.cleanup.todoc.model.dao.TaskDao;
+import com.cleanup.todoc.model.dao.TaskDetailsDao;
 
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.regex.Pattern;
 
 
 @Database(entities = {Project.class,
-        Task.class},
-        version = 1,
-        exportSchema = false)
+        Task.class,
+        ArchivedTask.class,
+        TaskChange.class,
+        TaskDetails.class,
+        TaskDailyStats.class,
+        BacklogDay.class,
+        BackfillProgress.class},
+        version = 13,
+        exportSchema = true)
 
 public abstract class TodocDatabase extends RoomDatabase {
 
     // FIELDS --------------------------------------------------------------------------------------
 
-    private static volatile TodocDatabase INSTANCE;
+    /**
+     * The workspace of the database file of the first versions
+     */
+    public static final String DEFAULT_WORKSPACE = "default";
+
+    private static final Pattern WORKSPACE_PATTERN = Pattern.compile("[a-z0-9_-]{1,32}");
+
+    private static final String TAG = TodocDatabase.class.getSimpleName();
+
+    /**
+     * The open instances by workspace, the least recently used first
+     */
+    private static final LinkedHashMap<String, TodocDatabase> INSTANCES = new LinkedHashMap<>(4, 0.75F, true);
 
     private static final String DATABASE_NAME = "TodocDatabase.db";
 
+    /**
+     * Generated by the generateSeedDatabase task of the app module from seed/seed.json
+     */
+    private static final String PREPACKAGED_DATABASE_ASSET = "databases/" + DATABASE_NAME;
+
+    /**
+     * The day of creation_timestamp in the time zone of the device, as computed by Task.getDayOf
+     */
+    static final String CREATION_DAY_SQL = daySql("`creation_timestamp`");
+
+    /**
+     * The current day in the time zone of the device (2440587.5 is the Julian day of the epoch)
+     */
+    private static final String TODAY_SQL = "CAST(julianday('now', 'localtime') - 2440587.5 AS INTEGER)";
+
+    /**
+     * The conditions of an open task (out of the trash and not done), before and after a change
+     */
+    private static final String OLD_IS_OPEN = "(OLD.`deleted_at` IS NULL AND OLD.`completed_at` IS NULL)";
+    private static final String NEW_IS_OPEN = "(NEW.`deleted_at` IS NULL AND NEW.`completed_at` IS NULL)";
+
+    /**
+     * The name of the backfill of task.creation_day, added by MIGRATION_9_10
+     */
+    public static final String BACKFILL_CREATION_DAY = "creation_day";
+
+    /**
+     * The name of the backfill of task.position, added by MIGRATION_12_13
+     */
+    public static final String BACKFILL_POSITION = "position";
+
     public static final List<Project> PROJECTS = Arrays.asList(new Project("Projet Tartampion", 0xFFEADAD1),
             new Project("Projet Lucidia", 0xFFB4CDBA),
             new Project("Projet Circus",0xFFA3CED2));
 
+    /**
+     * The resources which hold statements compiled on the connections of this instance
+     */
+    private final List<Closeable> mAttachedResources = new ArrayList<>();
+
     // DAO------------------------------------------------------------------------------------------
 
     public abstract ProjectDao mProjectDao();
     public abstract TaskDao mTaskDao();
+    public abstract ArchivedTaskDao mArchivedTaskDao();
+    public abstract TaskChangeDao mTaskChangeDao();
+    public abstract TaskDetailsDao mTaskDetailsDao();
+    public abstract StatsDao mStatsDao();
+    public abstract BackfillDao mBackfillDao();
 
     // METHODS -------------------------------------------------------------------------------------
 
     // -- INSTANCE --
 
     /**
-     * Returns the instance of {@link TodocDatabase}
+     * Returns the instance of {@link TodocDatabase} of the default workspace
      * @param context a {@link Context}
      * @return the instance of {@link TodocDatabase}
      */
     public static TodocDatabase getInstance(final Context context) {
-        if (INSTANCE == null) {
-            synchronized (TodocDatabase.class) {
-                if (INSTANCE == null) {
-                    INSTANCE = Room.databaseBuilder(context.getApplicationContext(),
-                            TodocDatabase.class,
-                            DATABASE_NAME)
-                            .addCallback(prepopulateDatabase())
-                            .build();
+        return getInstance(context, TodocDatabaseConfig.DEFAULT, DEFAULT_WORKSPACE);
+    }
+
+    /**
+     * Returns the instance of {@link TodocDatabase} of a workspace, each workspace has its own file.
+     * Beyond the maximum number of open workspaces of the config, the least recently used instance
+     * is closed and must no longer be used.
+     * @param context   a {@link Context}
+     * @param config    a {@link TodocDatabaseConfig}, only used when the instance is created
+     *                  (except the maximum number of open workspaces)
+     * @param workspace a {@link String} that contains the name of the workspace
+     * @return the instance of {@link TodocDatabase}
+     */
+    public static TodocDatabase getInstance(final Context context,
+                                            final TodocDatabaseConfig config,
+                                            final String workspace) {
+        final String databaseName = getDatabaseName(workspace);
+
+        synchronized (INSTANCES) {
+            TodocDatabase instance = INSTANCES.get(workspace);
+
+            if (instance == null) {
+                instance = Room.databaseBuilder(context.getApplicationContext(),
+                        TodocDatabase.class,
+                        databaseName)
+                        .setJournalMode(config.getJournalMode())
+                        .openHelperFactory(new PrepackagedOpenHelperFactory(PREPACKAGED_DATABASE_ASSET,
+                                                                            new ConfiguredOpenHelperFactory(config)))
+                        .addCallback(auxiliaryStructures())
+                        .addCallback(prepopulateDatabase())
+                        .addMigrations(MIGRATIONS)
+                        .build();
+
+                INSTANCES.put(workspace, instance);
+            }
+
+            // The instance just returned is the most recently used, so it is never closed here
+            final Iterator<TodocDatabase> leastRecentlyUsed = INSTANCES.values().iterator();
+            while (INSTANCES.size() > config.getMaxOpenWorkspaces()) {
+                final TodocDatabase evicted = leastRecentlyUsed.next();
+                leastRecentlyUsed.remove();
+                evicted.close();
+            }
+
+            return instance;
+        }
+    }
+
+    /**
+     * Closes the instance of a workspace, if open, then deletes its database file.
+     * The workspace must no longer be the active one.
+     * @param context   a {@link Context}
+     * @param workspace a {@link String} that contains the name of the workspace
+     * @return true if the database file has been deleted
+     */
+    public static boolean deleteWorkspace(final Context context, final String workspace) {
+        final String databaseName = getDatabaseName(workspace);
+
+        synchronized (INSTANCES) {
+            closeWorkspace(workspace);
+
+            return context.getApplicationContext().deleteDatabase(databaseName);
+        }
+    }
+
+    /**
+     * Replaces the database file of a workspace by a file of the same directory, with a rename so
+     * that the database file is never seen half written. The instance of the workspace, if open,
+     * is closed first and must no longer be used: the next call to getInstance opens the new file.
+     * @param context   a {@link Context}
+     * @param workspace a {@link String} that contains the name of the workspace
+     * @param newFile   the {@link File} which replaces the database file
+     * @throws IOException if the file can not be renamed
+     */
+    public static void replaceDatabaseFile(final Context context,
+                                           final String workspace,
+                                           final File newFile) throws IOException {
+        final File databaseFile = context.getApplicationContext().getDatabasePath(getDatabaseName(workspace));
+
+        synchronized (INSTANCES) {
+            closeWorkspace(workspace);
+
+            // The write-ahead log and the rollback journal belong to the old file
+            for (String suffix : new String[] {"-wal", "-shm", "-journal"}) {
+                final File file = new File(databaseFile.getPath() + suffix);
+                if (file.exists() && !file.delete()) {
+                    throw new IOException("The file " + file.getName() + " can not be deleted");
+                }
+            }
+
+            if (!newFile.renameTo(databaseFile)) {
+                throw new IOException("The database file can not be replaced");
+            }
+        }
+    }
+
+    /**
+     * Closes the instance of a workspace, if open, and removes it from the pool
+     * @param workspace a {@link String} that contains the name of the workspace
+     */
+    private static void closeWorkspace(final String workspace) {
+        synchronized (INSTANCES) {
+            final TodocDatabase instance = INSTANCES.remove(workspace);
+            if (instance != null) {
+                instance.close();
+            }
+        }
+    }
+
+    /**
+     * Attaches a resource which holds statements compiled on the connections of this instance,
+     * so that it is closed before them (a statement can not outlive its connection)
+     * @param resource a {@link Closeable}
+     */
+    public void attach(@NonNull final Closeable resource) {
+        synchronized (this.mAttachedResources) {
+            if (!this.mAttachedResources.contains(resource)) {
+                this.mAttachedResources.add(resource);
+            }
+        }
+    }
+
+    /**
+     * Closes the attached resources, then the connections
+     */
+    @Override
+    public void close() {
+        final List<Closeable> resources;
+        synchronized (this.mAttachedResources) {
+            resources = new ArrayList<>(this.mAttachedResources);
+            this.mAttachedResources.clear();
+        }
+
+        // Out of the lock: a resource may be writing, and attaches itself from its writes
+        for (Closeable resource : resources) {
+            try {
+                resource.close();
+            }
+            catch (IOException e) {
+                Log.w(TAG, "close: an attached resource can not be closed", e);
+            }
+        }
+
+        super.close();
+    }
+
+    /**
+     * Returns the name of the database file of a workspace
+     * @param workspace a {@link String} that contains the name of the workspace:
+     *                  1 to 32 lowercase letters, digits, '_' or '-'
+     * @return a {@link String} that contains the name of the database file
+     */
+    public static String getDatabaseName(final String workspace) {
+        if (workspace == null || !WORKSPACE_PATTERN.matcher(workspace).matches()) {
+            throw new IllegalArgumentException("The name of a workspace must be 1 to 32 lowercase letters, digits, '_' or '-'");
+        }
+
+        // The default workspace keeps the file of the first versions
+        return DEFAULT_WORKSPACE.equals(workspace) ? DATABASE_NAME
+                                                   : "TodocDatabase-" + workspace + ".db";
+    }
+
+    // -- MIGRATIONS --
+
+    /**
+     * Migration from version 1 to version 2:
+     * the name column of task takes the NOCASE collation (SQLite needs to rebuild the table)
+     * and the task table gets indexes on name, creation_timestamp and project_id so that
+     * the sorted queries of {@link TaskDao} are served by SQLite.
+     */
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `task_new` (" +
+                    "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`project_id` INTEGER NOT NULL, " +
+                    "`name` TEXT NOT NULL COLLATE NOCASE, " +
+                    "`creation_timestamp` INTEGER NOT NULL, " +
+                    "FOREIGN KEY(`project_id`) REFERENCES `project`(`id`) " +
+                    "ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("INSERT INTO `task_new` (`id`, `project_id`, `name`, `creation_timestamp`) " +
+                    "SELECT `id`, `project_id`, `name`, `creation_timestamp` FROM `task`");
+            db.execSQL("DROP TABLE `task`");
+            db.execSQL("ALTER TABLE `task_new` RENAME TO `task`");
+
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_task_name` ON `task` (`name`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_task_creation_timestamp` ON `task` (`creation_timestamp`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_task_project_id` ON `task` (`project_id`)");
+        }
+    };
+
+    /**
+     * Migration from version 2 to version 3:
+     * creates the full-text index of the task names and fills it with the existing tasks.
+     */
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            createTaskFts(db);
+            db.execSQL("INSERT INTO `task_fts`(`task_fts`) VALUES('rebuild')");
+        }
+    };
+
+    /**
+     * Migration from version 3 to version 4:
+     * creates the table of the archived tasks, with the indexes of its foreign key and of its sort.
+     */
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `task_archive` (" +
+                    "`id` INTEGER NOT NULL, " +
+                    "`project_id` INTEGER NOT NULL, " +
+                    "`name` TEXT NOT NULL, " +
+                    "`creation_timestamp` INTEGER NOT NULL, " +
+                    "`archive_timestamp` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`id`), " +
+                    "FOREIGN KEY(`project_id`) REFERENCES `project`(`id`) " +
+                    "ON UPDATE NO ACTION ON DELETE CASCADE )");
+
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_task_archive_project_id` ON `task_archive` (`project_id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_task_archive_creation_timestamp` ON `task_archive` (`creation_timestamp`)");
+        }
+    };
+
+    /**
+     * Migration from version 4 to version 5:
+     * adds the tombstone of the trash, extends the index on project_id with it
+     * (the counts by project only read the index), makes the indexes of the lists partial,
+     * and limits the update triggers of the full-text index to the name column.
+     */
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `task` ADD COLUMN `deleted_at` INTEGER");
+
+            db.execSQL("DROP INDEX IF EXISTS `index_task_project_id`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_task_project_id_deleted_at` ON `task` (`project_id`, `deleted_at`)");
+
+            // The partial indexes of version 5 (completed_at comes with MIGRATION_8_9)
+            db.execSQL("DROP INDEX IF EXISTS `index_task_name`");
+            db.execSQL("CREATE INDEX `index_task_name` ON `task` (`name`) WHERE `deleted_at` IS NULL");
+            db.execSQL("DROP INDEX IF EXISTS `index_task_creation_timestamp`");
+            db.execSQL("CREATE INDEX `index_task_creation_timestamp` ON `task` (`creation_timestamp`) " +
+                    "WHERE `deleted_at` IS NULL");
+            db.execSQL("DROP INDEX IF EXISTS `index_task_deleted_at`");
+            db.execSQL("CREATE INDEX `index_task_deleted_at` ON `task` (`deleted_at`) WHERE `deleted_at` IS NOT NULL");
+
+            db.execSQL("DROP TRIGGER IF EXISTS `task_fts_before_update`");
+            db.execSQL("DROP TRIGGER IF EXISTS `task_fts_after_update`");
+            createTaskFts(db);
+        }
+    };
+
+    /**
+     * Migration from version 5 to version 6:
+     * creates the change log of the task table and the triggers which write it.
+     */
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `task_changes` (" +
+                    "`seq` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`task_id` INTEGER NOT NULL, " +
+                    "`project_id` INTEGER NOT NULL, " +
+                    "`operation` TEXT NOT NULL)");
+
+            createTaskChangeLog(db);
+        }
+    };
+
+    /**
+     * Migration from version 6 to version 7:
+     * creates the side table of the notes of the tasks and the triggers which remove them.
+     */
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `task_details` (" +
+                    "`task_id` INTEGER NOT NULL, " +
+                    "`notes` TEXT NOT NULL, " +
+                    "PRIMARY KEY(`task_id`))");
+
+            createTaskDetailsCleanup(db);
+        }
+    };
+
+    /**
+     * Migration from version 7 to version 8:
+     * switches the file to the incremental auto-vacuum, so that the maintenance can give the free
+     * pages back to the file system by small steps. SQLite only applies the new mode at the next
+     * VACUUM, which can not run in the transaction of a migration: DatabaseMaintenance runs it.
+     */
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+        }
+    };
+
+    /**
+     * Migration from version 8 to version 9:
+     * adds the completion timestamp of the tasks and narrows the indexes of the lists
+     * to the open tasks, so that the done ones never weigh on them.
+     */
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `task` ADD COLUMN `completed_at` INTEGER");
+
+            createPartialTaskIndexes(db);
+        }
+    };
+
+    /**
+     * Migration from version 9 to version 10:
+     * stores the day of creation of the tasks, with a partial index of the open tasks for the
+     * grouped counts of the timeline. The day of the existing tasks is computed after the opening
+     * by {@link #CREATION_DAY_BACKFILL}, not in the migration.
+     */
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `task` ADD COLUMN `creation_day` INTEGER NOT NULL DEFAULT 0");
+
+            createBackfillProgress(db);
+            db.execSQL("INSERT OR REPLACE INTO `backfill_progress` (`name`, `last_id`, `completed`) " +
+                    "VALUES ('" + BACKFILL_CREATION_DAY + "', 0, 0)");
+
+            createCreationDayIndex(db);
+        }
+    };
+
+    /**
+     * Migration from version 10 to version 11:
+     * creates the rollup tables of the statistics, fills them once from the tasks
+     * and the archive, then creates the triggers which keep them current.
+     */
+    static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `task_stats_daily` (" +
+                    "`day` INTEGER NOT NULL, " +
+                    "`project_id` INTEGER NOT NULL, " +
+                    "`created_count` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`day`, `project_id`), " +
+                    "FOREIGN KEY(`project_id`) REFERENCES `project`(`id`) " +
+                    "ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_task_stats_daily_project_id` ON `task_stats_daily` (`project_id`)");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `task_backlog_daily` (" +
+                    "`day` INTEGER NOT NULL, " +
+                    "`opened` INTEGER NOT NULL, " +
+                    "`closed` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`day`))");
+
+            rebuildTaskStats(db);
+            createTaskStatsTriggers(db);
+        }
+    };
+
+    /**
+     * Migration from version 11 to version 12:
+     * creates the table of the progress of the backfills (already there if the database
+     * has been migrated from version 9).
+     */
+    static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            createBackfillProgress(db);
+        }
+    };
+
+    /**
+     * Migration from version 12 to version 13:
+     * stores the key of the tasks in the manual order, with its index. The key of the existing
+     * tasks is computed from their id after the opening by {@link #POSITION_BACKFILL}.
+     */
+    static final Migration MIGRATION_12_13 = new Migration(12, 13) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `task` ADD COLUMN `position` TEXT NOT NULL DEFAULT ''");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_task_position` ON `task` (`position`)");
+
+            db.execSQL("INSERT OR REPLACE INTO `backfill_progress` (`name`, `last_id`, `completed`) " +
+                    "VALUES ('" + BACKFILL_POSITION + "', 0, 0)");
+        }
+    };
+
+    /**
+     * Every migration, from version 1 (declared after them, a static field is initialized in order)
+     */
+    @VisibleForTesting
+    public static final Migration[] MIGRATIONS = {MIGRATION_1_2,
+                                                  MIGRATION_2_3,
+                                                  MIGRATION_3_4,
+                                                  MIGRATION_4_5,
+                                                  MIGRATION_5_6,
+                                                  MIGRATION_6_7,
+                                                  MIGRATION_7_8,
+                                                  MIGRATION_8_9,
+                                                  MIGRATION_9_10,
+                                                  MIGRATION_10_11,
+                                                  MIGRATION_11_12,
+                                                  MIGRATION_12_13};
+
+    /**
+     * Creates the table of {@link BackfillProgress}, as Room does
+     * @param db a {@link SupportSQLiteDatabase}
+     */
+    private static void createBackfillProgress(@NonNull final SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS `backfill_progress` (" +
+                "`name` TEXT NOT NULL, " +
+                "`last_id` INTEGER NOT NULL, " +
+                "`completed` INTEGER NOT NULL, " +
+                "PRIMARY KEY(`name`))");
+    }
+
+    // -- BACKFILLS --
+
+    /**
+     * Computes task.creation_day for a range of tasks. The change log trigger logs each updated
+     * task as an update: those rows are removed in the same transaction, the lists have not changed.
+     */
+    static final Backfill CREATION_DAY_BACKFILL = new Backfill(BACKFILL_CREATION_DAY, "task") {
+        @Override
+        public void fill(@NonNull SupportSQLiteDatabase db, long fromId, long toId) {
+            final long lastSeq;
+            try (Cursor cursor = db.query("SELECT IFNULL(MAX(`seq`), 0) FROM `task_changes`")) {
+                lastSeq = cursor.moveToFirst() ? cursor.getLong(0) : 0L;
+            }
+
+            db.execSQL("UPDATE `task` SET `creation_day` = " + CREATION_DAY_SQL + " WHERE `id` > ? AND `id` <= ?",
+                       new Object[] {fromId, toId});
+            db.execSQL("DELETE FROM `task_changes` WHERE `seq` > ?", new Object[] {lastSeq});
+        }
+    };
+
+    /**
+     * Gives a range of tasks the key of their id in the manual order (the order of creation),
+     * unless a move or a rebalancing has already written it. The change log rows are removed
+     * as for {@link #CREATION_DAY_BACKFILL}.
+     */
+    static final Backfill POSITION_BACKFILL = new Backfill(BACKFILL_POSITION, "task") {
+        @Override
+        public void fill(@NonNull SupportSQLiteDatabase db, long fromId, long toId) {
+            final long lastSeq;
+            try (Cursor cursor = db.query("SELECT IFNULL(MAX(`seq`), 0) FROM `task_changes`")) {
+                lastSeq = cursor.moveToFirst() ? cursor.getLong(0) : 0L;
+            }
+
+            db.execSQL("UPDATE `task` SET `position` = " + TaskDao.POSITION_OF_ID +
+                       " WHERE `id` > ? AND `id` <= ? AND `position` = ''",
+                       new Object[] {fromId, toId});
+            db.execSQL("DELETE FROM `task_changes` WHERE `seq` > ?", new Object[] {lastSeq});
+        }
+    };
+
+    /**
+     * The backfills run by the BackfillRunner, in this order
+     */
+    public static final List<Backfill> BACKFILLS = Arrays.asList(CREATION_DAY_BACKFILL, POSITION_BACKFILL);
+
+    // -- AUXILIARY STRUCTURES --
+
+    /**
+     * Returns a {@link android.arch.persistence.room.RoomDatabase.Callback} that
+     * creates the structures Room does not manage (full-text index, partial indexes and triggers),
+     * when Room creates the database or when it opens a prepackaged one which lacks them,
+     * and empties the change log of the task table at each opening
+     * @return a {@link android.arch.persistence.room.RoomDatabase.Callback}
+     */
+    public static Callback auxiliaryStructures() {
+        return new Callback() {
+            @Override
+            public void onCreate(@NonNull SupportSQLiteDatabase db) {
+                super.onCreate(db);
+
+                createTaskFts(db);
+                createPartialTaskIndexes(db);
+                createCreationDayIndex(db);
+                createTaskChangeLog(db);
+                createTaskDetailsCleanup(db);
+                createTaskStatsTriggers(db);
+            }
+
+            @Override
+            public void onOpen(@NonNull SupportSQLiteDatabase db) {
+                super.onOpen(db);
+
+                if (!hasTable(db, "task_fts")) {
+                    createTaskFts(db);
+                    db.execSQL("INSERT INTO `task_fts`(`task_fts`) VALUES('rebuild')");
+                }
+                if (!isPartialIndex(db, "index_task_name")) {
+                    createPartialTaskIndexes(db);
                 }
+                if (!isPartialIndex(db, "index_task_creation_day")) {
+                    createCreationDayIndex(db);
+                }
+
+                // A prepackaged database holds tasks the triggers have not seen
+                if (!hasTrigger(db, "task_stats_after_insert")) {
+                    rebuildTaskStats(db);
+                }
+
+                createTaskChangeLog(db);
+                createTaskDetailsCleanup(db);
+                createTaskStatsTriggers(db);
+
+                // The deltas are only read by the observers of this process
+                db.execSQL("DELETE FROM `task_changes`");
             }
+        };
+    }
+
+    /**
+     * Replaces the indexes created by Room from the {@link Task} annotations with partial ones
+     * (same names and columns, so Room still validates the schema): the indexes of the lists
+     * only hold the open tasks (out of the trash and not done), the one of completed_at only holds
+     * the done tasks out of the trash, the one of deleted_at only holds the tombstones.
+     * Only needs the columns of version 9, so that MIGRATION_8_9 can call it.
+     * @param db a {@link SupportSQLiteDatabase}
+     */
+    private static void createPartialTaskIndexes(@NonNull final SupportSQLiteDatabase db) {
+        db.execSQL("DROP INDEX IF EXISTS `index_task_name`");
+        db.execSQL("CREATE INDEX `index_task_name` ON `task` (`name`) " +
+                "WHERE `deleted_at` IS NULL AND `completed_at` IS NULL");
+
+        db.execSQL("DROP INDEX IF EXISTS `index_task_creation_timestamp`");
+        db.execSQL("CREATE INDEX `index_task_creation_timestamp` ON `task` (`creation_timestamp`) " +
+                "WHERE `deleted_at` IS NULL AND `completed_at` IS NULL");
+
+        db.execSQL("DROP INDEX IF EXISTS `index_task_completed_at`");
+        db.execSQL("CREATE INDEX `index_task_completed_at` ON `task` (`completed_at`) " +
+                "WHERE `completed_at` IS NOT NULL AND `deleted_at` IS NULL");
+
+        db.execSQL("DROP INDEX IF EXISTS `index_task_deleted_at`");
+        db.execSQL("CREATE INDEX `index_task_deleted_at` ON `task` (`deleted_at`) WHERE `deleted_at` IS NOT NULL");
+    }
+
+    /**
+     * Replaces the index of creation_day created by Room with a partial one of the open tasks,
+     * for the grouped counts of the timeline (the column comes with MIGRATION_9_10)
+     * @param db a {@link SupportSQLiteDatabase}
+     */
+    private static void createCreationDayIndex(@NonNull final SupportSQLiteDatabase db) {
+        db.execSQL("DROP INDEX IF EXISTS `index_task_creation_day`");
+        db.execSQL("CREATE INDEX `index_task_creation_day` ON `task` (`creation_day`) " +
+                "WHERE `deleted_at` IS NULL AND `completed_at` IS NULL");
+    }
+
+    /**
+     * Returns true if the index exists and is partial
+     * @param db        a {@link SupportSQLiteDatabase}
+     * @param indexName a {@link String} that contains the name of the index
+     * @return a boolean
+     */
+    private static boolean isPartialIndex(@NonNull final SupportSQLiteDatabase db, @NonNull final String indexName) {
+        try (Cursor cursor = db.query("SELECT `sql` FROM `sqlite_master` WHERE `type` = 'index' AND `name` = ?",
+                                      new Object[] {indexName})) {
+            return cursor.moveToFirst() && cursor.getString(0).contains(" WHERE ");
         }
+    }
+
+    /**
+     * Returns true if the table exists
+     * @param db        a {@link SupportSQLiteDatabase}
+     * @param tableName a {@link String} that contains the name of the table
+     * @return a boolean
+     */
+    private static boolean hasTable(@NonNull final SupportSQLiteDatabase db, @NonNull final String tableName) {
+        try (Cursor cursor = db.query("SELECT 1 FROM `sqlite_master` WHERE `type` = 'table' AND `name` = ?",
+                                      new Object[] {tableName})) {
+            return cursor.moveToFirst();
+        }
+    }
+
+    /**
+     * Returns true if the trigger exists
+     * @param db          a {@link SupportSQLiteDatabase}
+     * @param triggerName a {@link String} that contains the name of the trigger
+     * @return a boolean
+     */
+    private static boolean hasTrigger(@NonNull final SupportSQLiteDatabase db, @NonNull final String triggerName) {
+        try (Cursor cursor = db.query("SELECT 1 FROM `sqlite_master` WHERE `type` = 'trigger' AND `name` = ?",
+                                      new Object[] {triggerName})) {
+            return cursor.moveToFirst();
+        }
+    }
+
+    /**
+     * Returns the SQL of the day of a timestamp in milliseconds, in the time zone of the device
+     * (2440587.5 is the Julian day of the epoch)
+     * @param timestampSql a {@link String} that contains the SQL of the timestamp
+     * @return a {@link String}
+     */
+    @NonNull
+    private static String daySql(@NonNull final String timestampSql) {
+        return "CAST(julianday(" + timestampSql + " / 1000, 'unixepoch', 'localtime') - 2440587.5 AS INTEGER)";
+    }
+
+    /**
+     * Creates the FTS4 table which indexes task.name, and the triggers which keep it in sync.
+     * The table is external content (rowid = task.id) so the names are not stored twice,
+     * and the unicode61 tokenizer removes the diacritics ("élève" matches "eleve").
+     * The update triggers only fire when the name changes, not when the task goes to the trash.
+     * @param db a {@link SupportSQLiteDatabase}
+     */
+    private static void createTaskFts(@NonNull final SupportSQLiteDatabase db) {
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `task_fts` USING fts4(" +
+                "content=\"task\", name, tokenize=unicode61 \"remove_diacritics=1\")");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `task_fts_before_update` BEFORE UPDATE OF `name` ON `task` " +
+                "BEGIN DELETE FROM `task_fts` WHERE `docid` = OLD.`id`; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `task_fts_before_delete` BEFORE DELETE ON `task` " +
+                "BEGIN DELETE FROM `task_fts` WHERE `docid` = OLD.`id`; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `task_fts_after_update` AFTER UPDATE OF `name` ON `task` " +
+                "BEGIN INSERT INTO `task_fts`(`docid`, `name`) VALUES (NEW.`id`, NEW.`name`); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `task_fts_after_insert` AFTER INSERT ON `task` " +
+                "BEGIN INSERT INTO `task_fts`(`docid`, `name`) VALUES (NEW.`id`, NEW.`name`); END");
+    }
+
+    /**
+     * Creates the triggers which write the change log of the task table, with the operations
+     * seen by the lists: the tombstones of the trash are deletions (and the restorations insertions),
+     * a change of project is a deletion from the old project then an insertion into the new one,
+     * and the purge of the trash is not logged.
+     * @param db a {@link SupportSQLiteDatabase}
+     */
+    private static void createTaskChangeLog(@NonNull final SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `task_changes_after_insert` AFTER INSERT ON `task` " +
+                "WHEN NEW.`deleted_at` IS NULL " +
+                "BEGIN INSERT INTO `task_changes`(`task_id`, `project_id`, `operation`) " +
+                "VALUES (NEW.`id`, NEW.`project_id`, 'I'); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `task_changes_after_delete` AFTER DELETE ON `task` " +
+                "WHEN OLD.`deleted_at` IS NULL " +
+                "BEGIN INSERT INTO `task_changes`(`task_id`, `project_id`, `operation`) " +
+                "VALUES (OLD.`id`, OLD.`project_id`, 'D'); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `task_changes_after_update` AFTER UPDATE ON `task` " +
+                "BEGIN " +
+                "INSERT INTO `task_changes`(`task_id`, `project_id`, `operation`) " +
+                "SELECT OLD.`id`, OLD.`project_id`, 'D' WHERE OLD.`deleted_at` IS NULL " +
+                "AND (NEW.`deleted_at` IS NOT NULL OR NEW.`project_id` <> OLD.`project_id`); " +
+                "INSERT INTO `task_changes`(`task_id`, `project_id`, `operation`) " +
+                "SELECT NEW.`id`, NEW.`project_id`, 'I' WHERE NEW.`deleted_at` IS NULL " +
+                "AND (OLD.`deleted_at` IS NOT NULL OR NEW.`project_id` <> OLD.`project_id`); " +
+                "INSERT INTO `task_changes`(`task_id`, `project_id`, `operation`) " +
+                "SELECT NEW.`id`, NEW.`project_id`, 'U' WHERE NEW.`deleted_at` IS NULL " +
+                "AND OLD.`deleted_at` IS NULL AND NEW.`project_id` = OLD.`project_id`; " +
+                "END");
+    }
+
+    /**
+     * Creates the triggers which remove the notes of a task when it is removed for good,
+     * from the task table (unless it has just been copied into the archive) or from the archive.
+     * @param db a {@link SupportSQLiteDatabase}
+     */
+    private static void createTaskDetailsCleanup(@NonNull final SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `task_details_after_task_delete` AFTER DELETE ON `task` " +
+                "WHEN NOT EXISTS (SELECT 1 FROM `task_archive` WHERE `id` = OLD.`id`) " +
+                "BEGIN DELETE FROM `task_details` WHERE `task_id` = OLD.`id`; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `task_details_after_archive_delete` AFTER DELETE ON `task_archive` " +
+                "BEGIN DELETE FROM `task_details` WHERE `task_id` = OLD.`id`; END");
+    }
+
+    /**
+     * Fills the rollup tables of the statistics from the tasks and the archive: a task has opened
+     * on its day of creation, and closed on the day it has been done or moved to the trash
+     * (the first of them), or archived (the archive may hold tasks archived while still open).
+     * The reopenings of the past are not known. The days of creation are computed from the
+     * timestamps, creation_day may still wait for its backfill.
+     * @param db a {@link SupportSQLiteDatabase}
+     */
+    private static void rebuildTaskStats(@NonNull final SupportSQLiteDatabase db) {
+        db.execSQL("DELETE FROM `task_stats_daily`");
+        db.execSQL("INSERT INTO `task_stats_daily` (`day`, `project_id`, `created_count`) " +
+                "SELECT `day`, `project_id`, COUNT(*) FROM (" +
+                "SELECT " + CREATION_DAY_SQL + " AS `day`, `project_id` FROM `task` " +
+                "UNION ALL SELECT " + CREATION_DAY_SQL + " AS `day`, `project_id` FROM `task_archive`" +
+                ") GROUP BY `day`, `project_id`");
+
+        db.execSQL("DELETE FROM `task_backlog_daily`");
+        db.execSQL("INSERT INTO `task_backlog_daily` (`day`, `opened`, `closed`) " +
+                "SELECT `day`, SUM(`opened`), SUM(`closed`) FROM (" +
+                "SELECT " + CREATION_DAY_SQL + " AS `day`, 1 AS `opened`, 0 AS `closed` FROM `task` " +
+                "UNION ALL SELECT " +
+                daySql("MIN(IFNULL(`completed_at`, `deleted_at`), IFNULL(`deleted_at`, `completed_at`))") +
+                ", 0, 1 FROM `task` WHERE `completed_at` IS NOT NULL OR `deleted_at` IS NOT NULL " +
+                "UNION ALL SELECT " + CREATION_DAY_SQL + ", 1, 0 FROM `task_archive` " +
+                "UNION ALL SELECT " + daySql("`archive_timestamp`") + ", 0, 1 FROM `task_archive`" +
+                ") GROUP BY `day`");
+    }
+
+    /**
+     * Creates the triggers which keep the rollup tables of the statistics current, one row by day
+     * (and by project) whatever the number of tasks. SQLite only has UPSERT from 3.24,
+     * so a row is created when missing (INSERT OR IGNORE) then incremented.
+     * The creations count on the day of creation of the task, the other changes of the backlog
+     * on the current day; the project of a moved task takes its creation with it (on the day
+     * of its timestamp, its creation_day may still wait for its backfill).
+     * @param db a {@link SupportSQLiteDatabase}
+     */
+    private static void createTaskStatsTriggers(@NonNull final SupportSQLiteDatabase db) {
+        // CREATED TASKS
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `task_stats_after_insert` AFTER INSERT ON `task` " +
+                "BEGIN " +
+                "INSERT OR IGNORE INTO `task_stats_daily`(`day`, `project_id`, `created_count`) " +
+                "VALUES (NEW.`creation_day`, NEW.`project_id`, 0); " +
+                "UPDATE `task_stats_daily` SET `created_count` = `created_count` + 1 " +
+                "WHERE `day` = NEW.`creation_day` AND `project_id` = NEW.`project_id`; " +
+                "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `task_stats_after_move` AFTER UPDATE OF `project_id` ON `task` " +
+                "WHEN NEW.`project_id` <> OLD.`project_id` " +
+                "BEGIN " +
+                "UPDATE `task_stats_daily` SET `created_count` = `created_count` - 1 " +
+                "WHERE `day` = " + daySql("OLD.`creation_timestamp`") + " AND `project_id` = OLD.`project_id`; " +
+                "DELETE FROM `task_stats_daily` " +
+                "WHERE `day` = " + daySql("OLD.`creation_timestamp`") + " AND `project_id` = OLD.`project_id` " +
+                "AND `created_count` = 0; " +
+                "INSERT OR IGNORE INTO `task_stats_daily`(`day`, `project_id`, `created_count`) " +
+                "VALUES (" + daySql("NEW.`creation_timestamp`") + ", NEW.`project_id`, 0); " +
+                "UPDATE `task_stats_daily` SET `created_count` = `created_count` + 1 " +
+                "WHERE `day` = " + daySql("NEW.`creation_timestamp`") + " AND `project_id` = NEW.`project_id`; " +
+                "END");
 
-        return INSTANCE;
+        // BACKLOG
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `task_backlog_after_insert` AFTER INSERT ON `task` " +
+                "WHEN " + NEW_IS_OPEN + " " +
+                "BEGIN " +
+                "INSERT OR IGNORE INTO `task_backlog_daily`(`day`, `opened`, `closed`) VALUES (NEW.`creation_day`, 0, 0); " +
+                "UPDATE `task_backlog_daily` SET `opened` = `opened` + 1 WHERE `day` = NEW.`creation_day`; " +
+                "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `task_backlog_after_reopen` " +
+                "AFTER UPDATE OF `deleted_at`, `completed_at` ON `task` " +
+                "WHEN NOT " + OLD_IS_OPEN + " AND " + NEW_IS_OPEN + " " +
+                "BEGIN " +
+                "INSERT OR IGNORE INTO `task_backlog_daily`(`day`, `opened`, `closed`) VALUES (" + TODAY_SQL + ", 0, 0); " +
+                "UPDATE `task_backlog_daily` SET `opened` = `opened` + 1 WHERE `day` = " + TODAY_SQL + "; " +
+                "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `task_backlog_after_close` " +
+                "AFTER UPDATE OF `deleted_at`, `completed_at` ON `task` " +
+                "WHEN " + OLD_IS_OPEN + " AND NOT " + NEW_IS_OPEN + " " +
+                "BEGIN " +
+                "INSERT OR IGNORE INTO `task_backlog_daily`(`day`, `opened`, `closed`) VALUES (" + TODAY_SQL + ", 0, 0); " +
+                "UPDATE `task_backlog_daily` SET `closed` = `closed` + 1 WHERE `day` = " + TODAY_SQL + "; " +
+                "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `task_backlog_after_delete` AFTER DELETE ON `task` " +
+                "WHEN " + OLD_IS_OPEN + " " +
+                "BEGIN " +
+                "INSERT OR IGNORE INTO `task_backlog_daily`(`day`, `opened`, `closed`) VALUES (" + TODAY_SQL + ", 0, 0); " +
+                "UPDATE `task_backlog_daily` SET `closed` = `closed` + 1 WHERE `day` = " + TODAY_SQL + "; " +
+                "END");
     }
 
     // -- PREPOPULATE THE DATABASE --
 
     /**
      * Returns a {@link android.arch.persistence.room.RoomDatabase.Callback} that
-     * allows to prepopulate the database
+     * allows to prepopulate the database when there is no prepackaged database
      * @return a {@link android.arch.persistence.room.RoomDatabase.Callback}
      */
     private static Callback prepopulateDatabase() {
@@ -0,0 +1,141 @@
+package com.cleanup.todoc.model.database;
+
+import android.arch.persistence.room.RoomDatabase;
+import android.support.annotation.NonNull;
+
+/**
+ * <p>Tunable settings of {@link TodocDatabase}, provided by the DatabaseModule.</p>
+ *
+ * With write-ahead logging, the writes of the executor no longer block the re-queries
+ * triggered by the InvalidationTracker: the reads run on the other connections of the pool.
+ */
+public class TodocDatabaseConfig {
+
+    // ENUMS ---------------------------------------------------------------------------------------
+
+    /**
+     * Values of PRAGMA synchronous
+     */
+    public enum Synchronous {OFF,
+        NORMAL,
+        FULL}
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    /**
+     * WAL, 8 MiB of page cache, 4 KiB pages, fsync at checkpoints only (safe in WAL mode),
+     * up to 5 attempts spaced from 20 ms when the database is busy,
+     * a maintenance which never holds the write lock longer than 50 ms at once
+     * and up to 3 workspaces open at once
+     */
+    public static final TodocDatabaseConfig DEFAULT = new TodocDatabaseConfig(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING,
+                                                                              8 * 1024,
+                                                                              4096,
+                                                                              Synchronous.NORMAL,
+                                                                              5,
+                                                                              20L,
+                                                                              50L,
+                                                                              3);
+
+    @NonNull
+    private final RoomDatabase.JournalMode mJournalMode;
+
+    private final int mCacheSizeKib;
+    private final int mPageSize;
+
+    @NonNull
+    private final Synchronous mSynchronous;
+
+    private final int mBusyMaxAttempts;
+    private final long mBusyInitialDelayMillis;
+
+    private final long mMaintenanceWriteBudgetMillis;
+
+    private final int mMaxOpenWorkspaces;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     * @param journalMode                  the {@link RoomDatabase.JournalMode}
+     * @param cacheSizeKib                 an integer that contains the size of the page cache in KiB
+     * @param pageSize                     an integer that contains the page size in bytes (power of 2),
+     *                                     only applied when the database file is created
+     * @param synchronous                  the {@link Synchronous} value
+     * @param busyMaxAttempts              an integer that contains the maximum number of attempts of a write
+     * @param busyInitialDelayMillis       an integer that contains the delay before the first new attempt,
+     *                                     doubled at each attempt
+     * @param maintenanceWriteBudgetMillis an integer that contains the longest time a step of the
+     *                                     maintenance may hold the write lock
+     * @param maxOpenWorkspaces            an integer that contains the maximum number of workspaces
+     *                                     kept open, the least recently used one is closed beyond
+     */
+    public TodocDatabaseConfig(@NonNull final RoomDatabase.JournalMode journalMode,
+                               final int cacheSizeKib,
+                               final int pageSize,
+                               @NonNull final Synchronous synchronous,
+                               final int busyMaxAttempts,
+                               final long busyInitialDelayMillis,
+                               final long maintenanceWriteBudgetMillis,
+                               final int maxOpenWorkspaces) {
+        if (pageSize < 512 || pageSize > 65536 || Integer.bitCount(pageSize) != 1) {
+            throw new IllegalArgumentException("The page size must be a power of 2 between 512 and 65536");
+        }
+        if (busyMaxAttempts < 1) {
+            throw new IllegalArgumentException("There must be at least one attempt");
+        }
+        if (maintenanceWriteBudgetMillis < 1L) {
+            throw new IllegalArgumentException("The write budget of the maintenance must be positive");
+        }
+        if (maxOpenWorkspaces < 1) {
+            throw new IllegalArgumentException("At least one workspace must be kept open");
+        }
+
+        this.mJournalMode = journalMode;
+        this.mCacheSizeKib = cacheSizeKib;
+        this.mPageSize = pageSize;
+        this.mSynchronous = synchronous;
+        this.mBusyMaxAttempts = busyMaxAttempts;
+        this.mBusyInitialDelayMillis = busyInitialDelayMillis;
+        this.mMaintenanceWriteBudgetMillis = maintenanceWriteBudgetMillis;
+        this.mMaxOpenWorkspaces = maxOpenWorkspaces;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- GETTER --
+
+    @NonNull
+    public RoomDatabase.JournalMode getJournalMode() {
+        return this.mJournalMode;
+    }
+
+    public int getCacheSizeKib() {
+        return this.mCacheSizeKib;
+    }
+
+    public int getPageSize() {
+        return this.mPageSize;
+    }
+
+    @NonNull
+    public Synchronous getSynchronous() {
+        return this.mSynchronous;
+    }
+
+    public int getBusyMaxAttempts() {
+        return this.mBusyMaxAttempts;
+    }
+
+    public long getBusyInitialDelayMillis() {
+        return this.mBusyInitialDelayMillis;
+    }
+
+    public long getMaintenanceWriteBudgetMillis() {
+        return this.mMaintenanceWriteBudgetMillis;
+    }
+
+    public int getMaxOpenWorkspaces() {
+        return this.mMaxOpenWorkspaces;
+    }
+}
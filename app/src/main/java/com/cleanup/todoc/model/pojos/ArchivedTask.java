@@ -0,0 +1,135 @@
+package com.cleanup.todoc.model.pojos;
+
+import android.arch.persistence.room.ColumnInfo;
+import android.arch.persistence.room.Entity;
+import android.arch.persistence.room.ForeignKey;
+import android.arch.persistence.room.Ignore;
+import android.arch.persistence.room.Index;
+import android.arch.persistence.room.PrimaryKey;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Objects;
+
+/**
+ * <p>Model for the archived tasks: the tasks done long ago moved out of the task table
+ * so that the hot table and its indexes stay small.</p>
+ */
+
+@Entity(tableName = "task_archive",
+        foreignKeys = @ForeignKey(entity = Project.class,
+                parentColumns = "id",
+                childColumns = "project_id",
+                onDelete = ForeignKey.CASCADE),
+        indices = {@Index("project_id"),
+                @Index("creation_timestamp")})
+public class ArchivedTask {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    /**
+     * The unique identifier of the task (the one it had in the task table)
+     */
+    @PrimaryKey
+    @ColumnInfo(name = "id")
+    private final long id;
+
+    /**
+     * The unique identifier of the project associated to the task
+     */
+    @ColumnInfo(name = "project_id")
+    private final long projectId;
+
+    /**
+     * The name of the task
+     */
+    @NonNull
+    @ColumnInfo(name = "name")
+    private final String name;
+
+    /**
+     * The timestamp when the task has been created
+     */
+    @ColumnInfo(name = "creation_timestamp")
+    private final long creationTimestamp;
+
+    /**
+     * The timestamp when the task has been archived
+     */
+    @ColumnInfo(name = "archive_timestamp")
+    private final long archiveTimestamp;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Instantiates a new ArchivedTask.
+     * @param id                the unique identifier of the task to set
+     * @param projectId         the unique identifier of the project associated to the task to set
+     * @param name              the name of the task to set
+     * @param creationTimestamp the timestamp when the task has been created to set
+     * @param archiveTimestamp  the timestamp when the task has been archived to set
+     */
+    public ArchivedTask(long id, long projectId, @NonNull String name,
+                        long creationTimestamp, long archiveTimestamp) {
+        this.id = id;
+        this.projectId = projectId;
+        this.name = name;
+        this.creationTimestamp = creationTimestamp;
+        this.archiveTimestamp = archiveTimestamp;
+    }
+
+    /**
+     * Instantiates a new ArchivedTask from a {@link Task}.
+     * @param task             the task to archive
+     * @param archiveTimestamp the timestamp when the task has been archived to set
+     */
+    @Ignore
+    public ArchivedTask(@NonNull Task task, long archiveTimestamp) {
+        this(task.getId(), task.getProjectId(), task.getName(), task.getCreationTimestamp(), archiveTimestamp);
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- GETTER --
+
+    public long getId() {
+        return this.id;
+    }
+
+    public long getProjectId() {
+        return this.projectId;
+    }
+
+    @NonNull
+    public String getName() {
+        return this.name;
+    }
+
+    public long getCreationTimestamp() {
+        return this.creationTimestamp;
+    }
+
+    public long getArchiveTimestamp() {
+        return this.archiveTimestamp;
+    }
+
+    // -- FROM OBJECT CLASS --
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        // Same address
+        if (this == obj) return true;
+
+        // Null or different class
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        // Cast Object to ArchivedTask
+        ArchivedTask task = (ArchivedTask) obj;
+
+        return Objects.equals(this.id, task.id)                               &&
+                Objects.equals(this.projectId, task.projectId)                 &&
+                Objects.equals(this.name, task.name)                           &&
+                Objects.equals(this.creationTimestamp, task.creationTimestamp) &&
+                Objects.equals(this.archiveTimestamp, task.archiveTimestamp);
+    }
+}
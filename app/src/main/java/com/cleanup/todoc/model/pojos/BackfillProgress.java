@@ -0,0 +1,98 @@
+package com.cleanup.todoc.model.pojos;
+
+import android.arch.persistence.room.ColumnInfo;
+import android.arch.persistence.room.Entity;
+import android.arch.persistence.room.PrimaryKey;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Objects;
+
+/**
+ * <p>Progress of a backfill of the database (see Backfill): the rows are filled by ranges
+ * of ids, in the same transaction as the update of the last filled id, so that an
+ * interrupted backfill starts again after its last range.</p>
+ *
+ * A backfill without row has nothing to fill (the database has been created with the column).
+ */
+
+@Entity(tableName = "backfill_progress")
+public class BackfillProgress {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    /**
+     * The name of the backfill
+     */
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "name")
+    private final String name;
+
+    /**
+     * The id of the last filled row
+     */
+    @ColumnInfo(name = "last_id")
+    private final long lastId;
+
+    /**
+     * True once every row is filled
+     */
+    @ColumnInfo(name = "completed")
+    private final boolean completed;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Instantiates a new BackfillProgress.
+     * @param name      the name of the backfill to set
+     * @param lastId    the id of the last filled row to set
+     * @param completed true once every row is filled, to set
+     */
+    public BackfillProgress(@NonNull String name, long lastId, boolean completed) {
+        this.name = name;
+        this.lastId = lastId;
+        this.completed = completed;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- GETTER --
+
+    @NonNull
+    public String getName() {
+        return this.name;
+    }
+
+    public long getLastId() {
+        return this.lastId;
+    }
+
+    public boolean isCompleted() {
+        return this.completed;
+    }
+
+    // -- FROM OBJECT CLASS --
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        // Same address
+        if (this == obj) return true;
+
+        // Null or different class
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        // Cast Object to BackfillProgress
+        BackfillProgress progress = (BackfillProgress) obj;
+
+        return Objects.equals(this.name, progress.name)     &&
+                Objects.equals(this.lastId, progress.lastId) &&
+                Objects.equals(this.completed, progress.completed);
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+        return this.name + " (" + (this.completed ? "completed" : "after " + this.lastId) + ")";
+    }
+}
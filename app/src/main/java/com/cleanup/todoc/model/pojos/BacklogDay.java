@@ -0,0 +1,98 @@
+package com.cleanup.todoc.model.pojos;
+
+import android.arch.persistence.room.ColumnInfo;
+import android.arch.persistence.room.Entity;
+import android.arch.persistence.room.PrimaryKey;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Objects;
+
+/**
+ * <p>Rollup of the changes of the backlog (the open tasks: out of the trash and not done) by day,
+ * kept current by the triggers of {@link Task} (see TodocDatabase).</p>
+ *
+ * A task opens on its day of creation, and again on the day it is restored from the trash or
+ * marked as not done; it closes on the day it is done, moved to the trash or deleted (only the
+ * done tasks are archived, so the archiving does not change the backlog).
+ * The backlog at the end of a day is the sum of the changes up to that day.
+ */
+
+@Entity(tableName = "task_backlog_daily")
+public class BacklogDay {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    /**
+     * The day of the changes (days since the epoch, see {@link Task#getDayOf(long)})
+     */
+    @PrimaryKey
+    @ColumnInfo(name = "day")
+    private final int day;
+
+    /**
+     * The number of tasks opened on that day
+     */
+    @ColumnInfo(name = "opened")
+    private final int opened;
+
+    /**
+     * The number of tasks closed on that day
+     */
+    @ColumnInfo(name = "closed")
+    private final int closed;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Instantiates a new BacklogDay.
+     * @param day    the day of the changes to set
+     * @param opened the number of tasks opened on that day to set
+     * @param closed the number of tasks closed on that day to set
+     */
+    public BacklogDay(int day, int opened, int closed) {
+        this.day = day;
+        this.opened = opened;
+        this.closed = closed;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- GETTER --
+
+    public int getDay() {
+        return this.day;
+    }
+
+    public int getOpened() {
+        return this.opened;
+    }
+
+    public int getClosed() {
+        return this.closed;
+    }
+
+    // -- FROM OBJECT CLASS --
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        // Same address
+        if (this == obj) return true;
+
+        // Null or different class
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        // Cast Object to BacklogDay
+        BacklogDay backlogDay = (BacklogDay) obj;
+
+        return Objects.equals(this.day, backlogDay.day)       &&
+                Objects.equals(this.opened, backlogDay.opened) &&
+                Objects.equals(this.closed, backlogDay.closed);
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+        return this.day + " (+" + this.opened + " -" + this.closed + ")";
+    }
+}
@@ -0,0 +1,92 @@
+package com.cleanup.todoc.model.pojos;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>The number of open tasks at the end of a day, a point of the backlog chart.</p>
+ */
+public class BacklogPoint {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    /**
+     * The day (days since the epoch, see {@link Task#getDayOf(long)})
+     */
+    private final int day;
+
+    /**
+     * The number of open tasks at the end of the day
+     */
+    private final int openTaskCount;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Instantiates a new BacklogPoint.
+     * @param day           the day to set
+     * @param openTaskCount the number of open tasks at the end of the day to set
+     */
+    public BacklogPoint(int day, int openTaskCount) {
+        this.day = day;
+        this.openTaskCount = openTaskCount;
+    }
+
+    /**
+     * Sums the changes of the backlog day after day
+     * @param backlogDays a {@link List} of {@link BacklogDay}, first day first, the first one
+     *                    holding the sum of the changes before the other ones
+     * @return a {@link List} of {@link BacklogPoint}, one by {@link BacklogDay}
+     */
+    @NonNull
+    public static List<BacklogPoint> fromDays(@NonNull final List<BacklogDay> backlogDays) {
+        final List<BacklogPoint> points = new ArrayList<>(backlogDays.size());
+        int openTaskCount = 0;
+
+        for (BacklogDay backlogDay : backlogDays) {
+            openTaskCount += backlogDay.getOpened() - backlogDay.getClosed();
+            points.add(new BacklogPoint(backlogDay.getDay(), openTaskCount));
+        }
+
+        return points;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- GETTER --
+
+    public int getDay() {
+        return this.day;
+    }
+
+    public int getOpenTaskCount() {
+        return this.openTaskCount;
+    }
+
+    // -- FROM OBJECT CLASS --
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        // Same address
+        if (this == obj) return true;
+
+        // Null or different class
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        // Cast Object to BacklogPoint
+        BacklogPoint backlogPoint = (BacklogPoint) obj;
+
+        return Objects.equals(this.day, backlogPoint.day) &&
+                Objects.equals(this.openTaskCount, backlogPoint.openTaskCount);
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+        return this.day + " (" + this.openTaskCount + ")";
+    }
+}
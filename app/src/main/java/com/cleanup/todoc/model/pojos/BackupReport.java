@@ -0,0 +1,96 @@
+package com.cleanup.todoc.model.pojos;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * <p>Result of one backup of the database: a new version, no copy because the file has not
+ * changed since the last version, or no copy because the log could not be checkpointed.</p>
+ */
+public class BackupReport {
+
+    // ENUMS ---------------------------------------------------------------------------------------
+
+    public enum Status {COPIED,
+        UNCHANGED,
+        BUSY}
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private final long timestamp;
+
+    @NonNull
+    private final Status status;
+
+    @Nullable
+    private final String version;
+
+    private final long sizeBytes;
+    private final long crc32;
+    private final long durationMillis;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Instantiates a new BackupReport.
+     * @param timestamp      the timestamp of the start of the backup to set
+     * @param status         the {@link Status} to set
+     * @param version        the name of the directory of the new version, null without copy, to set
+     * @param sizeBytes      the size of the copied file, 0 without copy, to set
+     * @param crc32          the CRC32 checksum of the copied file, 0 without copy, to set
+     * @param durationMillis the duration of the backup to set
+     */
+    public BackupReport(final long timestamp,
+                        @NonNull final Status status,
+                        @Nullable final String version,
+                        final long sizeBytes,
+                        final long crc32,
+                        final long durationMillis) {
+        this.timestamp = timestamp;
+        this.status = status;
+        this.version = version;
+        this.sizeBytes = sizeBytes;
+        this.crc32 = crc32;
+        this.durationMillis = durationMillis;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- GETTER --
+
+    public long getTimestamp() {
+        return this.timestamp;
+    }
+
+    @NonNull
+    public Status getStatus() {
+        return this.status;
+    }
+
+    @Nullable
+    public String getVersion() {
+        return this.version;
+    }
+
+    public long getSizeBytes() {
+        return this.sizeBytes;
+    }
+
+    public long getCrc32() {
+        return this.crc32;
+    }
+
+    public long getDurationMillis() {
+        return this.durationMillis;
+    }
+
+    // -- FROM OBJECT CLASS --
+
+    @NonNull
+    @Override
+    public String toString() {
+        return this.status + (this.version == null ? "" : " " + this.version)
+               + ": " + this.sizeBytes + " bytes, crc32 " + Long.toHexString(this.crc32)
+               + ", " + this.durationMillis + " ms";
+    }
+}
@@ -0,0 +1,190 @@
+package com.cleanup.todoc.model.pojos;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>Result of one run of the maintenance of the database: the duration of each step,
+ * the space it gave back to the file system, the longest time it held the write lock,
+ * whether that time went beyond the budget and the work deferred to fit in it.</p>
+ */
+public class MaintenanceReport {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private final long timestamp;
+
+    @NonNull
+    private final List<Step> steps;
+
+    @Nullable
+    private final String integrity;
+
+    private final boolean completed;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Instantiates a new MaintenanceReport.
+     * @param timestamp the timestamp of the start of the run to set
+     * @param steps     the steps, in the order of the run, to set
+     * @param integrity the first line of PRAGMA quick_check ("ok" for a sound file),
+     *                  null if the check has not run, to set
+     * @param completed false if the run has been stopped before its end, to set
+     */
+    public MaintenanceReport(final long timestamp,
+                             @NonNull final List<Step> steps,
+                             @Nullable final String integrity,
+                             final boolean completed) {
+        this.timestamp = timestamp;
+        this.steps = Collections.unmodifiableList(steps);
+        this.integrity = integrity;
+        this.completed = completed;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- GETTER --
+
+    public long getTimestamp() {
+        return this.timestamp;
+    }
+
+    @NonNull
+    public List<Step> getSteps() {
+        return this.steps;
+    }
+
+    @Nullable
+    public String getIntegrity() {
+        return this.integrity;
+    }
+
+    public boolean isCompleted() {
+        return this.completed;
+    }
+
+    // -- INTEGRITY --
+
+    /**
+     * Returns true if the quick check has run and found no problem
+     * @return a boolean
+     */
+    public boolean isIntegrityOk() {
+        return "ok".equals(this.integrity);
+    }
+
+    // -- FROM OBJECT CLASS --
+
+    @NonNull
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+
+        for (Step step : this.steps) {
+            builder.append(step.getName())
+                   .append(": ").append(step.getDurationMillis()).append(" ms")
+                   .append(" (write lock ").append(step.getLongestWriteLockMillis()).append(" ms")
+                   .append(step.isOverBudget() ? ", over budget" : "")
+                   .append(step.getDeferredCount() > 0 ? ", " + step.getDeferredCount() + " deferred" : "")
+                   .append("), ").append(step.getReclaimedBytes()).append(" bytes reclaimed; ");
+        }
+
+        return builder.append("integrity: ").append(this.integrity)
+                      .append(this.completed ? "" : " (stopped)")
+                      .toString();
+    }
+
+    // INNER CLASSES -------------------------------------------------------------------------------
+
+    /**
+     * <p>One step of the maintenance (ANALYZE, vacuum or quick check).</p>
+     */
+    public static class Step {
+
+        // FIELDS ----------------------------------------------------------------------------------
+
+        @NonNull
+        private final String name;
+
+        private final long durationMillis;
+        private final long longestWriteLockMillis;
+        private final long reclaimedBytes;
+        private final boolean overBudget;
+        private final int deferredCount;
+
+        // CONSTRUCTORS ----------------------------------------------------------------------------
+
+        /**
+         * Instantiates a new Step.
+         * @param name                   the name of the step to set
+         * @param durationMillis         the duration of the step to set
+         * @param longestWriteLockMillis the duration of the longest statement of the step which held
+         *                               the write lock (0 for a read-only step) to set
+         * @param reclaimedBytes         the number of bytes given back to the file system to set
+         */
+        public Step(@NonNull final String name,
+                    final long durationMillis,
+                    final long longestWriteLockMillis,
+                    final long reclaimedBytes) {
+            this(name, durationMillis, longestWriteLockMillis, reclaimedBytes, false, 0);
+        }
+
+        /**
+         * Instantiates a new Step.
+         * @param name                   the name of the step to set
+         * @param durationMillis         the duration of the step to set
+         * @param longestWriteLockMillis the duration of the longest statement of the step which held
+         *                               the write lock (0 for a read-only step) to set
+         * @param reclaimedBytes         the number of bytes given back to the file system to set
+         * @param overBudget             true if a statement has held the write lock beyond the budget to set
+         * @param deferredCount          the number of statements not run because they would not
+         *                               fit in the budget to set
+         */
+        public Step(@NonNull final String name,
+                    final long durationMillis,
+                    final long longestWriteLockMillis,
+                    final long reclaimedBytes,
+                    final boolean overBudget,
+                    final int deferredCount) {
+            this.name = name;
+            this.durationMillis = durationMillis;
+            this.longestWriteLockMillis = longestWriteLockMillis;
+            this.reclaimedBytes = reclaimedBytes;
+            this.overBudget = overBudget;
+            this.deferredCount = deferredCount;
+        }
+
+        // METHODS ---------------------------------------------------------------------------------
+
+        // -- GETTER --
+
+        @NonNull
+        public String getName() {
+            return this.name;
+        }
+
+        public long getDurationMillis() {
+            return this.durationMillis;
+        }
+
+        public long getLongestWriteLockMillis() {
+            return this.longestWriteLockMillis;
+        }
+
+        public long getReclaimedBytes() {
+            return this.reclaimedBytes;
+        }
+
+        public boolean isOverBudget() {
+            return this.overBudget;
+        }
+
+        public int getDeferredCount() {
+            return this.deferredCount;
+        }
+    }
+}
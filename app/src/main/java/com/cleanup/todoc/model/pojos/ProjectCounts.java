@@ -0,0 +1,77 @@
+package com.cleanup.todoc.model.pojos;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>The {@link ProjectWithCount}s at a sequence number of the change log of the task table,
+ * kept up to date by applying the {@link TaskDelta}s which follow it.</p>
+ */
+public class ProjectCounts {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    /**
+     * The sequence number of the last change included in the counts
+     */
+    private final long seq;
+
+    @NonNull
+    private final List<ProjectWithCount> projects;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Instantiates a new ProjectCounts.
+     * @param seq      the sequence number of the last change included in the counts to set
+     * @param projects the projects with their number of tasks to set
+     */
+    public ProjectCounts(long seq, @NonNull List<ProjectWithCount> projects) {
+        this.seq = seq;
+        this.projects = Collections.unmodifiableList(projects);
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    /**
+     * Returns new counts with the changes of the delta, without querying the task table
+     * (the projects unknown to these counts are ignored, they come with the next reload)
+     * @param delta a {@link TaskDelta} which follows these counts
+     * @return a {@link ProjectCounts}
+     */
+    @NonNull
+    public ProjectCounts apply(@NonNull final TaskDelta delta) {
+        if (delta.getLastSeq() <= this.seq) {
+            return this;
+        }
+        if (delta.getTaskCountChanges().isEmpty()) {
+            return new ProjectCounts(delta.getLastSeq(), this.projects);
+        }
+
+        final List<ProjectWithCount> projects = new ArrayList<>(this.projects.size());
+
+        for (ProjectWithCount projectWithCount : this.projects) {
+            final Integer change = delta.getTaskCountChanges().get(projectWithCount.getProject().getId());
+
+            projects.add((change == null) ? projectWithCount
+                                          : new ProjectWithCount(projectWithCount.getProject(),
+                                                                 projectWithCount.getTaskCount() + change));
+        }
+
+        return new ProjectCounts(delta.getLastSeq(), projects);
+    }
+
+    // -- GETTER --
+
+    public long getSeq() {
+        return this.seq;
+    }
+
+    @NonNull
+    public List<ProjectWithCount> getProjects() {
+        return this.projects;
+    }
+}
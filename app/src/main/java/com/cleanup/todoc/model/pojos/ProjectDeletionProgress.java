@@ -0,0 +1,122 @@
+package com.cleanup.todoc.model.pojos;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Objects;
+
+/**
+ * <p>Progress of the deletion of a project: its tasks (trash and archive included) are deleted
+ * by chunks, then the project itself once they are all deleted. A failed chunk ends the deletion,
+ * the tasks of the previous chunks staying deleted.</p>
+ */
+public class ProjectDeletionProgress {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    /**
+     * The id of the deleted project
+     */
+    private final long projectId;
+
+    /**
+     * The number of tasks already deleted
+     */
+    private final int deletedTaskCount;
+
+    /**
+     * The number of tasks of the project at the start of the deletion
+     */
+    private final int taskCount;
+
+    /**
+     * True once the project itself is deleted
+     */
+    private final boolean completed;
+
+    /**
+     * True once a chunk has failed, the deletion is then over
+     */
+    private final boolean failed;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Instantiates a new ProjectDeletionProgress.
+     * @param projectId        the id of the deleted project to set
+     * @param deletedTaskCount the number of tasks already deleted to set
+     * @param taskCount        the number of tasks of the project at the start to set
+     * @param completed        true once the project itself is deleted, to set
+     */
+    public ProjectDeletionProgress(long projectId, int deletedTaskCount, int taskCount, boolean completed) {
+        this(projectId, deletedTaskCount, taskCount, completed, false);
+    }
+
+    /**
+     * Instantiates a new ProjectDeletionProgress.
+     * @param projectId        the id of the deleted project to set
+     * @param deletedTaskCount the number of tasks already deleted to set
+     * @param taskCount        the number of tasks of the project at the start to set
+     * @param completed        true once the project itself is deleted, to set
+     * @param failed           true once a chunk has failed, to set
+     */
+    public ProjectDeletionProgress(long projectId, int deletedTaskCount, int taskCount, boolean completed, boolean failed) {
+        this.projectId = projectId;
+        this.deletedTaskCount = deletedTaskCount;
+        this.taskCount = taskCount;
+        this.completed = completed;
+        this.failed = failed;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- GETTER --
+
+    public long getProjectId() {
+        return this.projectId;
+    }
+
+    public int getDeletedTaskCount() {
+        return this.deletedTaskCount;
+    }
+
+    public int getTaskCount() {
+        return this.taskCount;
+    }
+
+    public boolean isCompleted() {
+        return this.completed;
+    }
+
+    public boolean isFailed() {
+        return this.failed;
+    }
+
+    // -- FROM OBJECT CLASS --
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        // Same address
+        if (this == obj) return true;
+
+        // Null or different class
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        // Cast Object to ProjectDeletionProgress
+        ProjectDeletionProgress progress = (ProjectDeletionProgress) obj;
+
+        return Objects.equals(this.projectId, progress.projectId)               &&
+                Objects.equals(this.deletedTaskCount, progress.deletedTaskCount) &&
+                Objects.equals(this.taskCount, progress.taskCount)               &&
+                Objects.equals(this.completed, progress.completed)               &&
+                Objects.equals(this.failed, progress.failed);
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+        return this.projectId + ": " + this.deletedTaskCount + "/" + this.taskCount
+               + (this.completed ? " (completed)" : "")
+               + (this.failed ? " (failed)" : "");
+    }
+}
@@ -0,0 +1,77 @@
+package com.cleanup.todoc.model.pojos;
+
+import android.arch.persistence.room.ColumnInfo;
+import android.arch.persistence.room.Embedded;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Objects;
+
+/**
+ * <p>A {@link Project} with the number of its tasks, counted by SQLite.</p>
+ */
+public class ProjectWithCount {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    /**
+     * The project
+     */
+    @NonNull
+    @Embedded
+    private final Project project;
+
+    /**
+     * The number of tasks associated to the project
+     */
+    @ColumnInfo(name = "task_count")
+    private final int taskCount;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Instantiates a new ProjectWithCount.
+     * @param project   the project to set
+     * @param taskCount the number of tasks associated to the project to set
+     */
+    public ProjectWithCount(@NonNull Project project, int taskCount) {
+        this.project = project;
+        this.taskCount = taskCount;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- GETTER --
+
+    @NonNull
+    public Project getProject() {
+        return this.project;
+    }
+
+    public int getTaskCount() {
+        return this.taskCount;
+    }
+
+    // -- FROM OBJECT CLASS --
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        // Same address
+        if (this == obj) return true;
+
+        // Null or different class
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        // Cast Object to ProjectWithCount
+        ProjectWithCount projectWithCount = (ProjectWithCount) obj;
+
+        return Objects.equals(this.project, projectWithCount.project) &&
+                Objects.equals(this.taskCount, projectWithCount.taskCount);
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+        return this.project.getName() + " (" + this.taskCount + ")";
+    }
+}
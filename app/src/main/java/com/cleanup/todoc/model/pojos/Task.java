@@ -4,6 +4,7 @@ import android.arch.persistence.room.ColumnInfo;
 import android.arch.persistence.room.Entity;
 import android.arch.persistence.room.ForeignKey;
 import android.arch.persistence.room.Ignore;
+import android.arch.persistence.room.Index;
 import android.arch.persistence.room.PrimaryKey;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
@@ -11,6 +12,8 @@ import android.support.annotation.VisibleForTesting;
 
 import java.util.Comparator;
 import java.util.Objects;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>Model for the tasks of the application.</p>
@@ -22,11 +25,20 @@ import java.util.Objects;
         foreignKeys = @ForeignKey(entity = Project.class,
                 parentColumns = "id",
                 childColumns = "project_id",
-                onDelete = ForeignKey.CASCADE))
+                onDelete = ForeignKey.CASCADE),
+        indices = {@Index("name"),
+                @Index("creation_timestamp"),
+                @Index("creation_day"),
+                @Index({"project_id", "deleted_at"}),
+                @Index("deleted_at"),
+                @Index("completed_at"),
+                @Index("position")})
 public class Task {
 
     // FIELDS --------------------------------------------------------------------------------------
 
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
     /**
      * The unique identifier of the task
      */
@@ -41,12 +53,12 @@ public class Task {
     private long projectId;
 
     /**
-     * The name of the task
+     * The name of the task (NOCASE collation so that its index serves the alphabetical sorts)
      */
     // Suppress warning because setName is called in constructor
     @SuppressWarnings("NullableProblems")
     @NonNull
-    @ColumnInfo(name = "name")
+    @ColumnInfo(name = "name", collate = ColumnInfo.NOCASE)
     private String name;
 
     /**
@@ -55,6 +67,35 @@ public class Task {
     @ColumnInfo(name = "creation_timestamp")
     private long creationTimestamp;
 
+    /**
+     * The day when the task has been created (days since the epoch in the time zone of the device
+     * at the creation), stored so that the timeline groups the tasks without computing it for each row
+     */
+    @ColumnInfo(name = "creation_day")
+    private int creationDay;
+
+    /**
+     * The timestamp when the task has been moved to the trash, null if it is not in the trash
+     */
+    @Nullable
+    @ColumnInfo(name = "deleted_at")
+    private Long deletedAt;
+
+    /**
+     * The timestamp when the task has been done, null while it is open
+     */
+    @Nullable
+    @ColumnInfo(name = "completed_at")
+    private Long completedAt;
+
+    /**
+     * The key of the task in the manual order (BINARY collation), given by the repository
+     * at the insertion: a move only writes the key of the moved task
+     */
+    @NonNull
+    @ColumnInfo(name = "position")
+    private String position = "";
+
     // CONSTRUCTORS --------------------------------------------------------------------------------
 
     /**
@@ -83,6 +124,7 @@ public class Task {
         this.projectId = projectId;
         this.name = name;
         this.creationTimestamp = creationTimestamp;
+        this.creationDay = getDayOf(creationTimestamp);
     }
 
     // METHODS -------------------------------------------------------------------------------------
@@ -116,6 +158,50 @@ public class Task {
     }
     private void setCreationTimestamp(long creationTimestamp) {
         this.creationTimestamp = creationTimestamp;
+        this.creationDay = getDayOf(creationTimestamp);
+    }
+
+    public int getCreationDay() {
+        return this.creationDay;
+    }
+    public void setCreationDay(int creationDay) {
+        this.creationDay = creationDay;
+    }
+
+    @Nullable
+    public Long getDeletedAt() {
+        return this.deletedAt;
+    }
+    public void setDeletedAt(@Nullable Long deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
+    @Nullable
+    public Long getCompletedAt() {
+        return this.completedAt;
+    }
+    public void setCompletedAt(@Nullable Long completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    @NonNull
+    public String getPosition() {
+        return this.position;
+    }
+    public void setPosition(@NonNull String position) {
+        this.position = position;
+    }
+
+    // -- DAY --
+
+    /**
+     * Returns the day of a timestamp, as a number of days since the epoch in the current time zone
+     * (the same day as TodocDatabase.CREATION_DAY_SQL)
+     * @param timestamp an integer that contains the timestamp in milliseconds
+     * @return an integer
+     */
+    public static int getDayOf(final long timestamp) {
+        return (int) ((timestamp + TimeZone.getDefault().getOffset(timestamp)) / DAY_MILLIS);
     }
 
     // -- FROM OBJECT CLASS --
@@ -134,7 +220,11 @@ public class Task {
         return Objects.equals(this.id, task.id)               &&
                 Objects.equals(this.projectId, task.projectId) &&
                 Objects.equals(this.name, task.name)           &&
-                Objects.equals(this.creationTimestamp, task.creationTimestamp);
+                Objects.equals(this.creationTimestamp, task.creationTimestamp) &&
+                Objects.equals(this.creationDay, task.creationDay) &&
+                Objects.equals(this.deletedAt, task.deletedAt) &&
+                Objects.equals(this.completedAt, task.completedAt) &&
+                Objects.equals(this.position, task.position);
     }
 
     // COMPARATORS ---------------------------------------------------------------------------------
@@ -0,0 +1,110 @@
+package com.cleanup.todoc.model.pojos;
+
+import android.arch.persistence.room.ColumnInfo;
+import android.arch.persistence.room.Entity;
+import android.arch.persistence.room.PrimaryKey;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Objects;
+
+/**
+ * <p>Entry of the change log of the task table, written by the triggers of {@link Task}
+ * (see TodocDatabase) and read as {@link TaskDelta}s.</p>
+ *
+ * The operations are the ones seen by the lists: a task which goes to the trash is deleted,
+ * a task restored from the trash is inserted, and a task which changes of project is deleted
+ * from the old one then inserted into the new one.
+ */
+
+@Entity(tableName = "task_changes")
+public class TaskChange {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    public static final String INSERT = "I";
+    public static final String UPDATE = "U";
+    public static final String DELETE = "D";
+
+    /**
+     * The sequence number of the change (AUTOINCREMENT, so never reused)
+     */
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "seq")
+    private final long seq;
+
+    /**
+     * The unique identifier of the changed task
+     */
+    @ColumnInfo(name = "task_id")
+    private final long taskId;
+
+    /**
+     * The unique identifier of the project associated to the task by the change
+     */
+    @ColumnInfo(name = "project_id")
+    private final long projectId;
+
+    /**
+     * The operation: {@link #INSERT}, {@link #UPDATE} or {@link #DELETE}
+     */
+    @NonNull
+    @ColumnInfo(name = "operation")
+    private final String operation;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Instantiates a new TaskChange.
+     * @param seq       the sequence number of the change to set
+     * @param taskId    the unique identifier of the changed task to set
+     * @param projectId the unique identifier of the project associated to the task to set
+     * @param operation the operation to set
+     */
+    public TaskChange(long seq, long taskId, long projectId, @NonNull String operation) {
+        this.seq = seq;
+        this.taskId = taskId;
+        this.projectId = projectId;
+        this.operation = operation;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- GETTER --
+
+    public long getSeq() {
+        return this.seq;
+    }
+
+    public long getTaskId() {
+        return this.taskId;
+    }
+
+    public long getProjectId() {
+        return this.projectId;
+    }
+
+    @NonNull
+    public String getOperation() {
+        return this.operation;
+    }
+
+    // -- FROM OBJECT CLASS --
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        // Same address
+        if (this == obj) return true;
+
+        // Null or different class
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        // Cast Object to TaskChange
+        TaskChange change = (TaskChange) obj;
+
+        return Objects.equals(this.seq, change.seq)             &&
+                Objects.equals(this.taskId, change.taskId)       &&
+                Objects.equals(this.projectId, change.projectId) &&
+                Objects.equals(this.operation, change.operation);
+    }
+}
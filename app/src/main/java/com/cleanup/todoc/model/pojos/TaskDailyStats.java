@@ -0,0 +1,103 @@
+package com.cleanup.todoc.model.pojos;
+
+import android.arch.persistence.room.ColumnInfo;
+import android.arch.persistence.room.Entity;
+import android.arch.persistence.room.ForeignKey;
+import android.arch.persistence.room.Index;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Objects;
+
+/**
+ * <p>Rollup of the number of tasks created by project and by day, kept current by the triggers
+ * of {@link Task} (see TodocDatabase), so the statistics never read the task table.</p>
+ *
+ * A creation stays counted when the task is done, moved to the trash or archived;
+ * a task which changes of project is counted in its new project.
+ */
+
+@Entity(tableName = "task_stats_daily",
+        primaryKeys = {"day", "project_id"},
+        foreignKeys = @ForeignKey(entity = Project.class,
+                parentColumns = "id",
+                childColumns = "project_id",
+                onDelete = ForeignKey.CASCADE),
+        indices = {@Index("project_id")})
+public class TaskDailyStats {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    /**
+     * The day of creation of the tasks (days since the epoch, see {@link Task#getDayOf(long)}),
+     * the first day of the week for the weekly series
+     */
+    @ColumnInfo(name = "day")
+    private final int day;
+
+    /**
+     * The unique identifier of the project associated to the tasks
+     */
+    @ColumnInfo(name = "project_id")
+    private final long projectId;
+
+    /**
+     * The number of tasks created on that day in that project
+     */
+    @ColumnInfo(name = "created_count")
+    private final int createdCount;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Instantiates a new TaskDailyStats.
+     * @param day          the day of creation of the tasks to set
+     * @param projectId    the unique identifier of the project associated to the tasks to set
+     * @param createdCount the number of tasks created on that day in that project to set
+     */
+    public TaskDailyStats(int day, long projectId, int createdCount) {
+        this.day = day;
+        this.projectId = projectId;
+        this.createdCount = createdCount;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- GETTER --
+
+    public int getDay() {
+        return this.day;
+    }
+
+    public long getProjectId() {
+        return this.projectId;
+    }
+
+    public int getCreatedCount() {
+        return this.createdCount;
+    }
+
+    // -- FROM OBJECT CLASS --
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        // Same address
+        if (this == obj) return true;
+
+        // Null or different class
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        // Cast Object to TaskDailyStats
+        TaskDailyStats stats = (TaskDailyStats) obj;
+
+        return Objects.equals(this.day, stats.day)             &&
+                Objects.equals(this.projectId, stats.projectId) &&
+                Objects.equals(this.createdCount, stats.createdCount);
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+        return this.day + " / " + this.projectId + " (" + this.createdCount + ")";
+    }
+}
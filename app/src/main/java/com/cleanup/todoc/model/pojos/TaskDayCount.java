@@ -0,0 +1,74 @@
+package com.cleanup.todoc.model.pojos;
+
+import android.arch.persistence.room.ColumnInfo;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Objects;
+
+/**
+ * <p>The number of open tasks created on a day, grouped by SQLite.</p>
+ */
+public class TaskDayCount {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    /**
+     * The day of creation of the tasks (days since the epoch, see {@link Task#getDayOf(long)})
+     */
+    @ColumnInfo(name = "creation_day")
+    private final int creationDay;
+
+    /**
+     * The number of tasks created on that day
+     */
+    @ColumnInfo(name = "task_count")
+    private final int taskCount;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Instantiates a new TaskDayCount.
+     * @param creationDay the day of creation of the tasks to set
+     * @param taskCount   the number of tasks created on that day to set
+     */
+    public TaskDayCount(int creationDay, int taskCount) {
+        this.creationDay = creationDay;
+        this.taskCount = taskCount;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- GETTER --
+
+    public int getCreationDay() {
+        return this.creationDay;
+    }
+
+    public int getTaskCount() {
+        return this.taskCount;
+    }
+
+    // -- FROM OBJECT CLASS --
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        // Same address
+        if (this == obj) return true;
+
+        // Null or different class
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        // Cast Object to TaskDayCount
+        TaskDayCount taskDayCount = (TaskDayCount) obj;
+
+        return Objects.equals(this.creationDay, taskDayCount.creationDay) &&
+                Objects.equals(this.taskCount, taskDayCount.taskCount);
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+        return this.creationDay + " (" + this.taskCount + ")";
+    }
+}
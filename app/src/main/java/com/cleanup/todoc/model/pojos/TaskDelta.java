@@ -0,0 +1,167 @@
+package com.cleanup.todoc.model.pojos;
+
+import android.support.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>The changes of the task table between 2 sequence numbers of the change log,
+ * collapsed by task: a task inserted then deleted in the same delta does not appear.</p>
+ */
+public class TaskDelta {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    /**
+     * The sequence number of the last change read
+     */
+    private final long lastSeq;
+
+    @NonNull
+    private final long[] insertedTaskIds;
+    @NonNull
+    private final long[] updatedTaskIds;
+    @NonNull
+    private final long[] deletedTaskIds;
+
+    /**
+     * The change of the number of tasks, by project id
+     */
+    @NonNull
+    private final Map<Long, Integer> taskCountChanges;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Instantiates a new TaskDelta.
+     * @param lastSeq          the sequence number of the last change read to set
+     * @param insertedTaskIds  the ids of the inserted tasks to set
+     * @param updatedTaskIds   the ids of the updated tasks to set
+     * @param deletedTaskIds   the ids of the deleted tasks to set
+     * @param taskCountChanges the change of the number of tasks, by project id, to set
+     */
+    public TaskDelta(long lastSeq,
+                     @NonNull long[] insertedTaskIds,
+                     @NonNull long[] updatedTaskIds,
+                     @NonNull long[] deletedTaskIds,
+                     @NonNull Map<Long, Integer> taskCountChanges) {
+        this.lastSeq = lastSeq;
+        this.insertedTaskIds = insertedTaskIds;
+        this.updatedTaskIds = updatedTaskIds;
+        this.deletedTaskIds = deletedTaskIds;
+        this.taskCountChanges = Collections.unmodifiableMap(taskCountChanges);
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    /**
+     * Collapses the entries of the change log, read in the order of their sequence numbers
+     * @param sinceSeq the sequence number after which the changes have been read
+     * @param changes  a {@link List<TaskChange>} sorted by sequence number
+     * @return a {@link TaskDelta}
+     */
+    @NonNull
+    public static TaskDelta fromChanges(final long sinceSeq, @NonNull final List<TaskChange> changes) {
+        // First and last operation of each task, in the order of their first change
+        final Map<Long, String[]> operationsByTask = new LinkedHashMap<>();
+        final Map<Long, Integer> taskCountChanges = new HashMap<>();
+        long lastSeq = sinceSeq;
+
+        for (TaskChange change : changes) {
+            final String[] operations = operationsByTask.get(change.getTaskId());
+            if (operations == null) {
+                operationsByTask.put(change.getTaskId(), new String[] {change.getOperation(), change.getOperation()});
+            }
+            else {
+                operations[1] = change.getOperation();
+            }
+
+            if (!TaskChange.UPDATE.equals(change.getOperation())) {
+                final int sign = TaskChange.INSERT.equals(change.getOperation()) ? 1 : -1;
+                final Integer count = taskCountChanges.get(change.getProjectId());
+                taskCountChanges.put(change.getProjectId(), (count != null ? count : 0) + sign);
+            }
+
+            lastSeq = change.getSeq();
+        }
+
+        final long[] inserted = new long[operationsByTask.size()];
+        final long[] updated = new long[operationsByTask.size()];
+        final long[] deleted = new long[operationsByTask.size()];
+        int insertedCount = 0, updatedCount = 0, deletedCount = 0;
+
+        for (Map.Entry<Long, String[]> entry : operationsByTask.entrySet()) {
+            final boolean firstIsInsert = TaskChange.INSERT.equals(entry.getValue()[0]);
+            final boolean lastIsDelete = TaskChange.DELETE.equals(entry.getValue()[1]);
+
+            if (firstIsInsert && lastIsDelete) {
+                continue;
+            }
+            if (firstIsInsert) {
+                inserted[insertedCount++] = entry.getKey();
+            }
+            else if (lastIsDelete) {
+                deleted[deletedCount++] = entry.getKey();
+            }
+            else {
+                updated[updatedCount++] = entry.getKey();
+            }
+        }
+
+        // Projects whose count has not changed in the end
+        taskCountChanges.values().removeAll(Collections.singleton(0));
+
+        return new TaskDelta(lastSeq,
+                             copyOf(inserted, insertedCount),
+                             copyOf(updated, updatedCount),
+                             copyOf(deleted, deletedCount),
+                             taskCountChanges);
+    }
+
+    private static long[] copyOf(@NonNull final long[] ids, final int length) {
+        final long[] copy = new long[length];
+        System.arraycopy(ids, 0, copy, 0, length);
+        return copy;
+    }
+
+    // -- GETTER --
+
+    public long getLastSeq() {
+        return this.lastSeq;
+    }
+
+    @NonNull
+    public long[] getInsertedTaskIds() {
+        return this.insertedTaskIds;
+    }
+
+    @NonNull
+    public long[] getUpdatedTaskIds() {
+        return this.updatedTaskIds;
+    }
+
+    @NonNull
+    public long[] getDeletedTaskIds() {
+        return this.deletedTaskIds;
+    }
+
+    @NonNull
+    public Map<Long, Integer> getTaskCountChanges() {
+        return this.taskCountChanges;
+    }
+
+    /**
+     * Returns true if the delta changes neither a task nor a count
+     * @return a boolean
+     */
+    public boolean isEmpty() {
+        return this.insertedTaskIds.length == 0 &&
+               this.updatedTaskIds.length == 0  &&
+               this.deletedTaskIds.length == 0  &&
+               this.taskCountChanges.isEmpty();
+    }
+}
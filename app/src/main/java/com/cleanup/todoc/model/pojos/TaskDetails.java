@@ -0,0 +1,79 @@
+package com.cleanup.todoc.model.pojos;
+
+import android.arch.persistence.room.ColumnInfo;
+import android.arch.persistence.room.Entity;
+import android.arch.persistence.room.PrimaryKey;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Objects;
+
+/**
+ * <p>The heavy columns of a task (its notes), kept out of the task table
+ * and only read when one task is opened.</p>
+ *
+ * There is no foreign key on the task table: the details follow a task into the archive
+ * (same id), and the triggers of TodocDatabase remove them with the task for good.
+ */
+
+@Entity(tableName = "task_details")
+public class TaskDetails {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    /**
+     * The unique identifier of the task
+     */
+    @PrimaryKey
+    @ColumnInfo(name = "task_id")
+    private final long taskId;
+
+    /**
+     * The free-text notes of the task
+     */
+    @NonNull
+    @ColumnInfo(name = "notes")
+    private final String notes;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Instantiates a new TaskDetails.
+     * @param taskId the unique identifier of the task to set
+     * @param notes  the free-text notes of the task to set
+     */
+    public TaskDetails(long taskId, @NonNull String notes) {
+        this.taskId = taskId;
+        this.notes = notes;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- GETTER --
+
+    public long getTaskId() {
+        return this.taskId;
+    }
+
+    @NonNull
+    public String getNotes() {
+        return this.notes;
+    }
+
+    // -- FROM OBJECT CLASS --
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        // Same address
+        if (this == obj) return true;
+
+        // Null or different class
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        // Cast Object to TaskDetails
+        TaskDetails details = (TaskDetails) obj;
+
+        return Objects.equals(this.taskId, details.taskId) &&
+                Objects.equals(this.notes, details.notes);
+    }
+}
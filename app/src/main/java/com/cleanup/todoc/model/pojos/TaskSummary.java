@@ -0,0 +1,137 @@
+package com.cleanup.todoc.model.pojos;
+
+import android.arch.persistence.room.ColumnInfo;
+import android.arch.persistence.room.Ignore;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import java.util.Objects;
+
+/**
+ * <p>The columns of a {@link Task} read by the lists. The lists select these columns by name
+ * (see TaskDao), so a column added to the task table, or the notes of {@link TaskDetails},
+ * never weigh on them.</p>
+ */
+public class TaskSummary {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    /**
+     * The unique identifier of the task
+     */
+    @ColumnInfo(name = "id")
+    private final long id;
+
+    /**
+     * The unique identifier of the project associated to the task
+     */
+    @ColumnInfo(name = "project_id")
+    private final long projectId;
+
+    /**
+     * The name of the task
+     */
+    @NonNull
+    @ColumnInfo(name = "name")
+    private final String name;
+
+    /**
+     * The timestamp when the task has been created
+     */
+    @ColumnInfo(name = "creation_timestamp")
+    private final long creationTimestamp;
+
+    /**
+     * The timestamp when the task has been done, null while it is open
+     */
+    @Nullable
+    @ColumnInfo(name = "completed_at")
+    private final Long completedAt;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Instantiates a new TaskSummary.
+     * @param id                the unique identifier of the task to set
+     * @param projectId         the unique identifier of the project associated to the task to set
+     * @param name              the name of the task to set
+     * @param creationTimestamp the timestamp when the task has been created to set
+     * @param completedAt       the timestamp when the task has been done, null while it is open, to set
+     */
+    public TaskSummary(long id, long projectId, @NonNull String name, long creationTimestamp,
+                       @Nullable Long completedAt) {
+        this.id = id;
+        this.projectId = projectId;
+        this.name = name;
+        this.creationTimestamp = creationTimestamp;
+        this.completedAt = completedAt;
+    }
+
+    /**
+     * Instantiates a new TaskSummary of an open task.
+     * @param id                the unique identifier of the task to set
+     * @param projectId         the unique identifier of the project associated to the task to set
+     * @param name              the name of the task to set
+     * @param creationTimestamp the timestamp when the task has been created to set
+     */
+    @Ignore
+    @VisibleForTesting
+    public TaskSummary(long id, long projectId, @NonNull String name, long creationTimestamp) {
+        this(id, projectId, name, creationTimestamp, null);
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- GETTER --
+
+    public long getId() {
+        return this.id;
+    }
+
+    public long getProjectId() {
+        return this.projectId;
+    }
+
+    @NonNull
+    public String getName() {
+        return this.name;
+    }
+
+    public long getCreationTimestamp() {
+        return this.creationTimestamp;
+    }
+
+    @Nullable
+    public Long getCompletedAt() {
+        return this.completedAt;
+    }
+
+    /**
+     * Returns true if the task has been done
+     * @return a boolean
+     */
+    public boolean isCompleted() {
+        return this.completedAt != null;
+    }
+
+    // -- FROM OBJECT CLASS --
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        // Same address
+        if (this == obj) return true;
+
+        // Null or different class
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        // Cast Object to TaskSummary
+        TaskSummary task = (TaskSummary) obj;
+
+        return Objects.equals(this.id, task.id)                               &&
+                Objects.equals(this.projectId, task.projectId)                 &&
+                Objects.equals(this.name, task.name)                           &&
+                Objects.equals(this.creationTimestamp, task.creationTimestamp) &&
+                Objects.equals(this.completedAt, task.completedAt);
+    }
+}
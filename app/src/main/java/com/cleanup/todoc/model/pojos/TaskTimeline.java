@@ -0,0 +1,134 @@
+package com.cleanup.todoc.model.pojos;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>The sections by day of creation of the list of tasks, flattened into the position
+ * of the first row of each section: the headers are found by a binary search on the position
+ * of a row, without walking the list nor allocating.</p>
+ */
+public class TaskTimeline {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    /**
+     * The timeline without section, for the lists which are not sorted by creation
+     */
+    public static final TaskTimeline EMPTY = new TaskTimeline(new int[0], new int[0], 0);
+
+    /**
+     * The day of creation of the tasks of each section (days since the epoch)
+     */
+    @NonNull
+    private final int[] days;
+
+    /**
+     * The position of the first row of each section, in ascending order
+     */
+    @NonNull
+    private final int[] startPositions;
+
+    /**
+     * The number of rows of the list
+     */
+    private final int rowCount;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Instantiates a new TaskTimeline.
+     * @param days           the day of creation of the tasks of each section to set
+     * @param startPositions the position of the first row of each section to set
+     * @param rowCount       the number of rows of the list to set
+     */
+    private TaskTimeline(@NonNull int[] days, @NonNull int[] startPositions, int rowCount) {
+        this.days = days;
+        this.startPositions = startPositions;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Flattens the counts of tasks by day into sections
+     * @param dayCounts    a {@link List} of {@link TaskDayCount}, last day first
+     * @param oldestFirst  true if the list shows the first created tasks first
+     * @return a {@link TaskTimeline}
+     */
+    @NonNull
+    public static TaskTimeline of(@NonNull final List<TaskDayCount> dayCounts, final boolean oldestFirst) {
+        final int sectionCount = dayCounts.size();
+        final int[] days = new int[sectionCount];
+        final int[] startPositions = new int[sectionCount];
+        int position = 0;
+
+        for (int section = 0; section < sectionCount; section++) {
+            final TaskDayCount dayCount = dayCounts.get(oldestFirst ? sectionCount - 1 - section : section);
+
+            days[section] = dayCount.getCreationDay();
+            startPositions[section] = position;
+            position += dayCount.getTaskCount();
+        }
+
+        return new TaskTimeline(days, startPositions, position);
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- GETTER --
+
+    public int getSectionCount() {
+        return this.days.length;
+    }
+
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * Returns the day of creation of the tasks of a section
+     * @param section an integer that contains the index of the section
+     * @return an integer that contains the number of days since the epoch
+     */
+    public int getDay(final int section) {
+        return this.days[section];
+    }
+
+    /**
+     * Returns the position of the first row of a section
+     * @param section an integer that contains the index of the section
+     * @return an integer
+     */
+    public int getStartPosition(final int section) {
+        return this.startPositions[section];
+    }
+
+    // -- SECTIONS --
+
+    /**
+     * Returns the index of the section of a row, -1 if the row is out of the timeline
+     * @param position an integer that contains the position of the row
+     * @return an integer
+     */
+    public int getSectionOf(final int position) {
+        if (position < 0 || position >= this.rowCount) {
+            return -1;
+        }
+
+        final int index = Arrays.binarySearch(this.startPositions, position);
+
+        // Between two starts: the insertion point is the next section
+        return (index >= 0) ? index : -index - 2;
+    }
+
+    /**
+     * Returns true if the row is the first one of its section (it gets the header)
+     * @param position an integer that contains the position of the row
+     * @return a boolean
+     */
+    public boolean isSectionStart(final int position) {
+        return position >= 0 && position < this.rowCount
+               && Arrays.binarySearch(this.startPositions, position) >= 0;
+    }
+}
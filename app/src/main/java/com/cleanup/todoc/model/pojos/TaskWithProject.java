@@ -0,0 +1,90 @@
+package com.cleanup.todoc.model.pojos;
+
+import android.arch.persistence.room.ColumnInfo;
+import android.arch.persistence.room.Embedded;
+import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Objects;
+
+/**
+ * <p>Row of the task list: a {@link TaskSummary} with the name and the color of its {@link Project},
+ * read by a single JOIN so that the adapter does not look the project up for each row.</p>
+ */
+public class TaskWithProject {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    /**
+     * The task
+     */
+    @NonNull
+    @Embedded
+    private final TaskSummary task;
+
+    /**
+     * The name of the project associated to the task
+     */
+    @NonNull
+    @ColumnInfo(name = "project_name")
+    private final String projectName;
+
+    /**
+     * The hex (ARGB) code of the color of the project associated to the task
+     */
+    @ColorInt
+    @ColumnInfo(name = "project_color")
+    private final int projectColor;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Instantiates a new TaskWithProject.
+     * @param task         the task to set
+     * @param projectName  the name of the project associated to the task to set
+     * @param projectColor the hex (ARGB) code of the color of the project to set
+     */
+    public TaskWithProject(@NonNull TaskSummary task, @NonNull String projectName, @ColorInt int projectColor) {
+        this.task = task;
+        this.projectName = projectName;
+        this.projectColor = projectColor;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- GETTER --
+
+    @NonNull
+    public TaskSummary getTask() {
+        return this.task;
+    }
+
+    @NonNull
+    public String getProjectName() {
+        return this.projectName;
+    }
+
+    @ColorInt
+    public int getProjectColor() {
+        return this.projectColor;
+    }
+
+    // -- FROM OBJECT CLASS --
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        // Same address
+        if (this == obj) return true;
+
+        // Null or different class
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        // Cast Object to TaskWithProject
+        TaskWithProject taskWithProject = (TaskWithProject) obj;
+
+        return Objects.equals(this.task, taskWithProject.task)               &&
+                Objects.equals(this.projectName, taskWithProject.projectName) &&
+                Objects.equals(this.projectColor, taskWithProject.projectColor);
+    }
+}
@@ -0,0 +1,131 @@
+package com.cleanup.todoc.repositories;
+
+import android.arch.lifecycle.LiveData;
+import android.arch.paging.DataSource;
+import android.support.annotation.NonNull;
+import android.support.annotation.VisibleForTesting;
+
+import com.cleanup.todoc.model.dao.ArchivedTaskDao;
+import com.cleanup.todoc.model.dao.TaskDao;
+import com.cleanup.todoc.model.database.TodocDatabase;
+import com.cleanup.todoc.model.database.TodocDatabaseConfig;
+import com.cleanup.todoc.model.pojos.ArchivedTask;
+import com.cleanup.todoc.model.pojos.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+
+public class ArchiveRepositoryImpl implements Repository.ArchiveRepository {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    @Inject
+    ArchivedTaskDao mArchivedTaskDao;
+
+    @Inject
+    TaskDao mTaskDao;
+
+    @Inject
+    TodocDatabase mDatabase;
+
+    @Inject
+    BusyRetry mBusyRetry;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     */
+    @Inject
+    public ArchiveRepositoryImpl() {}
+
+    /**
+     * Constructor
+     * @param database a {@link TodocDatabase}
+     */
+    @VisibleForTesting
+    public ArchiveRepositoryImpl(@NonNull TodocDatabase database) {
+        this.mDatabase = database;
+        this.mArchivedTaskDao = database.mArchivedTaskDao();
+        this.mTaskDao = database.mTaskDao();
+        this.mBusyRetry = new BusyRetry(TodocDatabaseConfig.DEFAULT.getBusyMaxAttempts(),
+                                        TodocDatabaseConfig.DEFAULT.getBusyInitialDelayMillis());
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- ARCHIVE --
+
+    @Override
+    public int archiveTasksCompletedBefore(final long completedTimestamp, final int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size must be positive");
+        }
+        // The ids of a chunk are deleted in a single statement
+        if (chunkSize > TaskRepositoryImpl.MAX_IDS_BY_STATEMENT) {
+            throw new IllegalArgumentException("The chunk size can not exceed " + TaskRepositoryImpl.MAX_IDS_BY_STATEMENT);
+        }
+
+        final long archiveTimestamp = System.currentTimeMillis();
+
+        return this.mBusyRetry.run(() -> this.mDatabase.runInTransaction(
+                () -> this.archiveChunk(completedTimestamp, chunkSize, archiveTimestamp)));
+    }
+
+    /**
+     * Moves the first {@link Task}s done before the timestamp into the archive
+     * (to call inside a transaction)
+     * @param completedTimestamp an integer that contains the timestamp (excluded)
+     * @param chunkSize          an integer that contains the maximum number of tasks
+     * @param archiveTimestamp   an integer that contains the timestamp of the archiving
+     * @return an integer that contains the archived tuple number
+     */
+    private int archiveChunk(final long completedTimestamp, final int chunkSize, final long archiveTimestamp) {
+        final List<Task> tasks = this.mTaskDao.getFirstTasksCompletedBefore(completedTimestamp, chunkSize);
+
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+
+        final List<ArchivedTask> archivedTasks = new ArrayList<>(tasks.size());
+        final long[] taskIds = new long[tasks.size()];
+
+        for (int i = 0; i < tasks.size(); i++) {
+            archivedTasks.add(new ArchivedTask(tasks.get(i), archiveTimestamp));
+            taskIds[i] = tasks.get(i).getId();
+        }
+
+        this.mArchivedTaskDao.insertArchivedTasks(archivedTasks);
+
+        return this.mTaskDao.deleteTasksByIds(taskIds);
+    }
+
+    // -- READ --
+
+    @NonNull
+    @Override
+    public DataSource.Factory<Integer, ArchivedTask> getArchivedTasks() {
+        return this.mArchivedTaskDao.getArchivedTasksPaged();
+    }
+
+    @NonNull
+    @Override
+    public DataSource.Factory<Integer, ArchivedTask> getArchivedTasksByProjectId(final long projectId) {
+        return this.mArchivedTaskDao.getArchivedTasksByProjectIdPaged(projectId);
+    }
+
+    @NonNull
+    @Override
+    public LiveData<Integer> getArchivedTaskCount() {
+        return this.mArchivedTaskDao.getArchivedTaskCount();
+    }
+
+    // -- DELETE --
+
+    @Override
+    public int deleteArchivedTaskById(final long archivedTaskId) {
+        return this.mBusyRetry.run(() -> this.mArchivedTaskDao.deleteArchivedTaskById(archivedTaskId));
+    }
+}
@@ -0,0 +1,142 @@
+package com.cleanup.todoc.repositories;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+import android.support.annotation.VisibleForTesting;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import com.cleanup.todoc.model.database.Backfill;
+import com.cleanup.todoc.model.database.TodocDatabase;
+import com.cleanup.todoc.model.pojos.BackfillProgress;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>Background job which runs the pending {@link Backfill}s of the database on the executor
+ * of the repositories, one chunk of rows by transaction.</p>
+ *
+ * Each chunk is a task of its own on the executor, so the writes of the app queued meanwhile
+ * run between two chunks. The progress is recorded with the chunk: an interrupted backfill
+ * goes on after its last chunk at the next start.
+ */
+public class BackfillRunner {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final String TAG = BackfillRunner.class.getSimpleName();
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    @NonNull
+    private final TodocDatabase mDatabase;
+    @NonNull
+    private final List<Backfill> mBackfills;
+    @NonNull
+    private final Executor mExecutor;
+    @NonNull
+    private final BusyRetry mBusyRetry;
+
+    private final int mChunkSize;
+
+    private volatile boolean mStopped = false;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     * @param database  a {@link TodocDatabase}
+     * @param backfills a {@link List} of {@link Backfill}, run in this order
+     * @param executor  an {@link Executor}
+     * @param busyRetry a {@link BusyRetry}
+     * @param chunkSize an integer that contains the number of rows by transaction
+     */
+    public BackfillRunner(@NonNull final TodocDatabase database,
+                          @NonNull final List<Backfill> backfills,
+                          @NonNull final Executor executor,
+                          @NonNull final BusyRetry busyRetry,
+                          final int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size must be positive");
+        }
+
+        this.mDatabase = database;
+        this.mBackfills = backfills;
+        this.mExecutor = executor;
+        this.mBusyRetry = busyRetry;
+        this.mChunkSize = chunkSize;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    /**
+     * Runs the pending backfills in asynchronous way, until their completion
+     */
+    public void start() {
+        this.mExecutor.execute(this::runNextChunk);
+    }
+
+    /**
+     * Stops the backfills after the running chunk, the next start resumes them from their progress
+     * (the database is about to be closed, or the workspace is no longer the active one)
+     */
+    public void stop() {
+        this.mStopped = true;
+    }
+
+    /**
+     * Runs a chunk of the first pending backfill, then queues the next chunk
+     */
+    @WorkerThread
+    private void runNextChunk() {
+        if (this.mStopped) {
+            return;
+        }
+
+        for (Backfill backfill : this.mBackfills) {
+            if (this.runChunk(backfill)) {
+                this.mExecutor.execute(this::runNextChunk);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Fills the next chunk of rows of a backfill and records its progress, in a transaction
+     * @param backfill a {@link Backfill}
+     * @return true if rows remain to be filled
+     */
+    @VisibleForTesting
+    @WorkerThread
+    boolean runChunk(@NonNull final Backfill backfill) {
+        return this.mBusyRetry.run(() -> this.mDatabase.runInTransaction(() -> {
+            final BackfillProgress progress = this.mDatabase.mBackfillDao().getBackfillProgress(backfill.getName());
+
+            if (progress == null || progress.isCompleted()) {
+                return false;
+            }
+
+            final SupportSQLiteDatabase db = this.mDatabase.getOpenHelper().getWritableDatabase();
+            final long fromId = progress.getLastId();
+            final Long toId;
+
+            try (Cursor cursor = db.query("SELECT MAX(`id`) FROM (SELECT `id` FROM `" + backfill.getTable() + "` " +
+                                          "WHERE `id` > ? ORDER BY `id` LIMIT ?)",
+                                          new Object[] {fromId, this.mChunkSize})) {
+                toId = cursor.moveToFirst() && !cursor.isNull(0) ? cursor.getLong(0) : null;
+            }
+
+            if (toId == null) {
+                this.mDatabase.mBackfillDao().updateBackfillProgress(new BackfillProgress(backfill.getName(), fromId, true));
+                Log.d(TAG, "runChunk: " + backfill.getName() + " completed");
+                return false;
+            }
+
+            backfill.fill(db, fromId, toId);
+            this.mDatabase.mBackfillDao().updateBackfillProgress(new BackfillProgress(backfill.getName(), toId, false));
+            return true;
+        }));
+    }
+}
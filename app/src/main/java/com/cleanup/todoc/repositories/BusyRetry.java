@@ -0,0 +1,77 @@
+package com.cleanup.todoc.repositories;
+
+import android.database.sqlite.SQLiteDatabaseLockedException;
+import android.support.annotation.NonNull;
+
+/**
+ * <p>Bounded retry with exponential backoff of the writes which fail because the database
+ * is busy (SQLITE_BUSY, thrown as {@link SQLiteDatabaseLockedException}).</p>
+ *
+ * Any other exception is thrown at once.
+ */
+public class BusyRetry {
+
+    // INTERFACES ----------------------------------------------------------------------------------
+
+    /**
+     * Body of the write to attempt
+     * @param <T> the type of the result
+     */
+    public interface Body<T> {
+        T run();
+    }
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final long MAX_DELAY_MILLIS = 1000L;
+
+    private final int mMaxAttempts;
+    private final long mInitialDelayMillis;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     * @param maxAttempts        an integer that contains the maximum number of attempts
+     * @param initialDelayMillis an integer that contains the delay before the first new attempt,
+     *                           doubled at each attempt (up to 1 second)
+     */
+    public BusyRetry(final int maxAttempts, final long initialDelayMillis) {
+        this.mMaxAttempts = Math.max(1, maxAttempts);
+        this.mInitialDelayMillis = Math.max(0L, initialDelayMillis);
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    /**
+     * Runs the body, again after a delay while the database is busy and attempts remain
+     * @param body a {@link Body}
+     * @param <T>  the type of the result
+     * @return the result of the body
+     * @throws SQLiteDatabaseLockedException if the database is still busy at the last attempt
+     */
+    public <T> T run(@NonNull final Body<T> body) {
+        long delayMillis = this.mInitialDelayMillis;
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return body.run();
+            }
+            catch (SQLiteDatabaseLockedException e) {
+                if (attempt >= this.mMaxAttempts) {
+                    throw e;
+                }
+
+                try {
+                    Thread.sleep(delayMillis);
+                }
+                catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+
+                delayMillis = Math.min(delayMillis * 2, MAX_DELAY_MILLIS);
+            }
+        }
+    }
+}
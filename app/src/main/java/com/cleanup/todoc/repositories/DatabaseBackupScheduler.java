@@ -0,0 +1,134 @@
+package com.cleanup.todoc.repositories;
+
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.ComponentName;
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import com.cleanup.todoc.model.database.DatabaseBackup;
+import com.cleanup.todoc.model.pojos.BackupReport;
+import com.cleanup.todoc.views.services.DatabaseBackupService;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Schedules the {@link DatabaseBackup} with the JobScheduler, once a day at most,
+ * while the device is idle and charging (so at night), and records the report of the last
+ * backup in the shared preferences "database_backup".</p>
+ */
+public class DatabaseBackupScheduler {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final String TAG = DatabaseBackupScheduler.class.getSimpleName();
+
+    public static final int JOB_ID = 2;
+    public static final long DEFAULT_PERIOD_MILLIS = TimeUnit.DAYS.toMillis(1);
+    public static final int DEFAULT_MAX_VERSIONS = 7;
+
+    private static final String PREFERENCES_NAME = "database_backup";
+    private static final String KEY_TIMESTAMP = "timestamp";
+    private static final String KEY_STATUS = "status";
+    private static final String KEY_VERSION = "version";
+    private static final String KEY_SIZE_BYTES = "size_bytes";
+    private static final String KEY_CRC32 = "crc32";
+    private static final String KEY_DURATION_MILLIS = "duration_millis";
+
+    @NonNull
+    private final Context mContext;
+    @NonNull
+    private final DatabaseBackup mBackup;
+
+    private final long mPeriodMillis;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     * @param context      a {@link Context}
+     * @param backup       a {@link DatabaseBackup}
+     * @param periodMillis an integer that contains the period of the job
+     */
+    public DatabaseBackupScheduler(@NonNull final Context context,
+                                   @NonNull final DatabaseBackup backup,
+                                   final long periodMillis) {
+        if (periodMillis < 1L) {
+            throw new IllegalArgumentException("The period must be positive");
+        }
+
+        this.mContext = context.getApplicationContext();
+        this.mBackup = backup;
+        this.mPeriodMillis = periodMillis;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- SCHEDULE --
+
+    /**
+     * Schedules the periodic job, unless it is already pending (its period starts again otherwise)
+     */
+    public void schedule() {
+        final JobScheduler jobScheduler = (JobScheduler) this.mContext.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+
+        if (jobScheduler == null) {
+            Log.w(TAG, "schedule: no JobScheduler");
+            return;
+        }
+
+        for (JobInfo job : jobScheduler.getAllPendingJobs()) {
+            if (job.getId() == JOB_ID) {
+                return;
+            }
+        }
+
+        final JobInfo job = new JobInfo.Builder(JOB_ID, new ComponentName(this.mContext, DatabaseBackupService.class))
+                                       .setRequiresDeviceIdle(true)
+                                       .setRequiresCharging(true)
+                                       .setPeriodic(this.mPeriodMillis)
+                                       .build();
+
+        if (jobScheduler.schedule(job) != JobScheduler.RESULT_SUCCESS) {
+            Log.w(TAG, "schedule: the backup job has not been scheduled");
+        }
+    }
+
+    // -- RUN --
+
+    /**
+     * Runs the backup and records its report
+     * @return a {@link BackupReport}
+     * @throws IOException if the database file can not be copied
+     */
+    @WorkerThread
+    @NonNull
+    public BackupReport runBackup() throws IOException {
+        final BackupReport report = this.mBackup.backup();
+
+        this.saveReport(report);
+        Log.i(TAG, "runBackup: " + report);
+
+        return report;
+    }
+
+    /**
+     * Records the report in the shared preferences, in place of the previous one
+     * @param report a {@link BackupReport}
+     */
+    private void saveReport(@NonNull final BackupReport report) {
+        this.mContext.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE)
+                     .edit()
+                     .clear()
+                     .putLong(KEY_TIMESTAMP, report.getTimestamp())
+                     .putString(KEY_STATUS, report.getStatus().name())
+                     .putString(KEY_VERSION, report.getVersion())
+                     .putLong(KEY_SIZE_BYTES, report.getSizeBytes())
+                     .putLong(KEY_CRC32, report.getCrc32())
+                     .putLong(KEY_DURATION_MILLIS, report.getDurationMillis())
+                     .apply();
+    }
+}
@@ -0,0 +1,142 @@
+package com.cleanup.todoc.repositories;
+
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.support.annotation.NonNull;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import com.cleanup.todoc.model.database.DatabaseMaintenance;
+import com.cleanup.todoc.model.pojos.MaintenanceReport;
+import com.cleanup.todoc.views.services.DatabaseMaintenanceService;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>Schedules the {@link DatabaseMaintenance} with the JobScheduler, once a day at most,
+ * while the device is idle and charging, and records the report of the last run
+ * in the shared preferences "database_maintenance".</p>
+ */
+public class DatabaseMaintenanceScheduler {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final String TAG = DatabaseMaintenanceScheduler.class.getSimpleName();
+
+    public static final int JOB_ID = 1;
+    public static final long DEFAULT_PERIOD_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private static final String PREFERENCES_NAME = "database_maintenance";
+    private static final String KEY_TIMESTAMP = "timestamp";
+    private static final String KEY_INTEGRITY = "integrity";
+    private static final String KEY_COMPLETED = "completed";
+    private static final String SUFFIX_DURATION_MILLIS = "_duration_millis";
+    private static final String SUFFIX_WRITE_LOCK_MILLIS = "_write_lock_millis";
+    private static final String SUFFIX_RECLAIMED_BYTES = "_reclaimed_bytes";
+    private static final String SUFFIX_OVER_BUDGET = "_over_budget";
+    private static final String SUFFIX_DEFERRED_COUNT = "_deferred_count";
+
+    @NonNull
+    private final Context mContext;
+    @NonNull
+    private final DatabaseMaintenance mMaintenance;
+
+    private final long mPeriodMillis;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     * @param context      a {@link Context}
+     * @param maintenance  a {@link DatabaseMaintenance}
+     * @param periodMillis an integer that contains the period of the job
+     */
+    public DatabaseMaintenanceScheduler(@NonNull final Context context,
+                                        @NonNull final DatabaseMaintenance maintenance,
+                                        final long periodMillis) {
+        if (periodMillis < 1L) {
+            throw new IllegalArgumentException("The period must be positive");
+        }
+
+        this.mContext = context.getApplicationContext();
+        this.mMaintenance = maintenance;
+        this.mPeriodMillis = periodMillis;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- SCHEDULE --
+
+    /**
+     * Schedules the periodic job, unless it is already pending (its period starts again otherwise)
+     */
+    public void schedule() {
+        final JobScheduler jobScheduler = (JobScheduler) this.mContext.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+
+        if (jobScheduler == null) {
+            Log.w(TAG, "schedule: no JobScheduler");
+            return;
+        }
+
+        for (JobInfo job : jobScheduler.getAllPendingJobs()) {
+            if (job.getId() == JOB_ID) {
+                return;
+            }
+        }
+
+        final JobInfo job = new JobInfo.Builder(JOB_ID, new ComponentName(this.mContext, DatabaseMaintenanceService.class))
+                                       .setRequiresDeviceIdle(true)
+                                       .setRequiresCharging(true)
+                                       .setPeriodic(this.mPeriodMillis)
+                                       .build();
+
+        if (jobScheduler.schedule(job) != JobScheduler.RESULT_SUCCESS) {
+            Log.w(TAG, "schedule: the maintenance job has not been scheduled");
+        }
+    }
+
+    // -- RUN --
+
+    /**
+     * Runs the maintenance and records its report
+     * @param cancelled an {@link AtomicBoolean} set to true to stop the run
+     * @return a {@link MaintenanceReport}
+     */
+    @WorkerThread
+    @NonNull
+    public MaintenanceReport runMaintenance(@NonNull final AtomicBoolean cancelled) {
+        final MaintenanceReport report = this.mMaintenance.run(cancelled);
+
+        this.saveReport(report);
+        Log.i(TAG, "runMaintenance: " + report);
+
+        return report;
+    }
+
+    /**
+     * Records the report in the shared preferences, in place of the previous one
+     * @param report a {@link MaintenanceReport}
+     */
+    private void saveReport(@NonNull final MaintenanceReport report) {
+        final SharedPreferences.Editor editor = this.mContext.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE)
+                                                             .edit()
+                                                             .clear()
+                                                             .putLong(KEY_TIMESTAMP, report.getTimestamp())
+                                                             .putString(KEY_INTEGRITY, report.getIntegrity())
+                                                             .putBoolean(KEY_COMPLETED, report.isCompleted());
+
+        for (MaintenanceReport.Step step : report.getSteps()) {
+            editor.putLong(step.getName() + SUFFIX_DURATION_MILLIS, step.getDurationMillis())
+                  .putLong(step.getName() + SUFFIX_WRITE_LOCK_MILLIS, step.getLongestWriteLockMillis())
+                  .putLong(step.getName() + SUFFIX_RECLAIMED_BYTES, step.getReclaimedBytes())
+                  .putBoolean(step.getName() + SUFFIX_OVER_BUDGET, step.isOverBudget())
+                  .putInt(step.getName() + SUFFIX_DEFERRED_COUNT, step.getDeferredCount());
+        }
+
+        editor.apply();
+    }
+}
@@ -0,0 +1,132 @@
+package com.cleanup.todoc.repositories;
+
+import android.arch.lifecycle.LiveData;
+import android.arch.lifecycle.MutableLiveData;
+import android.database.sqlite.SQLiteException;
+import android.support.annotation.NonNull;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import com.cleanup.todoc.model.pojos.ProjectDeletionProgress;
+
+import java.util.concurrent.Executor;
+
+/**
+ * <p>Deletes a project on the executor of the repositories: its tasks by chunks, one transaction
+ * by chunk, then the project itself, instead of a cascade of all its tasks in a single
+ * transaction which would hold the write lock until the end.</p>
+ *
+ * Each chunk is a task of its own on the executor, so the writes of the app queued meanwhile
+ * run between two chunks. The progress is posted after each chunk, and a failed progress
+ * if a chunk throws (the deletion then stops, the chunks before it stay deleted).
+ */
+public class ProjectDeleter {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final String TAG = ProjectDeleter.class.getSimpleName();
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    @NonNull
+    private final Repository.ProjectRepository mProjectRepository;
+    @NonNull
+    private final Executor mExecutor;
+
+    private final int mChunkSize;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     * @param projectRepository a {@link Repository.ProjectRepository}
+     * @param executor          an {@link Executor}
+     * @param chunkSize         an integer that contains the number of tasks by transaction
+     */
+    public ProjectDeleter(@NonNull final Repository.ProjectRepository projectRepository,
+                          @NonNull final Executor executor,
+                          final int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size must be positive");
+        }
+
+        this.mProjectRepository = projectRepository;
+        this.mExecutor = executor;
+        this.mChunkSize = chunkSize;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    /**
+     * Deletes a project and its tasks in asynchronous way
+     * @param projectId an integer that contains the id value of the project
+     * @return a {@link LiveData} of {@link ProjectDeletionProgress}, completed once the project is deleted,
+     *         or failed
+     */
+    @NonNull
+    public LiveData<ProjectDeletionProgress> deleteProject(final long projectId) {
+        final MutableLiveData<ProjectDeletionProgress> progress = new MutableLiveData<>();
+
+        this.mExecutor.execute(() -> {
+            final int taskCount;
+
+            try {
+                taskCount = this.mProjectRepository.getProjectTaskCount(projectId);
+            }
+            catch (SQLiteException | IllegalStateException e) {
+                Log.e(TAG, "deleteProject: the tasks of project " + projectId + " can not be counted", e);
+                progress.postValue(new ProjectDeletionProgress(projectId, 0, 0, false, true));
+                return;
+            }
+
+            progress.postValue(new ProjectDeletionProgress(projectId, 0, taskCount, false));
+            this.deleteNextChunk(projectId, 0, taskCount, progress);
+        });
+
+        return progress;
+    }
+
+    /**
+     * Deletes a chunk of the tasks of the project then queues the next chunk,
+     * or deletes the project once it has no task left
+     * @param projectId        an integer that contains the id value of the project
+     * @param deletedTaskCount an integer that contains the number of tasks already deleted
+     * @param taskCount        an integer that contains the number of tasks at the start
+     * @param progress         the {@link MutableLiveData} of the progress
+     */
+    @WorkerThread
+    private void deleteNextChunk(final long projectId,
+                                 final int deletedTaskCount,
+                                 final int taskCount,
+                                 @NonNull final MutableLiveData<ProjectDeletionProgress> progress) {
+        final int chunkCount;
+
+        try {
+            chunkCount = this.mProjectRepository.deleteProjectTasks(projectId, this.mChunkSize);
+
+            if (chunkCount < this.mChunkSize) {
+                // The cascade of the project row only has its statistics left
+                this.mProjectRepository.deleteProjectById(projectId);
+            }
+        }
+        catch (SQLiteException | IllegalStateException e) {
+            // The transaction of the chunk is rolled back, the dialog of the progress must still end
+            Log.e(TAG, "deleteProject: a chunk of project " + projectId + " has failed", e);
+            progress.postValue(new ProjectDeletionProgress(projectId, deletedTaskCount, taskCount, false, true));
+            return;
+        }
+
+        // Tasks added meanwhile are deleted too, the progress never goes past the total
+        final int newDeletedTaskCount = Math.min(deletedTaskCount + chunkCount, taskCount);
+
+        if (chunkCount == this.mChunkSize) {
+            progress.postValue(new ProjectDeletionProgress(projectId, newDeletedTaskCount, taskCount, false));
+            this.mExecutor.execute(() -> this.deleteNextChunk(projectId, newDeletedTaskCount, taskCount, progress));
+            return;
+        }
+
+        progress.postValue(new ProjectDeletionProgress(projectId, taskCount, taskCount, true));
+
+        Log.d(TAG, "deleteProject: project " + projectId + " deleted with " + taskCount + " task(s)");
+    }
+}
@@ -2,10 +2,16 @@ package com.cleanup.todoc.repositories;
 
 import android.arch.lifecycle.LiveData;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 
+import com.cleanup.todoc.model.dao.ArchivedTaskDao;
 import com.cleanup.todoc.model.dao.ProjectDao;
+import com.cleanup.todoc.model.dao.TaskDao;
+import com.cleanup.todoc.model.database.TodocDatabase;
+import com.cleanup.todoc.model.database.TodocDatabaseConfig;
 import com.cleanup.todoc.model.pojos.Project;
+import com.cleanup.todoc.model.pojos.ProjectWithCount;
 
 import java.util.List;
 
@@ -19,6 +25,18 @@ public class ProjectRepositoryImpl implements Repository.ProjectRepository {
     @Inject
     ProjectDao mProjectDao;
 
+    @Inject
+    TaskDao mTaskDao;
+
+    @Inject
+    ArchivedTaskDao mArchivedTaskDao;
+
+    @Inject
+    TodocDatabase mDatabase;
+
+    @Inject
+    BusyRetry mBusyRetry;
+
     // CONSTRUCTORS --------------------------------------------------------------------------------
 
     /**
@@ -29,11 +47,16 @@ public class ProjectRepositoryImpl implements Repository.ProjectRepository {
 
     /**
      * Constructor
-     * @param projectDao a {@link ProjectDao}
+     * @param database a {@link TodocDatabase}
      */
     @VisibleForTesting
-    public ProjectRepositoryImpl(@NonNull ProjectDao projectDao) {
-        this.mProjectDao = projectDao;
+    public ProjectRepositoryImpl(@NonNull TodocDatabase database) {
+        this.mDatabase = database;
+        this.mProjectDao = database.mProjectDao();
+        this.mTaskDao = database.mTaskDao();
+        this.mArchivedTaskDao = database.mArchivedTaskDao();
+        this.mBusyRetry = new BusyRetry(TodocDatabaseConfig.DEFAULT.getBusyMaxAttempts(),
+                                        TodocDatabaseConfig.DEFAULT.getBusyInitialDelayMillis());
     }
 
     // METHODS -------------------------------------------------------------------------------------
@@ -42,7 +65,7 @@ public class ProjectRepositoryImpl implements Repository.ProjectRepository {
 
     @Override
     public long insertProject(@NonNull final Project project) {
-        return this.mProjectDao.insertProject(project);
+        return this.mBusyRetry.run(() -> this.mProjectDao.insertProject(project));
     }
 
     // -- READ --
@@ -58,4 +81,46 @@ public class ProjectRepositoryImpl implements Repository.ProjectRepository {
     public LiveData<Project> getProjectById(final long projectId) {
         return this.mProjectDao.getProjectById(projectId);
     }
+
+    @NonNull
+    @Override
+    public LiveData<List<ProjectWithCount>> getProjectsWithCount() {
+        return this.mProjectDao.getProjectsWithCount();
+    }
+
+    @Nullable
+    @Override
+    public Project getProjectByName(@NonNull final String name) {
+        return this.mProjectDao.getProjectByName(name);
+    }
+
+    @Override
+    public int getProjectTaskCount(final long projectId) {
+        return this.mProjectDao.getProjectTaskCount(projectId);
+    }
+
+    // -- DELETE --
+
+    @Override
+    public int deleteProjectTasks(final long projectId, final int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size must be positive");
+        }
+
+        // The tasks then the archived tasks, in the budget of the chunk
+        return this.mBusyRetry.run(() -> this.mDatabase.runInTransaction(() -> {
+            final int taskCount = this.mTaskDao.deleteTasksOfProject(projectId, chunkSize);
+
+            if (taskCount == chunkSize) {
+                return taskCount;
+            }
+
+            return taskCount + this.mArchivedTaskDao.deleteArchivedTasksOfProject(projectId, chunkSize - taskCount);
+        }));
+    }
+
+    @Override
+    public int deleteProjectById(final long projectId) {
+        return this.mBusyRetry.run(() -> this.mProjectDao.deleteProjectById(projectId));
+    }
 }
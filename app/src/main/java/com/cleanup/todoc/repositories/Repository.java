@@ -1,10 +1,22 @@
 package com.cleanup.todoc.repositories;
 
 import android.arch.lifecycle.LiveData;
+import android.arch.paging.DataSource;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
+import com.cleanup.todoc.model.pojos.ArchivedTask;
+import com.cleanup.todoc.model.pojos.BacklogPoint;
 import com.cleanup.todoc.model.pojos.Project;
+import com.cleanup.todoc.model.pojos.ProjectCounts;
+import com.cleanup.todoc.model.pojos.ProjectWithCount;
 import com.cleanup.todoc.model.pojos.Task;
+import com.cleanup.todoc.model.pojos.TaskDailyStats;
+import com.cleanup.todoc.model.pojos.TaskDayCount;
+import com.cleanup.todoc.model.pojos.TaskDelta;
+import com.cleanup.todoc.model.pojos.TaskDetails;
+import com.cleanup.todoc.model.pojos.TaskSummary;
+import com.cleanup.todoc.model.pojos.TaskWithProject;
 
 import java.util.List;
 
@@ -42,6 +54,50 @@ public interface Repository {
          */
         @NonNull
         LiveData<Project> getProjectById(final long projectId);
+
+        /**
+         * Returns a {@link LiveData} of {@link List<ProjectWithCount>}, the counts of tasks being computed by SQLite
+         * @return a {@link LiveData} of {@link List<ProjectWithCount>}
+         */
+        @NonNull
+        LiveData<List<ProjectWithCount>> getProjectsWithCount();
+
+        /**
+         * Returns the {@link Project} which has the same name that the argument, or null
+         * (synchronous call, not on the main thread)
+         * @param name a {@link String} that contains the name of the project
+         * @return a {@link Project} or null
+         */
+        @Nullable
+        Project getProjectByName(@NonNull final String name);
+
+        /**
+         * Returns the number of tasks of a project, trash and archive included
+         * (synchronous call, not on the main thread)
+         * @param projectId an integer that contains the id value of the project
+         * @return an integer that contains the number of tasks
+         */
+        int getProjectTaskCount(final long projectId);
+
+        // -- DELETE --
+
+        /**
+         * Deletes a chunk of the tasks of a project (trash and archive included) in a single
+         * transaction and returns the deleted tuple number, lower than the chunk size once the
+         * project has no task left (synchronous call, not on the main thread)
+         * @param projectId an integer that contains the id value of the project
+         * @param chunkSize an integer that contains the maximum number of tasks
+         * @return an integer that contains the deleted tuple number
+         */
+        int deleteProjectTasks(final long projectId, final int chunkSize);
+
+        /**
+         * Deletes a {@link Project} and returns the deleted tuple number. Its tasks are deleted
+         * by the cascade in the same transaction, see deleteProjectTasks to delete them before
+         * @param projectId an integer that contains the id value of the project
+         * @return an integer that contains the deleted tuple number
+         */
+        int deleteProjectById(final long projectId);
     }
 
     // -- TASK REPOSITORY --
@@ -59,20 +115,365 @@ public interface Repository {
          */
         long insertTask(@NonNull final Task task);
 
+        /**
+         * Inserts a {@link List<Task>} into database in a single transaction and returns the id values
+         * @param tasks a {@link List<Task>}
+         * @return an array of integers that contains the id values
+         */
+        long[] insertTasks(@NonNull final List<Task> tasks);
+
         // -- READ --
 
         /**
-         * Returns a {@link LiveData} of {@link List<Task>}
-         * @return a {@link LiveData} of {@link List<Task>}
+         * Returns a {@link LiveData} of {@link List<TaskSummary>}
+         * @return a {@link LiveData} of {@link List<TaskSummary>}
+         */
+        @NonNull
+        LiveData<List<TaskSummary>> getTasks();
+
+        /**
+         * Returns a {@link LiveData} of {@link List<TaskSummary>} sorted from A to Z
+         * @return a {@link LiveData} of {@link List<TaskSummary>}
+         */
+        @NonNull
+        LiveData<List<TaskSummary>> getTasksAlphabetical();
+
+        /**
+         * Returns a {@link LiveData} of {@link List<TaskSummary>} sorted from Z to A
+         * @return a {@link LiveData} of {@link List<TaskSummary>}
+         */
+        @NonNull
+        LiveData<List<TaskSummary>> getTasksAlphabeticalInverted();
+
+        /**
+         * Returns a {@link LiveData} of {@link List<TaskSummary>} sorted from last created to first created
+         * @return a {@link LiveData} of {@link List<TaskSummary>}
+         */
+        @NonNull
+        LiveData<List<TaskSummary>> getTasksRecentFirst();
+
+        /**
+         * Returns a {@link LiveData} of {@link List<TaskSummary>} sorted from first created to last created
+         * @return a {@link LiveData} of {@link List<TaskSummary>}
+         */
+        @NonNull
+        LiveData<List<TaskSummary>> getTasksOldFirst();
+
+        /**
+         * Returns a {@link DataSource.Factory} of {@link TaskWithProject} without order
+         * @return a {@link DataSource.Factory} of {@link TaskWithProject}
+         */
+        @NonNull
+        DataSource.Factory<Integer, TaskWithProject> getTasksWithProjectPaged();
+
+        /**
+         * Returns a {@link DataSource.Factory} of {@link TaskWithProject} sorted from A to Z
+         * @return a {@link DataSource.Factory} of {@link TaskWithProject}
+         */
+        @NonNull
+        DataSource.Factory<Integer, TaskWithProject> getTasksWithProjectAlphabeticalPaged();
+
+        /**
+         * Returns a {@link DataSource.Factory} of {@link TaskWithProject} sorted from Z to A
+         * @return a {@link DataSource.Factory} of {@link TaskWithProject}
+         */
+        @NonNull
+        DataSource.Factory<Integer, TaskWithProject> getTasksWithProjectAlphabeticalInvertedPaged();
+
+        /**
+         * Returns a {@link DataSource.Factory} of {@link TaskWithProject} sorted from last created
+         * to first created, paged on (creation_timestamp, id) instead of an offset
+         * @return a {@link DataSource.Factory} of {@link TaskWithProject}
+         */
+        @NonNull
+        DataSource.Factory<TaskKeysetDataSource.Key, TaskWithProject> getTasksRecentFirstKeyset();
+
+        /**
+         * Returns a {@link DataSource.Factory} of {@link TaskWithProject} sorted from first created
+         * to last created, paged on (creation_timestamp, id) instead of an offset
+         * @return a {@link DataSource.Factory} of {@link TaskWithProject}
+         */
+        @NonNull
+        DataSource.Factory<TaskKeysetDataSource.Key, TaskWithProject> getTasksOldFirstKeyset();
+
+        /**
+         * Returns a {@link DataSource.Factory} of {@link TaskWithProject} sorted in the manual order
+         * @return a {@link DataSource.Factory} of {@link TaskWithProject}
+         */
+        @NonNull
+        DataSource.Factory<Integer, TaskWithProject> getTasksManualPaged();
+
+        /**
+         * Returns a {@link DataSource.Factory} of the {@link TaskWithProject}s whose name contains words
+         * starting with the words of the input (accents and case ignored), best matches first
+         * @param input a {@link String} that contains the user input
+         * @return a {@link DataSource.Factory} of {@link TaskWithProject}, or null if the input has no word
+         */
+        @Nullable
+        DataSource.Factory<Integer, TaskWithProject> searchTasks(@NonNull final String input);
+
+        // -- TIMELINE --
+
+        /**
+         * Returns a {@link LiveData} of the number of open tasks by day of creation, sorted from last day to first day
+         * @return a {@link LiveData} of {@link List<TaskDayCount>}
+         */
+        @NonNull
+        LiveData<List<TaskDayCount>> getOpenTaskCountsByDay();
+
+        // -- COMPLETED --
+
+        /**
+         * Returns a {@link LiveData} of the done {@link TaskSummary}s, sorted from last done to first done
+         * @return a {@link LiveData} of {@link List<TaskSummary>}
+         */
+        @NonNull
+        LiveData<List<TaskSummary>> getCompletedTasks();
+
+        /**
+         * Returns a {@link DataSource.Factory} of the done {@link TaskWithProject}s,
+         * sorted from last done to first done
+         * @return a {@link DataSource.Factory} of {@link TaskWithProject}
+         */
+        @NonNull
+        DataSource.Factory<Integer, TaskWithProject> getCompletedTasksPaged();
+
+        /**
+         * Marks a {@link Task} as done, or opens it again, and returns the updated tuple number
+         * @param taskId    an integer that contains the id value
+         * @param completed a boolean that is true to mark the task as done
+         * @return an integer that contains the updated tuple number
+         */
+        int setTaskCompleted(final long taskId, final boolean completed);
+
+        // -- TRASH --
+
+        /**
+         * Returns a {@link DataSource.Factory} of the {@link TaskWithProject}s of the trash,
+         * sorted from last deleted to first deleted
+         * @return a {@link DataSource.Factory} of {@link TaskWithProject}
+         */
+        @NonNull
+        DataSource.Factory<Integer, TaskWithProject> getDeletedTasks();
+
+        /**
+         * Restores a {@link Task} from the trash and returns the restored tuple number
+         * @param taskId an integer that contains the id value
+         * @return an integer that contains the restored tuple number
+         */
+        int restoreTaskById(final long taskId);
+
+        /**
+         * Removes for good a batch of the {@link Task}s moved to the trash before the timestamp,
+         * in its own transaction, and returns the purged tuple number (less than the batch size
+         * once the trash holds no more expired task)
+         * @param deletedBefore an integer that contains the timestamp (excluded)
+         * @param batchSize     an integer that contains the maximum number of tasks
+         * @return an integer that contains the purged tuple number
+         */
+        int purgeDeletedTasks(final long deletedBefore, final int batchSize);
+
+        // -- DETAILS --
+
+        /**
+         * Returns a {@link LiveData} of the {@link TaskDetails} of a task, null while it has no notes
+         * (the lists only read {@link TaskSummary}s, the notes are loaded on demand)
+         * @param taskId an integer that contains the id value of the task
+         * @return a {@link LiveData} of {@link TaskDetails}
+         */
+        @NonNull
+        LiveData<TaskDetails> getTaskDetails(final long taskId);
+
+        /**
+         * Replaces the notes of a task, an empty text removes them,
+         * and returns the changed tuple number
+         * @param taskId an integer that contains the id value of the task
+         * @param notes  a {@link String} that contains the notes
+         * @return an integer that contains the changed tuple number
+         */
+        int setTaskNotes(final long taskId, @NonNull final String notes);
+
+        /**
+         * Renames a task and returns the changed tuple number
+         * @param taskId an integer that contains the id value of the task
+         * @param name   a {@link String} that contains the new name
+         * @return an integer that contains the changed tuple number
+         */
+        int setTaskName(final long taskId, @NonNull final String name);
+
+        /**
+         * Moves the {@link Task}s to another project in a single transaction
+         * and returns the changed tuple number
+         * @param taskIds         an array of integers that contains the id values
+         * @param targetProjectId an integer that contains the id value of the project
+         * @return an integer that contains the changed tuple number
+         */
+        int reassignTasks(@NonNull final long[] taskIds, final long targetProjectId);
+
+        // -- MANUAL ORDER --
+
+        /**
+         * Moves a {@link Task} between two tasks in the manual order, with the update of its own
+         * key only, and returns the moved tuple number. When the two tasks have the same key,
+         * the open tasks on that key are respaced first, in the same transaction.
+         * @param taskId         an integer that contains the id value of the moved task
+         * @param previousTaskId an integer that contains the id value of the task before, 0 for the start
+         * @param nextTaskId     an integer that contains the id value of the task after, 0 for the end
+         * @return an integer that contains the moved tuple number
+         */
+        int moveTask(final long taskId, final long previousTaskId, final long nextTaskId);
+
+        /**
+         * Gives the open tasks short keys in the same manual order, once the key of a moved
+         * {@link Task} has grown too long, by chunks of tasks in their own transaction, and returns
+         * the updated tuple number (0 if the key is still short). The done tasks and the trash keep their keys.
+         * @param taskId an integer that contains the id value of the moved task
+         * @return an integer that contains the updated tuple number
+         */
+        int rebalancePositions(final long taskId);
+
+        // -- CHANGES --
+
+        /**
+         * Returns a {@link LiveData} of the sequence number of the last change of the task table,
+         * which emits again at each change
+         * @return a {@link LiveData} of {@link Long}
+         */
+        @NonNull
+        LiveData<Long> getLastTaskChangeSeq();
+
+        /**
+         * Returns the {@link TaskDelta} of the changes of the task table after the sequence number
+         * (synchronous call, not on the main thread)
+         * @param sinceSeq an integer that contains the sequence number (excluded)
+         * @return a {@link TaskDelta}
          */
         @NonNull
-        LiveData<List<Task>> getTasks();
+        TaskDelta getTaskDeltaSince(final long sinceSeq);
 
         /**
-         * Deletes a {@link Task} into database and returns the deleted tuple number
+         * Returns the {@link ProjectCounts} with the sequence number of the last change they include,
+         * both read in a single transaction (synchronous call, not on the main thread)
+         * @return a {@link ProjectCounts}
+         */
+        @NonNull
+        ProjectCounts getProjectCounts();
+
+        /**
+         * Removes from the log the changes of the task table up to the sequence number,
+         * once their delta has been applied, and returns the deleted tuple number
+         * (synchronous call, not on the main thread)
+         * @param seq an integer that contains the sequence number (included)
+         * @return an integer that contains the deleted tuple number
+         */
+        int deleteTaskChangesUpTo(final long seq);
+
+        // -- DELETE --
+
+        /**
+         * Moves a {@link Task} to the trash and returns the deleted tuple number
          * @param taskId an integer that contains the id value
          * @return an integer that contains the deleted tuple number
          */
         int deleteTaskById(final long taskId);
+
+        /**
+         * Moves the {@link Task}s to the trash in a single transaction and returns the deleted tuple number
+         * @param taskIds an array of integers that contains the id values
+         * @return an integer that contains the deleted tuple number
+         */
+        int deleteTasksByIds(@NonNull final long[] taskIds);
+    }
+
+    // -- ARCHIVE REPOSITORY --
+
+    interface ArchiveRepository {
+
+        // METHODS ---------------------------------------------------------------------------------
+
+        // -- ARCHIVE --
+
+        /**
+         * Moves a chunk of the {@link Task}s done before the timestamp, the first done first, into
+         * the archive (the open ones stay in the task table) in a single transaction and returns the
+         * archived tuple number, lower than the chunk size once no such task is left
+         * (synchronous call, not on the main thread)
+         * @param completedTimestamp an integer that contains the timestamp (excluded)
+         * @param chunkSize          an integer that contains the maximum number of tasks
+         * @return an integer that contains the archived tuple number
+         */
+        int archiveTasksCompletedBefore(final long completedTimestamp, final int chunkSize);
+
+        // -- READ --
+
+        /**
+         * Returns a {@link DataSource.Factory} of {@link ArchivedTask} sorted from last created to first created
+         * @return a {@link DataSource.Factory} of {@link ArchivedTask}
+         */
+        @NonNull
+        DataSource.Factory<Integer, ArchivedTask> getArchivedTasks();
+
+        /**
+         * Returns a {@link DataSource.Factory} of the {@link ArchivedTask}s of a project,
+         * sorted from last created to first created
+         * @param projectId an integer that contains the id value of the project
+         * @return a {@link DataSource.Factory} of {@link ArchivedTask}
+         */
+        @NonNull
+        DataSource.Factory<Integer, ArchivedTask> getArchivedTasksByProjectId(final long projectId);
+
+        /**
+         * Returns a {@link LiveData} of the number of {@link ArchivedTask}s
+         * @return a {@link LiveData} of {@link Integer}
+         */
+        @NonNull
+        LiveData<Integer> getArchivedTaskCount();
+
+        // -- DELETE --
+
+        /**
+         * Deletes an {@link ArchivedTask} into database and returns the deleted tuple number
+         * @param archivedTaskId an integer that contains the id value
+         * @return an integer that contains the deleted tuple number
+         */
+        int deleteArchivedTaskById(final long archivedTaskId);
+    }
+
+    // -- STATS REPOSITORY --
+
+    interface StatsRepository {
+
+        // METHODS ---------------------------------------------------------------------------------
+
+        // -- CREATED TASKS --
+
+        /**
+         * Returns a {@link LiveData} of the number of tasks created by day and by project,
+         * from a day to the last one, read from the rollup table
+         * @param fromDay an integer that contains the first day (days since the epoch)
+         * @return a {@link LiveData} of {@link List<TaskDailyStats>}
+         */
+        @NonNull
+        LiveData<List<TaskDailyStats>> getCreatedTasksByDay(final int fromDay);
+
+        /**
+         * Returns a {@link LiveData} of the number of tasks created by week (from Monday) and by project,
+         * each week dated by its Monday, read from the rollup table
+         * @param fromDay an integer that contains the first day (a Monday, for a full first week)
+         * @return a {@link LiveData} of {@link List<TaskDailyStats>}
+         */
+        @NonNull
+        LiveData<List<TaskDailyStats>> getCreatedTasksByWeek(final int fromDay);
+
+        // -- BACKLOG --
+
+        /**
+         * Returns a {@link LiveData} of the number of open tasks at the end of each day,
+         * from the day before the first day (the backlog at the start) to the last change
+         * @param fromDay an integer that contains the first day (days since the epoch)
+         * @return a {@link LiveData} of {@link List<BacklogPoint>}
+         */
+        @NonNull
+        LiveData<List<BacklogPoint>> getBacklog(final int fromDay);
     }
 }
@@ -0,0 +1,65 @@
+package com.cleanup.todoc.repositories;
+
+import android.arch.lifecycle.LiveData;
+import android.arch.lifecycle.Transformations;
+import android.support.annotation.NonNull;
+import android.support.annotation.VisibleForTesting;
+
+import com.cleanup.todoc.model.dao.StatsDao;
+import com.cleanup.todoc.model.database.TodocDatabase;
+import com.cleanup.todoc.model.pojos.BacklogPoint;
+import com.cleanup.todoc.model.pojos.TaskDailyStats;
+
+import java.util.List;
+
+import javax.inject.Inject;
+
+public class StatsRepositoryImpl implements Repository.StatsRepository {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    @Inject
+    StatsDao mStatsDao;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     */
+    @Inject
+    public StatsRepositoryImpl() {}
+
+    /**
+     * Constructor
+     * @param database a {@link TodocDatabase}
+     */
+    @VisibleForTesting
+    public StatsRepositoryImpl(@NonNull TodocDatabase database) {
+        this.mStatsDao = database.mStatsDao();
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- CREATED TASKS --
+
+    @NonNull
+    @Override
+    public LiveData<List<TaskDailyStats>> getCreatedTasksByDay(final int fromDay) {
+        return this.mStatsDao.getCreatedTasksByDay(fromDay);
+    }
+
+    @NonNull
+    @Override
+    public LiveData<List<TaskDailyStats>> getCreatedTasksByWeek(final int fromDay) {
+        return this.mStatsDao.getCreatedTasksByWeek(fromDay);
+    }
+
+    // -- BACKLOG --
+
+    @NonNull
+    @Override
+    public LiveData<List<BacklogPoint>> getBacklog(final int fromDay) {
+        // A running sum over the days of the chart, not over the tasks
+        return Transformations.map(this.mStatsDao.getBacklogDays(fromDay), BacklogPoint::fromDays);
+    }
+}
@@ -0,0 +1,97 @@
+package com.cleanup.todoc.repositories;
+
+import android.database.sqlite.SQLiteException;
+import android.support.annotation.NonNull;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Background job which moves the tasks done for longer than a maximum age into the archive,
+ * on the executor of the repositories. The open tasks are never archived, however old.</p>
+ *
+ * Each chunk is a task of its own on the executor, so the writes of the app queued meanwhile
+ * run between two chunks. A chunk which throws stops the archiving until the next launch.
+ */
+public class TaskArchiver {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final String TAG = TaskArchiver.class.getSimpleName();
+
+    public static final long DEFAULT_MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(90);
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    @NonNull
+    private final Repository.ArchiveRepository mArchiveRepository;
+    @NonNull
+    private final Executor mExecutor;
+
+    private final long mMaxAgeMillis;
+    private final int mChunkSize;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     * @param archiveRepository a {@link Repository.ArchiveRepository}
+     * @param executor          an {@link Executor}
+     * @param maxAgeMillis      an integer that contains the time since its completion from which a task is archived
+     * @param chunkSize         an integer that contains the number of tasks by transaction
+     */
+    public TaskArchiver(@NonNull final Repository.ArchiveRepository archiveRepository,
+                        @NonNull final Executor executor,
+                        final long maxAgeMillis,
+                        final int chunkSize) {
+        if (maxAgeMillis < 0L) {
+            throw new IllegalArgumentException("The maximum age must not be negative");
+        }
+        if (chunkSize < 1 || chunkSize > TaskRepositoryImpl.MAX_IDS_BY_STATEMENT) {
+            throw new IllegalArgumentException("The chunk size must be between 1 and " + TaskRepositoryImpl.MAX_IDS_BY_STATEMENT);
+        }
+
+        this.mArchiveRepository = archiveRepository;
+        this.mExecutor = executor;
+        this.mMaxAgeMillis = maxAgeMillis;
+        this.mChunkSize = chunkSize;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    /**
+     * Archives the tasks done for longer than the maximum age in asynchronous way
+     */
+    public void archiveOldTasks() {
+        final long completedTimestamp = System.currentTimeMillis() - this.mMaxAgeMillis;
+
+        this.mExecutor.execute(() -> this.archiveNextChunk(completedTimestamp, 0));
+    }
+
+    /**
+     * Archives a chunk of the tasks done before the timestamp then queues the next chunk
+     * @param completedTimestamp an integer that contains the timestamp (excluded)
+     * @param archivedTaskCount  an integer that contains the number of tasks already archived
+     */
+    @WorkerThread
+    private void archiveNextChunk(final long completedTimestamp, final int archivedTaskCount) {
+        final int chunkCount;
+
+        try {
+            chunkCount = this.mArchiveRepository.archiveTasksCompletedBefore(completedTimestamp, this.mChunkSize);
+        }
+        catch (SQLiteException | IllegalStateException e) {
+            // The transaction of the chunk is rolled back, the tasks left are archived at the next launch
+            Log.e(TAG, "archiveOldTasks: a chunk has failed after " + archivedTaskCount + " archived task(s)", e);
+            return;
+        }
+
+        if (chunkCount == this.mChunkSize) {
+            this.mExecutor.execute(() -> this.archiveNextChunk(completedTimestamp, archivedTaskCount + chunkCount));
+            return;
+        }
+
+        Log.d(TAG, "archiveOldTasks: " + (archivedTaskCount + chunkCount) + " archived task(s)");
+    }
+}
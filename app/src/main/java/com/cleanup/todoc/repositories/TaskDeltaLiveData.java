@@ -0,0 +1,76 @@
+package com.cleanup.todoc.repositories;
+
+import android.arch.lifecycle.MediatorLiveData;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+
+import com.cleanup.todoc.model.pojos.TaskDelta;
+
+import java.util.concurrent.Executor;
+
+/**
+ * <p>{@link MediatorLiveData} which streams the {@link TaskDelta}s of the task table
+ * after a sequence number: each change of the log is read once, on the executor,
+ * instead of reloading every task.</p>
+ *
+ * Unlike postValue, which only keeps the last value, every delta is delivered, in order.
+ */
+public class TaskDeltaLiveData extends MediatorLiveData<TaskDelta> {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    @NonNull
+    private final Repository.TaskRepository mTaskRepository;
+    @NonNull
+    private final Executor mExecutor;
+    @NonNull
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * The sequence number of the last change delivered, guarded by this
+     */
+    private long mLastSeq;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     * @param taskRepository a {@link Repository.TaskRepository}
+     * @param executor       an {@link Executor}
+     * @param sinceSeq       an integer that contains the sequence number after which the changes are streamed
+     */
+    public TaskDeltaLiveData(@NonNull final Repository.TaskRepository taskRepository,
+                             @NonNull final Executor executor,
+                             final long sinceSeq) {
+        this.mTaskRepository = taskRepository;
+        this.mExecutor = executor;
+        this.mLastSeq = sinceSeq;
+
+        this.addSource(taskRepository.getLastTaskChangeSeq(), (lastSeq) -> {
+            if (lastSeq != null) {
+                this.mExecutor.execute(() -> this.readChangesUpTo(lastSeq));
+            }
+        });
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    /**
+     * Reads the changes not delivered yet and delivers them on the main thread as a single delta
+     * @param lastSeq an integer that contains the last sequence number of the log
+     */
+    private synchronized void readChangesUpTo(final long lastSeq) {
+        // Already delivered by a previous read
+        if (lastSeq <= this.mLastSeq) {
+            return;
+        }
+
+        final TaskDelta delta = this.mTaskRepository.getTaskDeltaSince(this.mLastSeq);
+        this.mLastSeq = delta.getLastSeq();
+
+        if (!delta.isEmpty()) {
+            this.mMainHandler.post(() -> this.setValue(delta));
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.cleanup.todoc.repositories;
+
+import android.graphics.Color;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import com.cleanup.todoc.model.pojos.Project;
+import com.cleanup.todoc.model.pojos.Task;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Imports the tasks of a JSON stream with the shape of app/sampledata/tasks.json:</p>
+ * <pre>{"data": [{"taskName": "...", "projectName": "...", "backgroundTint": "#RRGGBB"}, ...]}</pre>
+ *
+ * The stream is read token by token with a {@link JsonReader}, so the memory stays bounded by
+ * the chunk size whatever the size of the file. Each chunk is committed in one transaction.
+ * Must be called outside of the main thread.
+ */
+public class TaskJsonImporter {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private static final String KEY_DATA = "data";
+    private static final String KEY_TASK_NAME = "taskName";
+    private static final String KEY_PROJECT_NAME = "projectName";
+    private static final String KEY_BACKGROUND_TINT = "backgroundTint";
+
+    @NonNull
+    private final Repository.ProjectRepository mProjectRepository;
+    @NonNull
+    private final Repository.TaskRepository mTaskRepository;
+
+    private final int mChunkSize;
+
+    /**
+     * Ids of the projects already resolved or created, by name
+     */
+    @NonNull
+    private final Map<String, Long> mProjectIds = new HashMap<>();
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     * @param projectRepository a {@link Repository.ProjectRepository}
+     * @param taskRepository    a {@link Repository.TaskRepository}
+     * @param chunkSize         an integer that contains the number of tasks by transaction
+     */
+    public TaskJsonImporter(@NonNull final Repository.ProjectRepository projectRepository,
+                            @NonNull final Repository.TaskRepository taskRepository,
+                            final int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("The chunk size must be positive");
+        }
+
+        this.mProjectRepository = projectRepository;
+        this.mTaskRepository = taskRepository;
+        this.mChunkSize = chunkSize;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    /**
+     * Imports the tasks of the JSON stream and returns the number of inserted tasks
+     * @param inputStream an {@link InputStream} of UTF-8 JSON, closed at the end
+     * @return an integer that contains the number of inserted tasks
+     * @throws IOException if the stream can not be read or is malformed
+     */
+    public int importTasks(@NonNull final InputStream inputStream) throws IOException {
+        int count = 0;
+
+        try (JsonReader reader = new JsonReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            reader.beginObject();
+
+            while (reader.hasNext()) {
+                if (KEY_DATA.equals(reader.nextName())) {
+                    count += this.importData(reader);
+                }
+                else {
+                    reader.skipValue();
+                }
+            }
+
+            reader.endObject();
+        }
+
+        return count;
+    }
+
+    /**
+     * Imports the array of tasks and returns the number of inserted tasks
+     * @param reader a {@link JsonReader} positioned on the array
+     * @return an integer that contains the number of inserted tasks
+     * @throws IOException if the stream can not be read or is malformed
+     */
+    private int importData(@NonNull final JsonReader reader) throws IOException {
+        final List<Task> chunk = new ArrayList<>(this.mChunkSize);
+        int count = 0;
+
+        reader.beginArray();
+
+        while (reader.hasNext()) {
+            final Task task = this.readTask(reader);
+
+            if (task != null) {
+                chunk.add(task);
+            }
+
+            if (chunk.size() == this.mChunkSize) {
+                count += this.mTaskRepository.insertTasks(chunk).length;
+                chunk.clear();
+            }
+        }
+
+        reader.endArray();
+
+        if (!chunk.isEmpty()) {
+            count += this.mTaskRepository.insertTasks(chunk).length;
+        }
+
+        return count;
+    }
+
+    /**
+     * Reads a task object and returns the {@link Task}, or null if its name or its project is missing
+     * @param reader a {@link JsonReader} positioned on the object
+     * @return a {@link Task} or null
+     * @throws IOException if the stream can not be read or is malformed
+     */
+    @Nullable
+    private Task readTask(@NonNull final JsonReader reader) throws IOException {
+        String taskName = null;
+        String projectName = null;
+        String backgroundTint = null;
+
+        reader.beginObject();
+
+        while (reader.hasNext()) {
+            final String key = reader.nextName();
+
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+
+            switch (key) {
+                case KEY_TASK_NAME:
+                    taskName = reader.nextString();
+                    break;
+                case KEY_PROJECT_NAME:
+                    projectName = reader.nextString();
+                    break;
+                case KEY_BACKGROUND_TINT:
+                    backgroundTint = reader.nextString();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+
+        reader.endObject();
+
+        if (taskName == null || taskName.trim().isEmpty() || projectName == null) {
+            return null;
+        }
+
+        return new Task(this.resolveProjectId(projectName, backgroundTint),
+                taskName,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Returns the id of the project with this name, after creating it if it does not exist
+     * @param projectName    a {@link String} that contains the name of the project
+     * @param backgroundTint a {@link String} that contains the color of the project (#RRGGBB), or null
+     * @return an integer that contains the id value
+     */
+    private long resolveProjectId(@NonNull final String projectName, @Nullable final String backgroundTint) {
+        final Long cachedId = this.mProjectIds.get(projectName);
+        if (cachedId != null) {
+            return cachedId;
+        }
+
+        final Project project = this.mProjectRepository.getProjectByName(projectName);
+
+        final long projectId = (project != null)
+                               ? project.getId()
+                               : this.mProjectRepository.insertProject(new Project(projectName,
+                                                                                   parseColor(backgroundTint)));
+
+        this.mProjectIds.put(projectName, projectId);
+
+        return projectId;
+    }
+
+    /**
+     * Returns the opaque ARGB color of the hex code, or {@link Color#GRAY} if it can not be parsed
+     * @param backgroundTint a {@link String} that contains the color (#RRGGBB), or null
+     * @return an integer that contains the ARGB color
+     */
+    private static int parseColor(@Nullable final String backgroundTint) {
+        if (backgroundTint == null) {
+            return Color.GRAY;
+        }
+
+        try {
+            return Color.parseColor(backgroundTint) | 0xFF000000;
+        }
+        catch (IllegalArgumentException e) {
+            return Color.GRAY;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.cleanup.todoc.repositories;
+
+import android.arch.paging.DataSource;
+import android.arch.paging.ItemKeyedDataSource;
+import android.arch.persistence.room.InvalidationTracker;
+import android.support.annotation.NonNull;
+
+import com.cleanup.todoc.model.dao.TaskDao;
+import com.cleanup.todoc.model.database.TodocDatabase;
+import com.cleanup.todoc.model.pojos.TaskWithProject;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>{@link ItemKeyedDataSource} which pages the tasks, with their project, on (creation_timestamp, id).</p>
+ *
+ * Each page starts from the last loaded {@link Key} instead of an OFFSET, so SQLite seeks
+ * into the creation_timestamp index whatever the depth of the page.
+ */
+public class TaskKeysetDataSource extends ItemKeyedDataSource<TaskKeysetDataSource.Key, TaskWithProject> {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    @NonNull
+    private final TaskDao mTaskDao;
+    @NonNull
+    private final TodocDatabase mDatabase;
+
+    private final boolean mRecentFirst;
+
+    @NonNull
+    private final InvalidationTracker.Observer mObserver;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     * @param database    a {@link TodocDatabase}
+     * @param recentFirst true to sort from last created to first created, false otherwise
+     */
+    private TaskKeysetDataSource(@NonNull final TodocDatabase database, final boolean recentFirst) {
+        this.mDatabase = database;
+        this.mTaskDao = database.mTaskDao();
+        this.mRecentFirst = recentFirst;
+
+        // Any change on the task or project table invalidates the data source (like Room's own data sources)
+        this.mObserver = new InvalidationTracker.Observer("task", "project") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalidate();
+            }
+        };
+        this.mDatabase.getInvalidationTracker().addObserver(this.mObserver);
+        this.addInvalidatedCallback(() -> this.mDatabase.getInvalidationTracker()
+                .removeObserver(this.mObserver));
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- ITEM KEYED DATA SOURCE --
+
+    @Override
+    public void loadInitial(@NonNull LoadInitialParams<Key> params,
+                            @NonNull LoadInitialCallback<TaskWithProject> callback) {
+        final Key key = params.requestedInitialKey;
+        final List<TaskWithProject> tasks;
+
+        if (key == null) {
+            tasks = this.mRecentFirst
+                    ? this.mTaskDao.getTasksCreatedBefore(Long.MAX_VALUE, Long.MAX_VALUE, params.requestedLoadSize)
+                    : this.mTaskDao.getTasksCreatedAfter(Long.MIN_VALUE, Long.MIN_VALUE, params.requestedLoadSize);
+        }
+        else {
+            // The requested key is included in the refreshed page
+            tasks = this.mRecentFirst
+                    ? this.mTaskDao.getTasksCreatedBefore(key.mCreationTimestamp, key.mId + 1, params.requestedLoadSize)
+                    : this.mTaskDao.getTasksCreatedAfter(key.mCreationTimestamp, key.mId - 1, params.requestedLoadSize);
+        }
+
+        callback.onResult(tasks);
+    }
+
+    @Override
+    public void loadAfter(@NonNull LoadParams<Key> params, @NonNull LoadCallback<TaskWithProject> callback) {
+        final Key key = params.key;
+
+        callback.onResult(this.mRecentFirst
+                ? this.mTaskDao.getTasksCreatedBefore(key.mCreationTimestamp, key.mId, params.requestedLoadSize)
+                : this.mTaskDao.getTasksCreatedAfter(key.mCreationTimestamp, key.mId, params.requestedLoadSize));
+    }
+
+    @Override
+    public void loadBefore(@NonNull LoadParams<Key> params, @NonNull LoadCallback<TaskWithProject> callback) {
+        final Key key = params.key;
+
+        // The previous items are read backward from the key, so they are reversed to keep the order
+        final List<TaskWithProject> tasks = this.mRecentFirst
+                ? this.mTaskDao.getTasksCreatedAfter(key.mCreationTimestamp, key.mId, params.requestedLoadSize)
+                : this.mTaskDao.getTasksCreatedBefore(key.mCreationTimestamp, key.mId, params.requestedLoadSize);
+        Collections.reverse(tasks);
+
+        callback.onResult(tasks);
+    }
+
+    @NonNull
+    @Override
+    public Key getKey(@NonNull TaskWithProject item) {
+        return new Key(item.getTask().getCreationTimestamp(), item.getTask().getId());
+    }
+
+    // INNER CLASSES -------------------------------------------------------------------------------
+
+    /**
+     * <p>Key of a task in the keyset pagination.</p>
+     */
+    public static final class Key {
+
+        private final long mCreationTimestamp;
+        private final long mId;
+
+        /**
+         * Constructor
+         * @param creationTimestamp the timestamp when the task has been created
+         * @param id                the unique identifier of the task
+         */
+        Key(final long creationTimestamp, final long id) {
+            this.mCreationTimestamp = creationTimestamp;
+            this.mId = id;
+        }
+    }
+
+    /**
+     * <p>{@link DataSource.Factory} of {@link TaskKeysetDataSource}.</p>
+     */
+    public static class Factory extends DataSource.Factory<Key, TaskWithProject> {
+
+        @NonNull
+        private final TodocDatabase mDatabase;
+
+        private final boolean mRecentFirst;
+
+        /**
+         * Constructor
+         * @param database    a {@link TodocDatabase}
+         * @param recentFirst true to sort from last created to first created, false otherwise
+         */
+        Factory(@NonNull final TodocDatabase database, final boolean recentFirst) {
+            this.mDatabase = database;
+            this.mRecentFirst = recentFirst;
+        }
+
+        @Override
+        public DataSource<Key, TaskWithProject> create() {
+            return new TaskKeysetDataSource(this.mDatabase, this.mRecentFirst);
+        }
+    }
+}
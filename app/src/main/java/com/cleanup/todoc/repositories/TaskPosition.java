@@ -0,0 +1,204 @@
+package com.cleanup.todoc.repositories;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * <p>Builds the keys of task.position, the manual order of the tasks.</p>
+ *
+ * A key is a fraction in base 62 (digits 0-9, A-Z then a-z, in the order of the BINARY collation
+ * of SQLite), which never ends with its zero digit: a key always exists between two keys, so a
+ * task moves with the update of its own row only. The keys grow with the moves into the same gap,
+ * until the repository gives the open tasks the keys of {@link #between(String, String, int)} again.
+ */
+public final class TaskPosition {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+    private static final char ZERO = DIGITS.charAt(0);
+    private static final char LAST_DIGIT = DIGITS.charAt(DIGITS.length() - 1);
+
+    /**
+     * The middle digit, appended after a key made of last digits only
+     */
+    private static final char MIDDLE_DIGIT = DIGITS.charAt(DIGITS.length() / 2);
+
+    /**
+     * Beyond this length, the keys are rebalanced
+     */
+    public static final int MAX_LENGTH = 32;
+
+    /**
+     * A bound after every key ('{' follows the last digit in the BINARY collation), for the ranges from the end
+     */
+    static final String END = "{";
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    private TaskPosition() {}
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    /**
+     * Returns the key of a rank (an id or an index): the ranks keep their order and their keys
+     * leave room on both sides for the moves (same key as TaskDao.POSITION_OF_ID for an id)
+     * @param rank an integer that contains the rank, from 1 to 2^48 - 1
+     * @return a {@link String}
+     */
+    @NonNull
+    public static String ofRank(final long rank) {
+        return "0" + String.format(Locale.ROOT, "%012X", rank) + MIDDLE_DIGIT;
+    }
+
+    /**
+     * Returns a short key after a key: its last digit which can grow is increased
+     * and the digits after it are dropped
+     * @param key a {@link String} that contains the key, empty for the start of the list
+     * @return a {@link String}
+     */
+    @NonNull
+    public static String after(@NonNull final String key) {
+        checkKey(key);
+
+        for (int i = key.length() - 1; i >= 0; i--) {
+            final char digit = key.charAt(i);
+            if (digit != LAST_DIGIT) {
+                return key.substring(0, i) + DIGITS.charAt(DIGITS.indexOf(digit) + 1);
+            }
+        }
+
+        return key + MIDDLE_DIGIT;
+    }
+
+    /**
+     * Returns a key between two keys, as short as possible
+     * @param before a {@link String} that contains the key before, empty for the start of the list
+     * @param after  a {@link String} that contains the key after, null for the end of the list
+     * @return a {@link String}
+     */
+    @NonNull
+    public static String between(@NonNull final String before, @Nullable final String after) {
+        checkKey(before);
+
+        if (after != null) {
+            checkKey(after);
+
+            if (before.compareTo(after) >= 0) {
+                throw new IllegalArgumentException("The key before must be lower than the key after");
+            }
+        }
+
+        return midpoint(before, after);
+    }
+
+    /**
+     * Returns keys between two keys, in order: each key splits the range of its half of the keys,
+     * so that their length grows with the logarithm of their number (not with their number)
+     * @param before a {@link String} that contains the key before, empty for the start of the list
+     * @param after  a {@link String} that contains the key after, null for the end of the list
+     * @param count  an integer that contains the number of keys
+     * @return a {@link List} of {@link String}
+     */
+    @NonNull
+    public static List<String> between(@NonNull final String before, @Nullable final String after, final int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("The number of keys can not be negative");
+        }
+
+        final List<String> keys = new ArrayList<>(count);
+        addBetween(before, after, count, keys);
+        return keys;
+    }
+
+    /**
+     * Adds keys between two keys to a list, the middle one first computed
+     * @param before a {@link String} that contains the key before
+     * @param after  a {@link String} that contains the key after, null for the end of the list
+     * @param count  an integer that contains the number of keys
+     * @param keys   the {@link List} of {@link String} which receives the keys, in order
+     */
+    private static void addBetween(@NonNull final String before,
+                                   @Nullable final String after,
+                                   final int count,
+                                   @NonNull final List<String> keys) {
+        if (count == 0) {
+            return;
+        }
+
+        final String middle = between(before, after);
+        final int countBefore = (count - 1) / 2;
+
+        addBetween(before, middle, countBefore, keys);
+        keys.add(middle);
+        addBetween(middle, after, count - 1 - countBefore, keys);
+    }
+
+    /**
+     * Returns the key in the middle of two keys (rocicorp/fractional-indexing)
+     * @param before a {@link String} that contains the key before
+     * @param after  a {@link String} that contains the key after, null for the end of the list
+     * @return a {@link String}
+     */
+    @NonNull
+    private static String midpoint(@NonNull final String before, @Nullable final String after) {
+        // The common prefix, the key before being padded with zeros
+        if (after != null) {
+            int n = 0;
+            while (n < after.length() && digitAt(before, n) == after.charAt(n)) {
+                n++;
+            }
+
+            if (n > 0) {
+                return after.substring(0, n) + midpoint(before.substring(Math.min(n, before.length())),
+                                                        after.substring(n));
+            }
+        }
+
+        final int digitBefore = before.isEmpty() ? 0 : DIGITS.indexOf(before.charAt(0));
+        final int digitAfter = after != null ? DIGITS.indexOf(after.charAt(0)) : DIGITS.length();
+
+        if (digitAfter - digitBefore > 1) {
+            return String.valueOf(DIGITS.charAt((digitBefore + digitAfter + 1) / 2));
+        }
+
+        // Consecutive digits: the first digit of a longer key after is enough, otherwise one more digit
+        if (after != null && after.length() > 1) {
+            return after.substring(0, 1);
+        }
+
+        return DIGITS.charAt(digitBefore) + midpoint(before.isEmpty() ? "" : before.substring(1), null);
+    }
+
+    /**
+     * Returns the digit of a key at an index, zero beyond its end
+     * @param key   a {@link String} that contains the key
+     * @param index an integer that contains the index
+     * @return a char
+     */
+    private static char digitAt(@NonNull final String key, final int index) {
+        return index < key.length() ? key.charAt(index) : ZERO;
+    }
+
+    /**
+     * Throws an {@link IllegalArgumentException} if the key has a digit out of the base
+     * or ends with the zero digit
+     * @param key a {@link String} that contains the key
+     */
+    private static void checkKey(@NonNull final String key) {
+        for (int i = 0; i < key.length(); i++) {
+            if (DIGITS.indexOf(key.charAt(i)) < 0) {
+                throw new IllegalArgumentException("Invalid digit in the position " + key);
+            }
+        }
+
+        if (!key.isEmpty() && key.charAt(key.length() - 1) == ZERO) {
+            throw new IllegalArgumentException("A position can not end with " + ZERO);
+        }
+    }
+}
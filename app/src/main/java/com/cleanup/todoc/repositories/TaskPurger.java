@@ -0,0 +1,112 @@
+package com.cleanup.todoc.repositories;
+
+import android.database.sqlite.SQLiteException;
+import android.os.Looper;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Background job which removes for good the tasks left in the trash longer than a time to live,
+ * by large batches on the executor of the repositories.</p>
+ *
+ * The job starts when the main thread becomes idle, so the purge never competes with the launch.
+ * Each batch is a task of its own on the executor, so the writes of the app queued meanwhile
+ * run between two batches. A batch which throws stops the purge until the next launch.
+ */
+public class TaskPurger {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final String TAG = TaskPurger.class.getSimpleName();
+
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.DAYS.toMillis(30);
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    @NonNull
+    private final Repository.TaskRepository mTaskRepository;
+    @NonNull
+    private final Executor mExecutor;
+
+    private final long mTtlMillis;
+    private final int mBatchSize;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     * @param taskRepository a {@link Repository.TaskRepository}
+     * @param executor       an {@link Executor}
+     * @param ttlMillis      an integer that contains the time a task stays in the trash
+     * @param batchSize      an integer that contains the number of tasks by transaction
+     */
+    public TaskPurger(@NonNull final Repository.TaskRepository taskRepository,
+                      @NonNull final Executor executor,
+                      final long ttlMillis,
+                      final int batchSize) {
+        if (ttlMillis < 0L) {
+            throw new IllegalArgumentException("The time to live must not be negative");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be positive");
+        }
+
+        this.mTaskRepository = taskRepository;
+        this.mExecutor = executor;
+        this.mTtlMillis = ttlMillis;
+        this.mBatchSize = batchSize;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    /**
+     * Purges the expired tasks of the trash once the main thread is idle
+     */
+    @MainThread
+    public void purgeWhenIdle() {
+        Looper.myQueue().addIdleHandler(() -> {
+            this.purgeExpiredTasks();
+            // Only once
+            return false;
+        });
+    }
+
+    /**
+     * Purges the expired tasks of the trash in asynchronous way
+     */
+    public void purgeExpiredTasks() {
+        final long deletedBefore = System.currentTimeMillis() - this.mTtlMillis;
+
+        this.mExecutor.execute(() -> this.purgeNextBatch(deletedBefore, 0));
+    }
+
+    /**
+     * Purges a batch of the tasks moved to the trash before the timestamp then queues the next batch
+     * @param deletedBefore   an integer that contains the timestamp (excluded)
+     * @param purgedTaskCount an integer that contains the number of tasks already purged
+     */
+    @WorkerThread
+    private void purgeNextBatch(final long deletedBefore, final int purgedTaskCount) {
+        final int batchCount;
+
+        try {
+            batchCount = this.mTaskRepository.purgeDeletedTasks(deletedBefore, this.mBatchSize);
+        }
+        catch (SQLiteException | IllegalStateException e) {
+            // The batch is rolled back, the tasks left stay in the trash until the next launch
+            Log.e(TAG, "purgeExpiredTasks: a batch has failed after " + purgedTaskCount + " purged task(s)", e);
+            return;
+        }
+
+        if (batchCount == this.mBatchSize) {
+            this.mExecutor.execute(() -> this.purgeNextBatch(deletedBefore, purgedTaskCount + batchCount));
+            return;
+        }
+
+        Log.d(TAG, "purgeExpiredTasks: " + (purgedTaskCount + batchCount) + " purged task(s)");
+    }
+}
@@ -1,13 +1,31 @@
 package com.cleanup.todoc.repositories;
 
 import android.arch.lifecycle.LiveData;
+import android.arch.lifecycle.MediatorLiveData;
+import android.arch.lifecycle.Transformations;
+import android.arch.paging.DataSource;
+import android.arch.persistence.db.SupportSQLiteQuery;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 
+import com.cleanup.todoc.model.dao.BackfillDao;
+import com.cleanup.todoc.model.dao.TaskChangeDao;
 import com.cleanup.todoc.model.dao.TaskDao;
+import com.cleanup.todoc.model.dao.TaskDetailsDao;
+import com.cleanup.todoc.model.database.TodocDatabase;
+import com.cleanup.todoc.model.database.TodocDatabaseConfig;
+import com.cleanup.todoc.model.pojos.ProjectCounts;
 import com.cleanup.todoc.model.pojos.Task;
+import com.cleanup.todoc.model.pojos.TaskDayCount;
+import com.cleanup.todoc.model.pojos.TaskDelta;
+import com.cleanup.todoc.model.pojos.TaskDetails;
+import com.cleanup.todoc.model.pojos.TaskSummary;
+import com.cleanup.todoc.model.pojos.TaskWithProject;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 import javax.inject.Inject;
 
@@ -15,9 +33,39 @@ public class TaskRepositoryImpl implements Repository.TaskRepository {
 
     // FIELDS --------------------------------------------------------------------------------------
 
+    /**
+     * Number of ids by statement, under the SQLite limit of 999 bound variables
+     */
+    @VisibleForTesting
+    static final int MAX_IDS_BY_STATEMENT = 900;
+
+    /**
+     * Number of open tasks whose keys are respaced by transaction
+     */
+    @VisibleForTesting
+    static final int POSITION_CHUNK = 50;
+
     @Inject
     TaskDao mTaskDao;
 
+    @Inject
+    TaskChangeDao mTaskChangeDao;
+
+    @Inject
+    TaskDetailsDao mTaskDetailsDao;
+
+    @Inject
+    BackfillDao mBackfillDao;
+
+    @Inject
+    TodocDatabase mDatabase;
+
+    @Inject
+    BusyRetry mBusyRetry;
+
+    @Inject
+    TaskWriteEngine mWriteEngine;
+
     // CONSTRUCTORS --------------------------------------------------------------------------------
 
     /**
@@ -28,11 +76,18 @@ public class TaskRepositoryImpl implements Repository.TaskRepository {
 
     /**
      * Constructor
-     * @param taskDao a {@link TaskDao}
+     * @param database a {@link TodocDatabase}
      */
     @VisibleForTesting
-    public TaskRepositoryImpl(@NonNull TaskDao taskDao) {
-        this.mTaskDao = taskDao;
+    public TaskRepositoryImpl(@NonNull TodocDatabase database) {
+        this.mDatabase = database;
+        this.mTaskDao = database.mTaskDao();
+        this.mTaskChangeDao = database.mTaskChangeDao();
+        this.mTaskDetailsDao = database.mTaskDetailsDao();
+        this.mBackfillDao = database.mBackfillDao();
+        this.mBusyRetry = new BusyRetry(TodocDatabaseConfig.DEFAULT.getBusyMaxAttempts(),
+                                        TodocDatabaseConfig.DEFAULT.getBusyInitialDelayMillis());
+        this.mWriteEngine = new TaskWriteEngine(database);
     }
 
     // METHODS -------------------------------------------------------------------------------------
@@ -41,21 +96,440 @@ public class TaskRepositoryImpl implements Repository.TaskRepository {
 
     @Override
     public long insertTask(@NonNull final Task task) {
-        return this.mTaskDao.insertTask(task);
+        return this.mBusyRetry.run(() -> this.mWriteEngine.insertTask(task));
+    }
+
+    @Override
+    public long[] insertTasks(@NonNull final List<Task> tasks) {
+        // The keys of the manual order follow the list, after the last key read in the same transaction
+        return this.mBusyRetry.run(() -> this.mDatabase.runInTransaction(() -> {
+            String position = this.mTaskDao.getLastTaskPosition();
+
+            for (Task task : tasks) {
+                if (task.getPosition().isEmpty()) {
+                    position = TaskPosition.after(position);
+                    task.setPosition(position);
+                }
+            }
+
+            return this.mTaskDao.insertTasks(tasks);
+        }));
     }
 
     // -- READ --
 
     @NonNull
     @Override
-    public LiveData<List<Task>> getTasks() {
+    public LiveData<List<TaskSummary>> getTasks() {
         return this.mTaskDao.getTasks();
     }
 
+    @NonNull
+    @Override
+    public LiveData<List<TaskSummary>> getTasksAlphabetical() {
+        return this.mTaskDao.getTasksAlphabetical();
+    }
+
+    @NonNull
+    @Override
+    public LiveData<List<TaskSummary>> getTasksAlphabeticalInverted() {
+        return this.mTaskDao.getTasksAlphabeticalInverted();
+    }
+
+    @NonNull
+    @Override
+    public LiveData<List<TaskSummary>> getTasksRecentFirst() {
+        return this.mTaskDao.getTasksRecentFirst();
+    }
+
+    @NonNull
+    @Override
+    public LiveData<List<TaskSummary>> getTasksOldFirst() {
+        return this.mTaskDao.getTasksOldFirst();
+    }
+
+    @NonNull
+    @Override
+    public DataSource.Factory<Integer, TaskWithProject> getTasksWithProjectPaged() {
+        return this.mTaskDao.getTasksWithProjectPaged();
+    }
+
+    @NonNull
+    @Override
+    public DataSource.Factory<Integer, TaskWithProject> getTasksWithProjectAlphabeticalPaged() {
+        return this.mTaskDao.getTasksWithProjectAlphabeticalPaged();
+    }
+
+    @NonNull
+    @Override
+    public DataSource.Factory<Integer, TaskWithProject> getTasksWithProjectAlphabeticalInvertedPaged() {
+        return this.mTaskDao.getTasksWithProjectAlphabeticalInvertedPaged();
+    }
+
+    @NonNull
+    @Override
+    public DataSource.Factory<TaskKeysetDataSource.Key, TaskWithProject> getTasksRecentFirstKeyset() {
+        return new TaskKeysetDataSource.Factory(this.mDatabase, true);
+    }
+
+    @NonNull
+    @Override
+    public DataSource.Factory<TaskKeysetDataSource.Key, TaskWithProject> getTasksOldFirstKeyset() {
+        return new TaskKeysetDataSource.Factory(this.mDatabase, false);
+    }
+
+    @NonNull
+    @Override
+    public DataSource.Factory<Integer, TaskWithProject> getTasksManualPaged() {
+        return this.mTaskDao.getTasksWithProjectManualPaged();
+    }
+
+    @Nullable
+    @Override
+    public DataSource.Factory<Integer, TaskWithProject> searchTasks(@NonNull final String input) {
+        final SupportSQLiteQuery query = TaskSearchQuery.build(input);
+        return (query != null) ? this.mTaskDao.searchTasks(query) : null;
+    }
+
+    // -- TIMELINE --
+
+    @NonNull
+    @Override
+    public LiveData<List<TaskDayCount>> getOpenTaskCountsByDay() {
+        // The progress emits at each chunk of the backfill: the query only changes with its completion
+        final MediatorLiveData<Boolean> creationDayFilled = new MediatorLiveData<>();
+        creationDayFilled.addSource(this.mBackfillDao.isBackfillCompleted(TodocDatabase.BACKFILL_CREATION_DAY),
+                                    completed -> {
+                                        if (!Objects.equals(creationDayFilled.getValue(), completed)) {
+                                            creationDayFilled.setValue(completed);
+                                        }
+                                    });
+
+        return Transformations.switchMap(creationDayFilled,
+                                         completed -> Boolean.TRUE.equals(completed) ? this.mTaskDao.getOpenTaskCountsByDay()
+                                                                                     : this.mTaskDao.getOpenTaskCountsByTimestampDay());
+    }
+
+    // -- COMPLETED --
+
+    @NonNull
+    @Override
+    public LiveData<List<TaskSummary>> getCompletedTasks() {
+        return this.mTaskDao.getCompletedTasks();
+    }
+
+    @NonNull
+    @Override
+    public DataSource.Factory<Integer, TaskWithProject> getCompletedTasksPaged() {
+        return this.mTaskDao.getCompletedTasksPaged();
+    }
+
+    @Override
+    public int setTaskCompleted(final long taskId, final boolean completed) {
+        final Long completedAt = completed ? System.currentTimeMillis() : null;
+        return this.mBusyRetry.run(() -> this.mTaskDao.setTaskCompletedAt(taskId, completedAt));
+    }
+
+    // -- TRASH --
+
+    @NonNull
+    @Override
+    public DataSource.Factory<Integer, TaskWithProject> getDeletedTasks() {
+        return this.mTaskDao.getDeletedTasksPaged();
+    }
+
+    @Override
+    public int restoreTaskById(final long taskId) {
+        return this.mBusyRetry.run(() -> this.mTaskDao.restoreTaskById(taskId));
+    }
+
+    @Override
+    public int purgeDeletedTasks(final long deletedBefore, final int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be positive");
+        }
+
+        // One batch in a single statement, TaskPurger queues the next one behind the writes of the UI
+        return this.mBusyRetry.run(() -> this.mTaskDao.purgeDeletedTasks(deletedBefore, batchSize));
+    }
+
+    // -- DETAILS --
+
+    @NonNull
+    @Override
+    public LiveData<TaskDetails> getTaskDetails(final long taskId) {
+        return this.mTaskDetailsDao.getTaskDetailsByTaskId(taskId);
+    }
+
+    @Override
+    public int setTaskNotes(final long taskId, @NonNull final String notes) {
+        if (notes.isEmpty()) {
+            return this.mBusyRetry.run(() -> this.mTaskDetailsDao.deleteTaskDetailsByTaskId(taskId));
+        }
+
+        this.mBusyRetry.run(() -> this.mTaskDetailsDao.insertTaskDetails(new TaskDetails(taskId, notes)));
+        return 1;
+    }
+
+    @Override
+    public int setTaskName(final long taskId, @NonNull final String name) {
+        return this.mBusyRetry.run(() -> this.mWriteEngine.updateTaskName(taskId, name));
+    }
+
+    @Override
+    public int reassignTasks(@NonNull final long[] taskIds, final long targetProjectId) {
+        // One UPDATE of the project_id column by chunk, a single invalidation at the end of the transaction
+        return this.mBusyRetry.run(() -> this.mDatabase.runInTransaction(() -> {
+            int count = 0;
+
+            for (int from = 0; from < taskIds.length; from += MAX_IDS_BY_STATEMENT) {
+                final int to = Math.min(from + MAX_IDS_BY_STATEMENT, taskIds.length);
+                count += this.mTaskDao.reassignTasks(Arrays.copyOfRange(taskIds, from, to), targetProjectId);
+            }
+
+            return count;
+        }));
+    }
+
+    // -- MANUAL ORDER --
+
+    @Override
+    public int moveTask(final long taskId, final long previousTaskId, final long nextTaskId) {
+        return this.mBusyRetry.run(() -> this.mDatabase.runInTransaction(() -> {
+            String previous = (previousTaskId != 0) ? this.mTaskDao.getTaskPosition(previousTaskId) : "";
+            String next = (nextTaskId != 0) ? this.mTaskDao.getTaskPosition(nextTaskId) : null;
+
+            // A neighbour removed meanwhile: the move is dropped, the list shows the current order
+            if (previous == null || (nextTaskId != 0 && next == null)) {
+                return 0;
+            }
+
+            // Neighbours on the same key (or waiting for the backfill of their key): the tasks on it are respaced first
+            if (next != null && previous.compareTo(next) >= 0) {
+                this.respaceCollision(next);
+
+                previous = (previousTaskId != 0) ? this.mTaskDao.getTaskPosition(previousTaskId) : "";
+                next = this.mTaskDao.getTaskPosition(nextTaskId);
+
+                // Still no key between them (too many tasks on the key): the move is dropped
+                if (previous.compareTo(next) >= 0) {
+                    return 0;
+                }
+            }
+
+            final String newPosition = (next != null) ? TaskPosition.between(previous, next)
+                                                      : TaskPosition.after(previous);
+
+            return this.mTaskDao.setTaskPosition(taskId, newPosition);
+        }));
+    }
+
+    @Override
+    public int rebalancePositions(final long taskId) {
+        final String position = this.mBusyRetry.run(() -> this.mTaskDao.getTaskPosition(taskId));
+
+        // Removed meanwhile, or a key still short (already rebalanced by the job of a previous move)
+        if (position == null || position.length() <= TaskPosition.MAX_LENGTH) {
+            return 0;
+        }
+
+        // The new keys are spread over the whole range, the open tasks keep the order of their ranks
+        final int openTaskCount = this.mBusyRetry.run(() -> this.mTaskDao.getOpenTaskCount());
+        final List<String> positions = TaskPosition.between("", null, openTaskCount);
+
+        // The keys which go down, from the start, then the keys which go up, from the end
+        return this.respacePositions(positions, true) + this.respacePositions(positions, false);
+    }
+
+    /**
+     * Gives the tasks on a key (the open ones) keys spread between the keys around them,
+     * in the transaction of the caller, and returns the updated tuple number (0 when they
+     * are more than {@link #POSITION_CHUNK})
+     * @param position a {@link String} that contains the key
+     * @return an integer that contains the updated tuple number
+     */
+    private int respaceCollision(@NonNull final String position) {
+        // From the id 0, the bounds of the key are excluded before it and included after it
+        final List<Task> before = this.mTaskDao.getOpenTasksBefore(position, 0, 1);
+        final List<Task> tasks = this.mTaskDao.getOpenTasksAfter(position, 0, POSITION_CHUNK + 1);
+
+        int count = 0;
+        while (count < tasks.size() && tasks.get(count).getPosition().equals(position)) {
+            count++;
+        }
+
+        if (count > POSITION_CHUNK) {
+            return 0;
+        }
+
+        final String lower = before.isEmpty() ? "" : before.get(0).getPosition();
+        final String upper = (count < tasks.size()) ? tasks.get(count).getPosition() : null;
+        final List<String> positions = TaskPosition.between(lower, upper, count);
+
+        int updated = 0;
+        for (int i = 0; i < count; i++) {
+            updated += this.mTaskDao.setTaskPosition(tasks.get(i).getId(), positions.get(i));
+        }
+
+        return updated;
+    }
+
+    /**
+     * Gives the open tasks the new key of their rank, in one direction of the manual order,
+     * by chunks of {@link #POSITION_CHUNK} tasks in their own transaction, and returns the
+     * updated tuple number. From the start, only the keys which go down are written, from the end,
+     * only the ones which go up: a new key is always between the keys of the two neighbours,
+     * so the order is kept between the chunks, the moves of the user included.
+     * @param positions a {@link List} of {@link String} that contains the new keys, in order
+     * @param ascending true from the start of the list, false from the end
+     * @return an integer that contains the updated tuple number
+     */
+    private int respacePositions(@NonNull final List<String> positions, final boolean ascending) {
+        PositionChunk chunk = new PositionChunk(ascending ? 0 : positions.size() - 1,
+                                                ascending ? "" : TaskPosition.END,
+                                                ascending ? 0 : Long.MAX_VALUE,
+                                                0);
+
+        int count = 0;
+        while (chunk != null && chunk.mIndex >= 0 && chunk.mIndex < positions.size()) {
+            final PositionChunk previousChunk = chunk;
+            chunk = this.mBusyRetry.run(() -> this.mDatabase.runInTransaction(
+                    () -> this.respaceChunk(positions, ascending, previousChunk)));
+
+            if (chunk != null) {
+                count += chunk.mCount;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Gives the next chunk of open tasks the new key of their rank, in the transaction of the caller,
+     * when the key is between the keys of the two neighbours and goes in the direction of the pass
+     * @param positions     a {@link List} of {@link String} that contains the new keys, in order
+     * @param ascending     true from the start of the list, false from the end
+     * @param previousChunk the {@link PositionChunk} of the previous chunk
+     * @return the {@link PositionChunk} of this chunk, null once the list has ended
+     */
+    @Nullable
+    private PositionChunk respaceChunk(@NonNull final List<String> positions,
+                                       final boolean ascending,
+                                       @NonNull final PositionChunk previousChunk) {
+        final List<Task> tasks = ascending
+                ? this.mTaskDao.getOpenTasksAfter(previousChunk.mPosition, previousChunk.mTaskId, POSITION_CHUNK)
+                : this.mTaskDao.getOpenTasksBefore(previousChunk.mPosition, previousChunk.mTaskId, POSITION_CHUNK);
+
+        if (tasks.isEmpty()) {
+            return null;
+        }
+
+        // The neighbour before the chunk in the direction of the pass, read again (a move may have come meanwhile)
+        final Task first = tasks.get(0);
+        final List<Task> neighbours = ascending ? this.mTaskDao.getOpenTasksBefore(first.getPosition(), first.getId(), 1)
+                                                : this.mTaskDao.getOpenTasksAfter(first.getPosition(), first.getId(), 1);
+        String neighbour = neighbours.isEmpty() ? (ascending ? "" : TaskPosition.END) : neighbours.get(0).getPosition();
+
+        int index = previousChunk.mIndex;
+        int count = 0;
+        Task task = first;
+
+        for (int i = 0; i < tasks.size() && index >= 0 && index < positions.size(); i++) {
+            task = tasks.get(i);
+
+            final String position = positions.get(index);
+            final boolean isRespaced = ascending
+                    ? (position.compareTo(task.getPosition()) < 0 && neighbour.compareTo(position) < 0)
+                    : (position.compareTo(task.getPosition()) > 0 && position.compareTo(neighbour) < 0);
+
+            if (isRespaced) {
+                count += this.mTaskDao.setTaskPosition(task.getId(), position);
+                task.setPosition(position);
+            }
+
+            neighbour = task.getPosition();
+            index += ascending ? 1 : -1;
+        }
+
+        return new PositionChunk(index, task.getPosition(), task.getId(), count);
+    }
+
+    // -- CHANGES --
+
+    @NonNull
+    @Override
+    public LiveData<Long> getLastTaskChangeSeq() {
+        return this.mTaskChangeDao.getLastTaskChangeSeqLive();
+    }
+
+    @NonNull
+    @Override
+    public TaskDelta getTaskDeltaSince(final long sinceSeq) {
+        return TaskDelta.fromChanges(sinceSeq, this.mTaskChangeDao.getTaskChangesSince(sinceSeq));
+    }
+
+    @NonNull
+    @Override
+    public ProjectCounts getProjectCounts() {
+        // Same snapshot for the counts and the sequence number, so that no delta is missed or counted twice
+        return this.mDatabase.runInTransaction(
+                () -> new ProjectCounts(this.mTaskChangeDao.getLastTaskChangeSeq(),
+                                        this.mDatabase.mProjectDao().getProjectsWithCountList()));
+    }
+
+    @Override
+    public int deleteTaskChangesUpTo(final long seq) {
+        return this.mBusyRetry.run(() -> this.mTaskChangeDao.deleteTaskChangesUpTo(seq));
+    }
+
     // -- DELETE --
 
     @Override
     public int deleteTaskById(final long taskId) {
-        return this.mTaskDao.deleteTaskById(taskId);
+        return this.mBusyRetry.run(() -> this.mWriteEngine.softDeleteTaskById(taskId, System.currentTimeMillis()));
+    }
+
+    @Override
+    public int deleteTasksByIds(@NonNull final long[] taskIds) {
+        final long deletedAt = System.currentTimeMillis();
+
+        // Only one invalidation of the task table at the end of the outer transaction
+        return this.mBusyRetry.run(() -> this.mDatabase.runInTransaction(() -> {
+            int count = 0;
+
+            for (int from = 0; from < taskIds.length; from += MAX_IDS_BY_STATEMENT) {
+                final int to = Math.min(from + MAX_IDS_BY_STATEMENT, taskIds.length);
+                count += this.mTaskDao.softDeleteTasksByIds(Arrays.copyOfRange(taskIds, from, to), deletedAt);
+            }
+
+            return count;
+        }));
+    }
+
+    // INNER CLASSES -------------------------------------------------------------------------------
+
+    /**
+     * <p>State of a pass of the respacing of the keys, after a chunk.</p>
+     */
+    private static final class PositionChunk {
+
+        private final int mIndex;
+        private final String mPosition;
+        private final long mTaskId;
+        private final int mCount;
+
+        /**
+         * Constructor
+         * @param index    an integer that contains the rank of the next task
+         * @param position a {@link String} that contains the key of the last task of the chunk
+         * @param taskId   an integer that contains the id value of the last task of the chunk
+         * @param count    an integer that contains the updated tuple number of the chunk
+         */
+        PositionChunk(final int index, @NonNull final String position, final long taskId, final int count) {
+            this.mIndex = index;
+            this.mPosition = position;
+            this.mTaskId = taskId;
+            this.mCount = count;
+        }
     }
 }
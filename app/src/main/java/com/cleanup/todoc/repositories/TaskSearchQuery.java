@@ -0,0 +1,85 @@
+package com.cleanup.todoc.repositories;
+
+import android.arch.persistence.db.SimpleSQLiteQuery;
+import android.arch.persistence.db.SupportSQLiteQuery;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Builds the full-text search query on the task_fts table.</p>
+ *
+ * Every word of the user input becomes a prefix term ("pro cli" matches "Projet client"),
+ * and the matches are ranked by number of hits then by length of the name.
+ */
+public final class TaskSearchQuery {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    /**
+     * offsets() returns 4 integers by hit, so its length grows with the number of hits.
+     * The search also finds the done tasks (shown checked).
+     */
+    private static final String SQL = "SELECT `task`.`id`, `task`.`project_id`, `task`.`name`, `task`.`creation_timestamp`, " +
+                   "`task`.`completed_at`, `project`.`name` AS `project_name`, `project`.`color` AS `project_color` FROM `task` " +
+            "INNER JOIN `project` ON `project`.`id` = `task`.`project_id` " +
+            "JOIN (SELECT `docid`, length(offsets(`task_fts`)) AS `hits` " +
+                  "FROM `task_fts` WHERE `task_fts` MATCH ?) AS `matches` " +
+            "ON `task`.`id` = `matches`.`docid` " +
+            "WHERE `task`.`deleted_at` IS NULL " +
+            "ORDER BY `matches`.`hits` DESC, length(`task`.`name`) ASC, `task`.`id` ASC";
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    private TaskSearchQuery() {}
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    /**
+     * Returns the {@link SupportSQLiteQuery} of the search, or null if the input has no word
+     * @param input a {@link String} that contains the user input
+     * @return a {@link SupportSQLiteQuery} or null
+     */
+    @Nullable
+    public static SupportSQLiteQuery build(@NonNull final String input) {
+        final String matchExpression = toMatchExpression(input);
+
+        return matchExpression.isEmpty() ? null
+                                         : new SimpleSQLiteQuery(SQL, new Object[] {matchExpression});
+    }
+
+    /**
+     * Returns the MATCH expression of the user input: words without diacritics nor FTS
+     * operators, each one as a prefix term, implicitly joined by AND
+     * @param input a {@link String} that contains the user input
+     * @return a {@link String} that contains the MATCH expression, empty if there is no word
+     */
+    @VisibleForTesting
+    @NonNull
+    static String toMatchExpression(@NonNull final String input) {
+        // Same folding as the unicode61 tokenizer: without diacritics and in lower case
+        final String folded = DIACRITICS.matcher(Normalizer.normalize(input, Normalizer.Form.NFD))
+                                        .replaceAll("")
+                                        .toLowerCase(Locale.ROOT);
+
+        final StringBuilder builder = new StringBuilder();
+
+        for (String word : SEPARATORS.split(folded)) {
+            if (!word.isEmpty()) {
+                if (builder.length() != 0) {
+                    builder.append(' ');
+                }
+                builder.append(word).append('*');
+            }
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,297 @@
+package com.cleanup.todoc.repositories;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.db.SupportSQLiteStatement;
+import android.support.annotation.NonNull;
+import android.support.annotation.WorkerThread;
+
+import com.cleanup.todoc.model.dao.TaskDao;
+import com.cleanup.todoc.model.database.TodocDatabase;
+import com.cleanup.todoc.model.pojos.Task;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * <p>Writes of the hot path of the task table (insertion, soft delete, rename) through
+ * statements compiled once and kept for the life of the workspace, instead of the statements
+ * that the DAO generated by Room acquires, binds through its adapter and releases at each call.</p>
+ *
+ * The values are bound as primitives. Each write runs in a transaction of the
+ * {@link TodocDatabase}, as the DAO does, so that the {@link android.arch.lifecycle.LiveData}
+ * of the task table are invalidated at its end. The statements are not thread-safe, so the
+ * writes are serialized by the engine (SQLite serializes them anyway).
+ *
+ * The statements belong to the connection which has compiled them: the engine attaches itself
+ * to the {@link TodocDatabase}, which closes it with its connections (eviction from the pool,
+ * deletion or restoration of the workspace), and compiles them again on a new connection.
+ */
+public class TaskWriteEngine implements Closeable {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    // Same columns and same id generation as the insertion adapter of Room (an id of 0 is generated)
+    private static final String INSERT_SQL = "INSERT OR ABORT INTO `task` " +
+            "(`id`, `project_id`, `name`, `creation_timestamp`, `creation_day`, `deleted_at`, `completed_at`, `position`) " +
+            "VALUES (nullif(?, 0), ?, ?, ?, ?, ?, ?, ?)";
+
+    // Same statement as TaskDao.softDeleteTaskById
+    private static final String SOFT_DELETE_SQL = "UPDATE `task` SET `deleted_at` = ? " +
+            "WHERE `id` = ? AND `deleted_at` IS NULL";
+
+    private static final String UPDATE_NAME_SQL = "UPDATE `task` SET `name` = ? WHERE `id` = ?";
+
+    @NonNull
+    private final TodocDatabase mDatabase;
+
+    private SupportSQLiteStatement mInsertStatement;
+    private SupportSQLiteStatement mSoftDeleteStatement;
+    private SupportSQLiteStatement mUpdateNameStatement;
+    private SupportSQLiteStatement mLastPositionStatement;
+
+    /**
+     * The connection on which the statements have been compiled
+     */
+    private SupportSQLiteDatabase mCompiledOn;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     * @param database a {@link TodocDatabase}
+     */
+    public TaskWriteEngine(@NonNull final TodocDatabase database) {
+        this.mDatabase = database;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- INSERT --
+
+    /**
+     * Inserts a new task, open and out of the trash, at the end of the manual order
+     * @param projectId         an integer that contains the id of the project
+     * @param name              a {@link String} that contains the name of the task
+     * @param creationTimestamp an integer that contains the timestamp of the creation of the task
+     * @return an integer that contains the id of the new task
+     */
+    @WorkerThread
+    public synchronized long insertTask(final long projectId,
+                                        @NonNull final String name,
+                                        final long creationTimestamp) {
+        this.mDatabase.beginTransaction();
+        try {
+            final SupportSQLiteStatement statement = this.getInsertStatement();
+            statement.bindNull(1);
+            statement.bindLong(2, projectId);
+            statement.bindString(3, name);
+            statement.bindLong(4, creationTimestamp);
+            statement.bindLong(5, Task.getDayOf(creationTimestamp));
+            statement.bindNull(6);
+            statement.bindNull(7);
+            statement.bindString(8, this.nextPosition());
+
+            final long taskId = statement.executeInsert();
+            this.mDatabase.setTransactionSuccessful();
+            return taskId;
+        }
+        finally {
+            this.mDatabase.endTransaction();
+        }
+    }
+
+    /**
+     * Inserts a task with all its columns, as TaskDao.insertTask does,
+     * at the end of the manual order if it has no position
+     * @param task a {@link Task}
+     * @return an integer that contains the id of the task
+     */
+    @WorkerThread
+    public synchronized long insertTask(@NonNull final Task task) {
+        this.mDatabase.beginTransaction();
+        try {
+            final SupportSQLiteStatement statement = this.getInsertStatement();
+            statement.bindLong(1, task.getId());
+            statement.bindLong(2, task.getProjectId());
+            statement.bindString(3, task.getName());
+            statement.bindLong(4, task.getCreationTimestamp());
+            statement.bindLong(5, task.getCreationDay());
+
+            final Long deletedAt = task.getDeletedAt();
+            if (deletedAt == null) {
+                statement.bindNull(6);
+            }
+            else {
+                statement.bindLong(6, deletedAt);
+            }
+
+            final Long completedAt = task.getCompletedAt();
+            if (completedAt == null) {
+                statement.bindNull(7);
+            }
+            else {
+                statement.bindLong(7, completedAt);
+            }
+
+            statement.bindString(8, task.getPosition().isEmpty() ? this.nextPosition() : task.getPosition());
+
+            final long taskId = statement.executeInsert();
+            this.mDatabase.setTransactionSuccessful();
+            return taskId;
+        }
+        finally {
+            this.mDatabase.endTransaction();
+        }
+    }
+
+    // -- UPDATE --
+
+    /**
+     * Moves a task to the trash
+     * @param taskId    an integer that contains the id of the task
+     * @param deletedAt an integer that contains the timestamp of the deletion
+     * @return an integer that contains the number of moved tasks (0 if already in the trash)
+     */
+    @WorkerThread
+    public synchronized int softDeleteTaskById(final long taskId, final long deletedAt) {
+        this.mDatabase.beginTransaction();
+        try {
+            final SupportSQLiteStatement statement = this.getSoftDeleteStatement();
+            statement.bindLong(1, deletedAt);
+            statement.bindLong(2, taskId);
+
+            final int count = statement.executeUpdateDelete();
+            this.mDatabase.setTransactionSuccessful();
+            return count;
+        }
+        finally {
+            this.mDatabase.endTransaction();
+        }
+    }
+
+    /**
+     * Renames a task
+     * @param taskId an integer that contains the id of the task
+     * @param name   a {@link String} that contains the new name of the task
+     * @return an integer that contains the number of renamed tasks
+     */
+    @WorkerThread
+    public synchronized int updateTaskName(final long taskId, @NonNull final String name) {
+        this.mDatabase.beginTransaction();
+        try {
+            final SupportSQLiteStatement statement = this.getUpdateNameStatement();
+            statement.bindString(1, name);
+            statement.bindLong(2, taskId);
+
+            final int count = statement.executeUpdateDelete();
+            this.mDatabase.setTransactionSuccessful();
+            return count;
+        }
+        finally {
+            this.mDatabase.endTransaction();
+        }
+    }
+
+    // -- STATEMENTS --
+
+    // The statements are compiled at the first write, the opening of the database runs the migrations
+
+    private SupportSQLiteStatement getInsertStatement() {
+        final SupportSQLiteDatabase db = this.getWritableDatabase();
+        if (this.mInsertStatement == null) {
+            this.mInsertStatement = db.compileStatement(INSERT_SQL);
+        }
+        return this.mInsertStatement;
+    }
+
+    private SupportSQLiteStatement getSoftDeleteStatement() {
+        final SupportSQLiteDatabase db = this.getWritableDatabase();
+        if (this.mSoftDeleteStatement == null) {
+            this.mSoftDeleteStatement = db.compileStatement(SOFT_DELETE_SQL);
+        }
+        return this.mSoftDeleteStatement;
+    }
+
+    private SupportSQLiteStatement getUpdateNameStatement() {
+        final SupportSQLiteDatabase db = this.getWritableDatabase();
+        if (this.mUpdateNameStatement == null) {
+            this.mUpdateNameStatement = db.compileStatement(UPDATE_NAME_SQL);
+        }
+        return this.mUpdateNameStatement;
+    }
+
+    /**
+     * Returns the key after every task in the manual order, read in the transaction of the insertion
+     * @return a {@link String}
+     */
+    private String nextPosition() {
+        final SupportSQLiteDatabase db = this.getWritableDatabase();
+        if (this.mLastPositionStatement == null) {
+            this.mLastPositionStatement = db.compileStatement(TaskDao.LAST_POSITION);
+        }
+        return TaskPosition.after(this.mLastPositionStatement.simpleQueryForString());
+    }
+
+    /**
+     * Returns the connection of the database. When it is not the one of the statements
+     * (first write, or the database has been closed then opened again), the statements are
+     * dropped and the engine attaches itself to the database, to be closed with it.
+     * @return a {@link SupportSQLiteDatabase}
+     */
+    private SupportSQLiteDatabase getWritableDatabase() {
+        final SupportSQLiteDatabase db = this.mDatabase.getOpenHelper().getWritableDatabase();
+
+        if (db != this.mCompiledOn) {
+            try {
+                this.releaseStatements();
+            }
+            catch (IOException e) {
+                // The statements of a closed connection are dropped anyway
+            }
+
+            this.mCompiledOn = db;
+            this.mDatabase.attach(this);
+        }
+
+        return db;
+    }
+
+    // -- CLOSEABLE --
+
+    /**
+     * Releases the compiled statements, compiled again at the next write
+     * @throws IOException if a statement can not be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        this.mCompiledOn = null;
+        this.releaseStatements();
+    }
+
+    /**
+     * Closes the compiled statements and forgets them
+     * @throws IOException if a statement can not be closed
+     */
+    private void releaseStatements() throws IOException {
+        try {
+            if (this.mInsertStatement != null) {
+                this.mInsertStatement.close();
+            }
+            if (this.mSoftDeleteStatement != null) {
+                this.mSoftDeleteStatement.close();
+            }
+            if (this.mUpdateNameStatement != null) {
+                this.mUpdateNameStatement.close();
+            }
+            if (this.mLastPositionStatement != null) {
+                this.mLastPositionStatement.close();
+            }
+        }
+        finally {
+            this.mInsertStatement = null;
+            this.mSoftDeleteStatement = null;
+            this.mUpdateNameStatement = null;
+            this.mLastPositionStatement = null;
+        }
+    }
+}
@@ -1,20 +1,66 @@
 package com.cleanup.todoc.viewModels;
 
 import android.arch.lifecycle.LiveData;
+import android.arch.lifecycle.MediatorLiveData;
+import android.arch.lifecycle.MutableLiveData;
+import android.arch.lifecycle.Transformations;
 import android.arch.lifecycle.ViewModel;
+import android.arch.paging.DataSource;
+import android.arch.paging.LivePagedListBuilder;
+import android.arch.paging.PagedList;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
 
 import com.cleanup.todoc.model.pojos.Project;
+import com.cleanup.todoc.model.pojos.ProjectCounts;
+import com.cleanup.todoc.model.pojos.ProjectDeletionProgress;
+import com.cleanup.todoc.model.pojos.ProjectWithCount;
 import com.cleanup.todoc.model.pojos.Task;
+import com.cleanup.todoc.model.pojos.TaskDayCount;
+import com.cleanup.todoc.model.pojos.TaskDelta;
+import com.cleanup.todoc.model.pojos.TaskTimeline;
+import com.cleanup.todoc.model.pojos.TaskWithProject;
+import com.cleanup.todoc.repositories.ProjectDeleter;
 import com.cleanup.todoc.repositories.Repository;
+import com.cleanup.todoc.repositories.TaskDeltaLiveData;
+import com.cleanup.todoc.repositories.TaskJsonImporter;
+import com.cleanup.todoc.repositories.TaskSearchQuery;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.concurrent.Executor;
 
 public class TaskViewModel extends ViewModel{
 
+    // ENUMS ---------------------------------------------------------------------------------------
+
+    /**
+     * The different ways of sorting the tasks
+     */
+    public enum SortMethod {ALPHABETICAL,
+        ALPHABETICAL_INVERTED,
+        RECENT_FIRST,
+        OLD_FIRST,
+        MANUAL,
+        NONE}
+
     // FIELDS --------------------------------------------------------------------------------------
 
+    private static final String TAG = TaskViewModel.class.getSimpleName();
+
+    private static final int PAGE_SIZE = 30;
+
+    /**
+     * Only the visible window plus one page of prefetch is materialized
+     */
+    private static final PagedList.Config PAGED_LIST_CONFIG = new PagedList.Config.Builder()
+            .setPageSize(PAGE_SIZE)
+            .setPrefetchDistance(PAGE_SIZE)
+            .setEnablePlaceholders(true)
+            .build();
+
     @NonNull
     private final Repository.ProjectRepository mProjectRepository;
     @NonNull
@@ -23,6 +69,27 @@ public class TaskViewModel extends ViewModel{
     private final Executor mExecutor;
 
     private LiveData<List<Project>> mProjects;
+    private MediatorLiveData<List<ProjectWithCount>> mProjectsWithCount;
+    private ProjectCounts mProjectCounts;
+    private LiveData<TaskDelta> mTaskDeltas;
+    private LiveData<PagedList<TaskWithProject>> mTasks;
+    private LiveData<List<TaskDayCount>> mOpenTaskCountsByDay;
+    private MediatorLiveData<TaskTimeline> mTimeline;
+
+    @NonNull
+    private final MutableLiveData<SortMethod> mSortMethod = new MutableLiveData<>();
+    @NonNull
+    private final MutableLiveData<String> mSearchQuery = new MutableLiveData<>();
+    @NonNull
+    private final MutableLiveData<Boolean> mShowCompleted = new MutableLiveData<>();
+
+    /**
+     * The progress of the deletion in flight, kept here so that a recreated activity observes it again
+     */
+    @NonNull
+    private final MediatorLiveData<ProjectDeletionProgress> mProjectDeletion = new MediatorLiveData<>();
+    @Nullable
+    private LiveData<ProjectDeletionProgress> mProjectDeletionSource = null;
 
     // CONSTRUCTORS --------------------------------------------------------------------------------
 
@@ -52,6 +119,42 @@ public class TaskViewModel extends ViewModel{
         if (this.mProjects == null) {
             this.mProjects = this.mProjectRepository.getProjects();
         }
+
+        // PROJECTS WITH COUNT (loaded at each change of the project table, patched by the deltas of the task table)
+        if (this.mProjectsWithCount == null) {
+            final MutableLiveData<ProjectCounts> projectCounts = new MutableLiveData<>();
+
+            this.mProjectsWithCount = new MediatorLiveData<>();
+            this.mProjectsWithCount.addSource(this.mProjects, (projects) -> this.mExecutor.execute(
+                    () -> projectCounts.postValue(this.mTaskRepository.getProjectCounts())));
+            this.mProjectsWithCount.addSource(projectCounts, this::setProjectCounts);
+        }
+
+        // TASKS (SQLite returns them already sorted, or ranked while searching, the open ones by default)
+        if (this.mTasks == null) {
+            this.mSortMethod.setValue(SortMethod.NONE);
+            this.mSearchQuery.setValue("");
+            this.mShowCompleted.setValue(false);
+
+            final LiveData<PagedList<TaskWithProject>> openTasks = Transformations.switchMap(this.mSortMethod,
+                    (sortMethod) -> Transformations.switchMap(this.mSearchQuery,
+                            (searchQuery) -> this.getTasksSearchedOrSortedBy(searchQuery, sortMethod)));
+
+            this.mTasks = Transformations.switchMap(this.mShowCompleted,
+                    (showCompleted) -> showCompleted ? new LivePagedListBuilder<>(this.mTaskRepository.getCompletedTasksPaged(),
+                                                                                  PAGED_LIST_CONFIG).build()
+                                                     : openTasks);
+        }
+
+        // TIMELINE (the counts by day are only grouped while the list is sorted by creation)
+        if (this.mTimeline == null) {
+            this.mOpenTaskCountsByDay = this.mTaskRepository.getOpenTaskCountsByDay();
+
+            this.mTimeline = new MediatorLiveData<>();
+            this.mTimeline.addSource(this.mSortMethod, (sortMethod) -> this.updateTimelineSource());
+            this.mTimeline.addSource(this.mSearchQuery, (searchQuery) -> this.updateTimelineSource());
+            this.mTimeline.addSource(this.mShowCompleted, (showCompleted) -> this.updateTimelineSource());
+        }
     }
 
     // -- TASKS --
@@ -65,12 +168,81 @@ public class TaskViewModel extends ViewModel{
     }
 
     /**
-     * Returns a {@link LiveData} of {@link List<Task>}
-     * @return a {@link LiveData} of {@link List<Task>}
+     * Inserts a {@link List<Task>} into database in a single transaction and in asynchronous way
+     * @param tasks a {@link List<Task>}
+     */
+    public void insertTasks(@NonNull final List<Task> tasks) {
+        this.mExecutor.execute(() -> this.mTaskRepository.insertTasks(tasks));
+    }
+
+    /**
+     * Imports the tasks of a JSON stream (tasks.json format) in asynchronous way
+     * @param inputStream an {@link InputStream} of UTF-8 JSON, closed at the end
+     * @param chunkSize   an integer that contains the number of tasks by transaction
+     * @return a {@link LiveData} of the number of inserted tasks, -1 if the import has failed
      */
     @NonNull
-    public LiveData<List<Task>> getTasks() {
-        return this.mTaskRepository.getTasks();
+    public LiveData<Integer> importTasks(@NonNull final InputStream inputStream, final int chunkSize) {
+        final MutableLiveData<Integer> result = new MutableLiveData<>();
+        final TaskJsonImporter importer = new TaskJsonImporter(this.mProjectRepository,
+                                                               this.mTaskRepository,
+                                                               chunkSize);
+
+        this.mExecutor.execute(() -> {
+            try {
+                result.postValue(importer.importTasks(inputStream));
+            }
+            catch (IOException | IllegalStateException e) {
+                Log.e(TAG, "importTasks: the JSON stream can not be imported", e);
+                result.postValue(-1);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Deletes a {@link Project} and its tasks by chunks, in asynchronous way,
+     * its progress being posted to {@link #getProjectDeletion()}
+     * @param projectId an integer that contains the id value of the project
+     */
+    public void deleteProject(final long projectId) {
+        this.clearProjectDeletion();
+
+        this.mProjectDeletionSource = new ProjectDeleter(this.mProjectRepository,
+                                                         this.mExecutor,
+                                                         ProjectDeleter.DEFAULT_CHUNK_SIZE).deleteProject(projectId);
+        this.mProjectDeletion.addSource(this.mProjectDeletionSource, this.mProjectDeletion::setValue);
+    }
+
+    /**
+     * Returns the progress of the deletion of a {@link Project}, null when no deletion is in flight
+     * @return a {@link LiveData} of {@link ProjectDeletionProgress}, completed once the project is deleted, or failed
+     */
+    @NonNull
+    public LiveData<ProjectDeletionProgress> getProjectDeletion() {
+        return this.mProjectDeletion;
+    }
+
+    /**
+     * Forgets the deletion of a {@link Project} once its end is shown, a recreated activity does not show it again
+     */
+    public void clearProjectDeletion() {
+        if (this.mProjectDeletionSource != null) {
+            this.mProjectDeletion.removeSource(this.mProjectDeletionSource);
+            this.mProjectDeletionSource = null;
+        }
+
+        this.mProjectDeletion.setValue(null);
+    }
+
+    /**
+     * Returns a {@link LiveData} of {@link PagedList<TaskWithProject>} sorted with the current {@link SortMethod}
+     * @return a {@link LiveData} of {@link PagedList<TaskWithProject>}
+     */
+    @NonNull
+    public LiveData<PagedList<TaskWithProject>> getTasks() {
+        return this.mTasks;
     }
 
     /**
@@ -81,6 +253,194 @@ public class TaskViewModel extends ViewModel{
         this.mExecutor.execute(() -> this.mTaskRepository.deleteTaskById(taskId));
     }
 
+    /**
+     * Deletes the {@link Task}s into database in a single transaction and in asynchronous way
+     * @param taskIds an array of integers that contains the id values
+     */
+    public void deleteTasksByIds(@NonNull final long[] taskIds) {
+        if (taskIds.length != 0) {
+            this.mExecutor.execute(() -> this.mTaskRepository.deleteTasksByIds(taskIds));
+        }
+    }
+
+    /**
+     * Moves the {@link Task}s to another project in a single transaction and in asynchronous way
+     * @param taskIds         an array of integers that contains the id values
+     * @param targetProjectId an integer that contains the id value of the project
+     */
+    public void reassignTasks(@NonNull final long[] taskIds, final long targetProjectId) {
+        if (taskIds.length != 0) {
+            this.mExecutor.execute(() -> this.mTaskRepository.reassignTasks(taskIds, targetProjectId));
+        }
+    }
+
+    /**
+     * Marks a {@link Task} as done, or opens it again, in asynchronous way
+     * @param taskId    an integer that contains the id value
+     * @param completed a boolean that is true to mark the task as done
+     */
+    public void setTaskCompleted(final long taskId, final boolean completed) {
+        this.mExecutor.execute(() -> this.mTaskRepository.setTaskCompleted(taskId, completed));
+    }
+
+    // -- COMPLETED --
+
+    /**
+     * Shows the done tasks (last done first) in the {@link LiveData} returned by {@link #getTasks()}
+     * instead of the open ones
+     * @param showCompleted a boolean that is true to show the done tasks
+     */
+    public void setShowCompleted(final boolean showCompleted) {
+        if (!Boolean.valueOf(showCompleted).equals(this.mShowCompleted.getValue())) {
+            this.mShowCompleted.setValue(showCompleted);
+        }
+    }
+
+    /**
+     * Returns true if the {@link LiveData} returned by {@link #getTasks()} shows the done tasks
+     * @return a boolean
+     */
+    public boolean isShowCompleted() {
+        return Boolean.TRUE.equals(this.mShowCompleted.getValue());
+    }
+
+    // -- SEARCH --
+
+    /**
+     * Sets the search query used by the {@link LiveData} returned by {@link #getTasks()},
+     * an empty query displays all the tasks with the current {@link SortMethod}
+     * @param searchQuery a {@link String} that contains the user input
+     */
+    public void setSearchQuery(@NonNull final String searchQuery) {
+        if (!searchQuery.equals(this.mSearchQuery.getValue())) {
+            this.mSearchQuery.setValue(searchQuery);
+        }
+    }
+
+    /**
+     * Returns the {@link LiveData} of {@link PagedList<TaskWithProject>} of the search if the query has words,
+     * otherwise the one of the {@link SortMethod}
+     * @param searchQuery a {@link String} that contains the user input
+     * @param sortMethod  a {@link SortMethod}
+     * @return a {@link LiveData} of {@link PagedList<TaskWithProject>}
+     */
+    @NonNull
+    private LiveData<PagedList<TaskWithProject>> getTasksSearchedOrSortedBy(@NonNull final String searchQuery,
+                                                                @NonNull final SortMethod sortMethod) {
+        final DataSource.Factory<Integer, TaskWithProject> searchFactory = this.mTaskRepository.searchTasks(searchQuery);
+
+        return (searchFactory != null) ? new LivePagedListBuilder<>(searchFactory, PAGED_LIST_CONFIG).build()
+                                       : this.getTasksSortedBy(sortMethod);
+    }
+
+    // -- SORT --
+
+    /**
+     * Sets the {@link SortMethod} used by the {@link LiveData} returned by {@link #getTasks()}
+     * @param sortMethod a {@link SortMethod}
+     */
+    public void setSortMethod(@NonNull final SortMethod sortMethod) {
+        if (sortMethod != this.mSortMethod.getValue()) {
+            this.mSortMethod.setValue(sortMethod);
+        }
+    }
+
+    /**
+     * Returns the {@link LiveData} of {@link PagedList<TaskWithProject>} built from the data source
+     * of the repository for the {@link SortMethod}
+     * @param sortMethod a {@link SortMethod}
+     * @return a {@link LiveData} of {@link PagedList<TaskWithProject>}
+     */
+    @NonNull
+    private LiveData<PagedList<TaskWithProject>> getTasksSortedBy(@NonNull final SortMethod sortMethod) {
+        switch (sortMethod) {
+            case ALPHABETICAL:
+                return new LivePagedListBuilder<>(this.mTaskRepository.getTasksWithProjectAlphabeticalPaged(),
+                        PAGED_LIST_CONFIG).build();
+            case ALPHABETICAL_INVERTED:
+                return new LivePagedListBuilder<>(this.mTaskRepository.getTasksWithProjectAlphabeticalInvertedPaged(),
+                        PAGED_LIST_CONFIG).build();
+            case RECENT_FIRST:
+                return new LivePagedListBuilder<>(this.mTaskRepository.getTasksRecentFirstKeyset(),
+                        PAGED_LIST_CONFIG).build();
+            case OLD_FIRST:
+                return new LivePagedListBuilder<>(this.mTaskRepository.getTasksOldFirstKeyset(),
+                        PAGED_LIST_CONFIG).build();
+            case MANUAL:
+                return new LivePagedListBuilder<>(this.mTaskRepository.getTasksManualPaged(),
+                        PAGED_LIST_CONFIG).build();
+            default:
+                return new LivePagedListBuilder<>(this.mTaskRepository.getTasksWithProjectPaged(),
+                        PAGED_LIST_CONFIG).build();
+        }
+    }
+
+    /**
+     * Returns true if the list returned by {@link #getTasks()} shows the open tasks in the manual order,
+     * the only list where the tasks can be moved
+     * @return a boolean
+     */
+    public boolean isManualOrder() {
+        final String searchQuery = this.mSearchQuery.getValue();
+
+        return this.mSortMethod.getValue() == SortMethod.MANUAL
+               && !this.isShowCompleted()
+               && (searchQuery == null || TaskSearchQuery.build(searchQuery) == null);
+    }
+
+    /**
+     * Moves a {@link Task} between two tasks in the manual order, in asynchronous way.
+     * A key grown too long by the move is respaced by a job of its own, once the move is written.
+     * @param taskId         an integer that contains the id value of the moved task
+     * @param previousTaskId an integer that contains the id value of the task before, 0 for the start
+     * @param nextTaskId     an integer that contains the id value of the task after, 0 for the end
+     */
+    public void moveTask(final long taskId, final long previousTaskId, final long nextTaskId) {
+        this.mExecutor.execute(() -> {
+            if (this.mTaskRepository.moveTask(taskId, previousTaskId, nextTaskId) > 0) {
+                this.mExecutor.execute(() -> this.mTaskRepository.rebalancePositions(taskId));
+            }
+        });
+    }
+
+    // -- TIMELINE --
+
+    /**
+     * Returns a {@link LiveData} of the {@link TaskTimeline} of the list returned by {@link #getTasks()},
+     * {@link TaskTimeline#EMPTY} unless the open tasks are sorted by creation
+     * @return a {@link LiveData} of {@link TaskTimeline}
+     */
+    @NonNull
+    public LiveData<TaskTimeline> getTimeline() {
+        return this.mTimeline;
+    }
+
+    /**
+     * Observes the counts of tasks by day while the list is sorted by creation, and flattens them
+     * into a {@link TaskTimeline} on the executor. The single thread of the executor keeps the
+     * timelines in the order of the changes, so an older one never replaces a newer one.
+     */
+    private void updateTimelineSource() {
+        final SortMethod sortMethod = this.mSortMethod.getValue();
+        final String searchQuery = this.mSearchQuery.getValue();
+
+        final boolean sortedByCreation = (sortMethod == SortMethod.RECENT_FIRST || sortMethod == SortMethod.OLD_FIRST)
+                                         && !this.isShowCompleted()
+                                         && (searchQuery == null || TaskSearchQuery.build(searchQuery) == null);
+
+        this.mTimeline.removeSource(this.mOpenTaskCountsByDay);
+
+        if (sortedByCreation) {
+            final boolean oldestFirst = (sortMethod == SortMethod.OLD_FIRST);
+
+            this.mTimeline.addSource(this.mOpenTaskCountsByDay, (dayCounts) -> this.mExecutor.execute(
+                    () -> this.mTimeline.postValue(TaskTimeline.of(dayCounts, oldestFirst))));
+        }
+        else {
+            this.mExecutor.execute(() -> this.mTimeline.postValue(TaskTimeline.EMPTY));
+        }
+    }
+
     // -- PROJECTS --
 
     /**
@@ -91,4 +451,46 @@ public class TaskViewModel extends ViewModel{
     public LiveData<List<Project>> getProjects() {
         return this.mProjects;
     }
+
+    /**
+     * Returns a {@link LiveData} of {@link List<ProjectWithCount>}
+     * @return a {@link LiveData} of {@link List<ProjectWithCount>}
+     */
+    @NonNull
+    public LiveData<List<ProjectWithCount>> getProjectsWithCount() {
+        return this.mProjectsWithCount;
+    }
+
+    /**
+     * Replaces the {@link ProjectCounts} then streams the {@link TaskDelta}s which follow them
+     * @param projectCounts a {@link ProjectCounts}
+     */
+    private void setProjectCounts(@NonNull final ProjectCounts projectCounts) {
+        if (this.mTaskDeltas != null) {
+            this.mProjectsWithCount.removeSource(this.mTaskDeltas);
+        }
+
+        this.mTaskDeltas = new TaskDeltaLiveData(this.mTaskRepository, this.mExecutor, projectCounts.getSeq());
+        this.mProjectsWithCount.addSource(this.mTaskDeltas, this::applyTaskDelta);
+
+        this.mProjectCounts = projectCounts;
+        this.mProjectsWithCount.setValue(projectCounts.getProjects());
+    }
+
+    /**
+     * Patches the {@link ProjectCounts} with a {@link TaskDelta}, in O(delta) instead of counting every task again,
+     * then removes its changes from the log (only the deltas of the current stream are applied here,
+     * a stream replaced by new counts never removes changes the next one has not read)
+     * @param delta a {@link TaskDelta}
+     */
+    private void applyTaskDelta(@NonNull final TaskDelta delta) {
+        this.mProjectCounts = this.mProjectCounts.apply(delta);
+
+        if (!delta.getTaskCountChanges().isEmpty()) {
+            this.mProjectsWithCount.setValue(this.mProjectCounts.getProjects());
+        }
+
+        final long lastSeq = delta.getLastSeq();
+        this.mExecutor.execute(() -> this.mTaskRepository.deleteTaskChangesUpTo(lastSeq));
+    }
 }
@@ -0,0 +1,73 @@
+package com.cleanup.todoc.viewModels;
+
+import android.arch.lifecycle.LiveData;
+import android.arch.lifecycle.ViewModel;
+import android.arch.paging.LivePagedListBuilder;
+import android.arch.paging.PagedList;
+import android.support.annotation.NonNull;
+
+import com.cleanup.todoc.model.pojos.TaskWithProject;
+import com.cleanup.todoc.repositories.Repository;
+
+import java.util.concurrent.Executor;
+
+public class TrashViewModel extends ViewModel {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final int PAGE_SIZE = 30;
+
+    @NonNull
+    private final Repository.TaskRepository mTaskRepository;
+    @NonNull
+    private final Executor mExecutor;
+
+    private LiveData<PagedList<TaskWithProject>> mDeletedTasks;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     * @param taskRepository a {@link Repository.TaskRepository}
+     * @param executor a {@link Executor}
+     */
+    public TrashViewModel(@NonNull Repository.TaskRepository taskRepository,
+                          @NonNull Executor executor) {
+        this.mTaskRepository = taskRepository;
+        this.mExecutor = executor;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- INITIALISATION --
+
+    /**
+     * Initializes the {@link ViewModel}
+     */
+    public void init() {
+        if (this.mDeletedTasks == null) {
+            this.mDeletedTasks = new LivePagedListBuilder<>(this.mTaskRepository.getDeletedTasks(),
+                                                            PAGE_SIZE).build();
+        }
+    }
+
+    // -- TRASH --
+
+    /**
+     * Returns a {@link LiveData} of {@link PagedList<TaskWithProject>} of the trash,
+     * sorted from last deleted to first deleted
+     * @return a {@link LiveData} of {@link PagedList<TaskWithProject>}
+     */
+    @NonNull
+    public LiveData<PagedList<TaskWithProject>> getDeletedTasks() {
+        return this.mDeletedTasks;
+    }
+
+    /**
+     * Restores a task from the trash in asynchronous way
+     * @param taskId an integer that contains the id value
+     */
+    public void restoreTaskById(final long taskId) {
+        this.mExecutor.execute(() -> this.mTaskRepository.restoreTaskById(taskId));
+    }
+}
@@ -41,6 +41,10 @@ public class ViewModelFactory implements ViewModelProvider.Factory{
                     this.mTaskRepository,
                     this.mExecutor);
         }
+        if (modelClass.isAssignableFrom(TrashViewModel.class)) {
+            return (T) new TrashViewModel(this.mTaskRepository,
+                    this.mExecutor);
+        }
         throw new IllegalArgumentException("Unknown ViewModel class");
     }
 }
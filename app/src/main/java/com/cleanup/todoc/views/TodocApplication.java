@@ -1,18 +1,52 @@
 package com.cleanup.todoc.views;
 
 import android.app.Application;
+import android.arch.lifecycle.LiveData;
+import android.arch.lifecycle.MutableLiveData;
+import android.content.Context;
+import android.content.Intent;
+import android.database.sqlite.SQLiteException;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.MainThread;
 import android.support.annotation.NonNull;
+import android.util.Log;
+import android.widget.Toast;
 
+import com.cleanup.todoc.R;
 import com.cleanup.todoc.dagger.components.ApplicationComponent;
 import com.cleanup.todoc.dagger.components.DaggerApplicationComponent;
+import com.cleanup.todoc.dagger.components.WorkspaceComponent;
+import com.cleanup.todoc.model.database.TodocDatabase;
+import com.cleanup.todoc.views.activities.MainActivity;
+
+import java.io.IOException;
 
 public class TodocApplication extends Application {
     // FIELDS --------------------------------------------------------------------------------------
 
+    private static final String PREFERENCES_NAME = "workspaces";
+    private static final String KEY_ACTIVE_WORKSPACE = "active_workspace";
+
+    private static final String TAG = TodocApplication.class.getSimpleName();
+
     @SuppressWarnings("NullableProblems")
     @NonNull
     private ApplicationComponent mComponent;
 
+    @SuppressWarnings("NullableProblems")
+    @NonNull
+    private volatile WorkspaceComponent mWorkspaceComponent;
+
+    @NonNull
+    private final MutableLiveData<Boolean> mRestoringBackup = new MutableLiveData<>();
+
+    /**
+     * Held by the jobs which work on the database file itself (backup, maintenance and restore)
+     */
+    @NonNull
+    private final Object mDatabaseFileLock = new Object();
+
     // METHODS -------------------------------------------------------------------------------------
 
     // -- APPLICATION --
@@ -25,6 +59,15 @@ public class TodocApplication extends Application {
         this.mComponent = DaggerApplicationComponent.builder()
                 .context(getApplicationContext())
                 .build();
+
+        this.startWorkspace(this.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE)
+                                .getString(KEY_ACTIVE_WORKSPACE, TodocDatabase.DEFAULT_WORKSPACE));
+
+        /* ANALYZE, incremental vacuum and quick check, while the device is idle and charging */
+        this.mWorkspaceComponent.getDatabaseMaintenanceScheduler().schedule();
+
+        /* Copy of the database file into a new version, at night */
+        this.mWorkspaceComponent.getDatabaseBackupScheduler().schedule();
     }
 
     // -- COMPONENT --
@@ -37,4 +80,148 @@ public class TodocApplication extends Application {
         return this.mComponent;
     }
 
+    /**
+     * Returns the {@link WorkspaceComponent} of the active workspace
+     * @return the {@link WorkspaceComponent}
+     */
+    @NonNull
+    public WorkspaceComponent getWorkspaceComponent() {
+        return this.mWorkspaceComponent;
+    }
+
+    /**
+     * Returns the lock of the jobs which work on the database file itself: the backup, the
+     * maintenance and the restore never run at the same time. Once the lock is held, the job reads
+     * the {@link WorkspaceComponent} again, since a restore may have built a new one meanwhile.
+     * @return an {@link Object}
+     */
+    @NonNull
+    public Object getDatabaseFileLock() {
+        return this.mDatabaseFileLock;
+    }
+
+    // -- WORKSPACE --
+
+    /**
+     * Returns true while a backup is restored: the activities block the user meanwhile
+     * @return a {@link LiveData} of {@link Boolean}
+     */
+    @NonNull
+    public LiveData<Boolean> isRestoringBackup() {
+        return this.mRestoringBackup;
+    }
+
+    /**
+     * Makes a workspace the active one, its database file is created on first use,
+     * then starts the activities again, with the view models of the new workspace
+     * @param workspace a {@link String} that contains the name of the workspace
+     */
+    @MainThread
+    public void switchWorkspace(@NonNull final String workspace) {
+        // Checks the name before it is saved
+        TodocDatabase.getDatabaseName(workspace);
+
+        this.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE)
+            .edit()
+            .putString(KEY_ACTIVE_WORKSPACE, workspace)
+            .apply();
+
+        this.startWorkspace(workspace);
+        this.restartActivities();
+    }
+
+    /**
+     * Restores a backup of the active workspace, then builds its {@link WorkspaceComponent} again
+     * and starts the activities again, without restarting the process.
+     * The restore runs on the executor of the writes: the writes queued before it are done first,
+     * and none runs on the database while it is closed and its file replaced. It waits for the end
+     * of a backup or of a maintenance, which hold the same lock, before it closes the database.
+     * @param version a {@link String} that contains the name of the version, see DatabaseBackup.getVersions
+     */
+    @MainThread
+    public void restoreBackup(@NonNull final String version) {
+        final WorkspaceComponent workspaceComponent = this.mWorkspaceComponent;
+
+        this.mRestoringBackup.setValue(true);
+
+        // No more chunk of backfill is queued behind the restore
+        workspaceComponent.getBackfillRunner().stop();
+
+        this.mComponent.getExecutor().execute(() -> {
+            boolean isRestored;
+
+            synchronized (this.mDatabaseFileLock) {
+                try {
+                    // The database of the workspace is closed, the new component opens the restored file
+                    workspaceComponent.getDatabaseBackup().restore(version);
+                    isRestored = true;
+                }
+                catch (IOException | SQLiteException e) {
+                    // The version is missing or corrupted, the database file is then unchanged
+                    Log.e(TAG, "restoreBackup: the restore has failed", e);
+                    isRestored = false;
+                }
+
+                // Built again even after a failure (the database may have been closed before it),
+                // before the lock is released: the jobs which wait for it read the new component
+                this.mWorkspaceComponent = this.mComponent.getWorkspaceComponentBuilder()
+                                                          .workspace(workspaceComponent.getWorkspace())
+                                                          .build();
+            }
+
+            final boolean isFailed = !isRestored;
+            new Handler(Looper.getMainLooper()).post(() -> {
+                this.startWorkspaceJobs();
+                this.restartActivities();
+
+                if (isFailed) {
+                    Toast.makeText(this, R.string.restore_backup_failed, Toast.LENGTH_LONG).show();
+                }
+
+                this.mRestoringBackup.setValue(false);
+            });
+        });
+    }
+
+    /**
+     * Builds the {@link WorkspaceComponent} of a workspace in place of the previous one,
+     * whose DAOs and repositories are released with it (its database stays open in the pool
+     * of {@link TodocDatabase} until it is the least recently used one)
+     * @param workspace a {@link String} that contains the name of the workspace
+     */
+    private void startWorkspace(@NonNull final String workspace) {
+        // The backfills of the previous workspace resume at its next activation
+        if (this.mWorkspaceComponent != null) {
+            this.mWorkspaceComponent.getBackfillRunner().stop();
+        }
+
+        this.mWorkspaceComponent = this.mComponent.getWorkspaceComponentBuilder()
+                                                  .workspace(workspace)
+                                                  .build();
+
+        this.startWorkspaceJobs();
+    }
+
+    /**
+     * Starts the background jobs of the {@link WorkspaceComponent} of the active workspace
+     */
+    private void startWorkspaceJobs() {
+        /* Fills the columns added by the last migrations, by chunks between the other writes */
+        this.mWorkspaceComponent.getBackfillRunner().start();
+
+        /* Moves the old tasks out of the task table, in background */
+        this.mWorkspaceComponent.getTaskArchiver().archiveOldTasks();
+
+        /* Removes for good the expired tasks of the trash, once the launch is over */
+        this.mWorkspaceComponent.getTaskPurger().purgeWhenIdle();
+    }
+
+    /**
+     * Finishes every activity and starts the main one in a new task: their view models,
+     * bound to the DAOs and the repositories of the previous component, are cleared with them
+     */
+    private void restartActivities() {
+        this.startActivity(new Intent(this, MainActivity.class).addFlags(Intent.FLAG_ACTIVITY_NEW_TASK |
+                                                                          Intent.FLAG_ACTIVITY_CLEAR_TASK));
+    }
 }
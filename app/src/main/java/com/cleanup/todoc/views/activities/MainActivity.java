@@ -1,33 +1,52 @@
 package com.cleanup.todoc.views.activities;
 
 import android.arch.lifecycle.ViewModelProviders;
+import android.arch.paging.PagedList;
 import android.content.DialogInterface;
+import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v7.app.AlertDialog;
 import android.support.v7.app.AppCompatActivity;
+import android.support.v7.view.ActionMode;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.SearchView;
+import android.support.v7.widget.helper.ItemTouchHelper;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.ProgressBar;
 import android.widget.Spinner;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import com.cleanup.todoc.R;
+import com.cleanup.todoc.dagger.components.WorkspaceComponent;
+import com.cleanup.todoc.model.database.TodocDatabase;
 import com.cleanup.todoc.model.pojos.Project;
+import com.cleanup.todoc.model.pojos.ProjectDeletionProgress;
+import com.cleanup.todoc.model.pojos.ProjectWithCount;
 import com.cleanup.todoc.model.pojos.Task;
+import com.cleanup.todoc.model.pojos.TaskSummary;
+import com.cleanup.todoc.model.pojos.TaskTimeline;
+import com.cleanup.todoc.model.pojos.TaskWithProject;
 import com.cleanup.todoc.viewModels.TaskViewModel;
+import com.cleanup.todoc.viewModels.TaskViewModel.SortMethod;
 import com.cleanup.todoc.viewModels.ViewModelFactory;
 import com.cleanup.todoc.views.TodocApplication;
+import com.cleanup.todoc.views.recyclerViews.DayHeaderDecoration;
+import com.cleanup.todoc.views.recyclerViews.TaskMoveCallback;
 import com.cleanup.todoc.views.recyclerViews.TasksAdapter;
 import com.facebook.stetho.Stetho;
 
-import java.util.Collections;
+import java.text.DateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -36,9 +55,14 @@ import java.util.List;
  * Name of the project: todoc-master
  * Name of the package: com.cleanup.todoc.views.activities
  *
- * A {@link AppCompatActivity} subclass which implements {@link TasksAdapter.DeleteTaskListener}.
+ * A {@link AppCompatActivity} subclass which implements {@link TasksAdapter.DeleteTaskListener},
+ * {@link TasksAdapter.CompleteTaskListener}, {@link TasksAdapter.SelectTaskListener}
+ * and {@link TasksAdapter.MoveTaskListener}.
  */
-public class MainActivity extends AppCompatActivity implements TasksAdapter.DeleteTaskListener {
+public class MainActivity extends AppCompatActivity implements TasksAdapter.DeleteTaskListener,
+                                                               TasksAdapter.CompleteTaskListener,
+                                                               TasksAdapter.SelectTaskListener,
+                                                               TasksAdapter.MoveTaskListener {
 
     // FIELDS --------------------------------------------------------------------------------------
 
@@ -50,6 +74,9 @@ public class MainActivity extends AppCompatActivity implements TasksAdapter.Dele
     @SuppressWarnings("NullableProblems")
     @NonNull
     private TextView mNoDataTextView;
+    @SuppressWarnings("NullableProblems")
+    @NonNull
+    private TextView mProjectCountsTextView;
 
     // -- DIALOG --
 
@@ -59,16 +86,65 @@ public class MainActivity extends AppCompatActivity implements TasksAdapter.Dele
     private EditText mDialogEditText = null;
     @Nullable
     private Spinner mDialogSpinner = null;
+    @Nullable
+    private AlertDialog mRestoreDialog = null;
+    @Nullable
+    private AlertDialog mProjectDeletionDialog = null;
 
-    // -- SORT --
+    // -- SEARCH --
+
+    /**
+     * Delay without typing before the search is sent to SQLite
+     */
+    private static final long SEARCH_DEBOUNCE_MILLIS = 300L;
 
-    private enum SortMethod {ALPHABETICAL,
-        ALPHABETICAL_INVERTED,
-        RECENT_FIRST,
-        OLD_FIRST,
-        NONE}
     @NonNull
-    private SortMethod mSortMethod = SortMethod.NONE;
+    private final Handler mSearchHandler = new Handler();
+    @NonNull
+    private String mPendingSearchQuery = "";
+    @NonNull
+    private final Runnable mSearchRunnable = () -> this.mViewModel.setSearchQuery(this.mPendingSearchQuery);
+
+    // -- SELECTION --
+
+    @Nullable
+    private ActionMode mActionMode = null;
+
+    /**
+     * Contextual action bar of the selected tasks
+     */
+    private final ActionMode.Callback mActionModeCallback = new ActionMode.Callback() {
+        @Override
+        public boolean onCreateActionMode(ActionMode mode, Menu menu) {
+            mode.getMenuInflater().inflate(R.menu.selection, menu);
+            return true;
+        }
+
+        @Override
+        public boolean onPrepareActionMode(ActionMode mode, Menu menu) {
+            return false;
+        }
+
+        @Override
+        public boolean onActionItemClicked(ActionMode mode, MenuItem item) {
+            if (item.getItemId() == R.id.action_delete_selection) {
+                deleteSelectedTasks();
+                mode.finish();
+                return true;
+            }
+            if (item.getItemId() == R.id.action_move_selection) {
+                showMoveTasksDialog();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void onDestroyActionMode(ActionMode mode) {
+            mActionMode = null;
+            mAdapter.clearSelection();
+        }
+    };
 
     // -- RECYCLER VIEW --
 
@@ -78,6 +154,17 @@ public class MainActivity extends AppCompatActivity implements TasksAdapter.Dele
     @SuppressWarnings("NullableProblems")
     @NonNull
     private TasksAdapter mAdapter;
+    @SuppressWarnings("NullableProblems")
+    @NonNull
+    private DayHeaderDecoration mDayHeaderDecoration;
+    @SuppressWarnings("NullableProblems")
+    @NonNull
+    private ItemTouchHelper mItemTouchHelper;
+
+    // -- SPINNER --
+
+    @NonNull
+    private List<ProjectWithCount> mProjects = new ArrayList<>();
 
     // METHODS -------------------------------------------------------------------------------------
 
@@ -95,45 +182,126 @@ public class MainActivity extends AppCompatActivity implements TasksAdapter.Dele
         this.configureViewModel();
         this.configureObserverOfProjects();
         this.configureObserverOfTasks();
+        this.configureObserverOfProjectDeletion();
+        this.configureObserverOfRestore();
     }
 
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.actions, menu);
+
+        this.configureSearchView((SearchView) menu.findItem(R.id.action_search).getActionView());
+
+        // After a configuration change, the ViewModel may still show the done tasks
+        menu.findItem(R.id.action_completed).setChecked(this.mViewModel.isShowCompleted());
+        this.mNoDataTextView.setText(this.mViewModel.isShowCompleted() ? R.string.no_completed_task : R.string.no_task);
+
         return true;
     }
 
+    @Override
+    protected void onDestroy() {
+        this.mSearchHandler.removeCallbacks(this.mSearchRunnable);
+
+        // Shown again by the next activity while the deletion or the restore runs
+        if (this.mProjectDeletionDialog != null) {
+            this.mProjectDeletionDialog.dismiss();
+            this.mProjectDeletionDialog = null;
+        }
+        if (this.mRestoreDialog != null) {
+            this.mRestoreDialog.dismiss();
+            this.mRestoreDialog = null;
+        }
+
+        super.onDestroy();
+    }
+
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         switch (item.getItemId()) {
             case R.id.filter_alphabetical:
-                this.mSortMethod = SortMethod.ALPHABETICAL;
+                this.mViewModel.setSortMethod(SortMethod.ALPHABETICAL);
                 break;
             case R.id.filter_alphabetical_inverted:
-                this.mSortMethod = SortMethod.ALPHABETICAL_INVERTED;
+                this.mViewModel.setSortMethod(SortMethod.ALPHABETICAL_INVERTED);
                 break;
             case R.id.filter_recent_first:
-                this.mSortMethod = SortMethod.RECENT_FIRST;
+                this.mViewModel.setSortMethod(SortMethod.RECENT_FIRST);
                 break;
             case R.id.filter_oldest_first:
-                this.mSortMethod = SortMethod.OLD_FIRST;
+                this.mViewModel.setSortMethod(SortMethod.OLD_FIRST);
+                break;
+            case R.id.filter_manual:
+                this.mViewModel.setSortMethod(SortMethod.MANUAL);
+                break;
+            case R.id.action_completed:
+                item.setChecked(!item.isChecked());
+                this.mViewModel.setShowCompleted(item.isChecked());
+                this.mNoDataTextView.setText(item.isChecked() ? R.string.no_completed_task : R.string.no_task);
+                break;
+            case R.id.action_trash:
+                startActivity(new Intent(this, TrashActivity.class));
+                break;
+            case R.id.action_delete_project:
+                this.showDeleteProjectDialog();
+                break;
+            case R.id.action_switch_workspace:
+                this.showSwitchWorkspaceDialog();
+                break;
+            case R.id.action_restore_backup:
+                this.showRestoreBackupDialog();
                 break;
         }
 
-        // SORT
-        final List<Task> newTasks = this.sortTasks(this.mAdapter.getCurrentTasks());
-        this.mAdapter.updateTasks(newTasks);
-
         return super.onOptionsItemSelected(item);
     }
 
     // -- DELETE LISTENER INTERFACE OF TASKS ADAPTER --
 
     @Override
-    public void onDeleteTask(final Task task) {
+    public void onDeleteTask(final TaskSummary task) {
         this.deleteTask(task);
     }
 
+    // -- COMPLETE LISTENER INTERFACE OF TASKS ADAPTER --
+
+    @Override
+    public void onCompleteTask(final TaskSummary task, final boolean completed) {
+        this.mViewModel.setTaskCompleted(task.getId(), completed);
+    }
+
+    // -- SELECT LISTENER INTERFACE OF TASKS ADAPTER --
+
+    @Override
+    public void onSelectionChanged(final int selectedTaskCount) {
+        if (selectedTaskCount == 0) {
+            if (this.mActionMode != null) {
+                this.mActionMode.finish();
+            }
+            return;
+        }
+
+        if (this.mActionMode == null) {
+            this.mActionMode = startSupportActionMode(this.mActionModeCallback);
+        }
+
+        if (this.mActionMode != null) {
+            this.mActionMode.setTitle(getString(R.string.selected_tasks, selectedTaskCount));
+        }
+    }
+
+    // -- MOVE LISTENER INTERFACE OF TASKS ADAPTER --
+
+    @Override
+    public void onStartDrag(final RecyclerView.ViewHolder viewHolder) {
+        this.mItemTouchHelper.startDrag(viewHolder);
+    }
+
+    @Override
+    public void onMoveTask(final TaskSummary task, final long previousTaskId, final long nextTaskId) {
+        this.mViewModel.moveTask(task.getId(), previousTaskId, nextTaskId);
+    }
+
     // -- UI --
 
     /**
@@ -141,20 +309,50 @@ public class MainActivity extends AppCompatActivity implements TasksAdapter.Dele
      */
     private void configureDesign() {
         // ADAPTER
-        this.mAdapter = new TasksAdapter(this);
+        this.mAdapter = new TasksAdapter(this, this, this, this);
 
         // RECYCLER VIEW
         this.mRecyclerView = findViewById(R.id.list_tasks);
         this.mRecyclerView.setAdapter(this.mAdapter);
         this.mRecyclerView.setLayoutManager(new LinearLayoutManager(this, LinearLayoutManager.VERTICAL, false));
 
+        // HEADERS OF THE DAYS (drawn over the paged rows, which stay the only items of the adapter)
+        this.mDayHeaderDecoration = new DayHeaderDecoration(this);
+        this.mRecyclerView.addItemDecoration(this.mDayHeaderDecoration);
+
+        // DRAG IN THE MANUAL ORDER (from the handles, shown by the adapter in this order only)
+        this.mItemTouchHelper = new ItemTouchHelper(new TaskMoveCallback(this.mAdapter));
+        this.mItemTouchHelper.attachToRecyclerView(this.mRecyclerView);
+
         // TEXT VIEW
         this.mNoDataTextView = findViewById(R.id.lbl_no_task);
+        this.mProjectCountsTextView = findViewById(R.id.lbl_project_counts);
 
         // FLOATING ACTION BUTTON
         findViewById(R.id.fab_add_task).setOnClickListener((view) -> this.showAddTaskDialog());
     }
 
+    /**
+     * Configures the {@link SearchView}: the query is debounced so that SQLite
+     * only runs the search when the user pauses typing
+     * @param searchView a {@link SearchView}
+     */
+    private void configureSearchView(@NonNull final SearchView searchView) {
+        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                searchTasks(query, 0L);
+                return true;
+            }
+
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                searchTasks(newText, SEARCH_DEBOUNCE_MILLIS);
+                return true;
+            }
+        });
+    }
+
     // -- VIEW MODEL --
 
     /**
@@ -162,11 +360,12 @@ public class MainActivity extends AppCompatActivity implements TasksAdapter.Dele
      */
     private void configureViewModel() {
         // VIEW MODEL FACTORY
-        ViewModelFactory viewModelFactory = ((TodocApplication) getApplication ()).getApplicationComponent().getViewModelFactory();
+        final WorkspaceComponent workspaceComponent = ((TodocApplication) getApplication()).getWorkspaceComponent();
+        ViewModelFactory viewModelFactory = workspaceComponent.getViewModelFactory();
 
-        // VIEW MODEL
+        // VIEW MODEL (by workspace: a view model outlives the recreation of the activity)
         this.mViewModel = ViewModelProviders.of(this, viewModelFactory)
-                .get(TaskViewModel.class);
+                .get(workspaceComponent.getWorkspace() + ":" + TaskViewModel.class.getName(), TaskViewModel.class);
 
         this.mViewModel.init();
     }
@@ -176,13 +375,29 @@ public class MainActivity extends AppCompatActivity implements TasksAdapter.Dele
      */
     private void configureObserverOfTasks() {
         this.mViewModel.getTasks().observe(this, this::updateTasks);
+        this.mViewModel.getTimeline().observe(this, this::updateTimeline);
     }
 
     /**
-     * Configures the observer of change of {@link Project}
+     * Configures the observer of change of {@link ProjectWithCount}
      */
     private void configureObserverOfProjects() {
-        this.mViewModel.getProjects().observe(this, this::updateProjects);
+        this.mViewModel.getProjectsWithCount().observe(this, this::updateProjects);
+    }
+
+    /**
+     * Configures the observer of the deletion of a project, in flight in the ViewModel
+     * (again after the recreation of the activity)
+     */
+    private void configureObserverOfProjectDeletion() {
+        this.mViewModel.getProjectDeletion().observe(this, this::updateProjectDeletion);
+    }
+
+    /**
+     * Configures the observer of the restore of a backup, which blocks the user until the activities start again
+     */
+    private void configureObserverOfRestore() {
+        ((TodocApplication) getApplication()).isRestoringBackup().observe(this, this::updateRestoreDialog);
     }
 
     // -- TASKS --
@@ -196,36 +411,89 @@ public class MainActivity extends AppCompatActivity implements TasksAdapter.Dele
     }
 
     /**
-     * Updates the {@link List<Task>}
-     * @param newTasks a {@link List<Task>}
+     * Updates the {@link TaskTimeline} of the headers of the days
+     * @param timeline a {@link TaskTimeline}
+     */
+    private void updateTimeline(@NonNull final TaskTimeline timeline) {
+        this.mDayHeaderDecoration.setTimeline(timeline);
+        this.mRecyclerView.invalidateItemDecorations();
+    }
+
+    /**
+     * Updates the {@link PagedList<TaskWithProject>}
+     * @param newTasks a {@link PagedList<TaskWithProject>}
      */
-    private void updateTasks(@NonNull final List<Task> newTasks) {
+    private void updateTasks(@NonNull final PagedList<TaskWithProject> newTasks) {
         // TEXT VIEW
         this.mNoDataTextView.setVisibility((newTasks.size() == 0) ? View.VISIBLE : View.GONE);
 
         // RECYCLER VIEW
         this.mRecyclerView.setVisibility((newTasks.size() == 0) ? View.GONE : View.VISIBLE);
 
-        // SORT AND DISPLAY
-        this.mAdapter.updateTasks(this.sortTasks(newTasks));
+        // DISPLAY (already sorted by SQLite)
+        this.mAdapter.setDragEnabled(this.mViewModel.isManualOrder());
+        this.mAdapter.submitList(newTasks);
     }
 
     /**
-     * Deletes a {@link Task}
-     * @param task a {@link Task}
+     * Deletes a {@link TaskSummary}
+     * @param task a {@link TaskSummary}
      */
-    private void deleteTask(@NonNull final Task task) {
+    private void deleteTask(@NonNull final TaskSummary task) {
         this.mViewModel.deleteTaskById(task.getId());
     }
 
+    /**
+     * Searches the {@link Task}s after the delay, unless another search is requested before
+     * @param query       a {@link String} that contains the user input
+     * @param delayMillis an integer that contains the delay in milliseconds
+     */
+    private void searchTasks(@Nullable final String query, final long delayMillis) {
+        this.mPendingSearchQuery = (query != null) ? query : "";
+
+        this.mSearchHandler.removeCallbacks(this.mSearchRunnable);
+        this.mSearchHandler.postDelayed(this.mSearchRunnable, delayMillis);
+    }
+
+    /**
+     * Deletes the selected {@link Task}s in a single statement by chunk and a single transaction
+     */
+    private void deleteSelectedTasks() {
+        this.mViewModel.deleteTasksByIds(this.mAdapter.getSelectedTaskIds());
+    }
+
+    /**
+     * Moves the selected {@link Task}s to a project in a single statement by chunk and a single transaction
+     * @param project a {@link Project}
+     */
+    private void moveSelectedTasks(@NonNull final Project project) {
+        this.mViewModel.reassignTasks(this.mAdapter.getSelectedTaskIds(), project.getId());
+    }
+
     // -- PROJECTS --
 
     /**
-     * Updates the {@link List<Project>}
-     * @param newProjects a {@link List<Project>}
+     * Updates the {@link List<ProjectWithCount>}
+     * @param newProjects a {@link List<ProjectWithCount>}
      */
-    private void updateProjects(@NonNull final List<Project> newProjects) {
-        this.mAdapter.updateProjects(newProjects);
+    private void updateProjects(@NonNull final List<ProjectWithCount> newProjects) {
+        // SPINNER (the rows of the list come with their project)
+        this.mProjects = newProjects;
+
+        // HEADER (counts already computed by SQLite)
+        final StringBuilder builder = new StringBuilder();
+
+        for (ProjectWithCount projectWithCount : newProjects) {
+            if (builder.length() != 0) {
+                builder.append("  ·  ");
+            }
+            builder.append(getString(R.string.project_task_count,
+                                     projectWithCount.getProject().getName(),
+                                     projectWithCount.getTaskCount()));
+        }
+
+        this.mProjectCountsTextView.setText(builder);
+        this.mProjectCountsTextView.setVisibility(newProjects.isEmpty() ? View.GONE : View.VISIBLE);
     }
 
     // -- ACTIONS --
@@ -244,6 +512,226 @@ public class MainActivity extends AppCompatActivity implements TasksAdapter.Dele
         this.populateDialogSpinner();
     }
 
+    /**
+     * Shows the Dialog for choosing the project of the selected tasks,
+     * the selection mode ends once they are moved
+     */
+    private void showMoveTasksDialog() {
+        final List<ProjectWithCount> projects = this.mProjects;
+        final String[] projectNames = new String[projects.size()];
+
+        for (int i = 0; i < projects.size(); i++) {
+            projectNames[i] = projects.get(i).getProject().getName();
+        }
+
+        new AlertDialog.Builder(this, R.style.Dialog)
+                .setTitle(R.string.move_tasks)
+                .setItems(projectNames, (dialogInterface, which) -> {
+                    this.moveSelectedTasks(projects.get(which).getProject());
+
+                    if (this.mActionMode != null) {
+                        this.mActionMode.finish();
+                    }
+                })
+                .show();
+    }
+
+    /**
+     * Shows the Dialog for choosing the project to delete with its tasks
+     */
+    private void showDeleteProjectDialog() {
+        final List<ProjectWithCount> projects = this.mProjects;
+        final String[] projectNames = new String[projects.size()];
+
+        for (int i = 0; i < projects.size(); i++) {
+            projectNames[i] = projects.get(i).getProject().getName();
+        }
+
+        new AlertDialog.Builder(this, R.style.Dialog)
+                .setTitle(R.string.delete_project)
+                .setItems(projectNames, (dialogInterface, which) -> this.deleteProject(projects.get(which).getProject()))
+                .show();
+    }
+
+    /**
+     * Deletes a {@link Project} and its tasks by chunks, the progress is shown
+     * by {@link #updateProjectDeletion(ProjectDeletionProgress)}
+     * @param project a {@link Project}
+     */
+    private void deleteProject(@NonNull final Project project) {
+        this.mViewModel.deleteProject(project.getId());
+    }
+
+    /**
+     * Shows the Dialog of the progress of the deletion of a project,
+     * which is dismissed once the project is deleted or the deletion has failed
+     * @param progress a {@link ProjectDeletionProgress}, null when no deletion is in flight
+     */
+    private void updateProjectDeletion(@Nullable final ProjectDeletionProgress progress) {
+        if (progress == null || progress.isCompleted() || progress.isFailed()) {
+            if (this.mProjectDeletionDialog != null) {
+                this.mProjectDeletionDialog.dismiss();
+                this.mProjectDeletionDialog = null;
+            }
+
+            if (progress != null) {
+                if (progress.isFailed()) {
+                    Toast.makeText(this, R.string.delete_project_failed, Toast.LENGTH_LONG).show();
+                }
+
+                // Shown once
+                this.mViewModel.clearProjectDeletion();
+            }
+            return;
+        }
+
+        if (this.mProjectDeletionDialog == null) {
+            this.mProjectDeletionDialog = new AlertDialog.Builder(this, R.style.Dialog)
+                    .setTitle(getString(R.string.deleting_project, this.getProjectName(progress.getProjectId())))
+                    .setView(R.layout.dialog_delete_project)
+                    .setCancelable(false)
+                    .show();
+        }
+
+        final ProgressBar progressBar = this.mProjectDeletionDialog.findViewById(R.id.progress_delete_project);
+        final TextView countTextView = this.mProjectDeletionDialog.findViewById(R.id.txt_delete_project_count);
+
+        if (progressBar != null) {
+            progressBar.setIndeterminate(false);
+            progressBar.setMax(Math.max(1, progress.getTaskCount()));
+            progressBar.setProgress(progress.getDeletedTaskCount());
+        }
+        if (countTextView != null) {
+            countTextView.setText(getString(R.string.deleted_task_count,
+                                            progress.getDeletedTaskCount(),
+                                            progress.getTaskCount()));
+        }
+    }
+
+    /**
+     * Returns the name of a project, empty if it is not in the list of the projects
+     * @param projectId an integer that contains the id value of the project
+     * @return a {@link String} that contains the name of the project
+     */
+    @NonNull
+    private String getProjectName(final long projectId) {
+        for (ProjectWithCount projectWithCount : this.mProjects) {
+            if (projectWithCount.getProject().getId() == projectId) {
+                return projectWithCount.getProject().getName();
+            }
+        }
+
+        return "";
+    }
+
+    /**
+     * Shows the Dialog for choosing the workspace to open, the activities start again in it
+     */
+    private void showSwitchWorkspaceDialog() {
+        final TodocApplication application = (TodocApplication) getApplication();
+
+        final AlertDialog dialog = new AlertDialog.Builder(this, R.style.Dialog)
+                .setTitle(R.string.switch_workspace)
+                .setView(R.layout.dialog_workspace)
+                .setPositiveButton(R.string.open, null)
+                .create();
+
+        // This instead of listener to positive button in order to avoid automatic dismiss
+        dialog.setOnShowListener((dialogInterface) -> {
+            final EditText editText = dialog.findViewById(R.id.txt_workspace_name);
+            if (editText == null) {
+                return;
+            }
+
+            editText.setText(application.getWorkspaceComponent().getWorkspace());
+
+            dialog.getButton(AlertDialog.BUTTON_POSITIVE).setOnClickListener((view) -> {
+                final String workspace = editText.getText().toString().trim();
+
+                try {
+                    TodocDatabase.getDatabaseName(workspace);
+                }
+                catch (IllegalArgumentException e) {
+                    editText.setError(getString(R.string.invalid_workspace_name));
+                    return;
+                }
+
+                dialog.dismiss();
+
+                if (!workspace.equals(application.getWorkspaceComponent().getWorkspace())) {
+                    application.switchWorkspace(workspace);
+                }
+            });
+        });
+
+        dialog.show();
+    }
+
+    /**
+     * Shows the Dialog for choosing the backup of the workspace to restore, the most recent first
+     */
+    private void showRestoreBackupDialog() {
+        final List<String> versions = ((TodocApplication) getApplication()).getWorkspaceComponent()
+                                                                            .getDatabaseBackup()
+                                                                            .getVersions();
+
+        if (versions.isEmpty()) {
+            new AlertDialog.Builder(this, R.style.Dialog)
+                    .setTitle(R.string.restore_backup)
+                    .setMessage(R.string.no_backup)
+                    .show();
+            return;
+        }
+
+        // The name of a version is the timestamp of its backup
+        final DateFormat dateFormat = DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.SHORT);
+        final String[] dates = new String[versions.size()];
+
+        for (int i = 0; i < versions.size(); i++) {
+            dates[i] = dateFormat.format(new Date(Long.parseLong(versions.get(i))));
+        }
+
+        new AlertDialog.Builder(this, R.style.Dialog)
+                .setTitle(R.string.restore_backup)
+                .setItems(dates, (dialogInterface, which) -> this.confirmRestoreBackup(versions.get(which), dates[which]))
+                .show();
+    }
+
+    /**
+     * Shows the Dialog for confirming the restore of a backup, the changes made since are lost
+     * @param version a {@link String} that contains the name of the version
+     * @param date    a {@link String} that contains the date of the version
+     */
+    private void confirmRestoreBackup(@NonNull final String version, @NonNull final String date) {
+        new AlertDialog.Builder(this, R.style.Dialog)
+                .setTitle(R.string.restore_backup)
+                .setMessage(getString(R.string.restore_backup_message, date))
+                .setPositiveButton(R.string.label_action_restore,
+                                   (dialogInterface, which) -> ((TodocApplication) getApplication()).restoreBackup(version))
+                .setNegativeButton(android.R.string.cancel, null)
+                .show();
+    }
+
+    /**
+     * Shows the Dialog of the restore of a backup while it runs, dismisses it otherwise
+     * @param isRestoring a {@link Boolean} that contains true while the restore runs
+     */
+    private void updateRestoreDialog(@Nullable final Boolean isRestoring) {
+        if (Boolean.TRUE.equals(isRestoring)) {
+            if (this.mRestoreDialog == null) {
+                this.mRestoreDialog = new AlertDialog.Builder(this, R.style.Dialog)
+                        .setTitle(R.string.restoring_backup)
+                        .setView(new ProgressBar(this))
+                        .setCancelable(false)
+                        .show();
+            }
+        }
+        else if (this.mRestoreDialog != null) {
+            this.mRestoreDialog.dismiss();
+            this.mRestoreDialog = null;
+        }
+    }
+
     // -- DIALOG --
 
     /**
@@ -284,8 +772,8 @@ public class MainActivity extends AppCompatActivity implements TasksAdapter.Dele
 
             // Get the selected project to be associated to the task
             Project taskProject = null;
-            if (this.mDialogSpinner.getSelectedItem() instanceof Project) {
-                taskProject = (Project) this.mDialogSpinner.getSelectedItem();
+            if (this.mDialogSpinner.getSelectedItem() instanceof ProjectWithCount) {
+                taskProject = ((ProjectWithCount) this.mDialogSpinner.getSelectedItem()).getProject();
             }
 
             // If a name has not been set
@@ -319,45 +807,15 @@ public class MainActivity extends AppCompatActivity implements TasksAdapter.Dele
      * Sets the data of the Spinner with projects to associate to a new task
      */
     private void populateDialogSpinner() {
-        final List<Project> currentProjects = this.mAdapter.getCurrentProjects();
-
-        final ArrayAdapter<Project> adapter = new ArrayAdapter<>(this,
+        final ArrayAdapter<ProjectWithCount> adapter = new ArrayAdapter<>(this,
                 android.R.layout.simple_spinner_item,
-                currentProjects);
+                this.mProjects);
         adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
 
         if (this.mDialogSpinner != null) {
             this.mDialogSpinner.setAdapter(adapter);
         }
     }
-
-    // -- SORT --
-
-    /**
-     * Sorts the {@link List<Task>} in argument and returns it
-     * @param tasks a {@link List<Task>}
-     * @return the {@link List<Task>} but sorted
-     */
-    @NonNull
-    private List<Task> sortTasks(@NonNull final List<Task> tasks) {
-        if (tasks.size()!= 0) {
-            switch (this.mSortMethod) {
-                case ALPHABETICAL:
-                    Collections.sort(tasks, new Task.TaskAZComparator());
-                    break;
-                case ALPHABETICAL_INVERTED:
-                    Collections.sort(tasks, new Task.TaskZAComparator());
-                    break;
-                case RECENT_FIRST:
-                    Collections.sort(tasks, new Task.TaskRecentComparator());
-                    break;
-                case OLD_FIRST:
-                    Collections.sort(tasks, new Task.TaskOldComparator());
-                    break;
-            }
-        }
-        return tasks;
-    }
 }
 
 //    /**
@@ -0,0 +1,128 @@
+package com.cleanup.todoc.views.activities;
+
+import android.arch.lifecycle.ViewModelProviders;
+import android.arch.paging.PagedList;
+import android.os.Bundle;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.app.AppCompatActivity;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.widget.TextView;
+
+import com.cleanup.todoc.R;
+import com.cleanup.todoc.dagger.components.WorkspaceComponent;
+import com.cleanup.todoc.model.pojos.TaskSummary;
+import com.cleanup.todoc.model.pojos.TaskWithProject;
+import com.cleanup.todoc.viewModels.TrashViewModel;
+import com.cleanup.todoc.viewModels.ViewModelFactory;
+import com.cleanup.todoc.views.TodocApplication;
+import com.cleanup.todoc.views.recyclerViews.TrashAdapter;
+
+/**
+ * <p>Displays the tasks of the trash, which can be restored until they are purged.</p>
+ */
+public class TrashActivity extends AppCompatActivity implements TrashAdapter.RestoreTaskListener {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    // -- XML --
+
+    @SuppressWarnings("NullableProblems")
+    @NonNull
+    private RecyclerView mRecyclerView;
+    @SuppressWarnings("NullableProblems")
+    @NonNull
+    private TextView mEmptyTrashTextView;
+
+    // -- RECYCLER VIEW --
+
+    @SuppressWarnings("NullableProblems")
+    @NonNull
+    private TrashViewModel mViewModel;
+    @SuppressWarnings("NullableProblems")
+    @NonNull
+    private TrashAdapter mAdapter;
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- ACTIVITY --
+
+    @Override
+    public void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_trash);
+
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+        }
+
+        this.configureDesign();
+        this.configureViewModel();
+        this.configureObserverOfDeletedTasks();
+    }
+
+    // -- RESTORE LISTENER INTERFACE OF TRASH ADAPTER --
+
+    @Override
+    public void onRestoreTask(final TaskSummary task) {
+        this.mViewModel.restoreTaskById(task.getId());
+    }
+
+    // -- CONFIGURATION --
+
+    /**
+     * Configures the design of the activity
+     */
+    private void configureDesign() {
+        // ADAPTER
+        this.mAdapter = new TrashAdapter(this);
+
+        // RECYCLER VIEW
+        this.mRecyclerView = findViewById(R.id.list_deleted_tasks);
+        this.mRecyclerView.setAdapter(this.mAdapter);
+        this.mRecyclerView.setLayoutManager(new LinearLayoutManager(this, LinearLayoutManager.VERTICAL, false));
+
+        // TEXT VIEW
+        this.mEmptyTrashTextView = findViewById(R.id.lbl_empty_trash);
+    }
+
+    /**
+     * Configures the {@link TrashViewModel}
+     */
+    private void configureViewModel() {
+        // VIEW MODEL FACTORY
+        final WorkspaceComponent workspaceComponent = ((TodocApplication) getApplication()).getWorkspaceComponent();
+        ViewModelFactory viewModelFactory = workspaceComponent.getViewModelFactory();
+
+        // VIEW MODEL (by workspace: a view model outlives the recreation of the activity)
+        this.mViewModel = ViewModelProviders.of(this, viewModelFactory)
+                .get(workspaceComponent.getWorkspace() + ":" + TrashViewModel.class.getName(), TrashViewModel.class);
+
+        this.mViewModel.init();
+    }
+
+    /**
+     * Configures the observer of change of the deleted {@link TaskSummary}s
+     */
+    private void configureObserverOfDeletedTasks() {
+        this.mViewModel.getDeletedTasks().observe(this, this::updateDeletedTasks);
+    }
+
+    // -- TASKS --
+
+    /**
+     * Updates the {@link PagedList<TaskWithProject>} of the trash
+     * @param newTasks a {@link PagedList<TaskWithProject>}
+     */
+    private void updateDeletedTasks(@NonNull final PagedList<TaskWithProject> newTasks) {
+        // TEXT VIEW
+        this.mEmptyTrashTextView.setVisibility((newTasks.size() == 0) ? View.VISIBLE : View.GONE);
+
+        // RECYCLER VIEW
+        this.mRecyclerView.setVisibility((newTasks.size() == 0) ? View.GONE : View.VISIBLE);
+
+        this.mAdapter.submitList(newTasks);
+    }
+}
@@ -0,0 +1,185 @@
+package com.cleanup.todoc.views.recyclerViews;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.support.annotation.NonNull;
+import android.support.v4.content.ContextCompat;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+import com.cleanup.todoc.R;
+import com.cleanup.todoc.model.pojos.Task;
+import com.cleanup.todoc.model.pojos.TaskTimeline;
+
+import java.text.DateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>{@link RecyclerView.ItemDecoration} which draws the headers of the days of a {@link TaskTimeline}:
+ * a header above the first row of each day, and the header of the first visible row pinned
+ * at the top of the list, pushed up by the next one.</p>
+ *
+ * The labels are formatted once by timeline, so drawing a frame allocates nothing.
+ */
+public class DayHeaderDecoration extends RecyclerView.ItemDecoration {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    @NonNull
+    private final Paint mBackgroundPaint = new Paint();
+    @NonNull
+    private final Paint mTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private final int mHeaderHeight;
+    private final int mTextPadding;
+    private final float mTextBaseline;
+
+    @NonNull
+    private final String mTodayLabel;
+    @NonNull
+    private final String mYesterdayLabel;
+    @NonNull
+    private final DateFormat mDateFormat;
+
+    @NonNull
+    private TaskTimeline mTimeline = TaskTimeline.EMPTY;
+    @NonNull
+    private String[] mLabels = new String[0];
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     * @param context a {@link Context}
+     */
+    public DayHeaderDecoration(@NonNull final Context context) {
+        final Resources resources = context.getResources();
+
+        this.mHeaderHeight = resources.getDimensionPixelSize(R.dimen.day_header_height);
+        this.mTextPadding = resources.getDimensionPixelSize(R.dimen.day_header_padding);
+
+        this.mBackgroundPaint.setColor(ContextCompat.getColor(context, R.color.day_header_background));
+        this.mTextPaint.setColor(ContextCompat.getColor(context, R.color.day_header_text));
+        this.mTextPaint.setTextSize(resources.getDimension(R.dimen.day_header_text_size));
+
+        // Vertically centered text
+        final Paint.FontMetrics fontMetrics = this.mTextPaint.getFontMetrics();
+        this.mTextBaseline = (this.mHeaderHeight - fontMetrics.ascent - fontMetrics.descent) / 2f;
+
+        this.mTodayLabel = context.getString(R.string.day_header_today);
+        this.mYesterdayLabel = context.getString(R.string.day_header_yesterday);
+
+        // The days are counted from the epoch in local time, so their midnight is formatted in UTC
+        this.mDateFormat = DateFormat.getDateInstance(DateFormat.FULL);
+        this.mDateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- TIMELINE --
+
+    /**
+     * Sets the {@link TaskTimeline} of the list and formats the label of each of its days
+     * (call RecyclerView.invalidateItemDecorations() next)
+     * @param timeline a {@link TaskTimeline}
+     */
+    public void setTimeline(@NonNull final TaskTimeline timeline) {
+        final int today = Task.getDayOf(System.currentTimeMillis());
+        final String[] labels = new String[timeline.getSectionCount()];
+
+        for (int section = 0; section < labels.length; section++) {
+            final int day = timeline.getDay(section);
+
+            if (day == today) {
+                labels[section] = this.mTodayLabel;
+            }
+            else if (day == today - 1) {
+                labels[section] = this.mYesterdayLabel;
+            }
+            else {
+                labels[section] = this.mDateFormat.format(new Date(day * DAY_MILLIS));
+            }
+        }
+
+        this.mTimeline = timeline;
+        this.mLabels = labels;
+    }
+
+    // -- ITEM DECORATION --
+
+    @Override
+    public void getItemOffsets(@NonNull Rect outRect,
+                               @NonNull View view,
+                               @NonNull RecyclerView parent,
+                               @NonNull RecyclerView.State state) {
+        // Room for the header above the first row of each day
+        if (this.mTimeline.isSectionStart(parent.getChildAdapterPosition(view))) {
+            outRect.set(0, this.mHeaderHeight, 0, 0);
+        }
+        else {
+            outRect.setEmpty();
+        }
+    }
+
+    @Override
+    public void onDrawOver(@NonNull Canvas canvas,
+                           @NonNull RecyclerView parent,
+                           @NonNull RecyclerView.State state) {
+        final int childCount = parent.getChildCount();
+
+        if (this.mTimeline.getSectionCount() == 0 || childCount == 0) {
+            return;
+        }
+
+        final int pinnedSection = this.mTimeline.getSectionOf(parent.getChildAdapterPosition(parent.getChildAt(0)));
+        int pinnedTop = 0;
+
+        // HEADERS OF THE DAYS WHICH START ON SCREEN
+        for (int i = 0; i < childCount; i++) {
+            final View child = parent.getChildAt(i);
+            final int position = parent.getChildAdapterPosition(child);
+
+            if (this.mTimeline.isSectionStart(position)) {
+                final int section = this.mTimeline.getSectionOf(position);
+                final int top = child.getTop() + (int) child.getTranslationY() - this.mHeaderHeight;
+
+                this.drawHeader(canvas, parent, section, top);
+
+                // The next day pushes the pinned header up
+                if (section == pinnedSection + 1) {
+                    pinnedTop = Math.min(0, top - this.mHeaderHeight);
+                }
+            }
+        }
+
+        // PINNED HEADER OF THE FIRST VISIBLE ROW
+        if (pinnedSection >= 0) {
+            this.drawHeader(canvas, parent, pinnedSection, pinnedTop);
+        }
+    }
+
+    /**
+     * Draws the header of a day
+     * @param canvas  a {@link Canvas}
+     * @param parent  a {@link RecyclerView}
+     * @param section an integer that contains the index of the section of the day
+     * @param top     an integer that contains the top of the header
+     */
+    private void drawHeader(@NonNull final Canvas canvas,
+                            @NonNull final RecyclerView parent,
+                            final int section,
+                            final int top) {
+        final int left = parent.getPaddingLeft();
+        final int right = parent.getWidth() - parent.getPaddingRight();
+
+        canvas.drawRect(left, top, right, top + this.mHeaderHeight, this.mBackgroundPaint);
+        canvas.drawText(this.mLabels[section], left + this.mTextPadding, top + this.mTextBaseline, this.mTextPaint);
+    }
+}
@@ -0,0 +1,90 @@
+package com.cleanup.todoc.views.recyclerViews;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.helper.ItemTouchHelper;
+
+/**
+ * <p>{@link ItemTouchHelper.Callback} of the drag of the tasks in the manual order of a {@link TasksAdapter}.</p>
+ *
+ * The dragged row floats over the list, which is not reordered during the drag (a paged list
+ * can not be): the last row under it is the target, and the move is sent once it is dropped.
+ * The drag starts from the handle of a row, the long click stays the one of the selection.
+ */
+public class TaskMoveCallback extends ItemTouchHelper.Callback {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    @NonNull
+    private final TasksAdapter mAdapter;
+
+    private int mFromPosition = RecyclerView.NO_POSITION;
+    private int mToPosition = RecyclerView.NO_POSITION;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     * @param adapter a {@link TasksAdapter}
+     */
+    public TaskMoveCallback(@NonNull final TasksAdapter adapter) {
+        this.mAdapter = adapter;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    @Override
+    public int getMovementFlags(@NonNull RecyclerView recyclerView, @NonNull RecyclerView.ViewHolder viewHolder) {
+        final int dragFlags = this.mAdapter.isDragEnabled() ? (ItemTouchHelper.UP | ItemTouchHelper.DOWN) : 0;
+        return makeMovementFlags(dragFlags, 0);
+    }
+
+    @Override
+    public boolean isLongPressDragEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isItemViewSwipeEnabled() {
+        return false;
+    }
+
+    @Override
+    public void onSelectedChanged(@Nullable RecyclerView.ViewHolder viewHolder, int actionState) {
+        super.onSelectedChanged(viewHolder, actionState);
+
+        if (actionState == ItemTouchHelper.ACTION_STATE_DRAG && viewHolder != null) {
+            this.mFromPosition = viewHolder.getAdapterPosition();
+            this.mToPosition = this.mFromPosition;
+        }
+    }
+
+    @Override
+    public boolean onMove(@NonNull RecyclerView recyclerView,
+                          @NonNull RecyclerView.ViewHolder viewHolder,
+                          @NonNull RecyclerView.ViewHolder target) {
+        // Only the target is kept, the rows stay in place until the new page
+        if (target.getAdapterPosition() != RecyclerView.NO_POSITION) {
+            this.mToPosition = target.getAdapterPosition();
+        }
+        return false;
+    }
+
+    @Override
+    public void onSwiped(@NonNull RecyclerView.ViewHolder viewHolder, int direction) {
+        // No swipe
+    }
+
+    @Override
+    public void clearView(@NonNull RecyclerView recyclerView, @NonNull RecyclerView.ViewHolder viewHolder) {
+        super.clearView(recyclerView, viewHolder);
+
+        if (this.mFromPosition != RecyclerView.NO_POSITION && this.mToPosition != RecyclerView.NO_POSITION) {
+            this.mAdapter.moveTask(this.mFromPosition, this.mToPosition);
+        }
+
+        this.mFromPosition = RecyclerView.NO_POSITION;
+        this.mToPosition = RecyclerView.NO_POSITION;
+    }
+}
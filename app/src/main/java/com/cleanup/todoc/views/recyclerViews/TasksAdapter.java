@@ -1,28 +1,34 @@
 package com.cleanup.todoc.views.recyclerViews;
 
+import android.arch.paging.PagedListAdapter;
 import android.content.res.ColorStateList;
+import android.graphics.Paint;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.util.DiffUtil;
 import android.support.v7.widget.AppCompatImageView;
 import android.support.v7.widget.RecyclerView;
 import android.view.LayoutInflater;
+import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.CheckBox;
 import android.widget.TextView;
 
 import com.cleanup.todoc.R;
-import com.cleanup.todoc.model.pojos.Project;
-import com.cleanup.todoc.model.pojos.Task;
+import com.cleanup.todoc.model.pojos.TaskSummary;
+import com.cleanup.todoc.model.pojos.TaskWithProject;
 
 import java.lang.ref.WeakReference;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * <p>Adapter which handles the list of tasks to display in the dedicated RecyclerView.</p>
  *
  * @author Gaëtan HERFRAY
  */
-public class TasksAdapter extends RecyclerView.Adapter<TasksAdapter.TaskViewHolder> {
+public class TasksAdapter extends PagedListAdapter<TaskWithProject, TasksAdapter.TaskViewHolder> {
 
     // INTERFACES ----------------------------------------------------------------------------------
 
@@ -34,28 +40,108 @@ public class TasksAdapter extends RecyclerView.Adapter<TasksAdapter.TaskViewHold
          * Called when a task needs to be deleted.
          * @param task the task that needs to be deleted
          */
-        void onDeleteTask(final Task task);
+        void onDeleteTask(final TaskSummary task);
+    }
+
+    /**
+     * Listener for completing tasks
+     */
+    public interface CompleteTaskListener {
+        /**
+         * Called when a task is marked as done or opened again.
+         * @param task      the task that has been toggled
+         * @param completed true if the task is now done
+         */
+        void onCompleteTask(final TaskSummary task, final boolean completed);
+    }
+
+    /**
+     * Listener for selecting tasks
+     */
+    public interface SelectTaskListener {
+        /**
+         * Called when the selection of tasks has changed.
+         * @param selectedTaskCount the number of selected tasks, 0 when the selection mode ends
+         */
+        void onSelectionChanged(final int selectedTaskCount);
+    }
+
+    /**
+     * Listener for moving tasks in the manual order
+     */
+    public interface MoveTaskListener {
+        /**
+         * Called when the handle of a task is touched, to start its drag.
+         * @param viewHolder the {@link RecyclerView.ViewHolder} of the dragged task
+         */
+        void onStartDrag(final RecyclerView.ViewHolder viewHolder);
+
+        /**
+         * Called when a task is dropped between two tasks.
+         * @param task           the moved task
+         * @param previousTaskId the id of the task before it, 0 for the start of the list
+         * @param nextTaskId     the id of the task after it, 0 for the end of the list
+         */
+        void onMoveTask(final TaskSummary task, final long previousTaskId, final long nextTaskId);
     }
 
     // FIELDS --------------------------------------------------------------------------------------
 
+    /**
+     * Compares the tasks of two successive pages (computed on a background thread),
+     * a renamed or recolored project changes the contents of its tasks
+     */
+    static final DiffUtil.ItemCallback<TaskWithProject> DIFF_CALLBACK = new DiffUtil.ItemCallback<TaskWithProject>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull TaskWithProject oldItem, @NonNull TaskWithProject newItem) {
+            return oldItem.getTask().getId() == newItem.getTask().getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull TaskWithProject oldItem, @NonNull TaskWithProject newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
     @NonNull
-    private List<Task> mTasks;
+    private final DeleteTaskListener mDeleteTaskListener;
     @NonNull
-    private List<Project> mProjects;
+    private final CompleteTaskListener mCompleteTaskListener;
     @NonNull
-    private final DeleteTaskListener mDeleteTaskListener;
+    private final SelectTaskListener mSelectTaskListener;
+    @NonNull
+    private final MoveTaskListener mMoveTaskListener;
+
+    /**
+     * True while the list shows the manual order, the handles of the drag are shown
+     */
+    private boolean mDragEnabled = false;
+
+    /**
+     * Ids of the selected tasks (ids and not positions, so the selection survives the new pages)
+     */
+    @NonNull
+    private final Set<Long> mSelectedTaskIds;
 
     // CONSTRUCTORS --------------------------------------------------------------------------------
 
     /**
      * Instantiates a new TasksAdapter.
-     * @param deleteTaskListener the listener for when a task needs to be deleted
+     * @param deleteTaskListener   the listener for when a task needs to be deleted
+     * @param completeTaskListener the listener for when a task is marked as done or opened again
+     * @param selectTaskListener   the listener for when the selection of tasks has changed
+     * @param moveTaskListener     the listener for when a task is moved in the manual order
      */
-    public TasksAdapter(@NonNull final DeleteTaskListener deleteTaskListener) {
-        this.mTasks = new ArrayList<> ();
-        this.mProjects = new ArrayList<>();
+    public TasksAdapter(@NonNull final DeleteTaskListener deleteTaskListener,
+                        @NonNull final CompleteTaskListener completeTaskListener,
+                        @NonNull final SelectTaskListener selectTaskListener,
+                        @NonNull final MoveTaskListener moveTaskListener) {
+        super(DIFF_CALLBACK);
         this.mDeleteTaskListener = deleteTaskListener;
+        this.mCompleteTaskListener = completeTaskListener;
+        this.mSelectTaskListener = selectTaskListener;
+        this.mMoveTaskListener = moveTaskListener;
+        this.mSelectedTaskIds = new HashSet<>();
     }
 
     // METHODS -------------------------------------------------------------------------------------
@@ -67,56 +153,115 @@ public class TasksAdapter extends RecyclerView.Adapter<TasksAdapter.TaskViewHold
     public TaskViewHolder onCreateViewHolder(@NonNull ViewGroup viewGroup, int viewType) {
         final View view = LayoutInflater.from(viewGroup.getContext())
                 .inflate(R.layout.item_task, viewGroup, false);
-        return new TaskViewHolder(view, this.mDeleteTaskListener);
+        return new TaskViewHolder(view, this.mDeleteTaskListener, this.mCompleteTaskListener);
     }
 
     @Override
     public void onBindViewHolder(@NonNull TaskViewHolder taskViewHolder, int position) {
-        taskViewHolder.bind(this.mTasks.get(position), this.mProjects);
+        // Null while the page of the item is not loaded yet (placeholder)
+        taskViewHolder.bind(getItem(position));
     }
 
-    @Override
-    public int getItemCount() {
-        return this.mTasks.size();
-    }
+    // -- SELECTION --
 
-    // -- TASKS --
+    /**
+     * Returns true if at least one task is selected
+     * @return a boolean
+     */
+    public boolean isSelectionMode() {
+        return !this.mSelectedTaskIds.isEmpty();
+    }
 
     /**
-     * Returns the current {@link List<Task>}
-     * @return the {@link List<Task>}
+     * Returns the ids of the selected tasks
+     * @return an array of integers that contains the id values
      */
     @NonNull
-    public List<Task> getCurrentTasks() {
-        return this.mTasks;
+    public long[] getSelectedTaskIds() {
+        final long[] taskIds = new long[this.mSelectedTaskIds.size()];
+
+        int index = 0;
+        for (Long taskId : this.mSelectedTaskIds) {
+            taskIds[index++] = taskId;
+        }
+
+        return taskIds;
     }
 
     /**
-     * Updates the {@link List<Task>} the adapter deals with.
-     * @param newTasks a {@link List<Task>}
+     * Clears the selection of tasks
      */
-    public void updateTasks(@NonNull final List<Task> newTasks) {
-        this.mTasks = newTasks;
-        notifyDataSetChanged();
+    public void clearSelection() {
+        if (!this.mSelectedTaskIds.isEmpty()) {
+            this.mSelectedTaskIds.clear();
+            notifyDataSetChanged();
+            this.mSelectTaskListener.onSelectionChanged(0);
+        }
     }
 
-    // -- PROJECTS --
+    /**
+     * Selects the task if it is not selected, unselects it otherwise
+     * @param task     the {@link TaskSummary} to select or unselect
+     * @param position the adapter position of the task
+     */
+    private void toggleSelection(@NonNull final TaskSummary task, final int position) {
+        if (!this.mSelectedTaskIds.remove(task.getId())) {
+            this.mSelectedTaskIds.add(task.getId());
+        }
+
+        notifyItemChanged(position);
+        this.mSelectTaskListener.onSelectionChanged(this.mSelectedTaskIds.size());
+    }
+
+    // -- MANUAL ORDER --
 
     /**
-     * Returns the current {@link List<Project>}
-     * @return the {@link List<Project>}
+     * Returns true if the tasks can be dragged
+     * @return a boolean
      */
-    @NonNull
-    public List<Project> getCurrentProjects() {
-        return this.mProjects;
+    public boolean isDragEnabled() {
+        return this.mDragEnabled;
     }
 
     /**
-     * Updates the {@link List<Project>} the adapter deals with.
-     * @param newProjects a {@link List<Project>}
+     * Shows or hides the handles of the drag
+     * @param dragEnabled true while the list shows the manual order
      */
-    public void updateProjects(@NonNull final List<Project> newProjects) {
-        this.mProjects = newProjects;
+    public void setDragEnabled(final boolean dragEnabled) {
+        if (this.mDragEnabled != dragEnabled) {
+            this.mDragEnabled = dragEnabled;
+            notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * Moves the task dropped at another position between its new neighbours. The paged list
+     * is not reordered here: the next page of the manual order shows the task at its new key.
+     * @param fromPosition the adapter position of the dragged task
+     * @param toPosition   the adapter position where it has been dropped
+     */
+    void moveTask(final int fromPosition, final int toPosition) {
+        if (fromPosition == toPosition) {
+            return;
+        }
+
+        // The dragged task leaves its position: the task at the target goes before it when moved down
+        final int previousPosition = (toPosition > fromPosition) ? toPosition : toPosition - 1;
+        final int nextPosition = previousPosition + 1;
+
+        final TaskWithProject item = getItem(fromPosition);
+        final TaskWithProject previous = (previousPosition >= 0) ? getItem(previousPosition) : null;
+        final TaskWithProject next = (nextPosition < getItemCount()) ? getItem(nextPosition) : null;
+
+        // A neighbour still a placeholder: its id is not known, the drop is ignored
+        if (item == null || (previousPosition >= 0 && previous == null)
+                         || (nextPosition < getItemCount() && next == null)) {
+            return;
+        }
+
+        this.mMoveTaskListener.onMoveTask(item.getTask(),
+                                          (previous != null) ? previous.getTask().getId() : 0L,
+                                          (next != null) ? next.getTask().getId() : 0L);
     }
 
     // INNER CLASS ---------------------------------------------------------------------------------
@@ -136,9 +281,15 @@ public class TasksAdapter extends RecyclerView.Adapter<TasksAdapter.TaskViewHold
         private final TextView mProjectName;
         @NonNull
         private final AppCompatImageView mImgDelete;
+        @NonNull
+        private final CheckBox mChkCompleted;
+        @NonNull
+        private final AppCompatImageView mImgDrag;
 
         @NonNull
         private final WeakReference<DeleteTaskListener> mDeleteTaskListener;
+        @NonNull
+        private final WeakReference<CompleteTaskListener> mCompleteTaskListener;
 
         // CONSTRUCTORS ----------------------------------------------------------------------------
 
@@ -146,54 +297,127 @@ public class TasksAdapter extends RecyclerView.Adapter<TasksAdapter.TaskViewHold
          * Instantiates a new TaskViewHolder.
          * @param itemView the view of the task item
          * @param deleteTaskListener the listener for when a task needs to be deleted to set
+         * @param completeTaskListener the listener for when a task is marked as done or opened again to set
          */
-        TaskViewHolder(@NonNull View itemView, @NonNull DeleteTaskListener deleteTaskListener) {
+        TaskViewHolder(@NonNull View itemView,
+                       @NonNull DeleteTaskListener deleteTaskListener,
+                       @NonNull CompleteTaskListener completeTaskListener) {
             super(itemView);
 
             this.mDeleteTaskListener =  new WeakReference<>(deleteTaskListener);
+            this.mCompleteTaskListener = new WeakReference<>(completeTaskListener);
 
             this.mImgProject = itemView.findViewById(R.id.img_project);
             this.mTaskName = itemView.findViewById(R.id.lbl_task_name);
             this.mProjectName = itemView.findViewById(R.id.lbl_project_name);
             this.mImgDelete = itemView.findViewById(R.id.img_delete);
+            this.mChkCompleted = itemView.findViewById(R.id.chk_completed);
+            this.mChkCompleted.setVisibility(View.VISIBLE);
+            this.mImgDrag = itemView.findViewById(R.id.img_drag);
+
+            // SELECTION: a long click starts the selection mode, then a click selects or unselects
+            itemView.setOnLongClickListener((view) -> {
+                this.toggleSelection();
+                return true;
+            });
+            itemView.setOnClickListener((view) -> {
+                if (isSelectionMode()) {
+                    this.toggleSelection();
+                }
+            });
 
             this.mImgDelete.setOnClickListener((view) -> {
                 final Object tag = view.getTag();
-                if (tag instanceof Task) {
+                if (tag instanceof TaskSummary) {
                     final DeleteTaskListener callback = this.mDeleteTaskListener.get();
 
                     if (callback != null) {
-                        callback.onDeleteTask((Task) tag);
+                        callback.onDeleteTask((TaskSummary) tag);
                     }
                 }
             });
+
+            // COMPLETION: a click and not a change of state, which the binding also triggers
+            this.mChkCompleted.setOnClickListener((view) -> {
+                final Object tag = view.getTag();
+                if (tag instanceof TaskSummary) {
+                    final CompleteTaskListener callback = this.mCompleteTaskListener.get();
+
+                    if (callback != null) {
+                        callback.onCompleteTask((TaskSummary) tag, this.mChkCompleted.isChecked());
+                    }
+                }
+            });
+
+            // DRAG: started by the handle, the long click stays the one of the selection
+            this.mImgDrag.setOnTouchListener((view, event) -> {
+                if (event.getActionMasked() == MotionEvent.ACTION_DOWN && isDragEnabled()) {
+                    mMoveTaskListener.onStartDrag(this);
+                }
+                return false;
+            });
         }
 
         // METHODS ---------------------------------------------------------------------------------
 
         /**
-         * Binds a task to the item view.
-         * @param task the task to bind in the item view
+         * Selects or unselects the bound task
          */
-        void bind(@NonNull final Task task, @NonNull final List<Project> projects) {
-            // NAME
-            this.mTaskName.setText(task.getName());
-
-            // PROJECT (First id = 1 and not 0)
-            final long projectId = task.getProjectId();
-            final Project taskProject = projects.get((int)projectId - 1);
+        private void toggleSelection() {
+            final Object tag = this.itemView.getTag();
+            final int position = getAdapterPosition();
 
-            if (taskProject != null) {
-                this.mImgProject.setSupportImageTintList(ColorStateList.valueOf(taskProject.getColor()));
-                this.mProjectName.setText(taskProject.getName());
+            if (tag instanceof TaskSummary && position != RecyclerView.NO_POSITION) {
+                TasksAdapter.this.toggleSelection((TaskSummary) tag, position);
             }
-            else {
+        }
+
+        /**
+         * Binds a task and its project to the item view.
+         * @param item the task with its project to bind in the item view, or null for a placeholder
+         */
+        void bind(@Nullable final TaskWithProject item) {
+            // PLACEHOLDER
+            if (item == null) {
+                this.mTaskName.setText("");
                 this.mImgProject.setVisibility(View.INVISIBLE);
                 this.mProjectName.setText("");
+                this.mImgDelete.setTag(null);
+                this.mChkCompleted.setTag(null);
+                this.mChkCompleted.setChecked(false);
+                this.mTaskName.setPaintFlags(this.mTaskName.getPaintFlags() & ~Paint.STRIKE_THRU_TEXT_FLAG);
+                this.itemView.setTag(null);
+                this.itemView.setActivated(false);
+                this.mImgDrag.setVisibility(View.GONE);
+                return;
             }
 
+            final TaskSummary task = item.getTask();
+
+            // NAME (struck through once done)
+            this.mTaskName.setText(task.getName());
+            this.mTaskName.setPaintFlags(task.isCompleted()
+                                         ? this.mTaskName.getPaintFlags() | Paint.STRIKE_THRU_TEXT_FLAG
+                                         : this.mTaskName.getPaintFlags() & ~Paint.STRIKE_THRU_TEXT_FLAG);
+
+            // PROJECT (read with the task by the JOIN)
+            this.mImgProject.setVisibility(View.VISIBLE);
+            this.mImgProject.setSupportImageTintList(ColorStateList.valueOf(item.getProjectColor()));
+            this.mProjectName.setText(item.getProjectName());
+
+            // SELECTION
+            this.itemView.setTag(task);
+            this.itemView.setActivated(mSelectedTaskIds.contains(task.getId()));
+
             // DELETE ACTION
             this.mImgDelete.setTag(task);
+
+            // COMPLETE ACTION
+            this.mChkCompleted.setTag(task);
+            this.mChkCompleted.setChecked(task.isCompleted());
+
+            // DRAG HANDLE
+            this.mImgDrag.setVisibility(isDragEnabled() ? View.VISIBLE : View.GONE);
         }
     }
 //    /**
@@ -308,7 +532,7 @@ public class TasksAdapter extends RecyclerView.Adapter<TasksAdapter.TaskViewHold
 //                @Override
 //                public void onClick(View view) {
 //                    final Object tag = view.getTag();
-//                    if (tag instanceof Task) {
+//                    if (tag instanceof TaskSummary) {
 //                        TaskViewHolder.this.deleteTaskListener.onDeleteTask((Task) tag);
 //                    }
 //                }
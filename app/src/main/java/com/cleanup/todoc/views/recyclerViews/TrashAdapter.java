@@ -0,0 +1,154 @@
+package com.cleanup.todoc.views.recyclerViews;
+
+import android.arch.paging.PagedListAdapter;
+import android.content.res.ColorStateList;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.AppCompatImageView;
+import android.support.v7.widget.RecyclerView;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import com.cleanup.todoc.R;
+import com.cleanup.todoc.model.pojos.TaskSummary;
+import com.cleanup.todoc.model.pojos.TaskWithProject;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * <p>Adapter which handles the list of tasks of the trash to display in the dedicated RecyclerView.</p>
+ */
+public class TrashAdapter extends PagedListAdapter<TaskWithProject, TrashAdapter.TrashViewHolder> {
+
+    // INTERFACES ----------------------------------------------------------------------------------
+
+    /**
+     * Listener for restoring tasks
+     */
+    public interface RestoreTaskListener {
+        /**
+         * Called when a task needs to be restored.
+         * @param task the task that needs to be restored
+         */
+        void onRestoreTask(final TaskSummary task);
+    }
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    @NonNull
+    private final RestoreTaskListener mRestoreTaskListener;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Instantiates a new TrashAdapter.
+     * @param restoreTaskListener the listener for when a task needs to be restored
+     */
+    public TrashAdapter(@NonNull final RestoreTaskListener restoreTaskListener) {
+        super(TasksAdapter.DIFF_CALLBACK);
+        this.mRestoreTaskListener = restoreTaskListener;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- ADAPTERS --
+
+    @NonNull
+    @Override
+    public TrashViewHolder onCreateViewHolder(@NonNull ViewGroup viewGroup, int viewType) {
+        final View view = LayoutInflater.from(viewGroup.getContext())
+                .inflate(R.layout.item_task, viewGroup, false);
+        return new TrashViewHolder(view, this.mRestoreTaskListener);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull TrashViewHolder trashViewHolder, int position) {
+        // Null while the page of the item is not loaded yet (placeholder)
+        trashViewHolder.bind(getItem(position));
+    }
+
+    // INNER CLASS ---------------------------------------------------------------------------------
+
+    /**
+     * <p>ViewHolder for task items in the trash list</p>
+     */
+    static class TrashViewHolder extends RecyclerView.ViewHolder {
+
+        // FIELDS ----------------------------------------------------------------------------------
+
+        @NonNull
+        private final AppCompatImageView mImgProject;
+        @NonNull
+        private final TextView mTaskName;
+        @NonNull
+        private final TextView mProjectName;
+        @NonNull
+        private final AppCompatImageView mImgRestore;
+
+        @NonNull
+        private final WeakReference<RestoreTaskListener> mRestoreTaskListener;
+
+        // CONSTRUCTORS ----------------------------------------------------------------------------
+
+        /**
+         * Instantiates a new TrashViewHolder.
+         * @param itemView the view of the task item
+         * @param restoreTaskListener the listener for when a task needs to be restored to set
+         */
+        TrashViewHolder(@NonNull View itemView, @NonNull RestoreTaskListener restoreTaskListener) {
+            super(itemView);
+
+            this.mRestoreTaskListener = new WeakReference<>(restoreTaskListener);
+
+            this.mImgProject = itemView.findViewById(R.id.img_project);
+            this.mTaskName = itemView.findViewById(R.id.lbl_task_name);
+            this.mProjectName = itemView.findViewById(R.id.lbl_project_name);
+
+            // The delete action of the item becomes the restore action
+            this.mImgRestore = itemView.findViewById(R.id.img_delete);
+            this.mImgRestore.setImageResource(R.drawable.ic_restore_from_trash);
+            this.mImgRestore.setContentDescription(itemView.getContext().getString(R.string.label_action_restore));
+
+            this.mImgRestore.setOnClickListener((view) -> {
+                final Object tag = view.getTag();
+                if (tag instanceof TaskSummary) {
+                    final RestoreTaskListener callback = this.mRestoreTaskListener.get();
+
+                    if (callback != null) {
+                        callback.onRestoreTask((TaskSummary) tag);
+                    }
+                }
+            });
+        }
+
+        // METHODS ---------------------------------------------------------------------------------
+
+        /**
+         * Binds a task and its project to the item view.
+         * @param item the task with its project to bind in the item view, or null for a placeholder
+         */
+        void bind(@Nullable final TaskWithProject item) {
+            // PLACEHOLDER
+            if (item == null) {
+                this.mTaskName.setText("");
+                this.mImgProject.setVisibility(View.INVISIBLE);
+                this.mProjectName.setText("");
+                this.mImgRestore.setTag(null);
+                return;
+            }
+
+            // NAME
+            this.mTaskName.setText(item.getTask().getName());
+
+            // PROJECT
+            this.mImgProject.setVisibility(View.VISIBLE);
+            this.mImgProject.setSupportImageTintList(ColorStateList.valueOf(item.getProjectColor()));
+            this.mProjectName.setText(item.getProjectName());
+
+            // RESTORE ACTION
+            this.mImgRestore.setTag(item.getTask());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.cleanup.todoc.views.services;
+
+import android.app.job.JobParameters;
+import android.app.job.JobService;
+import android.database.sqlite.SQLiteException;
+import android.util.Log;
+
+import com.cleanup.todoc.model.pojos.BackupReport;
+import com.cleanup.todoc.repositories.DatabaseBackupScheduler;
+import com.cleanup.todoc.views.TodocApplication;
+
+import java.io.IOException;
+
+/**
+ * <p>{@link JobService} of the backup of the database, scheduled by the
+ * {@link DatabaseBackupScheduler} of the active workspace.</p>
+ *
+ * The copy runs on its own thread rather than on the executor of the repositories:
+ * the writes of the app go on into the write-ahead log meanwhile. It holds the lock of the
+ * database file (see TodocApplication.getDatabaseFileLock), so a maintenance or a restore
+ * never runs under it.
+ */
+public class DatabaseBackupService extends JobService {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final String TAG = DatabaseBackupService.class.getSimpleName();
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- JOB SERVICE --
+
+    @Override
+    public boolean onStartJob(final JobParameters params) {
+        final TodocApplication application = (TodocApplication) this.getApplication();
+
+        new Thread(() -> {
+            boolean reschedule;
+
+            synchronized (application.getDatabaseFileLock()) {
+                try {
+                    // Read once the lock is held: a restore may have built a new component
+                    final DatabaseBackupScheduler scheduler = application.getWorkspaceComponent()
+                                                                         .getDatabaseBackupScheduler();
+
+                    // Busy: the log could not be checkpointed, again after the back-off of the JobScheduler
+                    reschedule = scheduler.runBackup().getStatus() == BackupReport.Status.BUSY;
+                }
+                catch (IOException | SQLiteException | IllegalStateException e) {
+                    Log.e(TAG, "onStartJob: the backup has failed", e);
+                    reschedule = true;
+                }
+            }
+
+            this.jobFinished(params, reschedule);
+        }, "DatabaseBackup").start();
+
+        // Still running
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(final JobParameters params) {
+        // The copy is not interrupted, its result is ignored: again at the next window
+        return true;
+    }
+}
@@ -0,0 +1,72 @@
+package com.cleanup.todoc.views.services;
+
+import android.app.job.JobParameters;
+import android.app.job.JobService;
+import android.database.sqlite.SQLiteException;
+import android.util.Log;
+
+import com.cleanup.todoc.model.pojos.MaintenanceReport;
+import com.cleanup.todoc.repositories.DatabaseMaintenanceScheduler;
+import com.cleanup.todoc.views.TodocApplication;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>{@link JobService} of the maintenance of the database, scheduled by the
+ * {@link DatabaseMaintenanceScheduler} of the application component.</p>
+ *
+ * The maintenance runs on its own thread rather than on the executor of the repositories:
+ * the writes of the app go on between its steps instead of waiting for its end. It holds the
+ * lock of the database file (see TodocApplication.getDatabaseFileLock), so a backup or a restore
+ * never runs under it.
+ */
+public class DatabaseMaintenanceService extends JobService {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final String TAG = DatabaseMaintenanceService.class.getSimpleName();
+
+    private final AtomicBoolean mCancelled = new AtomicBoolean();
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- JOB SERVICE --
+
+    @Override
+    public boolean onStartJob(final JobParameters params) {
+        final TodocApplication application = (TodocApplication) this.getApplication();
+        this.mCancelled.set(false);
+
+        new Thread(() -> {
+            synchronized (application.getDatabaseFileLock()) {
+                try {
+                    // Read once the lock is held: a restore may have built a new component
+                    final DatabaseMaintenanceScheduler scheduler = application.getWorkspaceComponent()
+                                                                              .getDatabaseMaintenanceScheduler();
+                    final MaintenanceReport report = scheduler.runMaintenance(this.mCancelled);
+
+                    // Once stopped, the job is rescheduled by the return of onStopJob
+                    if (report.isCompleted()) {
+                        this.jobFinished(params, false);
+                    }
+                }
+                catch (SQLiteException | IllegalStateException e) {
+                    Log.e(TAG, "onStartJob: the maintenance has failed", e);
+                    this.jobFinished(params, true);
+                }
+            }
+        }, "DatabaseMaintenance").start();
+
+        // Still running
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(final JobParameters params) {
+        // The device is no longer idle or charging: the run stops after its current statement
+        this.mCancelled.set(true);
+
+        // Again at the next window
+        return true;
+    }
+}
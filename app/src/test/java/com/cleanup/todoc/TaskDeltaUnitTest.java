@@ -0,0 +1,91 @@
+package com.cleanup.todoc;
+
+import com.cleanup.todoc.model.pojos.Project;
+import com.cleanup.todoc.model.pojos.ProjectCounts;
+import com.cleanup.todoc.model.pojos.ProjectWithCount;
+import com.cleanup.todoc.model.pojos.TaskChange;
+import com.cleanup.todoc.model.pojos.TaskDelta;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the deltas of the change log of the task table
+ */
+public class TaskDeltaUnitTest {
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private final Project PROJECT1 = new Project(1, "Project 1", 0xFFEADAD1);
+    private final Project PROJECT2 = new Project(2, "Project 2", 0xFFB4CDBA);
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    // -- DELTA --
+
+    @Test
+    public void fromChanges_shouldCollapseTheOperationsByTask() {
+        final TaskDelta delta = TaskDelta.fromChanges(10, Arrays.asList(
+                new TaskChange(11, 1, 1, TaskChange.INSERT),
+                new TaskChange(12, 1, 1, TaskChange.UPDATE),
+                new TaskChange(13, 2, 1, TaskChange.UPDATE),
+                new TaskChange(14, 3, 1, TaskChange.DELETE),
+                new TaskChange(15, 4, 1, TaskChange.INSERT),
+                new TaskChange(16, 4, 1, TaskChange.DELETE),
+                new TaskChange(17, 5, 1, TaskChange.DELETE),
+                new TaskChange(18, 5, 2, TaskChange.INSERT)));
+
+        assertEquals(18, delta.getLastSeq());
+        assertArrayEquals(new long[] {1}, delta.getInsertedTaskIds());
+        assertArrayEquals(new long[] {2, 5}, delta.getUpdatedTaskIds());
+        assertArrayEquals(new long[] {3}, delta.getDeletedTaskIds());
+
+        // Project 1: +1 -1 +1 -1 -1, project 2: +1
+        assertEquals(Integer.valueOf(-1), delta.getTaskCountChanges().get(1L));
+        assertEquals(Integer.valueOf(1), delta.getTaskCountChanges().get(2L));
+    }
+
+    @Test
+    public void fromChanges_shouldBeEmptyWithoutChange() {
+        final TaskDelta delta = TaskDelta.fromChanges(10, Arrays.asList(
+                new TaskChange(11, 1, 1, TaskChange.INSERT),
+                new TaskChange(12, 1, 1, TaskChange.DELETE)));
+
+        assertTrue(delta.isEmpty());
+        assertEquals(12, delta.getLastSeq());
+    }
+
+    // -- COUNTS --
+
+    @Test
+    public void apply_shouldPatchTheCountsOfTheChangedProjects() {
+        final ProjectWithCount project1 = new ProjectWithCount(PROJECT1, 3);
+        final ProjectWithCount project2 = new ProjectWithCount(PROJECT2, 5);
+        final ProjectCounts projectCounts = new ProjectCounts(10, Arrays.asList(project1, project2));
+
+        final ProjectCounts patchedCounts = projectCounts.apply(TaskDelta.fromChanges(10, Arrays.asList(
+                new TaskChange(11, 1, 1, TaskChange.INSERT),
+                new TaskChange(12, 2, 1, TaskChange.INSERT),
+                new TaskChange(13, 3, 3, TaskChange.INSERT))));
+
+        assertEquals(13, patchedCounts.getSeq());
+        assertEquals(5, patchedCounts.getProjects().get(0).getTaskCount());
+        assertSame(project2, patchedCounts.getProjects().get(1));
+    }
+
+    @Test
+    public void apply_shouldIgnoreAnOldDelta() {
+        final ProjectCounts projectCounts = new ProjectCounts(10, Arrays.asList(new ProjectWithCount(PROJECT1, 3)));
+
+        final ProjectCounts patchedCounts = projectCounts.apply(TaskDelta.fromChanges(5, Arrays.asList(
+                new TaskChange(6, 1, 1, TaskChange.DELETE))));
+
+        assertSame(projectCounts, patchedCounts);
+        assertEquals(3, patchedCounts.getProjects().get(0).getTaskCount());
+    }
+}
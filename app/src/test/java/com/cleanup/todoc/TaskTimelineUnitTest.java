@@ -0,0 +1,91 @@
+package com.cleanup.todoc;
+
+import com.cleanup.todoc.model.pojos.TaskDayCount;
+import com.cleanup.todoc.model.pojos.TaskTimeline;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the sections by day of the list of tasks
+ */
+public class TaskTimelineUnitTest {
+    // FIELDS --------------------------------------------------------------------------------------
+
+    // Last day first, as grouped by TaskDao
+    private final List<TaskDayCount> DAY_COUNTS = Arrays.asList(new TaskDayCount(20, 2),
+                                                                new TaskDayCount(19, 1),
+                                                                new TaskDayCount(15, 3));
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    @Test
+    public void of_recentFirst_shouldStartEachDayAfterThePreviousOnes() {
+        final TaskTimeline timeline = TaskTimeline.of(DAY_COUNTS, false);
+
+        assertEquals(3, timeline.getSectionCount());
+        assertEquals(6, timeline.getRowCount());
+
+        assertEquals(20, timeline.getDay(0));
+        assertEquals(0, timeline.getStartPosition(0));
+        assertEquals(19, timeline.getDay(1));
+        assertEquals(2, timeline.getStartPosition(1));
+        assertEquals(15, timeline.getDay(2));
+        assertEquals(3, timeline.getStartPosition(2));
+    }
+
+    @Test
+    public void of_oldestFirst_shouldReverseTheDays() {
+        final TaskTimeline timeline = TaskTimeline.of(DAY_COUNTS, true);
+
+        assertEquals(15, timeline.getDay(0));
+        assertEquals(0, timeline.getStartPosition(0));
+        assertEquals(19, timeline.getDay(1));
+        assertEquals(3, timeline.getStartPosition(1));
+        assertEquals(20, timeline.getDay(2));
+        assertEquals(4, timeline.getStartPosition(2));
+    }
+
+    @Test
+    public void getSectionOf_shouldFindTheDayOfEachRow() {
+        final TaskTimeline timeline = TaskTimeline.of(DAY_COUNTS, false);
+
+        assertEquals(0, timeline.getSectionOf(0));
+        assertEquals(0, timeline.getSectionOf(1));
+        assertEquals(1, timeline.getSectionOf(2));
+        assertEquals(2, timeline.getSectionOf(3));
+        assertEquals(2, timeline.getSectionOf(5));
+
+        // Out of the list
+        assertEquals(-1, timeline.getSectionOf(-1));
+        assertEquals(-1, timeline.getSectionOf(6));
+    }
+
+    @Test
+    public void isSectionStart_shouldOnlyBeTrueForTheFirstRowOfEachDay() {
+        final TaskTimeline timeline = TaskTimeline.of(DAY_COUNTS, false);
+
+        assertTrue(timeline.isSectionStart(0));
+        assertFalse(timeline.isSectionStart(1));
+        assertTrue(timeline.isSectionStart(2));
+        assertTrue(timeline.isSectionStart(3));
+        assertFalse(timeline.isSectionStart(4));
+        assertFalse(timeline.isSectionStart(6));
+    }
+
+    @Test
+    public void of_withoutTask_shouldBeEmpty() {
+        final TaskTimeline timeline = TaskTimeline.of(Collections.emptyList(), false);
+
+        assertEquals(0, timeline.getSectionCount());
+        assertEquals(-1, timeline.getSectionOf(0));
+        assertFalse(timeline.isSectionStart(0));
+    }
+}
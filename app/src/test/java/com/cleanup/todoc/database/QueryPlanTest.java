@@ -0,0 +1,262 @@
+package com.cleanup.todoc.database;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.db.SupportSQLiteQuery;
+import android.arch.persistence.room.Room;
+import android.database.Cursor;
+
+import com.cleanup.todoc.model.database.TodocDatabase;
+import com.cleanup.todoc.repositories.TaskSearchQuery;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Regression suite of the query plans: every @Query of the DAOs (read from their sources,
+ * Room annotations are not kept at runtime) and the search query are explained by the SQLite
+ * of Robolectric on {@link TodocDatabase}, and a full scan of a table fails the build.
+ */
+@RunWith(ParameterizedRobolectricTestRunner.class)
+@Config(sdk = 28)
+public class QueryPlanTest {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final File DAO_DIRECTORY = new File("src/main/java/com/cleanup/todoc/model/dao");
+
+    /**
+     * Tables which may be read in full: the projects are a handful of rows
+     */
+    private static final Set<String> SCANNABLE_TABLES = new HashSet<>(Arrays.asList("project"));
+
+    /**
+     * Queries which return every task out of the trash without order, so a scan costs what they read
+     */
+    private static final Set<String> FULL_READS = new HashSet<>(Arrays.asList("TaskDao.getTasks",
+                                                                              "TaskDao.getTasksWithProjectPaged"));
+
+    /**
+     * "SCAN TABLE task" (SQLite before 3.36) or "SCAN task", with the access path after the name
+     */
+    private static final Pattern SCAN = Pattern.compile("^SCAN (?:TABLE )?(\\S+)(.*)$");
+
+    private static final Pattern CONSTANT = Pattern.compile("String (\\w+) = ");
+    private static final Pattern BIND_PARAMETER = Pattern.compile(":\\w+");
+
+    private final String mQueryName;
+    private final String mSql;
+
+    private TodocDatabase mDatabase;
+
+    // CONSTRUCTORS --------------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     * @param queryName a {@link String} that contains the DAO and the method of the query
+     * @param sql       a {@link String} that contains the SQL of the query
+     */
+    public QueryPlanTest(final String queryName, final String sql) {
+        this.mQueryName = queryName;
+        this.mSql = sql;
+    }
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "{0}")
+    public static Collection<Object[]> queries() throws IOException {
+        final List<Object[]> queries = new ArrayList<>();
+
+        final File[] daoFiles = DAO_DIRECTORY.listFiles((dir, name) -> name.endsWith("Dao.java"));
+        assertTrue("No DAO in " + DAO_DIRECTORY.getAbsolutePath(), daoFiles != null && daoFiles.length > 0);
+
+        for (File daoFile : daoFiles) {
+            queries.addAll(readQueries(daoFile));
+        }
+
+        final SupportSQLiteQuery searchQuery = TaskSearchQuery.build("word");
+        queries.add(new Object[] {"TaskSearchQuery.build", searchQuery.getSql()});
+
+        return queries;
+    }
+
+    @Before
+    public void setUp() {
+        this.mDatabase = Room.inMemoryDatabaseBuilder(RuntimeEnvironment.application, TodocDatabase.class)
+                             .addCallback(TodocDatabase.auxiliaryStructures())
+                             .allowMainThreadQueries()
+                             .build();
+    }
+
+    @After
+    public void tearDown() {
+        this.mDatabase.close();
+    }
+
+    @Test
+    public void queryPlan_shouldNotScanATable() {
+        final SupportSQLiteDatabase db = this.mDatabase.getOpenHelper().getWritableDatabase();
+        final Set<String> tables = this.getTableNames(db);
+        final List<String> plan = new ArrayList<>();
+
+        // The parameters are left unbound (NULL), they do not change the plan
+        try (Cursor cursor = db.query("EXPLAIN QUERY PLAN " + this.mSql)) {
+            final int detailIndex = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.add(cursor.getString(detailIndex));
+            }
+        }
+
+        for (String step : plan) {
+            final Matcher matcher = SCAN.matcher(step);
+
+            // Materialized subqueries, indexes and virtual tables (FTS) are allowed
+            if (matcher.matches()
+                    && tables.contains(matcher.group(1))
+                    && !SCANNABLE_TABLES.contains(matcher.group(1))
+                    && !FULL_READS.contains(this.mQueryName)
+                    && !matcher.group(2).contains(" INDEX ")) {
+                fail(this.mQueryName + " scans the table " + matcher.group(1) + "\n" +
+                     "SQL:  " + this.mSql + "\n" +
+                     "PLAN: " + String.join("\n      ", plan));
+            }
+        }
+    }
+
+    /**
+     * Returns the names of the tables of the database, virtual tables included
+     * @param db a {@link SupportSQLiteDatabase}
+     * @return a {@link Set} of {@link String}
+     */
+    private Set<String> getTableNames(final SupportSQLiteDatabase db) {
+        final Set<String> tables = new HashSet<>();
+
+        try (Cursor cursor = db.query("SELECT name FROM sqlite_master WHERE type = 'table'")) {
+            while (cursor.moveToNext()) {
+                tables.add(cursor.getString(0));
+            }
+        }
+
+        return tables;
+    }
+
+    // -- DAO SOURCES --
+
+    /**
+     * Returns the name and the SQL of each @Query of a DAO, with the String constants
+     * of the DAO resolved and the bind parameters replaced by "?"
+     * @param daoFile a {@link File} of the source of the DAO
+     * @return a {@link List} of arrays of 2 {@link String}s
+     * @throws IOException if the source can not be read
+     */
+    private static List<Object[]> readQueries(final File daoFile) throws IOException {
+        final String source = new String(Files.readAllBytes(daoFile.toPath()), StandardCharsets.UTF_8);
+        final String daoName = daoFile.getName().replace(".java", "");
+
+        // CONSTANTS
+        final Map<String, String> constants = new HashMap<>();
+        final Matcher constantMatcher = CONSTANT.matcher(source);
+        while (constantMatcher.find()) {
+            final int[] end = new int[1];
+            constants.put(constantMatcher.group(1),
+                          evaluate(source, constantMatcher.end(), ';', constants, end));
+        }
+
+        // QUERIES
+        final List<Object[]> queries = new ArrayList<>();
+        int from = 0;
+        int count = 0;
+
+        for (int at = source.indexOf("@Query(", from); at != -1; at = source.indexOf("@Query(", from)) {
+            final int[] end = new int[1];
+            final String sql = evaluate(source, at + "@Query(".length(), ')', constants, end);
+
+            // The method name is the last word before the parenthesis of its parameters
+            final String signature = source.substring(end[0] + 1, source.indexOf('(', end[0] + 1)).trim();
+            final String methodName = signature.substring(signature.lastIndexOf(' ') + 1);
+
+            queries.add(new Object[] {daoName + "." + methodName,
+                                      BIND_PARAMETER.matcher(sql).replaceAll("?")});
+            from = end[0];
+            count++;
+        }
+
+        // TEST: Every annotation is read
+        assertEquals(daoName, source.split("@Query\\(", -1).length - 1, count);
+
+        return queries;
+    }
+
+    /**
+     * Concatenates the string literals and the constants of a Java expression
+     * @param source     a {@link String} that contains the Java source
+     * @param start      an integer that contains the index of the expression
+     * @param terminator a character that ends the expression
+     * @param constants  a {@link Map} of the constants already evaluated
+     * @param end        an array of 1 integer that receives the index of the terminator
+     * @return a {@link String}
+     */
+    private static String evaluate(final String source, final int start, final char terminator,
+                                   final Map<String, String> constants, final int[] end) {
+        final StringBuilder value = new StringBuilder();
+        int i = start;
+
+        while (source.charAt(i) != terminator) {
+            final char c = source.charAt(i);
+
+            if (c == '"') {
+                for (i++; source.charAt(i) != '"'; i++) {
+                    if (source.charAt(i) == '\\') {
+                        i++;
+                    }
+                    value.append(source.charAt(i));
+                }
+                i++;
+            }
+            else if (Character.isJavaIdentifierStart(c)) {
+                final int identifierStart = i;
+                while (Character.isJavaIdentifierPart(source.charAt(i))) {
+                    i++;
+                }
+
+                final String identifier = source.substring(identifierStart, i);
+                if (!constants.containsKey(identifier)) {
+                    throw new IllegalStateException("Unknown constant " + identifier);
+                }
+                value.append(constants.get(identifier));
+            }
+            else if (c == '+' || Character.isWhitespace(c)) {
+                i++;
+            }
+            else {
+                throw new IllegalStateException("Unexpected character '" + c + "' at " + i);
+            }
+        }
+
+        end[0] = i;
+        return value.toString();
+    }
+}
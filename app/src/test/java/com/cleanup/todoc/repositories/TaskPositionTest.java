@@ -0,0 +1,91 @@
+package com.cleanup.todoc.repositories;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the keys of {@link TaskPosition}
+ */
+public class TaskPositionTest {
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    @Test
+    public void ofRank_shouldKeepTheOrderOfTheRanks() {
+        assertEquals("0000000000001V", TaskPosition.ofRank(1));
+        assertTrue(TaskPosition.ofRank(15).compareTo(TaskPosition.ofRank(16)) < 0);
+        assertTrue(TaskPosition.ofRank(255).compareTo(TaskPosition.ofRank(4096)) < 0);
+    }
+
+    @Test
+    public void after_shouldReturnAShortGreaterKey() {
+        assertEquals("0000000000001W", TaskPosition.after("0000000000001V"));
+        assertEquals("0000000000002", TaskPosition.after("0000000000001z"));
+        assertEquals("zzV", TaskPosition.after("zz"));
+        assertEquals("V", TaskPosition.after(""));
+    }
+
+    @Test
+    public void between_shouldReturnAKeyBetweenTheTwoKeys() {
+        assertEquals("V", TaskPosition.between("", null));
+        assertEquals("l", TaskPosition.between("V", null));
+        assertEquals("0000000000001", TaskPosition.between("0000000000000V", "0000000000001V"));
+        assertEquals("0V", TaskPosition.between("", "1"));
+        assertEquals("1V", TaskPosition.between("1", "2"));
+    }
+
+    @Test
+    public void between_repeatedIntoTheSameGap_shouldKeepTheOrder() {
+        final String first = TaskPosition.ofRank(1);
+        String last = TaskPosition.ofRank(2);
+
+        // Each task moves just after the first one, the gap halves at each move
+        for (int i = 0; i < 200; i++) {
+            final String key = TaskPosition.between(first, last);
+
+            assertTrue(first.compareTo(key) < 0);
+            assertTrue(key.compareTo(last) < 0);
+            assertTrue(key.charAt(key.length() - 1) != '0');
+
+            last = key;
+        }
+
+        // TEST: The keys grow with the moves, up to the rebalancing
+        assertTrue(last.length() > TaskPosition.MAX_LENGTH);
+    }
+
+    @Test
+    public void between_count_shouldReturnShortKeysInOrder() {
+        final List<String> keys = TaskPosition.between("", null, 1000);
+
+        // TEST: The keys are in order, and their length grows with the logarithm of their number
+        assertEquals(1000, keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertTrue(keys.get(i).length() <= 3);
+
+            if (i > 0) {
+                assertTrue(keys.get(i - 1).compareTo(keys.get(i)) < 0);
+            }
+        }
+
+        // TEST: Between two keys, the keys stay between them
+        final List<String> between = TaskPosition.between("1", "2", 10);
+        assertEquals(10, between.size());
+        assertTrue("1".compareTo(between.get(0)) < 0);
+        assertTrue(between.get(9).compareTo("2") < 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void between_invertedKeys_shouldThrow() {
+        TaskPosition.between("2", "1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void between_keyEndingWithZero_shouldThrow() {
+        TaskPosition.between("10", null);
+    }
+}
@@ -0,0 +1,28 @@
+package com.cleanup.todoc.repositories;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for the MATCH expressions of {@link TaskSearchQuery}
+ */
+public class TaskSearchQueryTest {
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    @Test
+    public void toMatchExpression_shouldFoldAccentsAndCase() {
+        assertEquals("eleve* ecole*", TaskSearchQuery.toMatchExpression("Élève  École"));
+    }
+
+    @Test
+    public void toMatchExpression_shouldRemoveOperators() {
+        assertEquals("projet* or* client*", TaskSearchQuery.toMatchExpression("\"projet\" OR -client*"));
+    }
+
+    @Test
+    public void toMatchExpression_shouldBeEmptyWithoutWord() {
+        assertEquals("", TaskSearchQuery.toMatchExpression("  ()* "));
+    }
+}
@@ -0,0 +1,172 @@
+package com.cleanup.todoc.repositories;
+
+import android.arch.persistence.room.Room;
+import android.database.Cursor;
+
+import com.cleanup.todoc.model.dao.TaskDao;
+import com.cleanup.todoc.model.database.TodocDatabase;
+import com.cleanup.todoc.model.pojos.Project;
+import com.cleanup.todoc.model.pojos.Task;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Benchmark on the JVM (SQLite of Robolectric) of the per-row cost of the writes of the task
+ * table through {@link TaskDao} (before) and through {@link TaskWriteEngine} (after).
+ * Both paths write the same columns with the same statements, and they run interleaved row by row,
+ * alternately first, so that each write of a path runs on a table of the same size as the other.
+ * The results are printed on the standard output of the unit tests. They only compare the two
+ * paths on the SQLite of the JVM: they are not a measure of the gain on a device.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class TaskWriteEngineBenchmark {
+
+    // FIELDS --------------------------------------------------------------------------------------
+
+    private static final int WARM_UP_ROWS = 500;
+    private static final int ROWS = 5000;
+
+    private TodocDatabase mDatabase;
+    private TaskDao mTaskDao;
+    private TaskWriteEngine mWriteEngine;
+
+    private long mDaoProjectId;
+    private long mEngineProjectId;
+
+    // METHODS -------------------------------------------------------------------------------------
+
+    @Before
+    public void setUp() {
+        this.mDatabase = Room.inMemoryDatabaseBuilder(RuntimeEnvironment.application, TodocDatabase.class)
+                             .addCallback(TodocDatabase.auxiliaryStructures())
+                             .allowMainThreadQueries()
+                             .build();
+
+        this.mTaskDao = this.mDatabase.mTaskDao();
+        this.mWriteEngine = new TaskWriteEngine(this.mDatabase);
+
+        this.mDaoProjectId = this.mDatabase.mProjectDao().insertProject(new Project("DAO", 0xFFEADAD1));
+        this.mEngineProjectId = this.mDatabase.mProjectDao().insertProject(new Project("Engine", 0xFFB4CDBA));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        this.mWriteEngine.close();
+        this.mDatabase.close();
+    }
+
+    @Test
+    public void insertRenameSoftDelete_taskDao_And_taskWriteEngine() {
+        // Warm-up of both paths (JIT, statement caches), the rows are left in the table
+        this.runInterleaved(WARM_UP_ROWS);
+
+        final long[][] durations = this.runInterleaved(ROWS);
+        final long[] dao = durations[0];
+        final long[] engine = durations[1];
+
+        System.out.println("TaskWriteEngineBenchmark, ns by row (" + ROWS + " rows)");
+        System.out.println("insert:      TaskDao " + dao[0] / ROWS + ", TaskWriteEngine " + engine[0] / ROWS);
+        System.out.println("rename:      TaskDao " + dao[1] / ROWS + ", TaskWriteEngine " + engine[1] / ROWS);
+        System.out.println("soft delete: TaskDao " + dao[2] / ROWS + ", TaskWriteEngine " + engine[2] / ROWS);
+
+        // TEST: Both paths have written the same rows: all of them renamed and in the trash
+        assertEquals(WARM_UP_ROWS + ROWS, this.countRenamedDeletedTasks(this.mDaoProjectId));
+        assertEquals(WARM_UP_ROWS + ROWS, this.countRenamedDeletedTasks(this.mEngineProjectId));
+    }
+
+    /**
+     * Returns the number of renamed tasks of a project in the trash
+     * @param projectId an integer that contains the id of the project
+     * @return an integer
+     */
+    private int countRenamedDeletedTasks(final long projectId) {
+        try (Cursor cursor = this.mDatabase.query("SELECT COUNT(*) FROM `task` WHERE `project_id` = ? " +
+                                                  "AND `name` LIKE 'Renamed %' AND `deleted_at` IS NOT NULL",
+                                                  new Object[] {projectId})) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+
+    /**
+     * Inserts, renames then moves to the trash rows through {@link TaskDao} and through
+     * {@link TaskWriteEngine}, one row of each path in turn, the first path alternating by row
+     * @param rows an integer that contains the number of rows by path
+     * @return an array of 2 arrays (TaskDao then TaskWriteEngine) of 3 integers:
+     *         the nanoseconds of the insertions, renames and soft deletes
+     */
+    private long[][] runInterleaved(final int rows) {
+        final long[] daoTaskIds = new long[rows];
+        final long[] engineTaskIds = new long[rows];
+        final long[][] durations = new long[2][3];
+
+        for (int i = 0; i < rows; i++) {
+            final int row = i;
+            this.runInTurn(row, durations, 0,
+                           () -> daoTaskIds[row] = this.mTaskDao.insertTask(new Task(this.mDaoProjectId, "Task " + row, row)),
+                           () -> engineTaskIds[row] = this.mWriteEngine.insertTask(this.mEngineProjectId, "Task " + row, row));
+        }
+
+        for (int i = 0; i < rows; i++) {
+            final int row = i;
+            this.runInTurn(row, durations, 1,
+                           () -> this.mTaskDao.updateTaskName(daoTaskIds[row], "Renamed " + row),
+                           () -> this.mWriteEngine.updateTaskName(engineTaskIds[row], "Renamed " + row));
+        }
+
+        for (int i = 0; i < rows; i++) {
+            final int row = i;
+            this.runInTurn(row, durations, 2,
+                           () -> this.mTaskDao.softDeleteTaskById(daoTaskIds[row], row),
+                           () -> this.mWriteEngine.softDeleteTaskById(engineTaskIds[row], row));
+        }
+
+        return durations;
+    }
+
+    /**
+     * Runs a write of each path, the one of {@link TaskDao} first on the even rows,
+     * and adds their nanoseconds to the durations of their path
+     * @param row       an integer that contains the index of the row
+     * @param durations an array of 2 arrays (TaskDao then TaskWriteEngine) of integers
+     * @param operation an integer that contains the index of the operation in the durations
+     * @param dao       a {@link Runnable} that contains the write through {@link TaskDao}
+     * @param engine    a {@link Runnable} that contains the write through {@link TaskWriteEngine}
+     */
+    private void runInTurn(final int row,
+                           final long[][] durations,
+                           final int operation,
+                           final Runnable dao,
+                           final Runnable engine) {
+        if (row % 2 == 0) {
+            durations[0][operation] += this.time(dao);
+            durations[1][operation] += this.time(engine);
+        }
+        else {
+            durations[1][operation] += this.time(engine);
+            durations[0][operation] += this.time(dao);
+        }
+    }
+
+    /**
+     * Returns the nanoseconds of a write
+     * @param write a {@link Runnable} that contains the write
+     * @return an integer
+     */
+    private long time(final Runnable write) {
+        final long start = System.nanoTime();
+        write.run();
+        return System.nanoTime() - start;
+    }
+}